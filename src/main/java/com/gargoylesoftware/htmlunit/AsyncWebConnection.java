@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link WebConnection} that is able to retrieve responses without blocking the calling thread.
+ * The default implementation is only an executor adapter: it runs the blocking
+ * {@link #getResponse(WebRequest)} on the given executor, occupying one of its threads
+ * until the response is complete. Implementations doing non-blocking I/O override it.
+ *
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public interface AsyncWebConnection extends WebConnection {
+
+    /**
+     * Submits a request and returns immediately. The returned future is completed
+     * with the response or completed exceptionally with the {@link java.io.IOException}
+     * that occurred.
+     * The default implementation calls {@link #getResponse(WebRequest)} using the executor.
+     * @param request the request
+     * @param executor the executor to be used if the implementation has to do some blocking work;
+     *        implementations doing non-blocking I/O are free to ignore it
+     * @return the future response to the request
+     */
+    default CompletableFuture<WebResponse> getResponseAsync(final WebRequest request, final Executor executor) {
+        final CompletableFuture<WebResponse> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(getResponse(request));
+            }
+            catch (final Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -14,14 +14,22 @@
  */
 package com.gargoylesoftware.htmlunit;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.cookie.CookieOrigin;
@@ -35,6 +43,12 @@ import com.gargoylesoftware.htmlunit.util.UrlUtils;
  * You can disable Cookies by calling setCookiesEnabled(false). The
  * CookieManager itself takes care of this and ignores all cookie request if
  * disabled. If you override this your methods have to do the same.
+ * <p>
+ * Cookies are indexed by domain, so that looking up the cookies of a host
+ * only has to inspect the cookies of the host itself and of its parent domains.
+ * Lookups are lock free; expired cookies are removed lazily using a queue
+ * ordered by expiration date. A single instance can be shared between
+ * several {@link WebClient}s.
  *
  * @author Daniel Gredler
  * @author Ahmed Ashour
@@ -43,24 +57,62 @@ import com.gargoylesoftware.htmlunit.util.UrlUtils;
  */
 public class CookieManager implements Serializable {
 
+    private static final IndexedCookie[] EMPTY = new IndexedCookie[0];
+
+    private static final Comparator<IndexedCookie> BY_SEQUENCE
+        = (c1, c2) -> Long.compare(c1.sequence_, c2.sequence_);
+
     /** Whether or not cookies are enabled. */
-    private boolean cookiesEnabled_;
+    private volatile boolean cookiesEnabled_;
 
     /** The cookies added to this cookie manager. */
     private final Set<Cookie> cookies_ = new LinkedHashSet<>();
 
+    /** The cookies grouped by their (normalized) domain; the arrays are never modified. */
+    private transient ConcurrentHashMap<String, IndexedCookie[]> domainIndex_;
+
+    /** The cookies having an expiration date, the one expiring first at the head. */
+    private transient PriorityQueue<IndexedCookie> expirationQueue_;
+
+    /** The expiration time of the head of the expiration queue. */
+    private transient volatile long nextExpiration_;
+
+    /** Cached result of {@link #getCookies()}, reset on every modification. */
+    private transient volatile Set<Cookie> cookiesSnapshot_;
+
+    private transient long sequence_;
+
+    /** Whether a subclass keeps the cookies itself; the index is not used in this case. */
+    private final boolean getCookiesOverridden_;
+
     /**
      * Creates a new instance.
      */
     public CookieManager() {
         cookiesEnabled_ = true;
+        try {
+            getCookiesOverridden_ = getClass().getMethod("getCookies").getDeclaringClass() != CookieManager.class;
+        }
+        catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        initIndex();
+    }
+
+    private void initIndex() {
+        domainIndex_ = new ConcurrentHashMap<>();
+        expirationQueue_ = new PriorityQueue<>(11, Comparator.comparingLong(c -> c.expires_));
+        nextExpiration_ = Long.MAX_VALUE;
+        for (final Cookie cookie : cookies_) {
+            index(cookie);
+        }
     }
 
     /**
      * Enables/disables cookie support. Cookies are enabled by default.
      * @param enabled {@code true} to enable cookie support, {@code false} otherwise
      */
-    public synchronized void setCookiesEnabled(final boolean enabled) {
+    public void setCookiesEnabled(final boolean enabled) {
         cookiesEnabled_ = enabled;
     }
 
@@ -68,7 +120,7 @@ public class CookieManager implements Serializable {
      * Returns {@code true} if cookies are enabled. Cookies are enabled by default.
      * @return {@code true} if cookies are enabled, {@code false} otherwise
      */
-    public synchronized boolean isCookiesEnabled() {
+    public boolean isCookiesEnabled() {
         return cookiesEnabled_;
     }
 
@@ -77,14 +129,76 @@ public class CookieManager implements Serializable {
      * If disabled, this returns an empty set.
      * @return the currently configured cookies, in an unmodifiable set
      */
-    public synchronized Set<Cookie> getCookies() {
+    public Set<Cookie> getCookies() {
         if (!isCookiesEnabled()) {
             return Collections.<Cookie>emptySet();
         }
 
-        final Set<Cookie> copy = new LinkedHashSet<>();
-        copy.addAll(cookies_);
-        return Collections.unmodifiableSet(copy);
+        Set<Cookie> snapshot = cookiesSnapshot_;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = cookiesSnapshot_;
+                if (snapshot == null) {
+                    snapshot = Collections.unmodifiableSet(new LinkedHashSet<>(cookies_));
+                    cookiesSnapshot_ = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the cookies whose domain is the specified host or one of its parent domains,
+     * in the order they were added. The returned cookies are not yet checked against
+     * the path, port or security constraints and not yet checked for expiration.
+     * If disabled, this returns an empty list.
+     * This method does not block, unless a subclass overrides {@link #getCookies()}; the
+     * cookies returned by the overridden method are filtered in this case.
+     * @param host the host of the url the cookies are requested for
+     * @return the candidate cookies
+     */
+    public List<Cookie> getDomainCookies(final String host) {
+        if (!isCookiesEnabled() || host == null || host.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final String lowerHost = host.toLowerCase(Locale.ROOT);
+        if (getCookiesOverridden_) {
+            final List<Cookie> result = new ArrayList<>();
+            for (final Cookie cookie : getCookies()) {
+                final String key = indexKey(cookie.getDomain());
+                if (!key.isEmpty() && (lowerHost.equals(key) || lowerHost.endsWith('.' + key))) {
+                    result.add(cookie);
+                }
+            }
+            return result;
+        }
+
+        final List<IndexedCookie> found = new ArrayList<>();
+        String domain = lowerHost;
+        while (true) {
+            final IndexedCookie[] bucket = domainIndex_.get(domain);
+            if (bucket != null) {
+                Collections.addAll(found, bucket);
+            }
+            final int dotIndex = domain.indexOf('.');
+            if (dotIndex < 0 || dotIndex == domain.length() - 1) {
+                break;
+            }
+            domain = domain.substring(dotIndex + 1);
+        }
+
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (found.size() > 1) {
+            found.sort(BY_SEQUENCE);
+        }
+        final List<Cookie> result = new ArrayList<>(found.size());
+        for (final IndexedCookie indexed : found) {
+            result.add(indexed.cookie_);
+        }
+        return result;
     }
 
     /**
@@ -108,7 +222,7 @@ public class CookieManager implements Serializable {
      * @param date the date to use for comparison when clearing expired cookies
      * @return whether any cookies were found expired, and were cleared
      */
-    public synchronized boolean clearExpired(final Date date) {
+    public boolean clearExpired(final Date date) {
         if (!isCookiesEnabled()) {
             return false;
         }
@@ -117,15 +231,30 @@ public class CookieManager implements Serializable {
             return false;
         }
 
-        boolean foundExpired = false;
-        for (final Iterator<Cookie> iter = cookies_.iterator(); iter.hasNext();) {
-            final Cookie cookie = iter.next();
-            if (cookie.getExpires() != null && date.after(cookie.getExpires())) {
-                iter.remove();
-                foundExpired = true;
+        // fast path without locking; nothing to do until the first cookie expires
+        final long time = date.getTime();
+        if (time <= nextExpiration_) {
+            return false;
+        }
+
+        synchronized (this) {
+            boolean foundExpired = false;
+            IndexedCookie head = expirationQueue_.peek();
+            while (head != null && time > head.expires_) {
+                expirationQueue_.poll();
+                if (!head.removed_) {
+                    cookies_.remove(head.cookie_);
+                    unindex(head.cookie_);
+                    foundExpired = true;
+                }
+                head = expirationQueue_.peek();
+            }
+            updateNextExpiration();
+            if (foundExpired) {
+                cookiesSnapshot_ = null;
             }
+            return foundExpired;
         }
-        return foundExpired;
     }
 
     /**
@@ -195,12 +324,16 @@ public class CookieManager implements Serializable {
             return;
         }
 
-        cookies_.remove(cookie);
+        if (cookies_.remove(cookie)) {
+            unindex(cookie);
+        }
 
         // don't add expired cookie
         if (cookie.getExpires() == null || cookie.getExpires().after(new Date())) {
             cookies_.add(cookie);
+            index(cookie);
         }
+        cookiesSnapshot_ = null;
     }
 
     /**
@@ -213,7 +346,10 @@ public class CookieManager implements Serializable {
             return;
         }
 
-        cookies_.remove(cookie);
+        if (cookies_.remove(cookie)) {
+            unindex(cookie);
+            cookiesSnapshot_ = null;
+        }
     }
 
     /**
@@ -226,5 +362,106 @@ public class CookieManager implements Serializable {
         }
 
         cookies_.clear();
+        for (final IndexedCookie[] bucket : domainIndex_.values()) {
+            for (final IndexedCookie indexed : bucket) {
+                indexed.removed_ = true;
+            }
+        }
+        domainIndex_.clear();
+        expirationQueue_.clear();
+        nextExpiration_ = Long.MAX_VALUE;
+        cookiesSnapshot_ = null;
+    }
+
+    /**
+     * Returns the key used to index the cookies of the given domain.
+     * @param domain the cookie domain
+     * @return the normalized domain
+     */
+    private static String indexKey(final String domain) {
+        if (domain == null) {
+            return "";
+        }
+        int start = 0;
+        while (start < domain.length() && domain.charAt(start) == '.') {
+            start++;
+        }
+        return domain.substring(start).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds the cookie to the domain index and the expiration queue.
+     * Has to be called while holding the lock.
+     */
+    private void index(final Cookie cookie) {
+        final Date expires = cookie.getExpires();
+        final IndexedCookie indexed = new IndexedCookie(cookie, sequence_++,
+                expires == null ? Long.MAX_VALUE : expires.getTime());
+
+        final String key = indexKey(cookie.getDomain());
+        final IndexedCookie[] bucket = domainIndex_.getOrDefault(key, EMPTY);
+        final IndexedCookie[] newBucket = Arrays.copyOf(bucket, bucket.length + 1);
+        newBucket[bucket.length] = indexed;
+        domainIndex_.put(key, newBucket);
+
+        if (expires != null) {
+            expirationQueue_.add(indexed);
+            updateNextExpiration();
+        }
+    }
+
+    /**
+     * Removes the cookie from the domain index; the entry in the expiration queue is only
+     * marked as removed and dropped later.
+     * Has to be called while holding the lock.
+     */
+    private void unindex(final Cookie cookie) {
+        final String key = indexKey(cookie.getDomain());
+        final IndexedCookie[] bucket = domainIndex_.get(key);
+        if (bucket == null) {
+            return;
+        }
+
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i].cookie_.equals(cookie)) {
+                bucket[i].removed_ = true;
+                if (bucket.length == 1) {
+                    domainIndex_.remove(key);
+                }
+                else {
+                    final IndexedCookie[] newBucket = new IndexedCookie[bucket.length - 1];
+                    System.arraycopy(bucket, 0, newBucket, 0, i);
+                    System.arraycopy(bucket, i + 1, newBucket, i, bucket.length - i - 1);
+                    domainIndex_.put(key, newBucket);
+                }
+                return;
+            }
+        }
+    }
+
+    private void updateNextExpiration() {
+        final IndexedCookie head = expirationQueue_.peek();
+        nextExpiration_ = head == null ? Long.MAX_VALUE : head.expires_;
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initIndex();
+    }
+
+    /**
+     * Entry of the domain index.
+     */
+    private static final class IndexedCookie {
+        private final Cookie cookie_;
+        private final long sequence_;
+        private final long expires_;
+        private boolean removed_;
+
+        IndexedCookie(final Cookie cookie, final long sequence, final long expires) {
+            cookie_ = cookie;
+            sequence_ = sequence;
+            expires_ = expires;
+        }
     }
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -101,6 +102,19 @@ public interface DownloadedContent extends Serializable {
             return false;
         }
 
+        /**
+         * Returns a copy of this content in a new temporary file, which is deleted when
+         * the copy is cleaned up.
+         * @return the copy
+         * @throws IOException in case of problem accessing the content
+         */
+        OnFile copy() throws IOException {
+            final File file = File.createTempFile("htmlunit", ".tmp");
+            file.deleteOnExit();
+            Files.copy(file_.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return new OnFile(file, true);
+        }
+
         @Override
         protected void finalize() throws Throwable {
             super.finalize();
@@ -62,17 +62,26 @@ public class History implements Serializable {
      */
     private static final class HistoryEntry implements Serializable {
         private transient SoftReference<Page> page_;
+        private transient HistoryPageCache.Slot slot_;
+        private transient HistoryPageCache cache_;
         private final WebRequest webRequest_;
         private Object state_;
 
-        HistoryEntry(final Page page) {
+        HistoryEntry(final Page page, final WebWindow window) {
 
             // verify cache-control header values before storing
             if (HeaderUtils.containsNoStore(page.getWebResponse())) {
                 page_ = null;
             }
             else {
-                page_ = new SoftReference<>(page);
+                final WebClient webClient = window.getWebClient();
+                if (webClient.getOptions().getHistoryPageCacheMemoryLimit() > 0) {
+                    cache_ = webClient.getHistoryPageCache();
+                    slot_ = cache_.add(window, page);
+                }
+                else {
+                    page_ = new SoftReference<>(page);
+                }
             }
 
             final WebRequest request = page.getWebResponse().getWebRequest();
@@ -81,6 +90,9 @@ public class History implements Serializable {
         }
 
         Page getPage() {
+            if (slot_ != null) {
+                return cache_.get(slot_);
+            }
             if (page_ == null) {
                 return null;
             }
@@ -89,6 +101,10 @@ public class History implements Serializable {
 
         void clearPage() {
             page_ = null;
+            if (slot_ != null) {
+                cache_.remove(slot_);
+                slot_ = null;
+            }
         }
 
         WebRequest getWebRequest() {
@@ -224,7 +240,7 @@ public class History implements Serializable {
      */
     public void removeCurrent() {
         if (index_ >= 0 && index_ < entries_.size()) {
-            entries_.remove(index_);
+            entries_.remove(index_).clearPage();
             if (index_ > 0) {
                 index_--;
             }
@@ -244,6 +260,9 @@ public class History implements Serializable {
 
         final int sizeLimit = window_.getWebClient().getOptions().getHistorySizeLimit();
         if (sizeLimit <= 0) {
+            for (final HistoryEntry entry : entries_) {
+                entry.clearPage();
+            }
             entries_.clear();
             index_ = -1;
             return null;
@@ -251,14 +270,14 @@ public class History implements Serializable {
 
         index_++;
         while (entries_.size() > index_) {
-            entries_.remove(index_);
+            entries_.remove(index_).clearPage();
         }
         while (entries_.size() >= sizeLimit) {
-            entries_.remove(0);
+            entries_.remove(0).clearPage();
             index_--;
         }
 
-        final HistoryEntry entry = new HistoryEntry(page);
+        final HistoryEntry entry = new HistoryEntry(page, window_);
         entries_.add(entry);
 
         final int cacheLimit = Math.max(window_.getWebClient().getOptions().getHistoryPageCacheLimit(), 0);
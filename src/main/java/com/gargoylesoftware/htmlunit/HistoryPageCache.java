@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.gargoylesoftware.htmlunit.html.DomCharacterData;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+
+/**
+ * The back/forward cache shared by the {@link History} of all windows of a {@link WebClient}.
+ * The pages are kept with strong references as long as the sum of their estimated sizes fits into
+ * {@link WebClientOptions#getHistoryPageCacheMemoryLimit()}; if the budget is exceeded the least
+ * recently used pages are evicted. If {@link WebClientOptions#isHistoryPageCacheCompression()}
+ * is enabled, the evicted pages of top level windows are first kept in a compressed serialized form,
+ * unless they have a JavaScript scope. Pages evicted completely are reloaded when navigating to them.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class HistoryPageCache {
+
+    private static final Log LOG = LogFactory.getLog(HistoryPageCache.class);
+
+    /** Rough size of a node including its JavaScript object. */
+    private static final int NODE_SIZE = 256;
+    /** Rough size of an attribute. */
+    private static final int ATTRIBUTE_SIZE = 96;
+
+    private final WebClient webClient_;
+
+    /** The slots, least recently used first. */
+    private final LinkedHashSet<Slot> slots_ = new LinkedHashSet<>();
+    private long size_;
+
+    /**
+     * A cached page (or its compressed form) of a history entry.
+     */
+    static final class Slot {
+        private final WebWindow window_;
+        private Page page_;
+        private byte[] compressed_;
+        /** The objects that stay alive referenced by the compressed form. */
+        private List<Object> liveObjects_;
+        private long size_;
+
+        Slot(final WebWindow window, final Page page) {
+            window_ = window;
+            page_ = page;
+            size_ = estimateSize(page);
+        }
+    }
+
+    HistoryPageCache(final WebClient webClient) {
+        webClient_ = webClient;
+    }
+
+    /**
+     * Adds the page to the cache.
+     * @param window the window the page belongs to
+     * @param page the page
+     * @return the slot to use for later access
+     */
+    synchronized Slot add(final WebWindow window, final Page page) {
+        final Slot slot = new Slot(window, page);
+        slots_.add(slot);
+        size_ += slot.size_;
+        evict();
+        return slot;
+    }
+
+    /**
+     * Returns the page of the slot, restoring it from the compressed form if needed.
+     * @param slot the slot
+     * @return the page or {@code null} if the page was evicted
+     */
+    synchronized Page get(final Slot slot) {
+        if (!slots_.remove(slot)) {
+            return null;
+        }
+
+        if (slot.page_ == null) {
+            final long compressedSize = slot.size_;
+            slot.page_ = restore(slot);
+            slot.compressed_ = null;
+            slot.liveObjects_ = null;
+            size_ -= compressedSize;
+            if (slot.page_ == null) {
+                return null;
+            }
+            slot.size_ = estimateSize(slot.page_);
+            size_ += slot.size_;
+        }
+
+        // most recently used now
+        slots_.add(slot);
+        final Page page = slot.page_;
+        evict();
+        return page;
+    }
+
+    /**
+     * Removes the slot from the cache.
+     * @param slot the slot
+     */
+    synchronized void remove(final Slot slot) {
+        if (slots_.remove(slot)) {
+            size_ -= slot.size_;
+            slot.page_ = null;
+            slot.compressed_ = null;
+            slot.liveObjects_ = null;
+        }
+    }
+
+    /**
+     * Returns the estimated size of all cached pages.
+     * @return the size in bytes
+     */
+    synchronized long getSize() {
+        return size_;
+    }
+
+    private void evict() {
+        final long limit = webClient_.getOptions().getHistoryPageCacheMemoryLimit();
+        final Iterator<Slot> iterator = slots_.iterator();
+        while (size_ > limit && iterator.hasNext()) {
+            final Slot slot = iterator.next();
+            if (slot.page_ != null && slot.window_.getEnclosedPage() == slot.page_) {
+                // the page is displayed
+                continue;
+            }
+
+            size_ -= slot.size_;
+            if (slot.page_ != null
+                    && webClient_.getOptions().isHistoryPageCacheCompression()
+                    && slot.window_ instanceof TopLevelWindow
+                    && !hasJavaScriptScope(slot.page_)) {
+                slot.compressed_ = compress(slot);
+                slot.page_ = null;
+                if (slot.compressed_ != null) {
+                    slot.size_ = slot.compressed_.length;
+                    size_ += slot.size_;
+                    continue;
+                }
+            }
+
+            slot.page_ = null;
+            slot.compressed_ = null;
+            slot.liveObjects_ = null;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * The nodes of a page with a JavaScript scope are bound to that scope (and the event handlers
+     * to its functions); a restored copy would be bound to a stale copy of it. Such pages are
+     * therefore not compressed.
+     */
+    private boolean hasJavaScriptScope(final Page page) {
+        return page instanceof SgmlPage && webClient_.isJavaScriptEngineEnabled();
+    }
+
+    private byte[] compress(final Slot slot) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final List<Object> liveObjects = new ArrayList<>();
+        try (ObjectOutputStream out = new LiveObjectOutputStream(new GZIPOutputStream(bytes), liveObjects)) {
+            out.writeObject(slot.page_);
+        }
+        catch (final IOException | RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Page '" + slot.page_.getUrl() + "' can't be serialized, evicting it", e);
+            }
+            return null;
+        }
+        slot.liveObjects_ = liveObjects;
+        return bytes.toByteArray();
+    }
+
+    private Page restore(final Slot slot) {
+        try (ObjectInputStream in = new LiveObjectInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(slot.compressed_)), slot.liveObjects_)) {
+            return (Page) in.readObject();
+        }
+        catch (final IOException | ClassNotFoundException | RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Page can't be restored, reloading it", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Estimates the memory retained by the page.
+     * @param page the page
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(final Page page) {
+        long size = page.getWebResponse().getContentLength();
+        if (page instanceof DomNode) {
+            for (final DomNode node : ((DomNode) page).getDescendants()) {
+                size += NODE_SIZE;
+                if (node instanceof DomCharacterData) {
+                    size += 2L * ((DomCharacterData) node).getData().length();
+                }
+                else if (node instanceof DomElement) {
+                    size += ATTRIBUTE_SIZE * ((DomElement) node).getAttributesMap().size();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Placeholder for an object that stays alive (the client and its top level windows);
+     * the index of the object in the live objects of the slot.
+     */
+    private static final class LiveReference implements Serializable {
+        private final int index_;
+
+        LiveReference(final int index) {
+            index_ = index;
+        }
+    }
+
+    private final class LiveObjectOutputStream extends ObjectOutputStream {
+        private final List<Object> liveObjects_;
+        private final Map<Object, LiveReference> references_ = new IdentityHashMap<>();
+
+        LiveObjectOutputStream(final OutputStream out, final List<Object> liveObjects) throws IOException {
+            super(out);
+            liveObjects_ = liveObjects;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) throws IOException {
+            if (obj == webClient_ || obj instanceof TopLevelWindow) {
+                LiveReference reference = references_.get(obj);
+                if (reference == null) {
+                    if (obj != webClient_ && ((TopLevelWindow) obj).isClosed()) {
+                        throw new IOException("Reference to closed window");
+                    }
+                    liveObjects_.add(obj);
+                    reference = new LiveReference(liveObjects_.size() - 1);
+                    references_.put(obj, reference);
+                }
+                return reference;
+            }
+            return obj;
+        }
+    }
+
+    private final class LiveObjectInputStream extends ObjectInputStream {
+        private final List<Object> liveObjects_;
+
+        LiveObjectInputStream(final InputStream in, final List<Object> liveObjects) throws IOException {
+            super(in);
+            liveObjects_ = liveObjects;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj instanceof LiveReference) {
+                final Object live = liveObjects_.get(((LiveReference) obj).index_);
+                if (live instanceof TopLevelWindow && ((TopLevelWindow) live).isClosed()) {
+                    throw new IOException("Referenced window was closed");
+                }
+                return live;
+            }
+            return obj;
+        }
+    }
+}
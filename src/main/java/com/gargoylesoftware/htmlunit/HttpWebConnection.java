@@ -32,9 +32,9 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HostnameVerifier;
@@ -94,7 +94,9 @@ import org.apache.http.conn.util.PublicSuffixMatcherLoader;
 import org.apache.http.cookie.CookieSpecProvider;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.mime.MIME;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.AbstractContentBody;
 import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -133,15 +135,21 @@ import com.gargoylesoftware.htmlunit.util.UrlUtils;
  * @author Carsten Steul
  * @author Hartmut Arlt
  */
-public class HttpWebConnection implements WebConnection {
+public class HttpWebConnection implements AsyncWebConnection {
 
     private static final Log LOG = LogFactory.getLog(HttpWebConnection.class);
 
     private static final String HACKED_COOKIE_POLICY = "mine";
 
-    // have one per thread because this is (re)configured for every call (see configureHttpProcessorBuilder)
-    // do not use a ThreadLocal because this in only accessed form this class
-    private final Map<Thread, HttpClientBuilder> httpClientBuilder_ = new WeakHashMap<>();
+    /** Context attribute holding the request specific interceptors. */
+    private static final String REQUEST_INTERCEPTORS = "htmlunit.request-interceptors";
+
+    // the builder is only modified while holding the lock;
+    // everything request specific is passed using the HttpClientContext
+    private HttpClientBuilder httpClientBuilder_;
+
+    /** The client built for the current configuration; rebuilt if the configuration changes. */
+    private volatile CloseableHttpClient httpClient_;
     private final WebClient webClient_;
 
     private String virtualHost_;
@@ -152,8 +160,8 @@ public class HttpWebConnection implements WebConnection {
     /** Authentication cache shared among all threads of a web client. */
     private final AuthCache sharedAuthCache_ = new SynchronizedAuthCache();
 
-    /** Maintains a separate {@link HttpClientContext} object per HttpWebConnection and thread. */
-    private final Map<Thread, HttpClientContext> httpClientContextByThread_ = new WeakHashMap<>();
+    /** The user token (connection state) of the last request, shared among all threads of a web client. */
+    private volatile Object userToken_;
 
     /**
      * Creates a new HTTP web connection instance.
@@ -170,12 +178,13 @@ public class HttpWebConnection implements WebConnection {
      */
     @Override
     public WebResponse getResponse(final WebRequest request) throws IOException {
-        final HttpClientBuilder builder = reconfigureHttpClientIfNeeded(getHttpClientBuilder());
+        final CloseableHttpClient httpClient = getHttpClient();
+        final HttpClientContext httpContext = createHttpContext();
 
         HttpUriRequest httpMethod = null;
         try {
             try {
-                httpMethod = makeHttpMethod(request, builder);
+                httpMethod = makeHttpMethod(request, httpContext);
             }
             catch (final URISyntaxException e) {
                 throw new IOException("Unable to create URI from URL: " + request.getUrl().toExternalForm()
@@ -186,20 +195,15 @@ public class HttpWebConnection implements WebConnection {
             final HttpHost httpHost = new HttpHost(url.getHost(), url.getPort(), url.getProtocol());
             final long startTime = System.currentTimeMillis();
 
-            final HttpContext httpContext = getHttpContext();
             HttpResponse httpResponse = null;
             try {
-                try (CloseableHttpClient closeableHttpClient = builder.build()) {
-                    httpResponse = closeableHttpClient.execute(httpHost, httpMethod, httpContext);
-                }
+                httpResponse = httpClient.execute(httpHost, httpMethod, httpContext);
             }
             catch (final SSLPeerUnverifiedException s) {
                 // Try to use only SSLv3 instead
                 if (webClient_.getOptions().isUseInsecureSSL()) {
                     HtmlUnitSSLConnectionSocketFactory.setUseSSL3Only(httpContext, true);
-                    try (CloseableHttpClient closeableHttpClient = builder.build()) {
-                        httpResponse = closeableHttpClient.execute(httpHost, httpMethod, httpContext);
-                    }
+                    httpResponse = httpClient.execute(httpHost, httpMethod, httpContext);
                 }
                 else {
                     throw s;
@@ -210,13 +214,22 @@ public class HttpWebConnection implements WebConnection {
                 // Calling code may catch the StackOverflowError, but due to the leak, the httpClient_ may
                 // come out of connections and throw a ConnectionPoolTimeoutException.
                 // => best solution, discard the HttpClient instance.
-                httpClientBuilder_.remove(Thread.currentThread());
+                discardHttpClient(httpClient);
                 throw e;
             }
 
+            final long headersTime = System.currentTimeMillis();
+
+            final Object userToken = httpContext.getUserToken();
+            if (userToken != null) {
+                userToken_ = userToken;
+            }
+
             final DownloadedContent downloadedBody = downloadResponseBody(httpResponse);
             final long endTime = System.currentTimeMillis();
-            return makeWebResponse(httpResponse, request, downloadedBody, endTime - startTime);
+            final WebResponse webResponse = makeWebResponse(httpResponse, request, downloadedBody, endTime - startTime);
+            webResponse.setTimeToFirstByte(headersTime - startTime);
+            return webResponse;
         }
         finally {
             if (httpMethod != null) {
@@ -234,22 +247,52 @@ public class HttpWebConnection implements WebConnection {
     }
 
     /**
-     * Returns the {@link HttpClientContext} for the current thread. Creates a new one if necessary.
+     * Creates a new {@link HttpClientContext} for a single request.
+     * All state shared between the requests (authentication cache, cookies,
+     * connection state) is attached to the new context.
      */
-    private synchronized HttpContext getHttpContext() {
-        HttpClientContext httpClientContext = httpClientContextByThread_.get(Thread.currentThread());
-        if (httpClientContext == null) {
-            httpClientContext = new HttpClientContext();
+    private HttpClientContext createHttpContext() {
+        final HttpClientContext httpClientContext = HttpClientContext.create();
 
-            // set the shared authentication cache
-            httpClientContext.setAttribute(HttpClientContext.AUTH_CACHE, sharedAuthCache_);
+        // set the shared authentication cache
+        httpClientContext.setAttribute(HttpClientContext.AUTH_CACHE, sharedAuthCache_);
+        httpClientContext.setCookieStore(new HtmlUnitCookieStore(webClient_.getCookieManager()));
 
-            httpClientContextByThread_.put(Thread.currentThread(), httpClientContext);
+        final Object userToken = userToken_;
+        if (userToken != null) {
+            httpClientContext.setUserToken(userToken);
         }
         return httpClientContext;
     }
 
-    private void setProxy(final HttpRequestBase httpRequest, final WebRequest webRequest) {
+    /**
+     * Returns the client for the current configuration. The client is shared
+     * by all threads; it is rebuilt only if the configuration of the web client has changed.
+     */
+    private CloseableHttpClient getHttpClient() {
+        CloseableHttpClient httpClient = httpClient_;
+        if (httpClient != null && !isReconfigurationNeeded()) {
+            return httpClient;
+        }
+
+        synchronized (this) {
+            httpClient = httpClient_;
+            if (httpClient == null || isReconfigurationNeeded()) {
+                httpClient = reconfigureHttpClientIfNeeded(getHttpClientBuilder()).build();
+                httpClient_ = httpClient;
+            }
+            return httpClient;
+        }
+    }
+
+    private synchronized void discardHttpClient(final CloseableHttpClient httpClient) {
+        if (httpClient_ == httpClient) {
+            httpClient_ = null;
+        }
+    }
+
+    private void setProxy(final HttpRequestBase httpRequest, final WebRequest webRequest,
+            final HttpContext httpContext) {
         final InetAddress localAddress = webClient_.getOptions().getLocalAddress();
         final RequestConfig.Builder requestBuilder = createRequestConfigBuilder(getTimeout(), localAddress);
 
@@ -260,7 +303,7 @@ public class HttpWebConnection implements WebConnection {
         else {
             final HttpHost proxy = new HttpHost(webRequest.getProxyHost(), webRequest.getProxyPort());
             if (webRequest.isSocksProxy()) {
-                SocksConnectionSocketFactory.setSocksProxy(getHttpContext(), proxy);
+                SocksConnectionSocketFactory.setSocksProxy(httpContext, proxy);
             }
             else {
                 requestBuilder.setProxy(proxy);
@@ -272,15 +315,14 @@ public class HttpWebConnection implements WebConnection {
     /**
      * Creates an <tt>HttpMethod</tt> instance according to the specified parameters.
      * @param webRequest the request
-     * @param httpClientBuilder the httpClientBuilder that will be configured
+     * @param httpContext the context of this request, that will be configured
      * @return the <tt>HttpMethod</tt> instance constructed according to the specified parameters
      * @throws IOException
      * @throws URISyntaxException
      */
-    private HttpUriRequest makeHttpMethod(final WebRequest webRequest, final HttpClientBuilder httpClientBuilder)
+    private HttpUriRequest makeHttpMethod(final WebRequest webRequest, final HttpClientContext httpContext)
         throws URISyntaxException {
 
-        final HttpContext httpContext = getHttpContext();
         final Charset charset = webRequest.getCharset();
         // Make sure that the URL is fully encoded. IE actually sends some Unicode chars in request
         // URLs; because of this we allow some Unicode chars in URLs. However, at this point we're
@@ -293,7 +335,7 @@ public class HttpWebConnection implements WebConnection {
             uri = URI.create(getVirtualHost());
         }
         final HttpRequestBase httpMethod = buildHttpMethod(webRequest.getHttpMethod(), uri);
-        setProxy(httpMethod, webRequest);
+        setProxy(httpMethod, webRequest, httpContext);
 
         if (httpMethod instanceof HttpEntityEnclosingRequest) {
             // POST as well as PUT and PATCH
@@ -380,7 +422,7 @@ public class HttpWebConnection implements WebConnection {
             }
         }
 
-        configureHttpProcessorBuilder(httpClientBuilder, webRequest);
+        httpContext.setAttribute(REQUEST_INTERCEPTORS, getHttpRequestInterceptors(webRequest));
 
         // Tell the client where to get its credentials from
         // (it may have changed on the webClient since last call to getHttpClientFor(...))
@@ -404,9 +446,7 @@ public class HttpWebConnection implements WebConnection {
             // updating our client to keep the credentials for the next request
             credentialsProvider.setCredentials(authScope, requestCredentials);
         }
-        httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
-        httpContext.removeAttribute(HttpClientContext.CREDS_PROVIDER);
-        httpContext.removeAttribute(HttpClientContext.TARGET_AUTH_STATE);
+        httpContext.setCredentialsProvider(credentialsProvider);
         return httpMethod;
     }
 
@@ -421,8 +461,14 @@ public class HttpWebConnection implements WebConnection {
         for (final NameValuePair pair : pairs) {
             if (pair instanceof KeyDataPair) {
                 final KeyDataPair pairWithFile = (KeyDataPair) pair;
+                String fileName = null;
                 if (pairWithFile.getData() == null && pairWithFile.getFile() != null) {
-                    final String fileName = pairWithFile.getFile().getName();
+                    fileName = pairWithFile.getFile().getName();
+                }
+                else if (pairWithFile.getData() == null && pairWithFile.getDataSupplier() != null) {
+                    fileName = pairWithFile.getFileName();
+                }
+                if (fileName != null) {
                     for (int i = 0; i < fileName.length(); i++) {
                         if (fileName.codePointAt(i) > 127) {
                             return charset;
@@ -460,6 +506,43 @@ public class HttpWebConnection implements WebConnection {
             return;
         }
 
+        final KeyDataPair.DataSupplier dataSupplier = pairWithFile.getDataSupplier();
+        if (dataSupplier != null) {
+            final String filename;
+            if (pairWithFile.getFileName() == null) {
+                filename = pairWithFile.getValue();
+            }
+            else {
+                filename = pairWithFile.getFileName();
+            }
+
+            // streamed into the body, the content is never copied to memory
+            builder.addPart(pairWithFile.getName(), new AbstractContentBody(contentType) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+
+                @Override
+                public String getTransferEncoding() {
+                    return MIME.ENC_BINARY;
+                }
+
+                @Override
+                public long getContentLength() {
+                    return dataSupplier.length();
+                }
+
+                @Override
+                public void writeTo(final OutputStream out) throws IOException {
+                    try (InputStream in = dataSupplier.open()) {
+                        IOUtils.copy(in, out);
+                    }
+                }
+            });
+            return;
+        }
+
         if (file == null) {
             builder.addPart(pairWithFile.getName(),
                     // Overridden in order not to have a chunked response.
@@ -533,13 +616,14 @@ public class HttpWebConnection implements WebConnection {
     }
 
     /**
-     * Lazily initializes the internal HTTP client.
+     * Lazily initializes the internal HTTP client builder.
+     * The builder is shared by all threads; it is only used to (re)build the client
+     * if the configuration has changed.
      *
-     * @return the initialized HTTP client
+     * @return the initialized HTTP client builder
      */
-    protected HttpClientBuilder getHttpClientBuilder() {
-        final Thread currentThread = Thread.currentThread();
-        HttpClientBuilder builder = httpClientBuilder_.get(currentThread);
+    protected synchronized HttpClientBuilder getHttpClientBuilder() {
+        HttpClientBuilder builder = httpClientBuilder_;
         if (builder == null) {
             builder = createHttpClientBuilder();
 
@@ -552,7 +636,8 @@ public class HttpWebConnection implements WebConnection {
 
             builder.setDefaultCookieStore(new HtmlUnitCookieStore(webClient_.getCookieManager()));
             builder.setUserAgent(webClient_.getBrowserVersion().getUserAgent());
-            httpClientBuilder_.put(currentThread, builder);
+            configureHttpProcessorBuilder(builder);
+            httpClientBuilder_ = builder;
         }
 
         return builder;
@@ -594,7 +679,6 @@ public class HttpWebConnection implements WebConnection {
 
         builder.setDefaultSocketConfig(createSocketConfigBuilder(timeout).build());
 
-        getHttpContext().removeAttribute(HttpClientContext.REQUEST_CONFIG);
         usedOptions_.setTimeout(timeout);
     }
 
@@ -618,9 +702,25 @@ public class HttpWebConnection implements WebConnection {
         return socketBuilder;
     }
 
+    /**
+     * Returns whether the WebClient settings have changed since the client was built.
+     */
+    private boolean isReconfigurationNeeded() {
+        final WebClientOptions options = webClient_.getOptions();
+        return options.isUseInsecureSSL() != usedOptions_.isUseInsecureSSL()
+                || options.getSSLClientCertificateStore() != usedOptions_.getSSLClientCertificateStore()
+                || options.getSSLTrustStore() != usedOptions_.getSSLTrustStore()
+                || options.getSSLClientCipherSuites() != usedOptions_.getSSLClientCipherSuites()
+                || options.getSSLClientProtocols() != usedOptions_.getSSLClientProtocols()
+                || options.getProxyConfig() != usedOptions_.getProxyConfig()
+                || getTimeout() != usedOptions_.getTimeout()
+                || options.getConnectionTimeToLive() != usedOptions_.getConnectionTimeToLive();
+    }
+
     /**
      * React on changes that may have occurred on the WebClient settings.
      * Registering as a listener would be probably better.
+     * Has to be called while holding the lock.
      */
     private HttpClientBuilder reconfigureHttpClientIfNeeded(final HttpClientBuilder httpClientBuilder) {
         final WebClientOptions options = webClient_.getOptions();
@@ -675,11 +775,10 @@ public class HttpWebConnection implements WebConnection {
         usedOptions_.setProxyConfig(options.getProxyConfig());
     }
 
-    private void configureHttpProcessorBuilder(final HttpClientBuilder builder, final WebRequest webRequest) {
+    private static void configureHttpProcessorBuilder(final HttpClientBuilder builder) {
         final HttpProcessorBuilder b = HttpProcessorBuilder.create();
-        for (final HttpRequestInterceptor i : getHttpRequestInterceptors(webRequest)) {
-            b.add(i);
-        }
+        // the request specific interceptors are taken from the context
+        b.add(new RequestSpecificHttpRequestInterceptor());
 
         // These are the headers used in HttpClientBuilder, excluding the already added ones
         // (RequestClientConnControl and RequestAddCookies)
@@ -805,7 +904,7 @@ public class HttpWebConnection implements WebConnection {
     }
 
     private List<HttpRequestInterceptor> getHttpRequestInterceptors(final WebRequest webRequest) {
-        final List<HttpRequestInterceptor> list = new ArrayList<>();
+        final RequestInterceptorList list = new RequestInterceptorList();
         final Map<String, String> requestHeaders = webRequest.getAdditionalHeaders();
         final URL url = webRequest.getUrl();
         final StringBuilder host = new StringBuilder(url.getHost());
@@ -907,7 +1006,42 @@ public class HttpWebConnection implements WebConnection {
         synchronized (requestHeaders) {
             list.add(new MultiHttpRequestInterceptor(new HashMap<>(requestHeaders)));
         }
-        return list;
+        return list.toList();
+    }
+
+    /**
+     * Collects the interceptors of a request; like org.apache.http.protocol.ChainBuilder
+     * an interceptor replaces a previously added one of the same class.
+     */
+    private static final class RequestInterceptorList {
+        private final Map<Class<?>, HttpRequestInterceptor> interceptors_ = new LinkedHashMap<>();
+
+        void add(final HttpRequestInterceptor interceptor) {
+            interceptors_.remove(interceptor.getClass());
+            interceptors_.put(interceptor.getClass(), interceptor);
+        }
+
+        List<HttpRequestInterceptor> toList() {
+            return new ArrayList<>(interceptors_.values());
+        }
+    }
+
+    /**
+     * Runs the request specific interceptors stored in the context by {@link #makeHttpMethod}.
+     * This allows to share one client between all requests.
+     */
+    private static final class RequestSpecificHttpRequestInterceptor implements HttpRequestInterceptor {
+        @Override
+        @SuppressWarnings("unchecked")
+        public void process(final HttpRequest request, final HttpContext context) throws HttpException, IOException {
+            final List<HttpRequestInterceptor> interceptors =
+                    (List<HttpRequestInterceptor>) context.getAttribute(REQUEST_INTERCEPTORS);
+            if (interceptors != null) {
+                for (final HttpRequestInterceptor interceptor : interceptors) {
+                    interceptor.process(request, context);
+                }
+            }
+        }
     }
 
     /** We must have a separate class per header, because of org.apache.http.protocol.ChainBuilder. */
@@ -1121,8 +1255,20 @@ public class HttpWebConnection implements WebConnection {
      * {@inheritDoc}
      */
     @Override
-    public void close() {
-        httpClientBuilder_.clear();
+    public synchronized void close() {
+        httpClientBuilder_ = null;
+
+        final CloseableHttpClient httpClient = httpClient_;
+        httpClient_ = null;
+        if (httpClient != null) {
+            try {
+                // the connection manager is shared, this does not close any connection
+                httpClient.close();
+            }
+            catch (final IOException e) {
+                LOG.error("Exception while closing the http client", e);
+            }
+        }
 
         if (connectionManager_ != null) {
             connectionManager_.shutdown();
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link StorageBackend} keeping all stores in memory. Unlike the stores of a {@link StorageHolder}
+ * without backend, the stores of this backend are serialized with it.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see WebClientSnapshot
+ */
+public class InMemoryStorageBackend implements StorageBackend {
+
+    private final Map<String, Map<String, String>> stores_ = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> getStore(final String key) {
+        return stores_.computeIfAbsent(key, k -> Collections.synchronizedMap(new LinkedHashMap<>()));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+/**
+ * The phases of loading a page and its resources reported to a {@link LoadTimingListener}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public enum LoadPhase {
+
+    /** Sending the request until the response headers are received (including connect and TLS handshake). */
+    REQUEST,
+
+    /** Downloading the response body. */
+    DOWNLOAD,
+
+    /** Parsing the HTML content (including the charset detection and the scripts executed while parsing). */
+    PARSE,
+
+    /** Compiling a script. */
+    SCRIPT_COMPILE,
+
+    /** Executing a script. */
+    SCRIPT_EXECUTE,
+
+    /** Parsing a stylesheet. */
+    STYLESHEET_PARSE,
+
+    /** Waiting for the background JavaScript. */
+    BACKGROUND_JAVASCRIPT
+}
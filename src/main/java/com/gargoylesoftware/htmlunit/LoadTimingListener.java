@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+/**
+ * A listener for the {@link LoadPhase phases} of loading pages and resources.
+ * The listener is called synchronously from the thread doing the work; implementations
+ * should be fast and thread safe.
+ *
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see WebClient#addLoadTimingListener(LoadTimingListener)
+ */
+@FunctionalInterface
+public interface LoadTimingListener {
+
+    /**
+     * A phase is completed.
+     *
+     * @param page the page the work was done for; {@code null} for the network phases and
+     *        if the page is not known
+     * @param name the url of the resource, the name of the compiled script or {@code null}
+     * @param phase the phase
+     * @param startNanos the start of the phase, as returned by
+     *        {@link com.gargoylesoftware.htmlunit.javascript.background.JavaScriptClock#nanoTime()}
+     * @param durationNanos the duration of the phase in nanoseconds
+     */
+    void phaseCompleted(Page page, String name, LoadPhase phase, long startNanos, long durationNanos);
+}
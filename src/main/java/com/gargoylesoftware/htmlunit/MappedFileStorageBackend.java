@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.gargoylesoftware.htmlunit.util.MappedLogFile;
+
+/**
+ * A {@link StorageBackend} persisting every origin in an append-only log file inside a directory.
+ * The log files are memory mapped; a store is loaded (by replaying its log) the first time it is
+ * accessed, only its keys are kept on the heap and the values are read from the mapping.
+ * Logs containing mostly outdated records are compacted into a new generation of the file,
+ * and every origin is limited to a quota of UTF-16 code units (keys plus values) like the browsers do.
+ * <p>
+ * A log is locked as long as it is in use. Accessing an origin that is already in use by another
+ * instance (in this or another process) pointing to the same directory fails instead of corrupting the log.
+ * <p>
+ * The backend may be shared by several {@link WebClient}s; {@link #close()} it when done.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class MappedFileStorageBackend implements StorageBackend, Closeable {
+
+    /** The default quota per origin (in UTF-16 code units). */
+    public static final int DEFAULT_QUOTA = 5 * 1024 * 1024;
+
+    private static final Log LOG = LogFactory.getLog(MappedFileStorageBackend.class);
+
+    private static final String SUFFIX = ".storage";
+    private static final int MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    private final File directory_;
+    private final int quota_;
+    private transient Map<String, LogBackedStore> stores_ = new ConcurrentHashMap<>();
+    private transient boolean closed_;
+
+    /**
+     * Creates a new instance using the {@link #DEFAULT_QUOTA}.
+     * @param directory the directory for the log files; created if needed
+     */
+    public MappedFileStorageBackend(final File directory) {
+        this(directory, DEFAULT_QUOTA);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param directory the directory for the log files; created if needed
+     * @param quota the maximum number of UTF-16 code units (keys plus values) per origin
+     */
+    public MappedFileStorageBackend(final File directory, final int quota) {
+        directory_ = directory;
+        quota_ = quota;
+    }
+
+    /**
+     * @return the directory holding the log files
+     */
+    public File getDirectory() {
+        return directory_;
+    }
+
+    /**
+     * @return the maximum number of UTF-16 code units (keys plus values) per origin
+     */
+    public int getQuota() {
+        return quota_;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException if the backend has been closed
+     */
+    @Override
+    public synchronized Map<String, String> getStore(final String key) {
+        if (closed_) {
+            throw new IllegalStateException("The storage backend has been closed");
+        }
+        return stores_.computeIfAbsent(key, k -> new LogBackedStore(encode(k)));
+    }
+
+    /**
+     * Forces all pending changes to the disk and releases the log files.
+     * The backend and all the stores it returned can't be used afterwards.
+     * @throws IOException in case of error
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed_ = true;
+        IOException exception = null;
+        for (final LogBackedStore store : stores_.values()) {
+            try {
+                store.close();
+            }
+            catch (final IOException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+                else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        stores_.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Copies all stores of this backend (the ones on the disk included) into a new
+     * {@link InMemoryStorageBackend}; used by {@link WebClientSnapshot} because the
+     * forks must not write to the same log files.
+     * @return the copy
+     * @throws IllegalStateException if the backend has been closed
+     */
+    synchronized InMemoryStorageBackend copyToMemory() {
+        final Set<String> keys = new LinkedHashSet<>(stores_.keySet());
+        for (final String name : MappedLogFile.list(directory_, SUFFIX)) {
+            keys.add(decode(name));
+        }
+
+        final InMemoryStorageBackend copy = new InMemoryStorageBackend();
+        for (final String key : keys) {
+            final Map<String, String> store = getStore(key);
+            if (!store.isEmpty()) {
+                copy.getStore(key).putAll(store);
+            }
+        }
+        return copy;
+    }
+
+    private static String encode(final String key) {
+        try {
+            return URLEncoder.encode(key, "UTF-8").replace("*", "%2A");
+        }
+        catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(final String name) {
+        try {
+            return URLDecoder.decode(name, "UTF-8");
+        }
+        catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        stores_ = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The live map of one origin, writing every change to the log before applying it.
+     * Only the keys and the location of the values are kept on the heap; the values are
+     * decoded from the mapped log when they are requested.
+     */
+    private final class LogBackedStore extends AbstractMap<String, String> {
+        private final String name_;
+        private MappedLogFile log_;
+        private Map<String, ValueRef> entries_;
+        private long used_;
+        private long liveBytes_;
+        private boolean closed_;
+
+        LogBackedStore(final String name) {
+            name_ = name;
+        }
+
+        private Map<String, ValueRef> load() {
+            if (closed_) {
+                throw new IllegalStateException("The storage backend has been closed");
+            }
+            if (entries_ == null) {
+                try {
+                    log_ = MappedLogFile.open(directory_, name_, SUFFIX);
+                    entries_ = index(log_);
+                }
+                catch (final IOException | RuntimeException e) {
+                    if (log_ != null) {
+                        try {
+                            log_.close();
+                        }
+                        catch (final IOException ex) {
+                            e.addSuppressed(ex);
+                        }
+                        log_ = null;
+                    }
+                    if (e instanceof IOException) {
+                        throw new UncheckedIOException((IOException) e);
+                    }
+                    throw (RuntimeException) e;
+                }
+                used_ = 0;
+                liveBytes_ = 0;
+                for (final Map.Entry<String, ValueRef> entry : entries_.entrySet()) {
+                    used_ += entry.getKey().length() + entry.getValue().length_;
+                    liveBytes_ += entry.getValue().recordSize_;
+                }
+            }
+            return entries_;
+        }
+
+        private String read(final ValueRef ref) {
+            return new String(log_.read(ref.offset_), UTF_8);
+        }
+
+        /**
+         * {@inheritDoc}
+         * The returned set is a snapshot, it does not reflect later changes.
+         */
+        @Override
+        public synchronized Set<Map.Entry<String, String>> entrySet() {
+            final Map<String, String> snapshot = new LinkedHashMap<>();
+            for (final Map.Entry<String, ValueRef> entry : load().entrySet()) {
+                snapshot.put(entry.getKey(), read(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(snapshot).entrySet();
+        }
+
+        @Override
+        public synchronized int size() {
+            return load().size();
+        }
+
+        @Override
+        public synchronized boolean containsKey(final Object key) {
+            return load().containsKey(key);
+        }
+
+        @Override
+        public synchronized String get(final Object key) {
+            final ValueRef ref = load().get(key);
+            return ref == null ? null : read(ref);
+        }
+
+        @Override
+        public synchronized String put(final String key, final String value) {
+            final ValueRef oldRef = load().get(key);
+            long used = used_ + key.length() + value.length();
+            if (oldRef != null) {
+                used -= key.length() + oldRef.length_;
+            }
+            if (used > quota_) {
+                throw new QuotaExceededException("The quota of " + quota_ + " has been exceeded.");
+            }
+
+            final String old = oldRef == null ? null : read(oldRef);
+            final byte[] keyBytes = toBytes(key);
+            final byte[] valueBytes = toBytes(value);
+            final int offset = append(PUT, keyBytes, valueBytes);
+            final ValueRef ref = new ValueRef(offset, value.length(), MappedLogFile.recordSize(keyBytes, valueBytes));
+            entries_.put(key, ref);
+            used_ = used;
+            liveBytes_ += ref.recordSize_;
+            if (oldRef != null) {
+                liveBytes_ -= oldRef.recordSize_;
+            }
+            compactIfNeeded();
+            return old;
+        }
+
+        @Override
+        public synchronized String remove(final Object key) {
+            final ValueRef oldRef = load().get(key);
+            if (oldRef == null) {
+                return null;
+            }
+            final String name = (String) key;
+            final String old = read(oldRef);
+            append(REMOVE, toBytes(name), null);
+            entries_.remove(name);
+            used_ -= name.length() + oldRef.length_;
+            liveBytes_ -= oldRef.recordSize_;
+            compactIfNeeded();
+            return old;
+        }
+
+        @Override
+        public synchronized void clear() {
+            if (load().isEmpty()) {
+                return;
+            }
+            append(CLEAR, null, null);
+            entries_.clear();
+            used_ = 0;
+            liveBytes_ = 0;
+            compactIfNeeded();
+        }
+
+        private int append(final byte op, final byte[] key, final byte[] value) {
+            try {
+                return log_.append(op, key, value);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes the live entries to the next generation of the log, if the outdated records
+         * take more than half of it. The current log stays in use if this fails; the change
+         * has already been written to it.
+         */
+        private void compactIfNeeded() {
+            final long length = log_.getLength();
+            if (length < MIN_COMPACTION_SIZE || length < 2 * (liveBytes_ + MappedLogFile.HEADER_SIZE)) {
+                return;
+            }
+
+            // the values are copied one by one from the old log to the new one
+            final MappedLogFile log = log_;
+            final Iterable<Map.Entry<byte[], byte[]>> entries = () -> entries_.entrySet().stream()
+                    .map(entry -> (Map.Entry<byte[], byte[]>) new AbstractMap.SimpleImmutableEntry<>(
+                            toBytes(entry.getKey()), log.read(entry.getValue().offset_)))
+                    .iterator();
+            try {
+                log_ = log.compact(entries, PUT);
+            }
+            catch (final IOException e) {
+                LOG.warn("Compacting storage '" + name_ + "' failed", e);
+                return;
+            }
+            // the values have moved
+            entries_ = index(log_);
+        }
+
+        synchronized void close() throws IOException {
+            closed_ = true;
+            entries_ = null;
+            if (log_ != null) {
+                final MappedLogFile log = log_;
+                log_ = null;
+                log.close();
+            }
+        }
+    }
+
+    /**
+     * Replays the given log.
+     * @return the keys and the location of their values
+     */
+    private static Map<String, ValueRef> index(final MappedLogFile log) {
+        final Map<String, ValueRef> entries = new LinkedHashMap<>();
+        log.replay(new StoreReplayer(entries));
+        return entries;
+    }
+
+    private static byte[] toBytes(final String string) {
+        return string == null ? null : string.getBytes(UTF_8);
+    }
+
+    /**
+     * The location of a value in the log.
+     */
+    private static final class ValueRef {
+        private final int offset_;
+        /** The length in UTF-16 code units. */
+        private final int length_;
+        private final int recordSize_;
+
+        ValueRef(final int offset, final int length, final int recordSize) {
+            offset_ = offset;
+            length_ = length;
+            recordSize_ = recordSize;
+        }
+    }
+
+    /**
+     * Replays the put, remove and clear records of a log into a map.
+     */
+    private static final class StoreReplayer implements MappedLogFile.Replayer {
+        private final Map<String, ValueRef> target_;
+
+        StoreReplayer(final Map<String, ValueRef> target) {
+            target_ = target;
+        }
+
+        @Override
+        public int getFieldCount(final byte op) {
+            switch (op) {
+                case PUT:
+                    return 2;
+                case REMOVE:
+                    return 1;
+                case CLEAR:
+                    return 0;
+                default:
+                    return -1;
+            }
+        }
+
+        @Override
+        public void apply(final byte op, final byte[] key, final byte[] value, final int valueOffset) {
+            switch (op) {
+                case PUT:
+                    target_.put(new String(key, UTF_8), new ValueRef(valueOffset,
+                            new String(value, UTF_8).length(), MappedLogFile.recordSize(key, value)));
+                    break;
+
+                case REMOVE:
+                    target_.remove(new String(key, UTF_8));
+                    break;
+
+                default:
+                    target_.clear();
+            }
+        }
+    }
+}
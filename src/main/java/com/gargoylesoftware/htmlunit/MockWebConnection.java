@@ -24,6 +24,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -42,7 +44,7 @@ import com.gargoylesoftware.htmlunit.util.TextUtils;
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
-public class MockWebConnection implements WebConnection {
+public class MockWebConnection implements AsyncWebConnection {
 
     private static final Log LOG = LogFactory.getLog(MockWebConnection.class);
 
@@ -166,6 +168,23 @@ public class MockWebConnection implements WebConnection {
         return new WebResponse(rawResponse.asWebResponseData(), request, 0);
     }
 
+    /**
+     * {@inheritDoc}
+     * The responses are known in advance, therefore the returned future is already completed
+     * and the executor is not used.
+     */
+    @Override
+    public CompletableFuture<WebResponse> getResponseAsync(final WebRequest request, final Executor executor) {
+        final CompletableFuture<WebResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(getResponse(request));
+        }
+        catch (final IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Gets the raw response configured for the request.
      * @param request the request
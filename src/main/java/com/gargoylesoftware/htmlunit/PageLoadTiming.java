@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The navigation timing of a page and the timings of the resources loaded by the page.
+ * All times are milliseconds since the epoch, measured with the {@link WebClient#getJavaScriptClock() clock}
+ * of the client; marks not (yet) reached are 0.
+ * This is the source of the values of the JavaScript {@code performance.timing} and
+ * {@code performance.getEntries()}.
+ *
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class PageLoadTiming implements Serializable {
+
+    /** The default maximum number of resource timings kept, the same as in the browsers. */
+    public static final int DEFAULT_RESOURCE_BUFFER_SIZE = 250;
+
+    /**
+     * The navigation timing marks.
+     */
+    public enum Mark {
+        /** The navigation was started. */
+        NAVIGATION_START,
+        /** The response headers were received. */
+        RESPONSE_START,
+        /** The response was downloaded. */
+        RESPONSE_END,
+        /** The parsing was started. */
+        DOM_LOADING,
+        /** The parsing was finished. */
+        DOM_INTERACTIVE,
+        /** The DOMContentLoaded handlers are started. */
+        DOM_CONTENT_LOADED_EVENT_START,
+        /** The DOMContentLoaded handlers are finished. */
+        DOM_CONTENT_LOADED_EVENT_END,
+        /** The document is complete. */
+        DOM_COMPLETE,
+        /** The load handlers are started. */
+        LOAD_EVENT_START,
+        /** The load handlers are finished. */
+        LOAD_EVENT_END
+    }
+
+    private final Map<Mark, Long> marks_ = new EnumMap<>(Mark.class);
+    private final List<ResourceTiming> resources_ = new ArrayList<>();
+    private int resourceBufferSize_ = DEFAULT_RESOURCE_BUFFER_SIZE;
+
+    /**
+     * Creates a new instance, taking the network marks from the given response.
+     * @param response the response of the page
+     */
+    public PageLoadTiming(final WebResponse response) {
+        final long start = response.getRequestStartTime();
+        if (start > 0) {
+            mark(Mark.NAVIGATION_START, start);
+            mark(Mark.RESPONSE_START, start + response.getTimeToFirstByte());
+            mark(Mark.RESPONSE_END, start + response.getLoadTime());
+        }
+    }
+
+    /**
+     * Sets the time of a mark.
+     * @param mark the mark
+     * @param time the time
+     */
+    public synchronized void mark(final Mark mark, final long time) {
+        marks_.put(mark, time);
+    }
+
+    /**
+     * Returns the time of a mark.
+     * @param mark the mark
+     * @return the time or 0 if the mark is not reached
+     */
+    public synchronized long get(final Mark mark) {
+        final Long time = marks_.get(mark);
+        if (time == null) {
+            return 0;
+        }
+        return time;
+    }
+
+    /**
+     * Adds the timing of a loaded resource; the timing is dropped if the
+     * {@link #getResourceBufferSize() buffer} is full.
+     * @param resource the resource timing
+     */
+    public synchronized void addResource(final ResourceTiming resource) {
+        if (resources_.size() < resourceBufferSize_) {
+            resources_.add(resource);
+        }
+    }
+
+    /**
+     * Removes all resource timings recorded so far.
+     */
+    public synchronized void clearResources() {
+        resources_.clear();
+    }
+
+    /**
+     * Returns the maximum number of resource timings kept.
+     * @return the buffer size
+     */
+    public synchronized int getResourceBufferSize() {
+        return resourceBufferSize_;
+    }
+
+    /**
+     * Sets the maximum number of resource timings kept, the default is {@link #DEFAULT_RESOURCE_BUFFER_SIZE}.
+     * Timings already recorded are kept even if there are more of them.
+     * @param resourceBufferSize the buffer size; negative values are treated as 0
+     */
+    public synchronized void setResourceBufferSize(final int resourceBufferSize) {
+        resourceBufferSize_ = Math.max(0, resourceBufferSize);
+    }
+
+    /**
+     * Returns the timings of the resources loaded so far.
+     * @return the resource timings in loading order
+     */
+    public synchronized List<ResourceTiming> getResources() {
+        return new ArrayList<>(resources_);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString() {
+        return marks_ + " " + resources_;
+    }
+}
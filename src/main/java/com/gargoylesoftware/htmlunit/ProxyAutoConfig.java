@@ -19,12 +19,16 @@ import java.net.InetAddress;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.apache.commons.net.util.SubnetUtils;
 
 import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.EvaluatorException;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
 import net.sourceforge.htmlunit.corejs.javascript.FunctionObject;
 import net.sourceforge.htmlunit.corejs.javascript.NativeFunction;
 import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
@@ -41,8 +45,53 @@ import net.sourceforge.htmlunit.corejs.javascript.Undefined;
  */
 public final class ProxyAutoConfig {
     private static final String TIMEZONE_GMT = "GMT";
+    private static final String[] PAC_FUNCTIONS = {"isPlainHostName", "dnsDomainIs", "localHostOrDomainIs",
+        "isResolvable", "isInNet", "dnsResolve", "myIpAddress", "dnsDomainLevels", "shExpMatch",
+        "weekdayRange", "dateRange", "timeRange"};
+    private static final int MAX_CACHE_SIZE = 1_000;
+
+    private final String content_;
+    private final ScriptableObject scope_;
+    private final Function findProxyForURL_;
+    private final long cacheTimeToLive_;
+    private final Map<String, CachedResult> cache_;
+    private volatile boolean writesGlobals_;
+
+    private ProxyAutoConfig(final String content, final long cacheTimeToLive) {
+        content_ = content;
+        cacheTimeToLive_ = cacheTimeToLive;
+        cache_ = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResult> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+
+        final Context cx = Context.enter();
+        try {
+            scope_ = createScope(cx, content, true);
+            final Object fObj = scope_.get("FindProxyForURL", scope_);
+            if (!(fObj instanceof Function)) {
+                throw new IllegalArgumentException("Proxy Auto-Config script does not define 'FindProxyForURL'");
+            }
+            findProxyForURL_ = (Function) fObj;
+        }
+        finally {
+            Context.exit();
+        }
+    }
 
-    private ProxyAutoConfig() {
+    /**
+     * Compiles the specified content; the returned instance can be used to evaluate
+     * the <tt>FindProxyForURL</tt> method for any number of URLs (also from different threads)
+     * without parsing the script again.
+     * @param content the JavaScript content
+     * @param cacheTimeToLive the time (in milliseconds) the result for an URL is cached,
+     *        zero or less to disable the cache
+     * @return the compiled proxy auto-config
+     */
+    public static ProxyAutoConfig compile(final String content, final long cacheTimeToLive) {
+        return new ProxyAutoConfig(content, cacheTimeToLive);
     }
 
     /**
@@ -54,24 +103,7 @@ public final class ProxyAutoConfig {
     public static String evaluate(final String content, final URL url) {
         final Context cx = Context.enter();
         try {
-            final ProxyAutoConfig config = new ProxyAutoConfig();
-            final Scriptable scope = cx.initSafeStandardObjects();
-
-            config.defineMethod("isPlainHostName", scope);
-            config.defineMethod("dnsDomainIs", scope);
-            config.defineMethod("localHostOrDomainIs", scope);
-            config.defineMethod("isResolvable", scope);
-            config.defineMethod("isInNet", scope);
-            config.defineMethod("dnsResolve", scope);
-            config.defineMethod("myIpAddress", scope);
-            config.defineMethod("dnsDomainLevels", scope);
-            config.defineMethod("shExpMatch", scope);
-            config.defineMethod("weekdayRange", scope);
-            config.defineMethod("dateRange", scope);
-            config.defineMethod("timeRange", scope);
-
-            cx.evaluateString(scope, "var ProxyConfig = function() {}; ProxyConfig.bindings = {}", "<init>", 1, null);
-            cx.evaluateString(scope, content, "<Proxy Auto-Config>", 1, null);
+            final Scriptable scope = createScope(cx, content, false);
             final Object[] functionArgs = {url.toExternalForm(), url.getHost()};
             final Object fObj = scope.get("FindProxyForURL", scope);
 
@@ -84,15 +116,89 @@ public final class ProxyAutoConfig {
         }
     }
 
-    private void defineMethod(final String methodName, final Scriptable scope) {
-        for (final Method method : getClass().getMethods()) {
+    /**
+     * Evaluates the <tt>FindProxyForURL</tt> method of the compiled content.
+     * The results are cached per URL, if a cache time to live has been specified.
+     * @param url the URL to be retrieved
+     * @return semicolon-separated result
+     */
+    public String findProxyForURL(final URL url) {
+        if (cacheTimeToLive_ <= 0) {
+            return call(url);
+        }
+
+        final String key = url.toExternalForm();
+        final long now = System.currentTimeMillis();
+        synchronized (cache_) {
+            final CachedResult cached = cache_.get(key);
+            if (cached != null && cached.expiration_ > now) {
+                return cached.value_;
+            }
+        }
+
+        final String value = call(url);
+        synchronized (cache_) {
+            cache_.put(key, new CachedResult(value, now + cacheTimeToLive_));
+        }
+        return value;
+    }
+
+    private String call(final URL url) {
+        if (writesGlobals_) {
+            return evaluate(content_, url);
+        }
+
+        final Context cx = Context.enter();
+        try {
+            final Object[] functionArgs = {url.toExternalForm(), url.getHost()};
+            final Object result = findProxyForURL_.call(cx, scope_, scope_, functionArgs);
+            return Context.toString(result);
+        }
+        catch (final EvaluatorException e) {
+            // the script modifies the global scope; this is not possible for the sealed scope,
+            // evaluate it the old way from now on
+            writesGlobals_ = true;
+            return evaluate(content_, url);
+        }
+        finally {
+            Context.exit();
+        }
+    }
+
+    private static ScriptableObject createScope(final Context cx, final String content, final boolean sealed) {
+        final ScriptableObject scope = cx.initSafeStandardObjects(null, sealed);
+
+        for (final String function : PAC_FUNCTIONS) {
+            defineMethod(function, scope);
+        }
+
+        cx.evaluateString(scope, "var ProxyConfig = function() {}; ProxyConfig.bindings = {}", "<init>", 1, null);
+        cx.evaluateString(scope, content, "<Proxy Auto-Config>", 1, null);
+        if (sealed) {
+            scope.sealObject();
+        }
+        return scope;
+    }
+
+    private static void defineMethod(final String methodName, final ScriptableObject scope) {
+        for (final Method method : ProxyAutoConfig.class.getMethods()) {
             if (method.getName().equals(methodName)) {
                 final FunctionObject functionObject = new FunctionObject(methodName, method, scope);
-                ((ScriptableObject) scope).defineProperty(methodName, functionObject, ScriptableObject.EMPTY);
+                scope.defineProperty(methodName, functionObject, ScriptableObject.EMPTY);
             }
         }
     }
 
+    private static final class CachedResult {
+        private final String value_;
+        private final long expiration_;
+
+        CachedResult(final String value, final long expiration) {
+            value_ = value;
+            expiration_ = expiration;
+        }
+    }
+
     /**
      * Returns true if there is no domain name in the hostname (no dots).
      * @param host the hostname from the URL (excluding port number).
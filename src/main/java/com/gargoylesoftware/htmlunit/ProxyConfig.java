@@ -34,6 +34,8 @@ public class ProxyConfig implements Serializable {
     private final Map<String, Pattern> proxyBypassHosts_ = new HashMap<>();
     private String proxyAutoConfigUrl_;
     private String proxyAutoConfigContent_;
+    private long proxyAutoConfigCacheTimeToLive_;
+    private transient ProxyAutoConfig proxyAutoConfig_;
 
     /**
      * Creates a new instance.
@@ -177,7 +179,39 @@ public class ProxyConfig implements Serializable {
      * Sets the proxy auto-config content.
      * @param proxyAutoConfigContent the proxy auto-config content
      */
-    protected void setProxyAutoConfigContent(final String proxyAutoConfigContent) {
+    protected synchronized void setProxyAutoConfigContent(final String proxyAutoConfigContent) {
         proxyAutoConfigContent_ = proxyAutoConfigContent;
+        proxyAutoConfig_ = null;
+    }
+
+    /**
+     * Returns the compiled proxy auto-config content; the content is compiled only once
+     * and reused for all requests.
+     * @return the compiled proxy auto-config or {@code null} if the content is not yet available
+     */
+    protected synchronized ProxyAutoConfig getProxyAutoConfig() {
+        if (proxyAutoConfig_ == null && proxyAutoConfigContent_ != null) {
+            proxyAutoConfig_ = ProxyAutoConfig.compile(proxyAutoConfigContent_, proxyAutoConfigCacheTimeToLive_);
+        }
+        return proxyAutoConfig_;
+    }
+
+    /**
+     * Returns the time (in milliseconds) the result of the proxy auto-config is cached for an URL.
+     * @return the time to live of the cached results
+     */
+    public long getProxyAutoConfigCacheTimeToLive() {
+        return proxyAutoConfigCacheTimeToLive_;
+    }
+
+    /**
+     * Sets the time (in milliseconds) the result of the proxy auto-config is cached for an URL;
+     * zero or less disables the cache. The cache is disabled by default because the result
+     * of scripts using the date and time functions may change at any time.
+     * @param proxyAutoConfigCacheTimeToLive the time to live of the cached results
+     */
+    public synchronized void setProxyAutoConfigCacheTimeToLive(final long proxyAutoConfigCacheTimeToLive) {
+        proxyAutoConfigCacheTimeToLive_ = proxyAutoConfigCacheTimeToLive;
+        proxyAutoConfig_ = null;
     }
 }
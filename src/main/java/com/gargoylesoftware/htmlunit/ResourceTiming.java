@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.Serializable;
+
+/**
+ * The timing of a resource (script, stylesheet, image, XMLHttpRequest...) loaded by a page.
+ * All times are milliseconds since the epoch, measured with the {@link WebClient#getJavaScriptClock() clock}
+ * of the client.
+ *
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see PageLoadTiming#getResources()
+ */
+public class ResourceTiming implements Serializable {
+
+    private final String name_;
+    private final String initiatorType_;
+    private final long startTime_;
+    private final long responseStart_;
+    private final long responseEnd_;
+    private final long transferSize_;
+
+    /**
+     * Creates the timing of the given response.
+     * @param response the response
+     * @param initiatorType the type of the initiator (e.g. 'script', 'link', 'img', 'xmlhttprequest', 'fetch')
+     */
+    public ResourceTiming(final WebResponse response, final String initiatorType) {
+        name_ = response.getWebRequest().getUrl().toExternalForm();
+        initiatorType_ = initiatorType;
+        startTime_ = response.getRequestStartTime();
+
+        if (response instanceof WebResponseFromCache) {
+            responseStart_ = startTime_;
+            responseEnd_ = startTime_;
+            transferSize_ = 0;
+        }
+        else {
+            responseStart_ = startTime_ + response.getTimeToFirstByte();
+            responseEnd_ = startTime_ + response.getLoadTime();
+            transferSize_ = response.getContentLength();
+        }
+    }
+
+    /**
+     * Returns the url of the resource.
+     * @return the url
+     */
+    public String getName() {
+        return name_;
+    }
+
+    /**
+     * Returns the type of the initiator.
+     * @return the initiator type
+     */
+    public String getInitiatorType() {
+        return initiatorType_;
+    }
+
+    /**
+     * Returns the time the request was started.
+     * @return the start time
+     */
+    public long getStartTime() {
+        return startTime_;
+    }
+
+    /**
+     * Returns the time the response headers were received.
+     * @return the response start time
+     */
+    public long getResponseStart() {
+        return responseStart_;
+    }
+
+    /**
+     * Returns the time the response was downloaded completely.
+     * @return the response end time
+     */
+    public long getResponseEnd() {
+        return responseEnd_;
+    }
+
+    /**
+     * Returns the size of the transferred content; 0 if the response was served from the cache.
+     * @return the transfer size in bytes
+     */
+    public long getTransferSize() {
+        return transferSize_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return initiatorType_ + " " + name_ + " " + (responseEnd_ - startTime_) + "ms";
+    }
+}
@@ -14,11 +14,21 @@
  */
 package com.gargoylesoftware.htmlunit;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
 
 import org.w3c.dom.CDATASection;
 import org.w3c.dom.Comment;
@@ -51,10 +61,16 @@ import com.gargoylesoftware.htmlunit.html.DomTreeWalker;
  */
 public abstract class SgmlPage extends DomNode implements Page, Document, DocumentTraversal {
 
+    private static final int SAVE_BUFFER_SIZE = 8192;
+
     private DocumentType documentType_;
     private final WebResponse webResponse_;
     private WebWindow enclosingWindow_;
     private final WebClient webClient_;
+    private long modificationCount_;
+
+    /** The (lower case) event types listeners or handlers were ever registered for in this document. */
+    private final Set<String> listenedEventTypes_ = ConcurrentHashMap.newKeySet();
 
     /**
      * Creates an instance of SgmlPage.
@@ -124,6 +140,52 @@ public abstract class SgmlPage extends DomNode implements Page, Document, Docume
         enclosingWindow_ = window;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns a counter that is incremented whenever a node of this page is added, removed or modified.
+     * Caches derived from the content of this page can compare it to find out if they are still valid.
+     *
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modificationCount_;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Increments the modification count of this page.
+     * @see #getModificationCount()
+     */
+    public void incrementModificationCount() {
+        modificationCount_++;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Records that an event listener or handler for the given type has been registered in this document
+     * (on one of its nodes or on its window).
+     * @param eventType the event type in lower case (e.g. "click")
+     */
+    public void addListenedEventType(final String eventType) {
+        listenedEventTypes_.add(eventType);
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns whether an event listener or handler for the given type might be registered in this document.
+     * The types are never forgotten (like the listener type flags of the browsers), therefore only
+     * {@code false} is a definite answer: the dispatch of such events can skip the propagation path.
+     * @param eventType the event type in lower case (e.g. "click")
+     * @return {@code false} if there is no listener or handler for this type
+     */
+    public boolean isListenedEventType(final String eventType) {
+        return listenedEventTypes_.contains(eventType);
+    }
+
     /**
      * Returns the WebClient that originally loaded this page.
      *
@@ -230,6 +292,82 @@ public abstract class SgmlPage extends DomNode implements Page, Document, Docume
         return documentElement.asXml();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void asXml(final Writer writer) throws IOException {
+        final DomElement documentElement = getDocumentElement();
+        if (documentElement != null) {
+            documentElement.asXml(writer);
+        }
+    }
+
+    /**
+     * Writes the XML representation of this page (see {@link #asXml()}) to the given stream.
+     * The XML is encoded on the fly, using the charset of the page (UTF-8 if there is none),
+     * without building the whole document in memory.
+     *
+     * @param outputStream the stream to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void save(final OutputStream outputStream) throws IOException {
+        save(outputStream, false);
+    }
+
+    /**
+     * Writes the XML representation of this page (see {@link #asXml()}) to the given stream.
+     * The XML is encoded on the fly, using the charset of the page (UTF-8 if there is none),
+     * without building the whole document in memory.
+     *
+     * @param outputStream the stream to write to; it is flushed but not closed
+     * @param gzip whether the output is gzip compressed
+     * @throws IOException if writing fails
+     */
+    public void save(final OutputStream outputStream, final boolean gzip) throws IOException {
+        Charset charset = getCharset();
+        if (charset == null) {
+            charset = UTF_8;
+        }
+
+        GzipStream gzipStream = null;
+        OutputStream out = outputStream;
+        if (gzip) {
+            gzipStream = new GzipStream(outputStream);
+            out = gzipStream;
+        }
+
+        try {
+            // the encoder of the OutputStreamWriter works on a buffer of bounded size
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset), SAVE_BUFFER_SIZE);
+            asXml(writer);
+            writer.flush();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            outputStream.flush();
+        }
+        finally {
+            if (gzipStream != null) {
+                gzipStream.end();
+            }
+        }
+    }
+
+    /**
+     * A {@link GZIPOutputStream} that releases the native memory of its deflater without
+     * closing the underlying stream.
+     */
+    private static final class GzipStream extends GZIPOutputStream {
+        GzipStream(final OutputStream out) throws IOException {
+            super(out, SAVE_BUFFER_SIZE);
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+
     /**
      * Returns {@code true} if this page has case-sensitive tag names, {@code false} otherwise. In general,
      * XML has case-sensitive tag names, and HTML doesn't. This is especially important during XPath matching.
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * The persistence of the local (and global) storage of a {@link StorageHolder}.
+ * By default the {@link StorageHolder} keeps all stores in memory.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see StorageHolder#setBackend(StorageBackend)
+ * @see MappedFileStorageBackend
+ */
+public interface StorageBackend extends Serializable {
+
+    /**
+     * Returns the store for the given origin key. The returned map is live, all
+     * changes are written through to the backend; the iteration order is the
+     * insertion order.
+     *
+     * @param key the key of the origin
+     * @return the store
+     * @throws QuotaExceededException (from {@link Map#put(Object, Object)}) if the quota of the origin is exceeded
+     */
+    Map<String, String> getStore(String key);
+
+    /**
+     * Thrown if a store can't take more data.
+     */
+    class QuotaExceededException extends RuntimeException {
+
+        /**
+         * Ctor.
+         * @param message the message
+         */
+        public QuotaExceededException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -20,6 +20,9 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.gargoylesoftware.htmlunit.javascript.host.idb.InMemoryKeyValueStoreBackend;
+import com.gargoylesoftware.htmlunit.javascript.host.idb.KeyValueStoreBackend;
+
 /**
  * Holder for different types of storages.
  * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
@@ -48,6 +51,45 @@ public class StorageHolder implements Serializable {
 
     private transient Map<String, Map<String, String>> sessionStorage_ = new HashMap<>();
 
+    private StorageBackend backend_;
+
+    private KeyValueStoreBackend indexedDbBackend_ = new InMemoryKeyValueStoreBackend();
+
+    /**
+     * Returns the backend used for the local and global storage, {@code null} if they are kept in memory.
+     * @return the backend or {@code null}
+     */
+    public StorageBackend getBackend() {
+        return backend_;
+    }
+
+    /**
+     * Sets the backend used for the local and global storage; the session storage
+     * is always kept in memory. Pass {@code null} to keep everything in memory (the default).
+     * @param backend the backend or {@code null}
+     */
+    public void setBackend(final StorageBackend backend) {
+        backend_ = backend;
+    }
+
+    /**
+     * Returns the backend holding the IndexedDB databases.
+     * @return the backend
+     */
+    public KeyValueStoreBackend getIndexedDbBackend() {
+        return indexedDbBackend_;
+    }
+
+    /**
+     * Sets the backend holding the IndexedDB databases; by default the databases
+     * are kept in memory.
+     * @param indexedDbBackend the backend
+     */
+    public void setIndexedDbBackend(final KeyValueStoreBackend indexedDbBackend) {
+        WebAssert.notNull("indexedDbBackend", indexedDbBackend);
+        indexedDbBackend_ = indexedDbBackend;
+    }
+
     /**
      * Gets the store of the give type for the page.
      * @param storageType the type
@@ -55,6 +97,11 @@ public class StorageHolder implements Serializable {
      * @return the store
      */
     public Map<String, String> getStore(final Type storageType, final Page page) {
+        final StorageBackend backend = backend_;
+        if (backend != null && storageType != Type.SESSION_STORAGE) {
+            return backend.getStore(getKey(storageType, page));
+        }
+
         final Map<String, Map<String, String>> storage = getStorage(storageType);
         if (storage == null) {
             return null;
@@ -51,11 +51,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.gargoylesoftware.htmlunit.javascript.enhanced.EnhancedJavaScriptEngine;
 import org.apache.commons.codec.DecoderException;
@@ -89,6 +94,7 @@ import com.gargoylesoftware.htmlunit.javascript.AbstractJavaScriptEngine;
 import com.gargoylesoftware.htmlunit.javascript.DefaultJavaScriptErrorListener;
 import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
 import com.gargoylesoftware.htmlunit.javascript.JavaScriptErrorListener;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptClock;
 import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptJobManager;
 import com.gargoylesoftware.htmlunit.javascript.host.Location;
 import com.gargoylesoftware.htmlunit.javascript.host.Window;
@@ -104,6 +110,7 @@ import com.gargoylesoftware.htmlunit.util.MimeType;
 import com.gargoylesoftware.htmlunit.util.NameValuePair;
 import com.gargoylesoftware.htmlunit.util.TextUtils;
 import com.gargoylesoftware.htmlunit.util.UrlUtils;
+import com.gargoylesoftware.htmlunit.websocket.JettyWebSocketAdapter;
 import com.gargoylesoftware.htmlunit.webstart.WebStartHandler;
 import com.shapesecurity.salvation2.Policy;
 import com.shapesecurity.salvation2.URLs.URI;
@@ -162,12 +169,14 @@ public class WebClient implements Serializable, AutoCloseable {
     private transient WebConnection webConnection_;
     private CredentialsProvider credentialsProvider_ = new DefaultCredentialsProvider();
     private CookieManager cookieManager_ = new CookieManager();
+    private transient volatile CookieSpec cookieSpec_;
     private transient AbstractJavaScriptEngine<?> scriptEngine_;
     private transient List<LoadJob> loadQueue_;
     private final Map<String, String> requestHeaders_ = Collections.synchronizedMap(new HashMap<String, String>(89));
     private IncorrectnessListener incorrectnessListener_ = new IncorrectnessListenerImpl();
     private WebConsole webConsole_;
     private transient ExecutorService executor_;
+    private transient ScheduledExecutorService workerExecutor_;
 
     private AlertHandler alertHandler_;
     private ConfirmHandler confirmHandler_;
@@ -178,6 +187,9 @@ public class WebClient implements Serializable, AutoCloseable {
     private FrameContentHandler frameContentHandler_;
     private AppletConfirmHandler appletConfirmHandler_;
     private AjaxController ajaxController_ = new AjaxController();
+    private JavaScriptClock javaScriptClock_ = JavaScriptClock.SYSTEM;
+    private transient HistoryPageCache historyPageCache_;
+    private transient volatile List<LoadTimingListener> loadTimingListeners_;
 
     private BrowserVersion browserVersion_;
     private PageCreator pageCreator_ = new DefaultPageCreator();
@@ -323,6 +335,17 @@ public class WebClient implements Serializable, AutoCloseable {
         }
     }
 
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private static int ID_ = 1;
+
+        @Override
+        public Thread newThread(final Runnable aRunnable) {
+            final Thread thread = new Thread(aRunnable, "WebWorker Thread " + ID_++);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     private void initMSXMLActiveX() {
         msxmlActiveXObjectFactory_ = new MSXMLActiveXObjectFactory();
         // TODO [IE] initialize in #init or in #initialize?
@@ -876,6 +899,25 @@ public class WebClient implements Serializable, AutoCloseable {
         return executor_;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the executor running the web workers in parallel to the pages; the size of the
+     * pool is defined by {@link WebClientOptions#getWebWorkerThreads()}.
+     * @return the executor
+     */
+    public synchronized ScheduledExecutorService getWorkerExecutor() {
+        if (workerExecutor_ == null) {
+            final ScheduledThreadPoolExecutor tmpThreadPool =
+                    new ScheduledThreadPoolExecutor(Math.max(1, getOptions().getWebWorkerThreads()));
+            tmpThreadPool.setThreadFactory(new WorkerThreadFactory());
+            tmpThreadPool.setRemoveOnCancelPolicy(true);
+            workerExecutor_ = tmpThreadPool;
+        }
+
+        return workerExecutor_;
+    }
+
     /**
      * Sets the javascript error listener for this webclient.
      * When setting to null, the {@link DefaultJavaScriptErrorListener} is used.
@@ -976,6 +1018,69 @@ public class WebClient implements Serializable, AutoCloseable {
         webWindowListeners_.remove(listener);
     }
 
+    /**
+     * Adds a listener for the {@link LoadPhase phases} of loading pages and resources.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @param listener a listener
+     */
+    public synchronized void addLoadTimingListener(final LoadTimingListener listener) {
+        WebAssert.notNull("listener", listener);
+        final List<LoadTimingListener> listeners = new ArrayList<>();
+        if (loadTimingListeners_ != null) {
+            listeners.addAll(loadTimingListeners_);
+        }
+        listeners.add(listener);
+        loadTimingListeners_ = listeners;
+    }
+
+    /**
+     * Removes a listener for the {@link LoadPhase phases} of loading pages and resources.
+     * @param listener a listener
+     */
+    public synchronized void removeLoadTimingListener(final LoadTimingListener listener) {
+        WebAssert.notNull("listener", listener);
+        if (loadTimingListeners_ != null) {
+            final List<LoadTimingListener> listeners = new ArrayList<>(loadTimingListeners_);
+            listeners.remove(listener);
+            loadTimingListeners_ = listeners.isEmpty() ? null : listeners;
+        }
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns whether there are {@link LoadTimingListener}s; used to avoid the measuring overhead if not.
+     * @return whether there are load timing listeners
+     */
+    public boolean isLoadTimingEnabled() {
+        return loadTimingListeners_ != null;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Notifies the {@link LoadTimingListener}s about a phase ending now.
+     * @param page the page or {@code null}
+     * @param name the url of the resource or the script name
+     * @param phase the phase
+     * @param startNanos the start of the phase (see {@link JavaScriptClock#nanoTime()})
+     */
+    public void fireLoadPhase(final Page page, final String name, final LoadPhase phase, final long startNanos) {
+        if (loadTimingListeners_ != null) {
+            fireLoadPhase(page, name, phase, startNanos, javaScriptClock_.nanoTime() - startNanos);
+        }
+    }
+
+    private void fireLoadPhase(final Page page, final String name, final LoadPhase phase,
+            final long startNanos, final long durationNanos) {
+        final List<LoadTimingListener> listeners = loadTimingListeners_;
+        if (listeners != null) {
+            for (final LoadTimingListener listener : listeners) {
+                listener.phaseCompleted(page, name, phase, startNanos, durationNanos);
+            }
+        }
+    }
+
     private void fireWindowContentChanged(final WebWindowEvent event) {
         for (final WebWindowListener listener : new ArrayList<>(webWindowListeners_)) {
             listener.webWindowContentChanged(event);
@@ -1472,6 +1577,35 @@ public class WebClient implements Serializable, AutoCloseable {
         }
     }
 
+    /**
+     * Loads a {@link WebResponse} from the server without blocking the calling thread;
+     * if the {@link WebConnection} is an {@link AsyncWebConnection}, its
+     * {@link AsyncWebConnection#getResponseAsync(WebRequest, Executor)} is used with the
+     * {@link #getExecutor() executor} of this client. The request is prepared (and the cache
+     * is looked up) by the calling thread, redirects are followed by the thread completing the response.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @param webRequest the request
+     * @return the future response, completed exceptionally with the {@link IOException} that occurred
+     */
+    public CompletableFuture<WebResponse> loadWebResponseAsync(final WebRequest webRequest) {
+        switch (webRequest.getUrl().getProtocol()) {
+            case "about":
+            case "file":
+            case "data":
+                final CompletableFuture<WebResponse> future = new CompletableFuture<>();
+                try {
+                    future.complete(loadWebResponse(webRequest));
+                }
+                catch (final IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+                return future;
+
+            default:
+                return loadWebResponseFromWebConnectionAsync(webRequest);
+        }
+    }
+
     /**
      * Loads a {@link WebResponse} from the server through the WebConnection.
      * @param webRequest the request
@@ -1482,6 +1616,110 @@ public class WebClient implements Serializable, AutoCloseable {
     private WebResponse loadWebResponseFromWebConnection(final WebRequest webRequest,
         final int allowedRedirects) throws IOException {
 
+        // Retrieve the response, either from the cache or from the server.
+        final WebResponse fromCache = prepareWebRequest(webRequest);
+        final WebResponse webResponse;
+        final long requestStart = javaScriptClock_.currentTimeMillis();
+        if (fromCache == null) {
+            final long startNanos = javaScriptClock_.nanoTime();
+            internals_.beginBackgroundActivity();
+            try {
+                webResponse = getWebConnection().getResponse(webRequest);
+            }
+            catch (final NoHttpResponseException e) {
+                return new WebResponse(responseDataNoHttpResponse_, webRequest, 0);
+            }
+            finally {
+                internals_.endBackgroundActivity();
+            }
+            fireRequestLoadPhases(webRequest, webResponse, startNanos);
+        }
+        else {
+            webResponse = new WebResponseFromCache(fromCache, webRequest);
+        }
+        webResponse.setRequestStartTime(requestStart);
+        return processWebResponse(webRequest, webResponse, fromCache == null, allowedRedirects);
+    }
+
+    /**
+     * Loads a {@link WebResponse} from the server through the WebConnection without blocking
+     * the calling thread.
+     * @param webRequest the request
+     * @return the future response
+     */
+    private CompletableFuture<WebResponse> loadWebResponseFromWebConnectionAsync(final WebRequest webRequest) {
+        final CompletableFuture<WebResponse> result = new CompletableFuture<>();
+        final WebResponse fromCache;
+        try {
+            fromCache = prepareWebRequest(webRequest);
+        }
+        catch (final IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        final long requestStart = javaScriptClock_.currentTimeMillis();
+        if (fromCache != null) {
+            try {
+                final WebResponse webResponse = new WebResponseFromCache(fromCache, webRequest);
+                webResponse.setRequestStartTime(requestStart);
+                result.complete(processWebResponse(webRequest, webResponse, false, ALLOWED_REDIRECTIONS_SAME_URL));
+            }
+            catch (final IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        final long startNanos = javaScriptClock_.nanoTime();
+        final WebConnection connection = getWebConnection();
+        final CompletableFuture<WebResponse> responseFuture;
+        if (connection instanceof AsyncWebConnection) {
+            responseFuture = ((AsyncWebConnection) connection).getResponseAsync(webRequest, getExecutor());
+        }
+        else {
+            responseFuture = new CompletableFuture<>();
+            getExecutor().execute(() -> {
+                try {
+                    responseFuture.complete(connection.getResponse(webRequest));
+                }
+                catch (final Throwable e) {
+                    responseFuture.completeExceptionally(e);
+                }
+            });
+        }
+
+        responseFuture.whenComplete((webResponse, throwable) -> {
+            if (throwable != null) {
+                final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                if (cause instanceof NoHttpResponseException) {
+                    result.complete(new WebResponse(responseDataNoHttpResponse_, webRequest, 0));
+                }
+                else {
+                    result.completeExceptionally(cause);
+                }
+                return;
+            }
+
+            try {
+                fireRequestLoadPhases(webRequest, webResponse, startNanos);
+                webResponse.setRequestStartTime(requestStart);
+                result.complete(processWebResponse(webRequest, webResponse, true, ALLOWED_REDIRECTIONS_SAME_URL));
+            }
+            catch (final IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Encodes the url of the request and adds the proxy settings and the default headers.
+     * @param webRequest the request
+     * @return the cached response for the request or {@code null}
+     * @throws IOException if an IO problem occurs
+     */
+    private WebResponse prepareWebRequest(final WebRequest webRequest) throws IOException {
         URL url = webRequest.getUrl();
         final HttpMethod method = webRequest.getHttpMethod();
         final List<NameValuePair> parameters = webRequest.getRequestParameters();
@@ -1503,13 +1741,12 @@ public class WebClient implements Serializable, AutoCloseable {
             final ProxyConfig proxyConfig = getOptions().getProxyConfig();
             if (proxyConfig.getProxyAutoConfigUrl() != null) {
                 if (!UrlUtils.sameFile(new URL(proxyConfig.getProxyAutoConfigUrl()), url)) {
-                    String content = proxyConfig.getProxyAutoConfigContent();
-                    if (content == null) {
-                        content = getPage(proxyConfig.getProxyAutoConfigUrl())
+                    if (proxyConfig.getProxyAutoConfigContent() == null) {
+                        final String content = getPage(proxyConfig.getProxyAutoConfigUrl())
                             .getWebResponse().getContentAsString();
                         proxyConfig.setProxyAutoConfigContent(content);
                     }
-                    final String allValue = ProxyAutoConfig.evaluate(content, url);
+                    final String allValue = proxyConfig.getProxyAutoConfig().findProxyForURL(url);
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Proxy Auto-Config: value '" + allValue + "' for URL " + url);
                     }
@@ -1541,20 +1778,34 @@ public class WebClient implements Serializable, AutoCloseable {
         // Add the headers that are sent with every request.
         addDefaultHeaders(webRequest);
 
-        // Retrieve the response, either from the cache or from the server.
-        final WebResponse fromCache = getCache().getCachedResponse(webRequest);
-        final WebResponse webResponse;
-        if (fromCache == null) {
-            try {
-                webResponse = getWebConnection().getResponse(webRequest);
-            }
-            catch (final NoHttpResponseException e) {
-                return new WebResponse(responseDataNoHttpResponse_, webRequest, 0);
-            }
-        }
-        else {
-            webResponse = new WebResponseFromCache(fromCache, webRequest);
+        return getCache().getCachedResponse(webRequest);
+    }
+
+    private void fireRequestLoadPhases(final WebRequest webRequest, final WebResponse webResponse,
+            final long startNanos) {
+        if (isLoadTimingEnabled()) {
+            final long durationNanos = javaScriptClock_.nanoTime() - startNanos;
+            final long requestNanos = Math.min(durationNanos,
+                    TimeUnit.MILLISECONDS.toNanos(webResponse.getTimeToFirstByte()));
+            final String name = webRequest.getUrl().toExternalForm();
+            fireLoadPhase(null, name, LoadPhase.REQUEST, startNanos, requestNanos);
+            fireLoadPhase(null, name, LoadPhase.DOWNLOAD, startNanos + requestNanos, durationNanos - requestNanos);
         }
+    }
+
+    /**
+     * Follows the redirects and caches the response if possible.
+     * @param webRequest the request
+     * @param webResponse the response
+     * @param cacheIfPossible whether the response is not from the cache
+     * @param allowedRedirects the number of allowed redirects remaining
+     * @return the final response
+     * @throws IOException if an IO problem occurs
+     */
+    private WebResponse processWebResponse(final WebRequest webRequest, final WebResponse webResponse,
+            final boolean cacheIfPossible, final int allowedRedirects) throws IOException {
+        final URL url = webRequest.getUrl();
+        final List<NameValuePair> parameters = webRequest.getRequestParameters();
 
         // Continue according to the HTTP status code.
         final int status = webResponse.getStatusCode();
@@ -1622,7 +1873,7 @@ public class WebClient implements Serializable, AutoCloseable {
             }
         }
 
-        if (fromCache == null) {
+        if (cacheIfPossible) {
             getCache().cacheIfPossible(webRequest, webResponse, null);
         }
         return webResponse;
@@ -1884,6 +2135,41 @@ public class WebClient implements Serializable, AutoCloseable {
         ajaxController_ = newValue;
     }
 
+    /**
+     * Returns the clock used for the JavaScript timers, {@code Date} and {@code performance.now()}.
+     * @return the clock
+     */
+    public JavaScriptClock getJavaScriptClock() {
+        return javaScriptClock_;
+    }
+
+    /**
+     * Sets the clock used for the JavaScript timers, {@code Date} and {@code performance.now()}.
+     * Use a {@link com.gargoylesoftware.htmlunit.javascript.background.VirtualJavaScriptClock}
+     * to skip the idle time while waiting for the background JavaScript.
+     * This has to be set before the pages are loaded.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param clock the clock
+     */
+    public void setJavaScriptClock(final JavaScriptClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Null is not a valid JavaScriptClock");
+        }
+        javaScriptClock_ = clock;
+    }
+
+    /**
+     * Returns the page cache shared by the history of all windows.
+     * @return the history page cache
+     */
+    synchronized HistoryPageCache getHistoryPageCache() {
+        if (historyPageCache_ == null) {
+            historyPageCache_ = new HistoryPageCache(this);
+        }
+        return historyPageCache_;
+    }
+
     /**
      * Sets the attachment handler.
      * @param handler the new attachment handler
@@ -2099,6 +2385,14 @@ public class WebClient implements Serializable, AutoCloseable {
             }
         }
 
+        // the web sockets of the pages are closed now, stop the client even if closing some of them failed
+        try {
+            JettyWebSocketAdapter.closeClient(this);
+        }
+        catch (final Exception e) {
+            LOG.error("Exception while closing the WebSocket client", e);
+        }
+
         // do this after closing the windows, otherwise some unload event might
         // start a new window that will start the thread again
         if (scriptEngine_ != null) {
@@ -2126,6 +2420,15 @@ public class WebClient implements Serializable, AutoCloseable {
                     LOG.error("Exception while shutdown the executor service", e);
                 }
             }
+            if (workerExecutor_ != null) {
+                try {
+                    workerExecutor_.shutdownNow();
+                }
+                catch (final Exception e) {
+                    LOG.error("Exception while shutdown the worker executor service", e);
+                }
+                workerExecutor_ = null;
+            }
         }
 
         cache_.clear();
@@ -2152,8 +2455,22 @@ public class WebClient implements Serializable, AutoCloseable {
      *         method returns; will be <tt>0</tt> if there are no jobs left to execute
      */
     public int waitForBackgroundJavaScript(final long timeoutMillis) {
+        if (!isLoadTimingEnabled()) {
+            return waitForAllJobs(timeoutMillis);
+        }
+
+        final long startNanos = javaScriptClock_.nanoTime();
+        try {
+            return waitForAllJobs(timeoutMillis);
+        }
+        finally {
+            fireLoadPhase(null, null, LoadPhase.BACKGROUND_JAVASCRIPT, startNanos);
+        }
+    }
+
+    private int waitForAllJobs(final long timeoutMillis) {
         int count = 0;
-        final long endTime = System.currentTimeMillis() + timeoutMillis;
+        final long endTime = javaScriptClock_.currentTimeMillis() + timeoutMillis;
         for (Iterator<WeakReference<JavaScriptJobManager>> i = jobManagers_.iterator(); i.hasNext();) {
             final JavaScriptJobManager jobManager;
             final WeakReference<JavaScriptJobManager> reference;
@@ -2171,12 +2488,12 @@ public class WebClient implements Serializable, AutoCloseable {
                 continue;
             }
 
-            final long newTimeout = endTime - System.currentTimeMillis();
+            final long newTimeout = endTime - javaScriptClock_.currentTimeMillis();
             count += jobManager.waitForJobs(newTimeout);
         }
         if (count != getAggregateJobCount()) {
-            final long newTimeout = endTime - System.currentTimeMillis();
-            return waitForBackgroundJavaScript(newTimeout);
+            final long newTimeout = endTime - javaScriptClock_.currentTimeMillis();
+            return waitForAllJobs(newTimeout);
         }
         return count;
     }
@@ -2206,8 +2523,22 @@ public class WebClient implements Serializable, AutoCloseable {
      *         method returns; will be <tt>0</tt> if there are no jobs left to execute
      */
     public int waitForBackgroundJavaScriptStartingBefore(final long delayMillis) {
+        if (!isLoadTimingEnabled()) {
+            return waitForJobsStartingBefore(delayMillis);
+        }
+
+        final long startNanos = javaScriptClock_.nanoTime();
+        try {
+            return waitForJobsStartingBefore(delayMillis);
+        }
+        finally {
+            fireLoadPhase(null, null, LoadPhase.BACKGROUND_JAVASCRIPT, startNanos);
+        }
+    }
+
+    private int waitForJobsStartingBefore(final long delayMillis) {
         int count = 0;
-        final long endTime = System.currentTimeMillis() + delayMillis;
+        final long endTime = javaScriptClock_.currentTimeMillis() + delayMillis;
         for (Iterator<WeakReference<JavaScriptJobManager>> i = jobManagers_.iterator(); i.hasNext();) {
             final JavaScriptJobManager jobManager;
             final WeakReference<JavaScriptJobManager> reference;
@@ -2224,12 +2555,12 @@ public class WebClient implements Serializable, AutoCloseable {
                 count = 0;
                 continue;
             }
-            final long newDelay = endTime - System.currentTimeMillis();
+            final long newDelay = endTime - javaScriptClock_.currentTimeMillis();
             count += jobManager.waitForJobsStartingBefore(newDelay);
         }
         if (count != getAggregateJobCount()) {
-            final long newDelay = endTime - System.currentTimeMillis();
-            return waitForBackgroundJavaScriptStartingBefore(newDelay);
+            final long newDelay = endTime - javaScriptClock_.currentTimeMillis();
+            return waitForJobsStartingBefore(newDelay);
         }
         return count;
     }
@@ -2520,7 +2851,7 @@ public class WebClient implements Serializable, AutoCloseable {
      * @param url the URL on which to filter the returned cookies
      * @return the currently configured cookies applicable to the specified URL, in an unmodifiable set
      */
-    public synchronized Set<Cookie> getCookies(final URL url) {
+    public Set<Cookie> getCookies(final URL url) {
         final CookieManager cookieManager = getCookieManager();
 
         if (!cookieManager.isCookiesEnabled()) {
@@ -2536,33 +2867,45 @@ public class WebClient implements Serializable, AutoCloseable {
             return Collections.emptySet();
         }
 
+        // discard expired cookies
+        cookieManager.clearExpired(new Date());
+
+        final List<Cookie> candidates = cookieManager.getDomainCookies(host);
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+
         final String path = normalizedUrl.getPath();
         final String protocol = normalizedUrl.getProtocol();
         final boolean secure = "https".equals(protocol);
 
         final int port = cookieManager.getPort(normalizedUrl);
 
-        // discard expired cookies
-        cookieManager.clearExpired(new Date());
-
-        final List<org.apache.http.cookie.Cookie> all = Cookie.toHttpClient(cookieManager.getCookies());
-        final List<org.apache.http.cookie.Cookie> matches = new ArrayList<>();
-
-        if (all.size() > 0) {
-            final CookieOrigin cookieOrigin = new CookieOrigin(host, port, path, secure);
-            final CookieSpec cookieSpec = new HtmlUnitBrowserCompatCookieSpec(getBrowserVersion());
-            for (final org.apache.http.cookie.Cookie cookie : all) {
-                if (cookieSpec.match(cookie, cookieOrigin)) {
-                    matches.add(cookie);
-                }
+        final CookieOrigin cookieOrigin = new CookieOrigin(host, port, path, secure);
+        final CookieSpec cookieSpec = getCookieSpec();
+        final Set<Cookie> cookies = new LinkedHashSet<>();
+        for (final Cookie cookie : candidates) {
+            if (cookieSpec.match(cookie.toHttpClient(), cookieOrigin)) {
+                cookies.add(cookie);
             }
         }
-
-        final Set<Cookie> cookies = new LinkedHashSet<>();
-        cookies.addAll(Cookie.fromHttpClient(matches));
         return Collections.unmodifiableSet(cookies);
     }
 
+    /**
+     * Returns the (lazily created) cookie spec used to match cookies.
+     * The spec is stateless, sharing it between threads is safe.
+     * @return the cookie spec
+     */
+    private CookieSpec getCookieSpec() {
+        CookieSpec cookieSpec = cookieSpec_;
+        if (cookieSpec == null) {
+            cookieSpec = new HtmlUnitBrowserCompatCookieSpec(getBrowserVersion());
+            cookieSpec_ = cookieSpec;
+        }
+        return cookieSpec;
+    }
+
     /**
      * Parses the given cookie and adds this to our cookie store.
      * @param cookieString the string to parse
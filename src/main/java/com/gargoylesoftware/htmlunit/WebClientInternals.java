@@ -18,6 +18,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.gargoylesoftware.htmlunit.javascript.host.WebSocket;
 
@@ -32,6 +33,7 @@ import com.gargoylesoftware.htmlunit.javascript.host.WebSocket;
 public class WebClientInternals implements Serializable {
 
     private Collection<Listener> listeners_;
+    private final AtomicInteger backgroundActivities_ = new AtomicInteger();
 
     WebClientInternals() {
     }
@@ -76,6 +78,36 @@ public class WebClientInternals implements Serializable {
         }
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Registers the start of some activity outside of the job managers the JavaScript may be waiting for
+     * (a busy worker, a connecting {@link WebSocket}, a response loaded synchronously). A virtual
+     * {@link com.gargoylesoftware.htmlunit.javascript.background.JavaScriptClock} is not moved forward
+     * as long as there is any. Every call has to be followed by a call of {@link #endBackgroundActivity()}.
+     */
+    public void beginBackgroundActivity() {
+        backgroundActivities_.incrementAndGet();
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Registers the end of an activity started with {@link #beginBackgroundActivity()}.
+     */
+    public void endBackgroundActivity() {
+        backgroundActivities_.decrementAndGet();
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return whether there is some activity started with {@link #beginBackgroundActivity()} that has not ended
+     */
+    public boolean hasBackgroundActivity() {
+        return backgroundActivities_.get() > 0;
+    }
+
     /**
      * A listener for internal events.
      */
@@ -56,16 +56,27 @@ public class WebClientOptions implements Serializable {
     private int maxInMemory_ = 500 * 1024;
     private int historySizeLimit_ = 50;
     private int historyPageCacheLimit_ = Integer.MAX_VALUE;
+    private long historyPageCacheMemoryLimit_ = -1;
+    private boolean historyPageCacheCompression_;
     private InetAddress localAddress_;
     private boolean downloadImages_;
     private int screenWidth_ = 1920;
     private int screenHeight_ = 1080;
 
+    private boolean xhrBackgroundLoading_;
+    private int webWorkerThreads_;
+
     private boolean webSocketEnabled_ = true;
     private int webSocketMaxTextMessageSize_ = -1;
     private int webSocketMaxTextMessageBufferSize_ = -1;
     private int webSocketMaxBinaryMessageSize_ = -1;
     private int webSocketMaxBinaryMessageBufferSize_ = -1;
+    private boolean webSocketClientJvmWide_;
+    private int webSocketSelectors_ = -1;
+    private int webSocketWorkerThreads_ = -1;
+    private int webSocketInboundQueueSize_;
+
+    private int canvasPngCompressionLevel_ = -1;
 
     /**
      * If set to {@code true}, the client will accept connections to any host, regardless of
@@ -601,6 +612,48 @@ public class WebClientOptions implements Serializable {
         historyPageCacheLimit_ = historyPageCacheLimit;
     }
 
+    /**
+     * Returns the memory budget (in bytes) of the history page cache shared by all windows.
+     * @return the memory budget; zero or negative if the pages are held by soft references
+     */
+    public long getHistoryPageCacheMemoryLimit() {
+        return historyPageCacheMemoryLimit_;
+    }
+
+    /**
+     * Sets the memory budget (in bytes) of the history page cache shared by all windows.
+     * If this is positive, the pages of the history are held by strong references as long as the
+     * sum of their estimated retained sizes fits into the budget; the least recently used pages are
+     * evicted first and reloaded on demand. The default is -1 (pages are held by soft references
+     * and only limited by {@link #setHistoryPageCacheLimit(int)}).
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @param historyPageCacheMemoryLimit the memory budget in bytes
+     */
+    public void setHistoryPageCacheMemoryLimit(final long historyPageCacheMemoryLimit) {
+        historyPageCacheMemoryLimit_ = historyPageCacheMemoryLimit;
+    }
+
+    /**
+     * Returns whether pages evicted from the history page cache are kept in compressed form.
+     * @return whether evicted pages are compressed
+     */
+    public boolean isHistoryPageCacheCompression() {
+        return historyPageCacheCompression_;
+    }
+
+    /**
+     * Sets whether pages evicted from the history page cache (see {@link #setHistoryPageCacheMemoryLimit(long)})
+     * are kept in a compressed serialized form instead of being dropped. Restoring such a page is
+     * usually faster than reloading it. Only pages without a JavaScript scope are compressed (all
+     * pages if the JavaScript engine of the client is disabled); the nodes of the other pages are
+     * bound to their global scope, which can't be restored, so these pages are dropped and reloaded.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @param historyPageCacheCompression whether evicted pages are compressed
+     */
+    public void setHistoryPageCacheCompression(final boolean historyPageCacheCompression) {
+        historyPageCacheCompression_ = historyPageCacheCompression;
+    }
+
     /**
      * Returns local address to be used for request execution.
      *
@@ -679,6 +732,54 @@ public class WebClientOptions implements Serializable {
         return screenHeight_;
     }
 
+    /**
+     * Enables/disables loading the responses of asynchronous XMLHttpRequests in the background.
+     * If enabled, the network I/O of an asynchronous request is done using the executor of the
+     * {@link WebClient} and only the event handlers are executed by the JavaScript event loop;
+     * otherwise the request is done by the event loop itself. By default, this property is disabled.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param enabled {@code true} to load the responses in the background
+     */
+    public void setXhrBackgroundLoading(final boolean enabled) {
+        xhrBackgroundLoading_ = enabled;
+    }
+
+    /**
+     * Returns {@code true} if the responses of asynchronous XMLHttpRequests are loaded in the background.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @return {@code true} if the responses are loaded in the background
+     */
+    public boolean isXhrBackgroundLoading() {
+        return xhrBackgroundLoading_;
+    }
+
+    /**
+     * Sets the number of threads used to run web workers in parallel to the page.
+     * If this is greater than zero, every worker gets its own event loop and its scripts and
+     * message handlers are executed by a pool of this size shared by all workers of the {@link WebClient};
+     * messages are passed using the structured clone algorithm.
+     * If zero (the default) or less, the workers are executed by the JavaScript event loop of the page.
+     * This has to be set before the first worker is started.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param webWorkerThreads the number of threads, zero to run the workers on the event loop of the page
+     */
+    public void setWebWorkerThreads(final int webWorkerThreads) {
+        webWorkerThreads_ = webWorkerThreads;
+    }
+
+    /**
+     * Returns the number of threads used to run web workers in parallel to the page.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @return the number of threads, zero if the workers are executed by the event loop of the page
+     */
+    public int getWebWorkerThreads() {
+        return webWorkerThreads_;
+    }
+
     /**
      * Enables/disables WebSocket support. By default, this property is enabled.
      *
@@ -760,4 +861,115 @@ public class WebClientOptions implements Serializable {
     public void setWebSocketMaxBinaryMessageBufferSize(final int webSocketMaxBinaryMessageBufferSize) {
         webSocketMaxBinaryMessageBufferSize_ = webSocketMaxBinaryMessageBufferSize;
     }
+
+    /**
+     * Returns {@code true} if all WebSockets of all {@link WebClient}s (with the same configuration)
+     * share one client infrastructure.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @return {@code true} if the WebSocket client is shared JVM-wide
+     */
+    public boolean isWebSocketClientJvmWide() {
+        return webSocketClientJvmWide_;
+    }
+
+    /**
+     * Sets whether all WebSockets of all {@link WebClient}s (with the same configuration) share one
+     * client infrastructure (selectors, threads, ssl context). By default, this property is disabled
+     * and all WebSockets of one {@link WebClient} share one client.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param jvmWide {@code true} to share the WebSocket client JVM-wide
+     */
+    public void setWebSocketClientJvmWide(final boolean jvmWide) {
+        webSocketClientJvmWide_ = jvmWide;
+    }
+
+    /**
+     * @return the number of selectors used by the WebSocket client, -1 for the default
+     */
+    public int getWebSocketSelectors() {
+        return webSocketSelectors_;
+    }
+
+    /**
+     * Sets the number of selectors used by the WebSocket client; -1 (the default)
+     * uses the default of the underlying implementation.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param webSocketSelectors the new value
+     */
+    public void setWebSocketSelectors(final int webSocketSelectors) {
+        webSocketSelectors_ = webSocketSelectors;
+    }
+
+    /**
+     * @return the number of worker threads used by the WebSocket client, -1 for the default
+     */
+    public int getWebSocketWorkerThreads() {
+        return webSocketWorkerThreads_;
+    }
+
+    /**
+     * Sets the maximum number of worker threads used by the WebSocket client; -1 (the default)
+     * uses the executor of the {@link WebClient} (or the default pool of the underlying implementation
+     * if the client is shared JVM-wide). Keep in mind that every selector occupies one thread.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param webSocketWorkerThreads the new value
+     */
+    public void setWebSocketWorkerThreads(final int webSocketWorkerThreads) {
+        webSocketWorkerThreads_ = webSocketWorkerThreads;
+    }
+
+    /**
+     * @return the maximum number of received WebSocket messages queued for the event loop,
+     *         0 if messages are delivered directly from the network thread
+     */
+    public int getWebSocketInboundQueueSize() {
+        return webSocketInboundQueueSize_;
+    }
+
+    /**
+     * Sets the maximum number of received WebSocket messages queued for delivery.
+     * If greater than 0, incoming events are delivered in batches from a job of the
+     * JavaScript event loop of the page (like real browsers do) instead of directly
+     * from the network thread; reading from the socket is suspended as long as the
+     * queue is full. 0 (the default) keeps the direct delivery.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param webSocketInboundQueueSize the new value
+     */
+    public void setWebSocketInboundQueueSize(final int webSocketInboundQueueSize) {
+        webSocketInboundQueueSize_ = webSocketInboundQueueSize;
+    }
+
+    /**
+     * Returns the deflate level used to encode the png images of canvas elements
+     * (e.g. for {@code toDataURL()}).
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @return the level (0-9) or -1 if the images are encoded by {@link javax.imageio.ImageIO}
+     */
+    public int getCanvasPngCompressionLevel() {
+        return canvasPngCompressionLevel_;
+    }
+
+    /**
+     * Sets the deflate level used to encode the png images of canvas elements.
+     * A value between 0 and 9 switches to a built-in encoder that is a lot cheaper
+     * than {@link javax.imageio.ImageIO} (1 is the fastest useful setting) but
+     * produces different (and slightly larger) files. -1 (the default) uses
+     * {@link javax.imageio.ImageIO}.
+     * This has to be set before the canvas is drawn for the first time.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     *
+     * @param canvasPngCompressionLevel the level (0-9) or -1
+     */
+    public void setCanvasPngCompressionLevel(final int canvasPngCompressionLevel) {
+        if (canvasPngCompressionLevel < -1 || canvasPngCompressionLevel > 9) {
+            throw new IllegalArgumentException("Invalid png compression level: " + canvasPngCompressionLevel);
+        }
+        canvasPngCompressionLevel_ = canvasPngCompressionLevel;
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gargoylesoftware.htmlunit.javascript.host.idb.InMemoryKeyValueStoreBackend;
+import com.gargoylesoftware.htmlunit.javascript.host.idb.MappedFileKeyValueStoreBackend;
+
+/**
+ * A snapshot of the state of a {@link WebClient} - the windows with their pages (DOM and
+ * JavaScript objects), the history, the cookies and the storages. The snapshot can be used to
+ * create any number of independent {@link WebClient}s ({@link #fork()}) continuing from this
+ * state without downloading, parsing and executing the pages again.
+ *
+ * <p>The snapshot is taken by serializing the client once. The immutable parts (the content
+ * of the responses kept in memory) are not part of the serialized form; all forks share them.
+ * The content of responses kept in temporary files is copied once into a file owned by the
+ * snapshot and again into a file owned by every fork, because cleaning up a response deletes
+ * its file. Everything else is copied when forking, so changes done by one fork are not
+ * visible to the others (and not to the original client).</p>
+ *
+ * <p>Limitations:</p>
+ * <ul>
+ *   <li>pending JavaScript jobs (timers, requests) are not part of the snapshot; take
+ *   the snapshot after {@link WebClient#waitForBackgroundJavaScript(long)}</li>
+ *   <li>like for every deserialized client the {@link WebConnection} is a new
+ *   {@link HttpWebConnection}, set your own connection on the forks if needed</li>
+ *   <li>a {@link MappedFileStorageBackend} is replaced by an {@link InMemoryStorageBackend}
+ *   holding a copy of its stores (the forks must not write to the same files); changes done
+ *   by the forks are therefore not persisted. The same is done for a
+ *   {@link MappedFileKeyValueStoreBackend}, which is replaced by an {@link InMemoryKeyValueStoreBackend}.
+ *   Other backends are serialized like everything else</li>
+ * </ul>
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class WebClientSnapshot {
+
+    private final byte[] state_;
+    private final List<Object> shared_;
+
+    private WebClientSnapshot(final byte[] state, final List<Object> shared) {
+        state_ = state;
+        shared_ = Collections.unmodifiableList(shared);
+    }
+
+    /**
+     * Takes a snapshot of the given client.
+     * @param webClient the client
+     * @return the snapshot
+     * @throws IOException if the state of the client can't be serialized
+     */
+    public static WebClientSnapshot of(final WebClient webClient) throws IOException {
+        final List<Object> shared = new ArrayList<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new SharingObjectOutputStream(bytes, shared)) {
+            out.writeObject(webClient);
+        }
+        return new WebClientSnapshot(bytes.toByteArray(), shared);
+    }
+
+    /**
+     * Creates a new client with the state of this snapshot.
+     * @return the new client
+     * @throws IOException if the state can't be deserialized
+     */
+    public WebClient fork() throws IOException {
+        try (ObjectInputStream in = new SharingObjectInputStream(new ByteArrayInputStream(state_), shared_)) {
+            return (WebClient) in.readObject();
+        }
+        catch (final ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes that have to be deserialized for every fork.
+     * @return the size of the serialized state
+     */
+    public int getSize() {
+        return state_.length;
+    }
+
+    /**
+     * Returns the number of objects shared by all forks.
+     * @return the number of shared objects
+     */
+    public int getSharedCount() {
+        return shared_.size();
+    }
+
+    /**
+     * Placeholder for a shared object in the serialized state.
+     */
+    private static final class SharedReference implements Serializable {
+        private final int index_;
+
+        SharedReference(final int index) {
+            index_ = index;
+        }
+    }
+
+    private static final class SharingObjectOutputStream extends ObjectOutputStream {
+        private final List<Object> shared_;
+        private final Map<Object, SharedReference> references_ = new IdentityHashMap<>();
+
+        SharingObjectOutputStream(final OutputStream out, final List<Object> shared) throws IOException {
+            super(out);
+            shared_ = shared;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) throws IOException {
+            if (obj instanceof MappedFileStorageBackend) {
+                try {
+                    return ((MappedFileStorageBackend) obj).copyToMemory();
+                }
+                catch (final UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            if (obj instanceof MappedFileKeyValueStoreBackend) {
+                return ((MappedFileKeyValueStoreBackend) obj).copyToMemory();
+            }
+            if (obj instanceof DownloadedContent.OnFile) {
+                SharedReference reference = references_.get(obj);
+                if (reference == null) {
+                    shared_.add(((DownloadedContent.OnFile) obj).copy());
+                    reference = new SharedReference(shared_.size() - 1);
+                    references_.put(obj, reference);
+                }
+                return reference;
+            }
+            if (obj instanceof DownloadedContent.InMemory) {
+                return references_.computeIfAbsent(obj, o -> {
+                    shared_.add(o);
+                    return new SharedReference(shared_.size() - 1);
+                });
+            }
+            return obj;
+        }
+    }
+
+    private static final class SharingObjectInputStream extends ObjectInputStream {
+        private final List<Object> shared_;
+        private final Map<Integer, Object> copies_ = new HashMap<>();
+
+        SharingObjectInputStream(final InputStream in, final List<Object> shared) throws IOException {
+            super(in);
+            shared_ = shared;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj instanceof SharedReference) {
+                final int index = ((SharedReference) obj).index_;
+                final Object shared = shared_.get(index);
+                if (shared instanceof DownloadedContent.OnFile) {
+                    // every fork owns its file; cleaning up a response deletes it
+                    Object copy = copies_.get(index);
+                    if (copy == null) {
+                        copy = ((DownloadedContent.OnFile) shared).copy();
+                        copies_.put(index, copy);
+                    }
+                    return copy;
+                }
+                return shared;
+            }
+            return obj;
+        }
+    }
+}
@@ -55,6 +55,8 @@ public class WebResponse implements Serializable {
         ByteOrderMark.UTF_16BE};
 
     private long loadTime_;
+    private long timeToFirstByte_ = -1;
+    private long requestStartTime_;
     private WebResponseData responseData_;
     private WebRequest request_;
     private boolean defaultCharsetUtf8_;
@@ -295,6 +297,44 @@ public class WebResponse implements Serializable {
         return loadTime_;
     }
 
+    /**
+     * Returns the time it took to receive the response headers, in milliseconds.
+     * This is the part of {@link #getLoadTime()} not used for downloading the content;
+     * if the {@link WebConnection} does not measure it, the load time is returned.
+     * @return the time to the first byte, in milliseconds
+     */
+    public long getTimeToFirstByte() {
+        if (timeToFirstByte_ < 0) {
+            return getLoadTime();
+        }
+        return timeToFirstByte_;
+    }
+
+    /**
+     * Sets the time it took to receive the response headers.
+     * @param timeToFirstByte the time to the first byte, in milliseconds
+     */
+    void setTimeToFirstByte(final long timeToFirstByte) {
+        timeToFirstByte_ = timeToFirstByte;
+    }
+
+    /**
+     * Returns the time (see {@link WebClient#getJavaScriptClock()}) the request
+     * was started by the {@link WebClient}.
+     * @return the start time in milliseconds since the epoch or 0 if not known
+     */
+    public long getRequestStartTime() {
+        return requestStartTime_;
+    }
+
+    /**
+     * Sets the time the request was started.
+     * @param requestStartTime the start time in milliseconds since the epoch
+     */
+    void setRequestStartTime(final long requestStartTime) {
+        requestStartTime_ = requestStartTime;
+    }
+
     /**
      * Clean up the response data.
      */
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.html;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlElement.DisplayStyle;
+import com.gargoylesoftware.htmlunit.javascript.host.css.CSSStyleDeclaration;
+import com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes;
+import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
+
+/**
+ * Answers {@link DomNode#isDisplayed()} for the nodes visited by a serializer.
+ * <p>
+ * {@link DomNode#isDisplayed()} evaluates the style of all ancestors for every node. The serializers
+ * visit the tree top down, therefore the display and visibility state of every element is derived here
+ * from the (already known) state of its parent, so the style of each element is evaluated only once.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class DisplayedStateTracker {
+
+    /** The state of a subtree hidden by <tt>display: none</tt> or the <tt>hidden</tt> attribute. */
+    private static final State NONE = new State(true, null);
+
+    /** The state above the root; nothing hidden, no visibility set. */
+    private static final State ROOT = new State(false, null);
+
+    private final Map<DomNode, State> states_ = new IdentityHashMap<>();
+    private Boolean styled_;
+
+    /**
+     * Forgets all states, e.g. because the tree might have changed.
+     */
+    void clear() {
+        states_.clear();
+        styled_ = null;
+    }
+
+    /**
+     * Returns the same as {@link DomNode#isDisplayed()}.
+     * @param node the node to check
+     * @return {@code true} if the node is displayed
+     */
+    boolean isDisplayed(final DomNode node) {
+        if (!node.mayBeDisplayed()) {
+            return false;
+        }
+
+        // these have their own rules
+        if (node instanceof HtmlImage || node instanceof HtmlArea || node instanceof HtmlMap) {
+            return node.isDisplayed();
+        }
+
+        if (node instanceof HtmlElement && ((HtmlElement) node).isHidden()) {
+            return false;
+        }
+        if (!isStyled(node)) {
+            return true;
+        }
+
+        final State state = getState(node);
+        return !state.none_ && !Boolean.FALSE.equals(state.visible_);
+    }
+
+    private boolean isStyled(final DomNode node) {
+        if (styled_ == null) {
+            final Page page = node.getPage();
+            final WebClient webClient = page.getEnclosingWindow().getWebClient();
+            styled_ = Boolean.valueOf(webClient.getOptions().isCssEnabled() && webClient.isJavaScriptEnabled());
+        }
+        return styled_.booleanValue();
+    }
+
+    private State getState(final DomNode node) {
+        if (node == null) {
+            return ROOT;
+        }
+
+        State state = states_.get(node);
+        if (state == null) {
+            state = computeState(node, getState(node.getParentNode()));
+            states_.put(node, state);
+        }
+        return state;
+    }
+
+    private static State computeState(final DomNode node, final State parentState) {
+        if (parentState.none_) {
+            return NONE;
+        }
+        if (node instanceof HtmlElement && ((HtmlElement) node).isHidden()) {
+            return NONE;
+        }
+
+        final Object scriptableObject = node.getScriptableObject();
+        if (!(scriptableObject instanceof HTMLElement)) {
+            return parentState;
+        }
+
+        final HTMLElement elem = (HTMLElement) scriptableObject;
+        final CSSStyleDeclaration style = elem.getWindow().getComputedStyle(elem, null);
+        if (DisplayStyle.NONE.value().equals(style.getDisplay())) {
+            return NONE;
+        }
+
+        // a visibility set on the element overrides the one of the ancestors
+        final String visibility = style.getStyleAttribute(StyleAttributes.Definition.VISIBILITY);
+        if (visibility.length() > 5) {
+            if ("visible".equals(visibility)) {
+                return new State(false, Boolean.TRUE);
+            }
+            if ("hidden".equals(visibility) || "collapse".equals(visibility)) {
+                return new State(false, Boolean.FALSE);
+            }
+        }
+        return parentState;
+    }
+
+    private static final class State {
+        private final boolean none_;
+        private final Boolean visible_;
+
+        State(final boolean none, final Boolean visible) {
+            none_ = none;
+            visible_ = visible;
+        }
+    }
+}
@@ -111,6 +111,7 @@ public class DomAttr extends DomNamespaceNode implements Attr {
     public void setValue(final String value) {
         value_ = value;
         specified_ = true;
+        notifyModification();
     }
 
     /**
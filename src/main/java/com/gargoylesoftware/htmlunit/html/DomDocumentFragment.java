@@ -14,6 +14,9 @@
  */
 package com.gargoylesoftware.htmlunit.html;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.w3c.dom.DocumentFragment;
 
 import com.gargoylesoftware.htmlunit.SgmlPage;
@@ -66,6 +69,16 @@ public class DomDocumentFragment extends DomNode implements DocumentFragment {
         return sb.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void asXml(final Writer writer) throws IOException {
+        for (final DomNode node : getChildren()) {
+            node.asXml(writer);
+        }
+    }
+
     /**
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
@@ -513,6 +513,29 @@ public class DomElement extends DomNamespaceNode implements Element {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addListenedEventTypes() {
+        super.addListenedEventTypes();
+        for (final String name : attributes_.keySet()) {
+            addListenedEventType(name);
+        }
+    }
+
+    /**
+     * Makes the event type of an event handler attribute (like "onclick") known to the page,
+     * because the handler is only created together with the JavaScript object of this element.
+     * @param attributeName the attribute name
+     */
+    void addListenedEventType(final String attributeName) {
+        final SgmlPage page = getPage();
+        if (page != null && attributeName.length() > 2 && attributeName.regionMatches(true, 0, "on", 0, 2)) {
+            page.addListenedEventType(attributeName.substring(2).toLowerCase(Locale.ROOT));
+        }
+    }
+
     /**
      * Indicates if the attribute names are case sensitive.
      * @return {@code true}
@@ -1703,6 +1726,10 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     public DomAttr put(final String key, final DomAttr value) {
         final String name = fixName(key);
         dirty_ = true;
+        if (domNode_ != null) {
+            domNode_.addListenedEventType(name);
+            domNode_.notifyModification();
+        }
         return map_.put(name, value);
     }
 
@@ -1714,6 +1741,9 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
         if (key instanceof String) {
             final String name = fixName((String) key);
             dirty_ = true;
+            if (domNode_ != null) {
+                domNode_.notifyModification();
+            }
             return map_.remove(name);
         }
         return null;
@@ -1725,6 +1755,9 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     @Override
     public void clear() {
         dirty_ = true;
+        if (domNode_ != null) {
+            domNode_.notifyModification();
+        }
         map_.clear();
     }
 
@@ -23,6 +23,7 @@ import java.io.ObjectInputStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -59,8 +60,10 @@ import com.gargoylesoftware.htmlunit.html.xpath.XPathHelper;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.host.css.CSSStyleDeclaration;
 import com.gargoylesoftware.htmlunit.javascript.host.css.CSSStyleSheet;
+import com.gargoylesoftware.htmlunit.javascript.host.css.LayoutBox;
 import com.gargoylesoftware.htmlunit.javascript.host.css.StyleAttributes;
 import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
+import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLDocument;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
 import com.gargoylesoftware.htmlunit.xml.XmlPage;
@@ -739,39 +742,59 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         final Page page = getPage();
         final WebClient webClient = page.getEnclosingWindow().getWebClient();
         if (webClient.getOptions().isCssEnabled() && webClient.isJavaScriptEnabled()) {
-            // display: iterate top to bottom, because if a parent is display:none,
-            // there's nothing that a child can do to override it
-            final List<Node> ancestors = getAncestors();
-            final ArrayList<CSSStyleDeclaration> styles = new ArrayList<>(ancestors.size());
-
-            for (final Node node : ancestors) {
-                if (node instanceof HtmlElement && ((HtmlElement) node).isHidden()) {
-                    return false;
+            // the result is part of the layout of the page, reuse it as long as nothing changed
+            LayoutBox layoutBox = null;
+            final Object scriptableObject = getScriptableObject();
+            if (scriptableObject instanceof HTMLElement) {
+                final HTMLElement elem = (HTMLElement) scriptableObject;
+                layoutBox = elem.getWindow().getLayoutBox(elem);
+                if (layoutBox != null && layoutBox.getDisplayed() != null) {
+                    return layoutBox.getDisplayed().booleanValue();
                 }
+            }
 
-                final Object scriptableObject = ((DomNode) node).getScriptableObject();
-                if (scriptableObject instanceof HTMLElement) {
-                    final HTMLElement elem = (HTMLElement) scriptableObject;
-                    final CSSStyleDeclaration style = elem.getWindow().getComputedStyle(elem, null);
-                    if (DisplayStyle.NONE.value().equals(style.getDisplay())) {
-                        return false;
-                    }
-                    styles.add(style);
+            final boolean displayed = isDisplayedByStyle();
+            if (layoutBox != null) {
+                layoutBox.setDisplayed(Boolean.valueOf(displayed));
+            }
+            return displayed;
+        }
+        return true;
+    }
+
+    private boolean isDisplayedByStyle() {
+        // display: iterate top to bottom, because if a parent is display:none,
+        // there's nothing that a child can do to override it
+        final List<Node> ancestors = getAncestors();
+        final ArrayList<CSSStyleDeclaration> styles = new ArrayList<>(ancestors.size());
+
+        for (final Node node : ancestors) {
+            if (node instanceof HtmlElement && ((HtmlElement) node).isHidden()) {
+                return false;
+            }
+
+            final Object scriptableObject = ((DomNode) node).getScriptableObject();
+            if (scriptableObject instanceof HTMLElement) {
+                final HTMLElement elem = (HTMLElement) scriptableObject;
+                final CSSStyleDeclaration style = elem.getWindow().getComputedStyle(elem, null);
+                if (DisplayStyle.NONE.value().equals(style.getDisplay())) {
+                    return false;
                 }
+                styles.add(style);
             }
+        }
 
-            // visibility: iterate bottom to top, because children can override
-            // the visibility used by parent nodes
-            for (int i = styles.size() - 1; i >= 0; i--) {
-                final CSSStyleDeclaration style = styles.get(i);
-                final String visibility = style.getStyleAttribute(StyleAttributes.Definition.VISIBILITY);
-                if (visibility.length() > 5) {
-                    if ("visible".equals(visibility)) {
-                        return true;
-                    }
-                    if ("hidden".equals(visibility) || "collapse".equals(visibility)) {
-                        return false;
-                    }
+        // visibility: iterate bottom to top, because children can override
+        // the visibility used by parent nodes
+        for (int i = styles.size() - 1; i >= 0; i--) {
+            final CSSStyleDeclaration style = styles.get(i);
+            final String visibility = style.getStyleAttribute(StyleAttributes.Definition.VISIBILITY);
+            if (visibility.length() > 5) {
+                if ("visible".equals(visibility)) {
+                    return true;
+                }
+                if ("hidden".equals(visibility) || "collapse".equals(visibility)) {
+                    return false;
                 }
             }
         }
@@ -828,22 +851,42 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return the XML string
      */
     public String asXml() {
+        final StringWriter stringWriter = new StringWriter();
+        try (PrintWriter printWriter = new PrintWriter(stringWriter)) {
+            printXmlDocument(printWriter);
+            return stringWriter.toString();
+        }
+    }
+
+    /**
+     * Writes the XML representation of this element and all it's children (recursively) to the given writer.
+     * This is the same as {@link #asXml()} returns, but the XML is streamed instead of being built in memory.
+     *
+     * @param writer the writer to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void asXml(final Writer writer) throws IOException {
+        final PrintWriter printWriter = new PrintWriter(writer);
+        printXmlDocument(printWriter);
+        // PrintWriter swallows the exceptions
+        if (printWriter.checkError()) {
+            throw new IOException("Failed to write the XML of node '" + getNodeName() + "'");
+        }
+    }
+
+    private void printXmlDocument(final PrintWriter printWriter) {
         Charset charsetName = null;
         final HtmlPage htmlPage = getHtmlPageOrNull();
         if (htmlPage != null) {
             charsetName = htmlPage.getCharset();
         }
 
-        final StringWriter stringWriter = new StringWriter();
-        try (PrintWriter printWriter = new PrintWriter(stringWriter)) {
-            if (charsetName != null && this instanceof HtmlHtml) {
-                printWriter.print("<?xml version=\"1.0\" encoding=\"");
-                printWriter.print(charsetName);
-                printWriter.print("\"?>\r\n");
-            }
-            printXml("", printWriter);
-            return stringWriter.toString();
+        if (charsetName != null && this instanceof HtmlHtml) {
+            printWriter.print("<?xml version=\"1.0\" encoding=\"");
+            printWriter.print(charsetName);
+            printWriter.print("\"?>\r\n");
         }
+        printXml("", printWriter);
     }
 
     /**
@@ -1079,6 +1122,8 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     }
 
     private void fireAddition(final DomNode domNode) {
+        notifyModification();
+
         final boolean wasAlreadyAttached = domNode.isAttachedToPage();
         domNode.attachedToPage_ = isAttachedToPage();
 
@@ -1124,11 +1169,23 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         }
 
         page_ = newPage;
+        addListenedEventTypes();
         for (final DomNode node : getChildren()) {
             node.setPage(newPage);
         }
     }
 
+    /**
+     * Makes the event types this node has listeners or handlers for known to its page,
+     * needed if the node was moved to another page.
+     * @see SgmlPage#isListenedEventType(String)
+     */
+    protected void addListenedEventTypes() {
+        if (scriptObject_ instanceof EventTarget) {
+            ((EventTarget) scriptObject_).updateListenedEventTypes();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1199,6 +1256,8 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     }
 
     private void fireRemoval(final DomNode exParent) {
+        notifyModification();
+
         final HtmlPage htmlPage = getHtmlPageOrNull();
         if (htmlPage != null) {
             // some of the actions executed on removal need an intact parent relationship (e.g. for the
@@ -1685,6 +1744,17 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         incorrectnessListener.notify(message, this);
     }
 
+    /**
+     * Increments the modification count of the page this node belongs to.
+     * @see SgmlPage#getModificationCount()
+     */
+    protected void notifyModification() {
+        final SgmlPage page = getPage();
+        if (page != null) {
+            page.incrementModificationCount();
+        }
+    }
+
     /**
      * Adds a {@link DomChangeListener} to the listener list. The listener is registered for
      * all descendants of this node.
@@ -1940,6 +2010,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     public void processImportNode(final com.gargoylesoftware.htmlunit.javascript.host.dom.Document doc) {
         page_ = (SgmlPage) doc.getDomNodeOrDie();
+        addListenedEventTypes();
     }
 
     /**
@@ -44,6 +44,7 @@ import org.apache.http.HttpStatus;
 import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.HttpHeader;
 import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
 import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebRequest;
@@ -548,6 +549,7 @@ public class HtmlImage extends HtmlElement {
                     request.setCharset(page.getCharset());
                     request.setAdditionalHeader(HttpHeader.REFERER, page.getUrl().toExternalForm());
                     imageWebResponse_ = webClient.loadWebResponse(request);
+                    page.getLoadTiming().addResource(new ResourceTiming(imageWebResponse_, "img"));
                 }
             }
 
@@ -69,6 +69,8 @@ import com.gargoylesoftware.htmlunit.History;
 import com.gargoylesoftware.htmlunit.HttpHeader;
 import com.gargoylesoftware.htmlunit.OnbeforeunloadHandler;
 import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.PageLoadTiming;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
 import com.gargoylesoftware.htmlunit.ScriptResult;
 import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.TopLevelWindow;
@@ -175,6 +177,7 @@ public class HtmlPage extends SgmlPage {
     private ElementFromPointHandler elementFromPointHandler_;
     private DomElement elementWithFocus_;
     private List<Range> selectionRanges_ = new ArrayList<>(3);
+    private final PageLoadTiming loadTiming_;
 
     private static final List<String> TABBABLE_TAGS = Arrays.asList(HtmlAnchor.TAG_NAME, HtmlArea.TAG_NAME,
             HtmlButton.TAG_NAME, HtmlInput.TAG_NAME, HtmlObject.TAG_NAME, HtmlSelect.TAG_NAME, HtmlTextArea.TAG_NAME);
@@ -205,6 +208,10 @@ public class HtmlPage extends SgmlPage {
      */
     public HtmlPage(final WebResponse webResponse, final WebWindow webWindow) {
         super(webResponse, webWindow);
+        loadTiming_ = new PageLoadTiming(webResponse);
+        if (webWindow != null) {
+            mark(PageLoadTiming.Mark.DOM_LOADING);
+        }
     }
 
     /**
@@ -252,11 +259,14 @@ public class HtmlPage extends SgmlPage {
         }
 
         if (!isAboutBlank) {
+            mark(PageLoadTiming.Mark.DOM_INTERACTIVE);
             setReadyState(READY_STATE_INTERACTIVE);
             getDocumentElement().setReadyState(READY_STATE_INTERACTIVE);
         }
 
+        mark(PageLoadTiming.Mark.DOM_CONTENT_LOADED_EVENT_START);
         executeEventHandlersIfNeeded(Event.TYPE_DOM_DOCUMENT_LOADED);
+        mark(PageLoadTiming.Mark.DOM_CONTENT_LOADED_EVENT_END);
 
         loadFrames();
 
@@ -266,6 +276,7 @@ public class HtmlPage extends SgmlPage {
             if (hasFeature(FOCUS_BODY_ELEMENT_AT_START)) {
                 setElementWithFocus(getBody());
             }
+            mark(PageLoadTiming.Mark.DOM_COMPLETE);
             setReadyState(READY_STATE_COMPLETE);
             getDocumentElement().setReadyState(READY_STATE_COMPLETE);
         }
@@ -289,7 +300,9 @@ public class HtmlPage extends SgmlPage {
         }
 
         if (isFrameWindow && !isFirstPageInFrameWindow) {
+            mark(PageLoadTiming.Mark.LOAD_EVENT_START);
             executeEventHandlersIfNeeded(Event.TYPE_LOAD);
+            mark(PageLoadTiming.Mark.LOAD_EVENT_END);
         }
 
         for (final FrameWindow frameWindow : getFrames()) {
@@ -302,7 +315,9 @@ public class HtmlPage extends SgmlPage {
         }
 
         if (!isFrameWindow) {
+            mark(PageLoadTiming.Mark.LOAD_EVENT_START);
             executeEventHandlersIfNeeded(Event.TYPE_LOAD);
+            mark(PageLoadTiming.Mark.LOAD_EVENT_END);
 
             if (!isAboutBlank && enclosingWindow.getWebClient().isJavaScriptEnabled()
                     && hasFeature(EVENT_FOCUS_ON_LOAD)) {
@@ -329,6 +344,19 @@ public class HtmlPage extends SgmlPage {
         executeRefreshIfNeeded();
     }
 
+    private void mark(final PageLoadTiming.Mark mark) {
+        loadTiming_.mark(mark, getWebClient().getJavaScriptClock().currentTimeMillis());
+    }
+
+    /**
+     * Returns the navigation timing of this page and the timings of the resources loaded by this page.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @return the load timing
+     */
+    public PageLoadTiming getLoadTiming() {
+        return loadTiming_;
+    }
+
     /**
      * Adds an action that should be executed once the page has been loaded.
      * @param action the action
@@ -1053,6 +1081,7 @@ public class HtmlPage extends SgmlPage {
         // loadWebResponse check the cache for the web response
         // AND also fixes the request url for the following cache lookups
         final WebResponse response = client.loadWebResponse(request);
+        loadTiming_.addResource(new ResourceTiming(response, "script"));
 
         // now we can look into the cache with the fixed request for
         // a cached script
@@ -34,6 +34,8 @@ import com.gargoylesoftware.htmlunit.javascript.host.Element;
  */
 public class HtmlSerializer {
 
+    private final DisplayedStateTracker displayedStates_ = new DisplayedStateTracker();
+
     private boolean ignoreMaskedElements_ = true;
 
     /**
@@ -42,6 +44,7 @@ public class HtmlSerializer {
      * @return the text representation according to the setting of this serializer
      */
     public String asText(final DomNode node) {
+        displayedStates_.clear();
         final HtmlSerializerTextBuilder builder = new HtmlSerializerTextBuilder();
         appendNode(builder, node);
         return builder.getText();
@@ -543,7 +546,7 @@ public class HtmlSerializer {
     }
 
     private boolean isVisible(final DomNode node) {
-        return !ignoreMaskedElements_ || node.isDisplayed();
+        return !ignoreMaskedElements_ || displayedStates_.isDisplayed(node);
     }
 
     /**
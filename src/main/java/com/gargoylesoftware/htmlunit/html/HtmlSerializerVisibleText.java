@@ -34,6 +34,8 @@ import com.gargoylesoftware.htmlunit.javascript.host.dom.Node;
  */
 public class HtmlSerializerVisibleText {
 
+    private final DisplayedStateTracker displayedStates_ = new DisplayedStateTracker();
+
     /**
      * Converts an HTML node to text.
      * @param node a node
@@ -43,6 +45,7 @@ public class HtmlSerializerVisibleText {
         if (node instanceof HtmlBreak) {
             return "";
         }
+        displayedStates_.clear();
         final HtmlSerializerTextBuilder builder = new HtmlSerializerTextBuilder();
         appendNode(builder, node, whiteSpaceStyle(node, Mode.WHITE_SPACE_NORMAL));
         return builder.getText();
@@ -618,7 +621,7 @@ public class HtmlSerializerVisibleText {
     }
 
     private boolean isVisible(final DomNode node) {
-        return node.isDisplayed();
+        return displayedStates_.isDisplayed(node);
     }
 
     private Mode whiteSpaceStyle(final DomNode domNode, final Mode defaultMode) {
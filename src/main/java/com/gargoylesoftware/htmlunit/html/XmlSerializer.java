@@ -16,13 +16,18 @@ package com.gargoylesoftware.htmlunit.html;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -53,6 +58,7 @@ class XmlSerializer {
 
     private final StringBuilder builder_ = new StringBuilder();
     private final StringBuilder indent_ = new StringBuilder();
+    private Writer writer_;
     private File outputDir_;
 
     public void save(final SgmlPage page, final File file) throws IOException {
@@ -71,18 +77,38 @@ class XmlSerializer {
         // header with the one used by the writer
         final DomElement node = page.getDocumentElement();
         Charset charsetName = ISO_8859_1;
-        builder_.setLength(0);
-        indent_.setLength(0);
         if (page.isHtmlPage()) {
             charsetName = page.getCharset();
-            if (charsetName != null && node instanceof HtmlHtml) {
-                builder_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName).append("\"?>").append('\n');
+        }
+
+        // stream the xml to a temporary file instead of building the whole content in memory;
+        // the file is moved into place when complete, a failure leaves no truncated file behind
+        final Path tmpFile = Files.createTempFile(outputFile.getAbsoluteFile().getParentFile().toPath(),
+                fileName, ".tmp");
+        boolean moved = false;
+        try {
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(tmpFile),
+                            charsetName == null ? Charset.defaultCharset() : charsetName))) {
+                writer_ = writer;
+                indent_.setLength(0);
+                if (page.isHtmlPage() && charsetName != null && node instanceof HtmlHtml) {
+                    writer_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName.name()).append("\"?>")
+                        .append('\n');
+                }
+                printXml(node);
+            }
+            finally {
+                writer_ = null;
+            }
+            Files.move(tmpFile, outputFile.toPath());
+            moved = true;
+        }
+        finally {
+            if (!moved) {
+                Files.deleteIfExists(tmpFile);
             }
         }
-        printXml(node);
-        final String response = builder_.toString();
-        builder_.setLength(0);
-        FileUtils.writeStringToFile(outputFile, response, charsetName);
     }
 
     /**
@@ -91,43 +117,48 @@ class XmlSerializer {
      * @throws IOException in case of problem saving resources
      */
     public String asXml(final DomElement node) throws IOException {
-        builder_.setLength(0);
-        indent_.setLength(0);
-        final SgmlPage page = node.getPage();
-        if (null != page && page.isHtmlPage()) {
-            final Charset charsetName = page.getCharset();
-            if (charsetName != null && node instanceof HtmlHtml) {
-                builder_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName).append("\"?>").append('\n');
+        final StringWriter writer = new StringWriter();
+        writer_ = writer;
+        try {
+            indent_.setLength(0);
+            final SgmlPage page = node.getPage();
+            if (null != page && page.isHtmlPage()) {
+                final Charset charsetName = page.getCharset();
+                if (charsetName != null && node instanceof HtmlHtml) {
+                    writer_.append("<?xml version=\"1.0\" encoding=\"").append(charsetName.name()).append("\"?>")
+                        .append('\n');
+                }
             }
+            printXml(node);
         }
-        printXml(node);
-        final String response = builder_.toString();
-        builder_.setLength(0);
-        return response;
+        finally {
+            writer_ = null;
+        }
+        return writer.toString();
     }
 
     protected void printXml(final DomElement node) throws IOException {
         if (!isExcluded(node)) {
             final boolean hasChildren = node.getFirstChild() != null;
-            builder_.append(indent_).append('<');
+            writer_.append(indent_).append('<');
             printOpeningTag(node);
 
             if (!hasChildren && !node.isEmptyXmlTagExpanded()) {
-                builder_.append("/>").append('\n');
+                writer_.append("/>").append('\n');
             }
             else {
-                builder_.append('>').append('\n');
+                writer_.append('>').append('\n');
                 for (DomNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
                     indent_.append("  ");
                     if (child instanceof DomElement) {
                         printXml((DomElement) child);
                     }
                     else {
-                        builder_.append(child);
+                        writer_.append(String.valueOf(child));
                     }
                     indent_.setLength(indent_.length() - 2);
                 }
-                builder_.append(indent_).append("</").append(node.getTagName()).append('>').append('\n');
+                writer_.append(indent_).append("</").append(node.getTagName()).append('>').append('\n');
             }
         }
     }
@@ -170,16 +201,16 @@ class XmlSerializer {
      * @throws IOException in case of problem saving resources
      */
     protected void printOpeningTag(final DomElement node) throws IOException {
-        builder_.append(node.getTagName());
+        writer_.append(node.getTagName());
         final Map<String, DomAttr> attributes = readAttributes(node);
 
         for (final Map.Entry<String, DomAttr> entry : attributes.entrySet()) {
-            builder_.append(' ');
-            builder_.append(entry.getKey());
-            builder_.append("=\"");
+            writer_.append(' ');
+            writer_.append(entry.getKey());
+            writer_.append("=\"");
             final String value = entry.getValue().getNodeValue();
-            builder_.append(com.gargoylesoftware.htmlunit.util.StringUtils.escapeXmlAttributeValue(value));
-            builder_.append('"');
+            writer_.append(com.gargoylesoftware.htmlunit.util.StringUtils.escapeXmlAttributeValue(value));
+            writer_.append('"');
         }
     }
 
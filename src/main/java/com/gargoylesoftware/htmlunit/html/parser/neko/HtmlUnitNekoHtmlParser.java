@@ -39,10 +39,12 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
+import com.gargoylesoftware.htmlunit.LoadPhase;
 import com.gargoylesoftware.htmlunit.ObjectInstantiationException;
 import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.WebAssert;
+import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebResponse;
 import com.gargoylesoftware.htmlunit.html.DefaultElementFactory;
 import com.gargoylesoftware.htmlunit.html.DomElement;
@@ -174,6 +176,9 @@ public final class HtmlUnitNekoHtmlParser implements HTMLParser {
     @Override
     public void parse(final WebResponse webResponse, final HtmlPage page, final boolean xhtml) throws IOException {
         final URL url = webResponse.getWebRequest().getUrl();
+        final WebClient webClient = page.getWebClient();
+        final boolean timing = webClient.isLoadTimingEnabled();
+        final long startNanos = timing ? webClient.getJavaScriptClock().nanoTime() : 0;
         final HtmlUnitNekoDOMBuilder domBuilder = new HtmlUnitNekoDOMBuilder(this, page, url, null);
 
         Charset charset = webResponse.getContentCharsetOrNull();
@@ -215,6 +220,9 @@ public final class HtmlUnitNekoHtmlParser implements HTMLParser {
         }
         finally {
             page.registerParsingEnd();
+            if (timing) {
+                webClient.fireLoadPhase(page, url.toExternalForm(), LoadPhase.PARSE, startNanos);
+            }
         }
 
         addBodyToPageIfNecessary(page, true, domBuilder.getBody() != null);
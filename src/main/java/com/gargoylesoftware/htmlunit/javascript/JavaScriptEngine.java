@@ -48,6 +48,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.LoadPhase;
 import com.gargoylesoftware.htmlunit.ScriptException;
 import com.gargoylesoftware.htmlunit.WebAssert;
 import com.gargoylesoftware.htmlunit.WebClient;
@@ -56,6 +57,7 @@ import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.background.BackgroundJavaScriptFactory;
 import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptExecutor;
+import com.gargoylesoftware.htmlunit.javascript.background.SystemJavaScriptClock;
 import com.gargoylesoftware.htmlunit.javascript.configuration.ClassConfiguration;
 import com.gargoylesoftware.htmlunit.javascript.configuration.ClassConfiguration.ConstantInfo;
 import com.gargoylesoftware.htmlunit.javascript.configuration.ClassConfiguration.PropertyInfo;
@@ -489,6 +491,9 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
 
         datePrototype.defineFunctionProperties(new String[] {"toLocaleDateString", "toLocaleTimeString"},
                 DateCustom.class, ScriptableObject.DONTENUM);
+        if (!(webClient.getJavaScriptClock() instanceof SystemJavaScriptClock)) {
+            DateCustom.installClock(window, webClient.getJavaScriptClock());
+        }
 
         if (!browserVersion.hasFeature(JS_OBJECT_GET_OWN_PROPERTY_SYMBOLS)) {
             ((ScriptableObject) ScriptableObject.getProperty(window, "Object")).delete("getOwnPropertySymbols");
@@ -765,7 +770,18 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
             }
         };
 
-        return (Script) getContextFactory().callSecured(action, owningPage);
+        final WebClient webClient = getWebClient();
+        if (webClient == null || !webClient.isLoadTimingEnabled()) {
+            return (Script) getContextFactory().callSecured(action, owningPage);
+        }
+
+        final long startNanos = webClient.getJavaScriptClock().nanoTime();
+        try {
+            return (Script) getContextFactory().callSecured(action, owningPage);
+        }
+        finally {
+            webClient.fireLoadPhase(owningPage, sourceName, LoadPhase.SCRIPT_COMPILE, startNanos);
+        }
     }
 
     /**
@@ -814,7 +830,18 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
             }
         };
 
-        return getContextFactory().callSecured(action, page);
+        final WebClient webClient = getWebClient();
+        if (webClient == null || !webClient.isLoadTimingEnabled()) {
+            return getContextFactory().callSecured(action, page);
+        }
+
+        final long startNanos = webClient.getJavaScriptClock().nanoTime();
+        try {
+            return getContextFactory().callSecured(action, page);
+        }
+        finally {
+            webClient.fireLoadPhase(page, null, LoadPhase.SCRIPT_EXECUTE, startNanos);
+        }
     }
 
     /**
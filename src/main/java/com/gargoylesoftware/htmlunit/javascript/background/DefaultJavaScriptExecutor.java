@@ -132,12 +132,13 @@ public class DefaultJavaScriptExecutor implements JavaScriptExecutor {
         // otherwise the VM has to fight with the OS to get such small periods
         final long sleepInterval = 10;
         while (!shutdown_.get() && !Thread.currentThread().isInterrupted() && webClient_.get() != null) {
+            final JavaScriptClock clock = getClock();
             final JavaScriptJobManager jobManager = getJobManagerWithEarliestJob();
 
             if (jobManager != null) {
                 final JavaScriptJob earliestJob = jobManager.getEarliestJob();
                 if (earliestJob != null) {
-                    final long waitTime = earliestJob.getTargetExecutionTime() - System.currentTimeMillis();
+                    final long waitTime = earliestJob.getTargetExecutionTime() - clock.currentTimeMillis();
 
                     // do we have to execute the earliest job
                     if (waitTime < 1) {
@@ -163,7 +164,7 @@ public class DefaultJavaScriptExecutor implements JavaScriptExecutor {
 
             // nothing to do, let's sleep a bit
             try {
-                Thread.sleep(sleepInterval);
+                clock.sleep(sleepInterval);
             }
             catch (final InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -171,6 +172,14 @@ public class DefaultJavaScriptExecutor implements JavaScriptExecutor {
         }
     }
 
+    private JavaScriptClock getClock() {
+        final WebClient webClient = webClient_.get();
+        if (webClient == null) {
+            return JavaScriptClock.SYSTEM;
+        }
+        return webClient.getJavaScriptClock();
+    }
+
     /**
      * Register a window with the eventLoop.
      * @param newWindow the new web window
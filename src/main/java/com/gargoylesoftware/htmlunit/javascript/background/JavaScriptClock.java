@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.background;
+
+import java.io.Serializable;
+
+/**
+ * The source of time for the JavaScript of a {@link com.gargoylesoftware.htmlunit.WebClient}.
+ * The job managers schedule the timers based on this clock, and {@code Date.now()},
+ * {@code new Date()} and {@code performance.now()} report the time of this clock.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see SystemJavaScriptClock
+ * @see VirtualJavaScriptClock
+ */
+public interface JavaScriptClock extends Serializable {
+
+    /** The clock using the system time. */
+    JavaScriptClock SYSTEM = new SystemJavaScriptClock();
+
+    /**
+     * Returns the current time in milliseconds (like {@link System#currentTimeMillis()}).
+     * @return the current time
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns the value of the high resolution time source in nanoseconds (like {@link System#nanoTime()}).
+     * @return the current value of the time source
+     */
+    long nanoTime();
+
+    /**
+     * Moves the clock forward to the given time. This is called by the job managers when
+     * someone waits for the jobs, nothing is running and the next timer is due in the future.
+     * @param timeMillis the new time
+     * @return {@code false} if the clock does not support this
+     */
+    boolean advanceTo(long timeMillis);
+
+    /**
+     * Called by the event loop if there is nothing to do. Implementations supporting
+     * {@link #advanceTo(long)} should return early if the clock was advanced.
+     * @param millis the time to sleep
+     * @throws InterruptedException if interrupted
+     */
+    void sleep(long millis) throws InterruptedException;
+}
@@ -15,6 +15,7 @@
 package com.gargoylesoftware.htmlunit.javascript.background;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 import com.gargoylesoftware.htmlunit.Page;
 
@@ -64,6 +65,26 @@ public interface JavaScriptJobManager extends Serializable {
      */
     int addJob(JavaScriptJob job, Page page);
 
+    /**
+     * Adds the specified job to this job manager, assigning it an ID. The job is counted as active right away,
+     * but it is not scheduled for execution before the given future is completed. This allows a job to wait for
+     * some background activity (e.g. network I/O) without blocking the execution of the other jobs.
+     * If the specified page is not currently loaded in the window which owns this job manager, the operation
+     * fails and this method returns <tt>0</tt>.
+     * <p>
+     * The default implementation adds the job by {@link #addJob(JavaScriptJob, Page)} as soon as the future
+     * is completed (normally or exceptionally). The job is therefore not counted before, it can't be removed
+     * before and {@code -1} is returned instead of its ID.
+     * @param job the job to add to the job manager
+     * @param page the page which is trying to add the job
+     * @param ready the future signaling that the job can be executed
+     * @return the ID assigned to the job, or {@code -1} if the ID is not known yet
+     */
+    default int addJob(final JavaScriptJob job, final Page page, final CompletableFuture<?> ready) {
+        ready.whenComplete((result, throwable) -> addJob(job, page));
+        return -1;
+    }
+
     /**
      * Removes the specified job from the execution queue. This doesn't interrupt the job if it is currently running.
      * @param id the ID of the job to be removed from the execution queue
@@ -18,13 +18,19 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.WebResponse;
 import com.gargoylesoftware.htmlunit.WebWindow;
 
 /**
@@ -56,6 +62,12 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
 
     private transient ArrayList<Integer> cancelledJobs_ = new ArrayList<>();
 
+    /** Jobs added but waiting for some background activity before they get scheduled. */
+    private transient Set<JavaScriptJob> waitingJobs_ = new LinkedHashSet<>();
+
+    /** The futures of the jobs added with {@link #addJob(JavaScriptJob, Page, CompletableFuture)} not yet run. */
+    private transient Map<JavaScriptJob, CompletableFuture<?>> readyFutures_ = new IdentityHashMap<>();
+
     private transient JavaScriptJob currentlyRunningJob_;
 
     /** A counter used to generate the IDs assigned to {@link JavaScriptJob}s. */
@@ -64,6 +76,9 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
     /** Logging support. */
     private static final Log LOG = LogFactory.getLog(JavaScriptJobManagerImpl.class);
 
+    /** The time to wait before looking again whether the background activity of the client has ended. */
+    private static final long BACKGROUND_ACTIVITY_POLL_MILLIS = 10;
+
     /**
      * Creates a new instance.
      *
@@ -76,14 +91,14 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
     /** {@inheritDoc} */
     @Override
     public synchronized int getJobCount() {
-        return scheduledJobsQ_.size() + (currentlyRunningJob_ != null ? 1 : 0);
+        return scheduledJobsQ_.size() + waitingJobs_.size() + (currentlyRunningJob_ != null ? 1 : 0);
     }
 
     /** {@inheritDoc} */
     @Override
     public synchronized int getJobCount(final JavaScriptJobFilter filter) {
         if (filter == null) {
-            return scheduledJobsQ_.size() + (currentlyRunningJob_ != null ? 1 : 0);
+            return getJobCount();
         }
 
         int count = 0;
@@ -95,6 +110,11 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
                 count++;
             }
         }
+        for (final JavaScriptJob job : waitingJobs_) {
+            if (filter.passes(job)) {
+                count++;
+            }
+        }
         return count;
     }
 
@@ -118,6 +138,7 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         }
         final int id = NEXT_JOB_ID_.getAndIncrement();
         job.setId(Integer.valueOf(id));
+        updateTargetExecutionTime(job);
 
         synchronized (this) {
             scheduledJobsQ_.add(job);
@@ -136,6 +157,72 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         return id;
     }
 
+    /**
+     * {@inheritDoc}
+     * If the job is removed before it runs, a still pending {@code ready} future is cancelled
+     * and a {@link WebResponse} it was completed with is cleaned up.
+     */
+    @Override
+    public int addJob(final JavaScriptJob job, final Page page, final CompletableFuture<?> ready) {
+        final WebWindow w = getWindow();
+        if (w == null || w.getEnclosedPage() != page) {
+            return 0;
+        }
+        final int id = NEXT_JOB_ID_.getAndIncrement();
+        job.setId(Integer.valueOf(id));
+        updateTargetExecutionTime(job);
+
+        synchronized (this) {
+            waitingJobs_.add(job);
+            readyFutures_.put(job, ready);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("job waiting for background activity: " + job);
+            }
+            notify();
+        }
+
+        ready.whenComplete((result, throwable) -> {
+            synchronized (this) {
+                if (waitingJobs_.remove(job)) {
+                    scheduledJobsQ_.add(job);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("job ready for execution: " + job);
+                    }
+                }
+                notify();
+            }
+        });
+
+        return id;
+    }
+
+    /**
+     * The jobs calculate their target execution time based on the system time;
+     * recalculate it based on the clock of the client.
+     */
+    private void updateTargetExecutionTime(final JavaScriptJob job) {
+        final JavaScriptClock clock = getClock();
+        if (!(clock instanceof SystemJavaScriptClock) && job instanceof BasicJavaScriptJob) {
+            job.setTargetExecutionTime(clock.currentTimeMillis() + ((BasicJavaScriptJob) job).getInitialDelay());
+        }
+    }
+
+    /**
+     * Drops the future of a job that will not run. A future still pending is cancelled, a
+     * {@link WebResponse} already loaded for the job is cleaned up (temporary files, connection).
+     * Has to be called while holding the lock.
+     * @param job the job
+     */
+    private void discardReady(final JavaScriptJob job) {
+        final CompletableFuture<?> ready = readyFutures_.remove(job);
+        if (ready != null && !ready.cancel(false) && !ready.isCompletedExceptionally()) {
+            final Object result = ready.getNow(null);
+            if (result instanceof WebResponse) {
+                ((WebResponse) result).cleanUp();
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public synchronized void removeJob(final int id) {
@@ -143,13 +230,25 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
             final int jobId = job.getId().intValue();
             if (jobId == id) {
                 scheduledJobsQ_.remove(job);
+                discardReady(job);
                 break;
             }
         }
+        removeWaitingJob(id);
         cancelledJobs_.add(Integer.valueOf(id));
         notify();
     }
 
+    private void removeWaitingJob(final int id) {
+        for (final JavaScriptJob job : waitingJobs_) {
+            if (job.getId().intValue() == id) {
+                waitingJobs_.remove(job);
+                discardReady(job);
+                return;
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public synchronized void stopJob(final int id) {
@@ -157,10 +256,12 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
             final int jobId = job.getId().intValue();
             if (jobId == id) {
                 scheduledJobsQ_.remove(job);
+                discardReady(job);
                 // TODO: should we try to interrupt the job if it is running?
                 break;
             }
         }
+        removeWaitingJob(id);
         cancelledJobs_.add(Integer.valueOf(id));
         notify();
     }
@@ -174,7 +275,12 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         for (final JavaScriptJob job : scheduledJobsQ_) {
             cancelledJobs_.add(job.getId());
         }
+        for (final JavaScriptJob job : waitingJobs_) {
+            cancelledJobs_.add(job.getId());
+        }
         scheduledJobsQ_.clear();
+        waitingJobs_.clear();
+        discardAllReady();
         notify();
     }
 
@@ -186,20 +292,32 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
             LOG.debug("Waiting for all jobs to finish (will wait max " + timeoutMillis + " millis).");
         }
         if (timeoutMillis > 0) {
-            long now = System.currentTimeMillis();
+            final JavaScriptClock clock = getClock();
+            long now = clock.currentTimeMillis();
             final long end = now + timeoutMillis;
 
             synchronized (this) {
                 while (getJobCount() > 0 && now < end) {
+                    if (advanceClockIfIdle(clock, end)) {
+                        now = clock.currentTimeMillis();
+                        if (now >= end) {
+                            break;
+                        }
+                    }
+                    long waitMillis = end - now;
+                    if (hasBackgroundActivity()) {
+                        // nobody notifies us when the background activity of the client ends
+                        waitMillis = Math.min(waitMillis, BACKGROUND_ACTIVITY_POLL_MILLIS);
+                    }
                     try {
-                        wait(end - now);
+                        wait(waitMillis);
                     }
                     catch (final InterruptedException e) {
                         LOG.error("InterruptedException while in waitForJobs", e);
                     }
                     // maybe a change triggers the wakup; we have to recalculate the
                     // wait time
-                    now = System.currentTimeMillis();
+                    now = clock.currentTimeMillis();
                 }
             }
         }
@@ -221,7 +339,8 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
     public int waitForJobsStartingBefore(final long delayMillis, final JavaScriptJobFilter filter) {
         final boolean debug = LOG.isDebugEnabled();
 
-        final long latestExecutionTime = System.currentTimeMillis() + delayMillis;
+        final JavaScriptClock clock = getClock();
+        final long latestExecutionTime = clock.currentTimeMillis() + delayMillis;
         if (debug) {
             LOG.debug("Waiting for all jobs that have execution time before "
                   + delayMillis + " (" + latestExecutionTime + ") to finish");
@@ -236,9 +355,11 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
                             currentlyRunningJob_ != null
                             && (filter == null || filter.passes(currentlyRunningJob_))
                             && currentlyRunningJob_.getTargetExecutionTime() < latestExecutionTime
-                       );
+                       )
+                    || isWaitingJobStartingBefore(latestExecutionTime, filter);
 
             while (pending) {
+                advanceClockIfIdle(clock, latestExecutionTime);
                 try {
                     wait(interval);
                 }
@@ -253,7 +374,8 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
                                 currentlyRunningJob_ != null
                                 && (filter == null || filter.passes(currentlyRunningJob_))
                                 && currentlyRunningJob_.getTargetExecutionTime() < latestExecutionTime
-                           );
+                           )
+                        || isWaitingJobStartingBefore(latestExecutionTime, filter);
             }
         }
 
@@ -265,13 +387,58 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         return jobs;
     }
 
+    /**
+     * Moves a virtual clock forward to the next scheduled job (but not beyond the given limit)
+     * if no job is running, no job waits for background activity, no job is due and the client
+     * has no other background activity (workers, web sockets, synchronous loads).
+     * Has to be called while holding the lock.
+     * @return {@code true} if the clock was moved
+     */
+    private boolean advanceClockIfIdle(final JavaScriptClock clock, final long limit) {
+        if (currentlyRunningJob_ != null || !waitingJobs_.isEmpty() || hasBackgroundActivity()) {
+            return false;
+        }
+
+        final JavaScriptJob earliestJob = scheduledJobsQ_.peek();
+        long target = limit;
+        if (earliestJob != null) {
+            target = Math.min(target, earliestJob.getTargetExecutionTime());
+        }
+        if (target <= clock.currentTimeMillis()) {
+            return false;
+        }
+        return clock.advanceTo(target);
+    }
+
+    /**
+     * Returns whether there is a job waiting for some background activity
+     * that should have been started before the given time.
+     * Has to be called while holding the lock.
+     */
+    private boolean isWaitingJobStartingBefore(final long latestExecutionTime, final JavaScriptJobFilter filter) {
+        for (final JavaScriptJob job : waitingJobs_) {
+            if ((filter == null || filter.passes(job)) && job.getTargetExecutionTime() < latestExecutionTime) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /** {@inheritDoc} */
     @Override
     public synchronized void shutdown() {
         scheduledJobsQ_.clear();
+        waitingJobs_.clear();
+        discardAllReady();
         notify();
     }
 
+    private void discardAllReady() {
+        for (final JavaScriptJob job : new ArrayList<>(readyFutures_.keySet())) {
+            discardReady(job);
+        }
+    }
+
     /**
      * Returns the window to which this job manager belongs, or {@code null} if
      * it has been garbage collected.
@@ -283,6 +450,28 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         return window_.get();
     }
 
+    /**
+     * @return whether the client of our window has some background activity
+     * @see com.gargoylesoftware.htmlunit.WebClientInternals#hasBackgroundActivity()
+     */
+    private boolean hasBackgroundActivity() {
+        final WebWindow window = getWindow();
+        return window != null && window.getWebClient() != null
+                && window.getWebClient().getInternals().hasBackgroundActivity();
+    }
+
+    /**
+     * Returns the clock of the client of our window.
+     * @return the clock
+     */
+    private JavaScriptClock getClock() {
+        final WebWindow window = getWindow();
+        if (window != null && window.getWebClient() != null) {
+            return window.getWebClient().getJavaScriptClock();
+        }
+        return JavaScriptClock.SYSTEM;
+    }
+
     /**
      * Utility method to print current queue.
      */
@@ -325,11 +514,14 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         status.append("  number of jobs on the queue: ")
             .append(Integer.toString(scheduledJobsQ_.size()))
             .append(lineSeparator);
+        status.append("  number of jobs waiting for background activities: ")
+            .append(Integer.toString(waitingJobs_.size()))
+            .append(lineSeparator);
 
+        final long now = getClock().currentTimeMillis();
         int count = 1;
         for (final JavaScriptJob job : scheduledJobsQ_) {
             if (filter == null || filter.passes(job)) {
-                final long now = System.currentTimeMillis();
                 final long execTime = job.getTargetExecutionTime();
                 status.append("  " + count)
                     .append(")  Job target execution time: " + execTime)
@@ -389,13 +581,14 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
             return false;
         }
 
-        final long currentTime = System.currentTimeMillis();
+        final long currentTime = getClock().currentTimeMillis();
         if (job.getTargetExecutionTime() > currentTime) {
             return false;
         }
         synchronized (this) {
             if (scheduledJobsQ_.remove(job)) {
                 currentlyRunningJob_ = job;
+                readyFutures_.remove(job);
             }
             // no need to notify if processing is started
         }
@@ -458,6 +651,8 @@ class JavaScriptJobManagerImpl implements JavaScriptJobManager {
         // we do not store the jobs (at the moment)
         scheduledJobsQ_ = new PriorityQueue<>();
         cancelledJobs_ = new ArrayList<>();
+        waitingJobs_ = new LinkedHashSet<>();
+        readyFutures_ = new IdentityHashMap<>();
         currentlyRunningJob_ = null;
     }
 }
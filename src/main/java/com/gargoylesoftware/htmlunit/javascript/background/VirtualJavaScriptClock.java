@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.background;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link JavaScriptClock} that skips idle time. The clock runs like the system clock, but
+ * while someone waits for the background JavaScript (e.g.
+ * {@link com.gargoylesoftware.htmlunit.WebClient#waitForBackgroundJavaScript(long)}) and no job
+ * is running or waiting for network activity (and no worker, connecting web socket or synchronous
+ * load is busy), the clock jumps directly to the time of the next timer instead of sleeping.
+ * A page doing {@code setTimeout(fn, 5000)} is finished in milliseconds and still sees five seconds passing.
+ *
+ * <p>The clock has to be set using {@link com.gargoylesoftware.htmlunit.WebClient#setJavaScriptClock}
+ * before the pages are loaded.</p>
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class VirtualJavaScriptClock implements JavaScriptClock {
+
+    private final AtomicLong skippedMillis_ = new AtomicLong();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis() + skippedMillis_.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nanoTime() {
+        return System.nanoTime() + skippedMillis_.get() * 1_000_000L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean advanceTo(final long timeMillis) {
+        final long delta = timeMillis - currentTimeMillis();
+        if (delta > 0) {
+            skippedMillis_.addAndGet(delta);
+            // wake up the event loop
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void sleep(final long millis) throws InterruptedException {
+        wait(millis);
+    }
+
+    /**
+     * Returns the total time skipped so far.
+     * @return the skipped time in milliseconds
+     */
+    public long getSkippedMillis() {
+        return skippedMillis_.get();
+    }
+}
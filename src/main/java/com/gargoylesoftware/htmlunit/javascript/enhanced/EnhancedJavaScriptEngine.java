@@ -6,6 +6,7 @@ import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.*;
 import com.gargoylesoftware.htmlunit.javascript.background.BackgroundJavaScriptFactory;
 import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptExecutor;
+import com.gargoylesoftware.htmlunit.javascript.background.SystemJavaScriptClock;
 import com.gargoylesoftware.htmlunit.javascript.configuration.ClassConfiguration;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JavaScriptConfiguration;
 import com.gargoylesoftware.htmlunit.javascript.host.*;
@@ -482,6 +483,9 @@ public class EnhancedJavaScriptEngine implements AbstractJavaScriptEngine<Script
 
         datePrototype.defineFunctionProperties(new String[] {"toLocaleDateString", "toLocaleTimeString"},
                 DateCustom.class, ScriptableObject.DONTENUM);
+        if (!(webClient.getJavaScriptClock() instanceof SystemJavaScriptClock)) {
+            DateCustom.installClock(window, webClient.getJavaScriptClock());
+        }
 
         if (!browserVersion.hasFeature(JS_OBJECT_GET_OWN_PROPERTY_SYMBOLS)) {
             ((ScriptableObject) ScriptableObject.getProperty(window, "Object")).delete("getOwnPropertySymbols");
@@ -788,7 +792,18 @@ public class EnhancedJavaScriptEngine implements AbstractJavaScriptEngine<Script
             }
         };
 
-        return (Script) getEnhancedContextFactory().callSecured(action, owningPage);
+        final WebClient webClient = getWebClient();
+        if (webClient == null || !webClient.isLoadTimingEnabled()) {
+            return (Script) getEnhancedContextFactory().callSecured(action, owningPage);
+        }
+
+        final long startNanos = webClient.getJavaScriptClock().nanoTime();
+        try {
+            return (Script) getEnhancedContextFactory().callSecured(action, owningPage);
+        }
+        finally {
+            webClient.fireLoadPhase(owningPage, sourceName, LoadPhase.SCRIPT_COMPILE, startNanos);
+        }
     }
 
     /**
@@ -845,7 +860,18 @@ public class EnhancedJavaScriptEngine implements AbstractJavaScriptEngine<Script
             }
         };
 
-        return getEnhancedContextFactory().callSecured(action, page);
+        final WebClient webClient = getWebClient();
+        if (webClient == null || !webClient.isLoadTimingEnabled()) {
+            return getEnhancedContextFactory().callSecured(action, page);
+        }
+
+        final long startNanos = webClient.getJavaScriptClock().nanoTime();
+        try {
+            return getEnhancedContextFactory().callSecured(action, page);
+        }
+        finally {
+            webClient.fireLoadPhase(page, null, LoadPhase.SCRIPT_EXECUTE, startNanos);
+        }
     }
 
     /**
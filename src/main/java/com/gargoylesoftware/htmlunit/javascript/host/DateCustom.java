@@ -23,10 +23,15 @@ import java.util.Locale;
 import org.apache.commons.lang3.time.FastDateFormat;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptClock;
 
+import net.sourceforge.htmlunit.corejs.javascript.BaseFunction;
 import net.sourceforge.htmlunit.corejs.javascript.Context;
 import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
 import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.TopLevel;
 
 /**
  * Contains some missing features of Rhino NativeDate.
@@ -91,6 +96,96 @@ public final class DateCustom {
         return format.format(getDateValue(thisObj));
     }
 
+    /**
+     * Replaces the {@code Date} constructor of the given scope by one that takes the current
+     * time (for {@code Date.now()}, {@code new Date()} and {@code Date()}) from the given clock.
+     * @param scope the scope (window)
+     * @param clock the clock
+     */
+    public static void installClock(final ScriptableObject scope, final JavaScriptClock clock) {
+        final Function nativeDate = (Function) ScriptableObject.getProperty(scope, "Date");
+        final Scriptable datePrototype = ScriptableObject.getClassPrototype(scope, "Date");
+
+        final ClockedDate date = new ClockedDate(nativeDate, clock);
+        ScriptRuntime.setBuiltinProtoAndParent(date, scope, TopLevel.Builtins.Function);
+        date.setImmunePrototypeProperty(datePrototype);
+        date.defineProperty("parse", ScriptableObject.getProperty(nativeDate, "parse"), ScriptableObject.DONTENUM);
+        date.defineProperty("UTC", ScriptableObject.getProperty(nativeDate, "UTC"), ScriptableObject.DONTENUM);
+
+        final DateNow now = new DateNow(clock);
+        ScriptRuntime.setBuiltinProtoAndParent(now, scope, TopLevel.Builtins.Function);
+        date.defineProperty("now", now, ScriptableObject.DONTENUM);
+
+        ScriptableObject.defineProperty(datePrototype, "constructor", date, ScriptableObject.DONTENUM);
+        scope.defineProperty("Date", date, ScriptableObject.DONTENUM);
+    }
+
+    /**
+     * The {@code Date} constructor using a {@link JavaScriptClock}; everything except getting
+     * the current time is delegated to the native constructor.
+     */
+    private static final class ClockedDate extends BaseFunction {
+        private final Function nativeDate_;
+        private final JavaScriptClock clock_;
+
+        ClockedDate(final Function nativeDate, final JavaScriptClock clock) {
+            nativeDate_ = nativeDate;
+            clock_ = clock;
+        }
+
+        @Override
+        public Scriptable construct(final Context cx, final Scriptable scope, final Object[] args) {
+            if (args.length == 0) {
+                return nativeDate_.construct(cx, scope, new Object[] {clock_.currentTimeMillis()});
+            }
+            return nativeDate_.construct(cx, scope, args);
+        }
+
+        @Override
+        public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                final Object[] args) {
+            // Date() ignores the arguments and returns the current time as string
+            return ScriptRuntime.toString(construct(cx, scope, ScriptRuntime.emptyArgs));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "Date";
+        }
+
+        @Override
+        public int getArity() {
+            return 7;
+        }
+
+        @Override
+        public int getLength() {
+            return 7;
+        }
+    }
+
+    /**
+     * {@code Date.now()} using a {@link JavaScriptClock}.
+     */
+    private static final class DateNow extends BaseFunction {
+        private final JavaScriptClock clock_;
+
+        DateNow(final JavaScriptClock clock) {
+            clock_ = clock;
+        }
+
+        @Override
+        public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                final Object[] args) {
+            return (double) clock_.currentTimeMillis();
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "now";
+        }
+    }
+
     private static long getDateValue(final Scriptable thisObj) {
         final Date date = (Date) Context.jsToJava(thisObj, Date.class);
         return date.getTime();
@@ -19,23 +19,194 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+
+import net.sourceforge.htmlunit.corejs.javascript.BaseFunction;
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeUint8Array;
 
 /**
  * A JavaScript object for {@code ReadableStream}.
  *
+ * <p>Streams created by HtmlUnit (e.g. {@code Response.body}) read their chunks on demand
+ * from an {@link InputStream}; the content is never copied into one big buffer.</p>
+ *
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
 @JsxClass({CHROME, EDGE, FF, FF68})
 public class ReadableStream extends SimpleScriptable {
 
+    /** The maximum size of the chunks delivered by a reader. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private transient InputStream source_;
+    private transient byte[] readBuffer_;
+    private boolean locked_;
+    private boolean disturbed_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor
     public ReadableStream() {
     }
+
+    /**
+     * Creates a new instance reading its chunks from the given stream.
+     * @param window the window
+     * @param source the source of the chunks, closed when the end is reached or the stream is canceled
+     */
+    public ReadableStream(final Window window, final InputStream source) {
+        source_ = source;
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * @return whether the stream is locked to a reader
+     */
+    @JsxGetter
+    public boolean isLocked() {
+        return locked_;
+    }
+
+    /**
+     * @return whether a chunk was read from the stream or the stream was canceled
+     */
+    public boolean isDisturbed() {
+        return disturbed_;
+    }
+
+    /**
+     * Cancels the stream.
+     * @return a promise fulfilled when the stream is canceled
+     */
+    @JsxFunction
+    public Promise cancel() {
+        if (locked_) {
+            return reject("Cannot cancel a locked stream");
+        }
+        close();
+        return Promise.resolve(null, this, new Object[0], null);
+    }
+
+    /**
+     * Creates a reader and locks the stream to it.
+     * @return the reader
+     */
+    @JsxFunction
+    public Scriptable getReader() {
+        if (locked_) {
+            throw Context.reportRuntimeError("TypeError: ReadableStream is locked");
+        }
+        locked_ = true;
+
+        final Window window = getWindow();
+        final Scriptable reader = Context.getCurrentContext().newObject(window);
+        final ReadableStream stream = this;
+        ScriptableObject.putProperty(reader, "read",
+                new BaseFunction(window, ScriptableObject.getFunctionPrototype(window)) {
+                    @Override
+                    public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                            final Object[] args) {
+                        return stream.read(cx);
+                    }
+                });
+        ScriptableObject.putProperty(reader, "cancel",
+                new BaseFunction(window, ScriptableObject.getFunctionPrototype(window)) {
+                    @Override
+                    public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                            final Object[] args) {
+                        stream.close();
+                        return Promise.resolve(null, stream, new Object[0], null);
+                    }
+                });
+        ScriptableObject.putProperty(reader, "releaseLock",
+                new BaseFunction(window, ScriptableObject.getFunctionPrototype(window)) {
+                    @Override
+                    public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                            final Object[] args) {
+                        stream.locked_ = false;
+                        return Undefined.instance;
+                    }
+                });
+        return reader;
+    }
+
+    /**
+     * Reads the next chunk.
+     * @param cx the context
+     * @return a promise fulfilled with the {@code value}/{@code done} result
+     */
+    private Promise read(final Context cx) {
+        disturbed_ = true;
+        final Window window = getWindow();
+        final Scriptable result = cx.newObject(window);
+        if (source_ == null) {
+            ScriptableObject.putProperty(result, "value", Undefined.instance);
+            ScriptableObject.putProperty(result, "done", Boolean.TRUE);
+            return Promise.resolve(null, this, new Object[] {result}, null);
+        }
+
+        try {
+            // blocks until some bytes are available, a chunk is whatever a single read delivers
+            if (readBuffer_ == null) {
+                readBuffer_ = new byte[CHUNK_SIZE];
+            }
+            final int read = source_.read(readBuffer_);
+            if (read == -1) {
+                close();
+                ScriptableObject.putProperty(result, "value", Undefined.instance);
+                ScriptableObject.putProperty(result, "done", Boolean.TRUE);
+                return Promise.resolve(null, this, new Object[] {result}, null);
+            }
+
+            final NativeArrayBuffer buffer = new NativeArrayBuffer(read);
+            System.arraycopy(readBuffer_, 0, buffer.getBuffer(), 0, read);
+            buffer.setParentScope(window);
+            buffer.setPrototype(ScriptableObject.getClassPrototype(window, buffer.getClassName()));
+            final NativeUint8Array chunk = new NativeUint8Array(buffer, 0, read);
+            chunk.setParentScope(window);
+            chunk.setPrototype(ScriptableObject.getClassPrototype(window, chunk.getClassName()));
+            ScriptableObject.putProperty(result, "value", chunk);
+            ScriptableObject.putProperty(result, "done", Boolean.FALSE);
+            return Promise.resolve(null, this, new Object[] {result}, null);
+        }
+        catch (final IOException e) {
+            close();
+            return reject(e.getMessage());
+        }
+    }
+
+    private Promise reject(final String message) {
+        final Scriptable error = Context.getCurrentContext().newObject(getWindow(), "TypeError",
+                new Object[] {message});
+        return Promise.reject(null, this, new Object[] {error}, null);
+    }
+
+    private void close() {
+        disturbed_ = true;
+        if (source_ != null) {
+            try {
+                source_.close();
+            }
+            catch (final IOException e) {
+                // nothing left to read anyway
+            }
+            source_ = null;
+        }
+        readBuffer_ = null;
+    }
 }
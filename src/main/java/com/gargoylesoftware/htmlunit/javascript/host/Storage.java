@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import com.gargoylesoftware.htmlunit.StorageBackend;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
@@ -154,7 +155,12 @@ public class Storage extends SimpleScriptable {
      */
     @JsxFunction
     public void setItem(final String key, final String data) {
-        getMap().put(key, data);
+        try {
+            getMap().put(key, data);
+        }
+        catch (final StorageBackend.QuotaExceededException e) {
+            throw Context.reportRuntimeError("QuotaExceededError: " + e.getMessage());
+        }
     }
 
     /**
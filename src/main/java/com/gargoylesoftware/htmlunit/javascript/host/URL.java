@@ -93,8 +93,10 @@ public class URL extends SimpleScriptable {
     @JsxStaticFunction
     public static String createObjectURL(final Object fileOrBlob) {
         if (fileOrBlob instanceof File) {
-            final File file = (File) fileOrBlob;
-            return file.getFile().toURI().normalize().toString();
+            final java.io.File file = ((File) fileOrBlob).getFile();
+            if (file != null) {
+                return file.toURI().normalize().toString();
+            }
         }
 
         return null;
@@ -18,15 +18,19 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.WEBSOCKET_ORI
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebClientInternals;
 import com.gargoylesoftware.htmlunit.WebWindow;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+import com.gargoylesoftware.htmlunit.javascript.background.BasicJavaScriptJob;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstant;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
@@ -39,6 +43,7 @@ import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 import com.gargoylesoftware.htmlunit.javascript.host.event.MessageEvent;
 import com.gargoylesoftware.htmlunit.websocket.JettyWebSocketAdapter;
 import com.gargoylesoftware.htmlunit.websocket.WebSocketAdapter;
+import com.gargoylesoftware.htmlunit.websocket.WebSocketStatistics;
 
 import net.sourceforge.htmlunit.corejs.javascript.Context;
 import net.sourceforge.htmlunit.corejs.javascript.Function;
@@ -62,6 +67,9 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
     private static final Log LOG = LogFactory.getLog(WebSocket.class);
 
+    /** The maximum number of events delivered by one job of the event loop. */
+    private static final int INBOUND_BATCH_SIZE = 64;
+
     /** The connection has not yet been established. */
     @JsxConstant
     public static final int CONNECTING = 0;
@@ -86,6 +94,13 @@ public class WebSocket extends EventTarget implements AutoCloseable {
     private HtmlPage containingPage_;
     private WebSocketAdapter webSocketImpl_;
     private boolean originSet_;
+    private transient WebClientInternals internals_;
+    private final AtomicBoolean connecting_ = new AtomicBoolean();
+
+    private int inboundQueueSize_;
+    private final ArrayDeque<Runnable> inbound_ = new ArrayDeque<>();
+    private boolean deliveryScheduled_;
+    private boolean inboundSuspended_;
 
     /**
      * Creates a new instance.
@@ -108,6 +123,8 @@ public class WebSocket extends EventTarget implements AutoCloseable {
             final WebClient webClient = webWindow.getWebClient();
             originSet_ = webClient.getBrowserVersion().hasFeature(WEBSOCKET_ORIGIN_SET);
 
+            inboundQueueSize_ = webClient.getOptions().getWebSocketInboundQueueSize();
+
             webSocketImpl_ = new JettyWebSocketAdapter(webClient) {
 
                 @Override
@@ -117,56 +134,69 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
                 @Override
                 public void onWebSocketConnect() {
-                    setReadyState(OPEN);
-
-                    final Event openEvent = new Event();
-                    openEvent.setType(Event.TYPE_OPEN);
-                    openEvent.setSrcElement(WebSocket.this);
-                    fire(openEvent);
-                    callFunction(openHandler_, new Object[] {openEvent});
+                    connectFinished();
+                    dispatch(() -> {
+                        setReadyState(OPEN);
+
+                        final Event openEvent = new Event();
+                        openEvent.setType(Event.TYPE_OPEN);
+                        openEvent.setSrcElement(WebSocket.this);
+                        fire(openEvent);
+                        callFunction(openHandler_, new Object[] {openEvent});
+                    });
                 }
 
                 @Override
                 public void onWebSocketClose(final int statusCode, final String reason) {
-                    setReadyState(CLOSED);
-
-                    final CloseEvent closeEvent = new CloseEvent();
-                    closeEvent.setCode(statusCode);
-                    closeEvent.setReason(reason);
-                    closeEvent.setWasClean(true);
-                    fire(closeEvent);
-                    callFunction(closeHandler_, new Object[] {closeEvent});
+                    connectFinished();
+                    dispatch(() -> {
+                        setReadyState(CLOSED);
+
+                        final CloseEvent closeEvent = new CloseEvent();
+                        closeEvent.setCode(statusCode);
+                        closeEvent.setReason(reason);
+                        closeEvent.setWasClean(true);
+                        fire(closeEvent);
+                        callFunction(closeHandler_, new Object[] {closeEvent});
+                    });
                 }
 
                 @Override
                 public void onWebSocketText(final String message) {
-                    final MessageEvent msgEvent = new MessageEvent(message);
-                    if (originSet_) {
-                        msgEvent.setOrigin(getUrl());
-                    }
-                    msgEvent.setSrcElement(WebSocket.this);
-                    fire(msgEvent);
-                    callFunction(messageHandler_, new Object[] {msgEvent});
+                    dispatch(() -> {
+                        final MessageEvent msgEvent = new MessageEvent(message);
+                        if (originSet_) {
+                            msgEvent.setOrigin(getUrl());
+                        }
+                        msgEvent.setSrcElement(WebSocket.this);
+                        fire(msgEvent);
+                        callFunction(messageHandler_, new Object[] {msgEvent});
+                    });
                 }
 
                 @Override
                 public void onWebSocketBinary(final byte[] data, final int offset, final int length) {
+                    // the array is owned by the network layer, this is the only copy made
                     final NativeArrayBuffer buffer = new NativeArrayBuffer(length);
                     System.arraycopy(data, offset, buffer.getBuffer(), 0, length);
-                    buffer.setParentScope(getParentScope());
-                    buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
 
-                    final MessageEvent msgEvent = new MessageEvent(buffer);
-                    if (originSet_) {
-                        msgEvent.setOrigin(getUrl());
-                    }
-                    msgEvent.setSrcElement(WebSocket.this);
-                    fire(msgEvent);
-                    callFunction(messageHandler_, new Object[] {msgEvent});
+                    dispatch(() -> {
+                        buffer.setParentScope(getParentScope());
+                        buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
+
+                        final MessageEvent msgEvent = new MessageEvent(buffer);
+                        if (originSet_) {
+                            msgEvent.setOrigin(getUrl());
+                        }
+                        msgEvent.setSrcElement(WebSocket.this);
+                        fire(msgEvent);
+                        callFunction(messageHandler_, new Object[] {msgEvent});
+                    });
                 }
 
                 @Override
                 public void onWebSocketConnectError(final Throwable cause) {
+                    connectFinished();
                     if (LOG.isErrorEnabled()) {
                         LOG.error("WS connect error for url '" + url + "':", cause);
                     }
@@ -174,20 +204,23 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
                 @Override
                 public void onWebSocketError(final Throwable cause) {
-                    setReadyState(CLOSED);
-
-                    final Event errorEvent = new Event();
-                    errorEvent.setType(Event.TYPE_ERROR);
-                    errorEvent.setSrcElement(WebSocket.this);
-                    fire(errorEvent);
-                    callFunction(errorHandler_, new Object[] {errorEvent});
-
-                    final CloseEvent closeEvent = new CloseEvent();
-                    closeEvent.setCode(1006);
-                    closeEvent.setReason(cause.getMessage());
-                    closeEvent.setWasClean(false);
-                    fire(closeEvent);
-                    callFunction(closeHandler_, new Object[] {closeEvent});
+                    connectFinished();
+                    dispatch(() -> {
+                        setReadyState(CLOSED);
+
+                        final Event errorEvent = new Event();
+                        errorEvent.setType(Event.TYPE_ERROR);
+                        errorEvent.setSrcElement(WebSocket.this);
+                        fire(errorEvent);
+                        callFunction(errorHandler_, new Object[] {errorEvent});
+
+                        final CloseEvent closeEvent = new CloseEvent();
+                        closeEvent.setCode(1006);
+                        closeEvent.setReason(cause.getMessage());
+                        closeEvent.setWasClean(false);
+                        fire(closeEvent);
+                        callFunction(closeHandler_, new Object[] {closeEvent});
+                    });
                 }
             };
 
@@ -197,9 +230,14 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
             webClient.getInternals().created(this);
 
+            // a virtual clock must not skip the time the handshake takes
+            internals_ = webClient.getInternals();
+            connecting_.set(true);
+            internals_.beginBackgroundActivity();
             webSocketImpl_.connect(url_);
         }
         catch (final Exception e) {
+            connectFinished();
             if (LOG.isErrorEnabled()) {
                 LOG.error("WebSocket Error: 'url' parameter '" + url + "' is invalid.", e);
             }
@@ -385,6 +423,7 @@ public class WebSocket extends EventTarget implements AutoCloseable {
      */
     @JsxFunction
     public void close(final Object code, final Object reason) {
+        connectFinished();
         if (readyState_ != CLOSED) {
             try {
                 webSocketImpl_.closeIncommingSession();
@@ -423,6 +462,113 @@ public class WebSocket extends EventTarget implements AutoCloseable {
         }
     }
 
+    /**
+     * Returns the traffic statistics of this connection.
+     * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+     * @return the statistics
+     */
+    public WebSocketStatistics getStatistics() {
+        return webSocketImpl_.getStatistics();
+    }
+
+    /**
+     * Delivers an event received from the network. If an inbound queue is configured, the
+     * event is queued and delivered later by a job of the event loop of the page, otherwise
+     * it is delivered right away from the calling thread.
+     * @param event the delivery of the event
+     */
+    void dispatch(final Runnable event) {
+        if (inboundQueueSize_ <= 0) {
+            event.run();
+            return;
+        }
+
+        final boolean schedule;
+        final boolean suspend;
+        synchronized (inbound_) {
+            inbound_.add(event);
+            schedule = !deliveryScheduled_;
+            deliveryScheduled_ = true;
+            suspend = !inboundSuspended_ && inbound_.size() >= inboundQueueSize_;
+            if (suspend) {
+                inboundSuspended_ = true;
+            }
+        }
+
+        // the network layer may still hand over frames it has already read,
+        // the queue is only bounded by the number of frames in flight
+        if (suspend) {
+            webSocketImpl_.suspendIncoming();
+        }
+        if (schedule) {
+            scheduleDelivery();
+        }
+    }
+
+    private void scheduleDelivery() {
+        final BasicJavaScriptJob job = new BasicJavaScriptJob() {
+            @Override
+            public void run() {
+                deliverInbound();
+            }
+        };
+
+        final WebWindow window = containingPage_.getEnclosingWindow();
+        if (window.getJobManager().addJob(job, containingPage_) == 0) {
+            // the page is gone, nobody is interested in the events
+            final boolean resume;
+            synchronized (inbound_) {
+                inbound_.clear();
+                deliveryScheduled_ = false;
+                resume = inboundSuspended_;
+                inboundSuspended_ = false;
+            }
+            if (resume) {
+                webSocketImpl_.resumeIncoming();
+            }
+        }
+    }
+
+    private void deliverInbound() {
+        for (int i = 0; i < INBOUND_BATCH_SIZE; i++) {
+            final Runnable event;
+            synchronized (inbound_) {
+                event = inbound_.poll();
+            }
+            if (event == null) {
+                break;
+            }
+            event.run();
+        }
+
+        final boolean resume;
+        final boolean reschedule;
+        synchronized (inbound_) {
+            resume = inboundSuspended_ && inbound_.size() <= inboundQueueSize_ / 2;
+            if (resume) {
+                inboundSuspended_ = false;
+            }
+            reschedule = !inbound_.isEmpty();
+            deliveryScheduled_ = reschedule;
+        }
+
+        if (resume) {
+            webSocketImpl_.resumeIncoming();
+        }
+        if (reschedule) {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Ends the background activity registered for the opening handshake, if not yet done.
+     */
+    private void connectFinished() {
+        if (connecting_.compareAndSet(true, false)) {
+            internals_.endBackgroundActivity();
+        }
+    }
+
     void fire(final Event evt) {
         evt.setTarget(this);
         evt.setParentScope(getParentScope());
@@ -99,6 +99,7 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
 import com.gargoylesoftware.htmlunit.javascript.host.crypto.Crypto;
 import com.gargoylesoftware.htmlunit.javascript.host.css.CSS2Properties;
 import com.gargoylesoftware.htmlunit.javascript.host.css.CSSStyleSheet;
+import com.gargoylesoftware.htmlunit.javascript.host.css.LayoutBox;
 import com.gargoylesoftware.htmlunit.javascript.host.css.MediaQueryList;
 import com.gargoylesoftware.htmlunit.javascript.host.css.StyleMedia;
 import com.gargoylesoftware.htmlunit.javascript.host.css.StyleSheetList;
@@ -108,12 +109,14 @@ import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
 import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 import com.gargoylesoftware.htmlunit.javascript.host.event.MessageEvent;
 import com.gargoylesoftware.htmlunit.javascript.host.event.MouseEvent;
+import com.gargoylesoftware.htmlunit.javascript.host.fetch.Fetch;
 import com.gargoylesoftware.htmlunit.javascript.host.html.DataTransfer;
 import com.gargoylesoftware.htmlunit.javascript.host.html.DocumentProxy;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLBodyElement;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLCollection;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLDocument;
 import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
+import com.gargoylesoftware.htmlunit.javascript.host.idb.IDBFactory;
 import com.gargoylesoftware.htmlunit.javascript.host.performance.Performance;
 import com.gargoylesoftware.htmlunit.javascript.host.speech.SpeechSynthesis;
 import com.gargoylesoftware.htmlunit.javascript.host.xml.XMLDocument;
@@ -190,8 +193,10 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
     private Object opener_;
     private Object top_ = NOT_FOUND; // top can be set from JS to any value!
     private Crypto crypto_;
+    private IDBFactory indexedDB_;
 
     private CSSPropertiesCache cssPropertiesCache_ = new CSSPropertiesCache();
+    private LayoutCache layoutCache_ = new LayoutCache();
 
     private final EnumMap<Type, Storage> storages_ = new EnumMap<>(Type.class);
 
@@ -291,6 +296,63 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
         }
     }
 
+    /**
+     * The box geometry of the elements of the page, shared by all computed styles of an element and
+     * kept when they are evicted from the {@link CSSPropertiesCache}. Boxes are reset (and not removed,
+     * computed styles keep a reference) whenever something changes that could move or resize them.
+     */
+    private static final class LayoutCache implements Serializable {
+        private transient WeakHashMap<DomNode, LayoutBox> boxes_ = new WeakHashMap<>();
+
+        LayoutCache() {
+        }
+
+        public synchronized LayoutBox get(final Element element) {
+            return boxes_.computeIfAbsent(element.getDomNodeOrDie(), key -> new LayoutBox());
+        }
+
+        /**
+         * Resets the boxes of the changed node, its descendants and ancestors and of
+         * all siblings of the changed node and its ancestors.
+         * Only this part of the tree is visited, not all the cached boxes.
+         * @param changed the changed node
+         * @param parent the (former) parent of the changed node
+         */
+        public synchronized void nodeChanged(final DomNode changed, final DomNode parent) {
+            if (boxes_.isEmpty()) {
+                return;
+            }
+            reset(changed);
+            for (final DomNode descendant : changed.getDescendants()) {
+                reset(descendant);
+            }
+            for (DomNode ancestor = parent; ancestor != null; ancestor = ancestor.getParentNode()) {
+                reset(ancestor);
+                for (final DomNode sibling : ancestor.getChildren()) {
+                    reset(sibling);
+                }
+            }
+        }
+
+        private void reset(final DomNode node) {
+            final LayoutBox box = boxes_.get(node);
+            if (box != null) {
+                box.reset();
+            }
+        }
+
+        public synchronized void clear() {
+            for (final LayoutBox box : boxes_.values()) {
+                box.reset();
+            }
+        }
+
+        private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            boxes_ = new WeakHashMap<>();
+        }
+    }
+
     /**
      * Creates an instance.
      */
@@ -321,6 +383,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
     private void readObject(final ObjectInputStream stream) throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
         cssPropertiesCache_ = new CSSPropertiesCache();
+        layoutCache_ = new LayoutCache();
         animationFrames_ = new ArrayList<>();
     }
 
@@ -789,10 +852,10 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
         final List<AnimationFrame> animationFrames = new ArrayList<>(animationFrames_);
         animationFrames_.clear();
 
-        final double now = System.nanoTime() / 1_000_000d;
+        final WebWindow ww = getWindow().getWebWindow();
+        final double now = ww.getWebClient().getJavaScriptClock().nanoTime() / 1_000_000d;
         final Object[] args = {now};
 
-        final WebWindow ww = getWindow().getWebWindow();
         final JavaScriptEngine jsEngine = (JavaScriptEngine) ww.getWebClient().getJavaScriptEngine();
 
         for (final AnimationFrame animationFrame : animationFrames) {
@@ -855,6 +918,18 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
         return history_;
     }
 
+    /**
+     * Returns the {@code indexedDB} property.
+     * @return the {@code indexedDB} property
+     */
+    @JsxGetter
+    public IDBFactory getIndexedDB() {
+        if (indexedDB_ == null) {
+            indexedDB_ = new IDBFactory(this);
+        }
+        return indexedDB_;
+    }
+
     /**
      * Returns the {@code external} property.
      * @return the {@code external} property
@@ -1799,6 +1874,13 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
 
             cssPropertiesCache_.put(e, normalizedPseudo, style);
         }
+
+        if (StringUtils.isEmpty(normalizedPseudo)) {
+            final LayoutBox layoutBox = getLayoutBox(e);
+            if (layoutBox != null) {
+                style.setLayoutBox(layoutBox);
+            }
+        }
         return style;
     }
 
@@ -1960,6 +2042,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
      */
     public void clearComputedStyles() {
         cssPropertiesCache_.clear();
+        layoutCache_.clear();
     }
 
     /**
@@ -1968,6 +2051,10 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
      */
     public void clearComputedStyles(final Element element) {
         cssPropertiesCache_.remove(element);
+        final DomNode node = element.getDomNodeOrNull();
+        if (node != null) {
+            layoutCache_.nodeChanged(node, node.getParentNode());
+        }
     }
 
     /**
@@ -1983,6 +2070,26 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
             cssPropertiesCache_.remove(parent);
             parent = parent.getParentElement();
         }
+
+        final DomNode node = element.getDomNodeOrNull();
+        if (node != null) {
+            layoutCache_.nodeChanged(node, node.getParentNode());
+        }
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     * Returns the box geometry of the given element, shared by all computed styles of the element
+     * and reused until a change of the page invalidates it.
+     * @param element the element
+     * @return the box geometry or {@code null} if the element is not part of the page of this window
+     */
+    public LayoutBox getLayoutBox(final Element element) {
+        final DomNode node = element.getDomNodeOrNull();
+        if (node == null || webWindow_ == null || node.getPage() != webWindow_.getEnclosedPage()) {
+            return null;
+        }
+        return layoutCache_.get(element);
     }
 
     /**
@@ -2028,6 +2135,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
          */
         @Override
         public void nodeAdded(final DomChangeEvent event) {
+            layoutCache_.nodeChanged(event.getChangedNode(), event.getParentNode());
             nodeChanged(event.getChangedNode(), null);
         }
 
@@ -2036,6 +2144,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
          */
         @Override
         public void nodeDeleted(final DomChangeEvent event) {
+            layoutCache_.nodeChanged(event.getChangedNode(), event.getParentNode());
             nodeChanged(event.getChangedNode(), null);
         }
 
@@ -2078,6 +2187,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
             }
 
             // Apparently it wasn't a stylesheet that changed; be semi-smart about what we evict and when.
+            layoutCache_.nodeChanged(changed, changed.getParentNode());
             final boolean clearParents = ATTRIBUTES_AFFECTING_PARENT.contains(attribName);
             cssPropertiesCache_.nodeChanged(changed, clearParents);
         }
@@ -2361,6 +2471,17 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Fu
         return mediaQueryList;
     }
 
+    /**
+     * Starts fetching a resource from the network.
+     * @param input the url or a {@code Request}
+     * @param init the init object (optional)
+     * @return a promise fulfilled with the {@code Response}
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public Promise fetch(final Object input, final Object init) {
+        return Fetch.fetch(this, input, init);
+    }
+
     /**
      * Stub only at the moment.
      * @param search the text string for which to search
@@ -84,7 +84,10 @@ public class CanvasRenderingContext2D extends SimpleScriptable {
         if (renderingBackend_ == null) {
             final int imageWidth = Math.max(1, canvas_.getWidth());
             final int imageHeight = Math.max(1, canvas_.getHeight());
-            renderingBackend_ = new AwtRenderingBackend(imageWidth, imageHeight);
+            final AwtRenderingBackend backend = new AwtRenderingBackend(imageWidth, imageHeight);
+            backend.setPngCompressionLevel(
+                    getWindow().getWebWindow().getWebClient().getOptions().getCanvasPngCompressionLevel());
+            renderingBackend_ = backend;
         }
         return renderingBackend_;
     }
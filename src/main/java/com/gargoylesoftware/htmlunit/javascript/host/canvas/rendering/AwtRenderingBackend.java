@@ -26,6 +26,7 @@ import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -36,6 +37,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
@@ -61,7 +63,12 @@ public class AwtRenderingBackend implements RenderingBackend {
 
     private final int id_;
     private final BufferedImage image_;
+    private final int[] pixels_;
     private final Graphics2D graphics2D_;
+    private int pngCompressionLevel_ = -1;
+
+    private String encodedType_;
+    private String encoded_;
 
     private AffineTransform transformation_;
     private float globalAlpha_;
@@ -243,6 +250,8 @@ public class AwtRenderingBackend implements RenderingBackend {
         }
 
         image_ = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        // direct access to the (non premultiplied) ARGB values; the graphics renders into the same array
+        pixels_ = ((DataBufferInt) image_.getRaster().getDataBuffer()).getData();
         graphics2D_ = image_.createGraphics();
 
         graphics2D_.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -265,6 +274,34 @@ public class AwtRenderingBackend implements RenderingBackend {
         savedStates_ = new ArrayDeque<>();
     }
 
+    /**
+     * Returns the deflate level used by {@link #encodeToString(String)} for png images.
+     * @return the level (0-9) or -1 if {@link ImageIO} is used for encoding
+     */
+    public int getPngCompressionLevel() {
+        return pngCompressionLevel_;
+    }
+
+    /**
+     * Sets the deflate level used by {@link #encodeToString(String)} for png images.
+     * If set to a value between 0 and 9, png images are encoded by a simple built-in encoder
+     * (no row filtering) that is much cheaper than {@link ImageIO}; the produced file differs
+     * from the one written by {@link ImageIO}. -1 (the default) uses {@link ImageIO}.
+     * @param pngCompressionLevel the level (0-9) or -1
+     */
+    public void setPngCompressionLevel(final int pngCompressionLevel) {
+        pngCompressionLevel_ = pngCompressionLevel;
+        invalidateEncoded();
+    }
+
+    /**
+     * Must be called whenever the pixels are changed.
+     */
+    private void invalidateEncoded() {
+        encodedType_ = null;
+        encoded_ = null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -387,6 +424,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] clearRect(" + x + ", " + y + ", " + w + ", " + h + ")");
         }
 
+        invalidateEncoded();
         graphics2D_.setColor(Color.WHITE);
         final Rectangle2D rect = new Rectangle2D.Double(x, y, w, h);
         graphics2D_.fill(transformation_.createTransformedShape(rect));
@@ -401,6 +439,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] drawImage()");
         }
 
+        invalidateEncoded();
         if (imageReader.getNumImages(true) != 0) {
             final BufferedImage img = imageReader.read(0);
 
@@ -421,16 +460,29 @@ public class AwtRenderingBackend implements RenderingBackend {
      */
     @Override
     public String encodeToString(final String type) throws IOException {
+        if (encoded_ != null && Objects.equals(encodedType_, type)) {
+            return encoded_;
+        }
+
         String imageType = type;
         if (imageType != null && imageType.startsWith("image/")) {
             imageType = imageType.substring(6);
         }
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            ImageIO.write(image_, imageType, bos);
 
-            final byte[] imageBytes = bos.toByteArray();
-            return new String(new Base64().encode(imageBytes), StandardCharsets.US_ASCII);
+        final byte[] imageBytes;
+        if (pngCompressionLevel_ >= 0 && "png".equalsIgnoreCase(imageType)) {
+            imageBytes = PngEncoder.encode(pixels_, image_.getWidth(), image_.getHeight(), pngCompressionLevel_);
         }
+        else {
+            try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+                ImageIO.write(image_, imageType, bos);
+                imageBytes = bos.toByteArray();
+            }
+        }
+
+        encoded_ = new String(new Base64().encode(imageBytes), StandardCharsets.US_ASCII);
+        encodedType_ = type;
+        return encoded_;
     }
 
     /**
@@ -442,6 +494,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] fill()");
         }
 
+        invalidateEncoded();
         graphics2D_.setStroke(new BasicStroke(getLineWidth()));
         graphics2D_.setColor(fillColor_);
         for (final Path2D path2d : subPaths_) {
@@ -458,6 +511,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] fillRect(" + x + ", "  + y + ", "  + w + ", "  + h + ")");
         }
 
+        invalidateEncoded();
         graphics2D_.setColor(fillColor_);
         final Rectangle2D rect = new Rectangle2D.Double(x, y, w, h);
         graphics2D_.fill(transformation_.createTransformedShape(rect));
@@ -472,6 +526,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] fillText('" + text + "', "  + x + ", "  + y + ")");
         }
 
+        invalidateEncoded();
         final AffineTransform savedTransform = graphics2D_.getTransform();
         try {
             graphics2D_.setTransform(transformation_);
@@ -493,30 +548,23 @@ public class AwtRenderingBackend implements RenderingBackend {
         }
 
         final byte[] array = new byte[width * height * 4];
-        int index = 0;
-        for (int x = sx; x < sx + width; x++) {
-            if (x < 0 || x >= image_.getWidth()) {
-                array[index++] = (byte) 0;
-                array[index++] = (byte) 0;
-                array[index++] = (byte) 0;
-                array[index++] = (byte) 0;
-            }
-            else {
-                for (int y = sy; y < sy + height; y++) {
-                    if (y < 0 || y >= image_.getHeight()) {
-                        array[index++] = (byte) 0;
-                        array[index++] = (byte) 0;
-                        array[index++] = (byte) 0;
-                        array[index++] = (byte) 0;
-                    }
-                    else {
-                        final int color = image_.getRGB(x, y);
-                        array[index++] = (byte) ((color & 0xff0000) >> 16);
-                        array[index++] = (byte) ((color & 0xff00) >> 8);
-                        array[index++] = (byte) (color & 0xff);
-                        array[index++] = (byte) ((color & 0xff000000) >>> 24);
-                    }
-                }
+
+        // everything outside of the image stays transparent black
+        final int imageWidth = image_.getWidth();
+        final int fromX = Math.max(sx, 0);
+        final int toX = Math.min(sx + width, imageWidth);
+        final int fromY = Math.max(sy, 0);
+        final int toY = Math.min(sy + height, image_.getHeight());
+
+        for (int y = fromY; y < toY; y++) {
+            int index = ((y - sy) * width + fromX - sx) * 4;
+            final int rowStart = y * imageWidth;
+            for (int x = fromX; x < toX; x++) {
+                final int color = pixels_[rowStart + x];
+                array[index++] = (byte) (color >> 16);
+                array[index++] = (byte) (color >> 8);
+                array[index++] = (byte) color;
+                array[index++] = (byte) (color >>> 24);
             }
         }
         return array;
@@ -565,44 +613,29 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] putImageData()");
         }
 
-        final Color orgColor = graphics2D_.getColor();
+        invalidateEncoded();
 
-        final int width = dx + imageData.getWidth();
-        final int height = dy + imageData.getHeight();
-        final int imageWidth = dirtyX + dirtyWidth;
-        final int imageHeight = dirtyY + dirtyHeight;
+        // the dirty rectangle, restricted to the image data and to the canvas
+        final int imageDataWidth = imageData.getWidth();
+        final int imageWidth = image_.getWidth();
+        final int fromX = Math.max(Math.max(dirtyX, 0), -dx);
+        final int toX = Math.min(Math.min(dirtyX + dirtyWidth, imageDataWidth), imageWidth - dx);
+        final int fromY = Math.max(Math.max(dirtyY, 0), -dy);
+        final int toY = Math.min(Math.min(dirtyY + dirtyHeight, imageData.getHeight()), image_.getHeight() - dy);
 
+        // the pixels are replaced, no compositing
         final byte[] bytes = imageData.getData().getBuffer().getBuffer();
-        int byteIdx = 0;
-        int imageX = 0;
-        int imageY = 0;
-        for (int insertY = dy; insertY < height; insertY++) {
-            for (int insertX = dx; insertX < width; insertX++) {
-                if (0 <= insertX && insertX < image_.getWidth()
-                        && 0 <= insertY && insertY < image_.getHeight()
-                        && dirtyX <= imageX && imageX < imageWidth
-                        && dirtyY <= imageY && imageY < imageHeight) {
-                    final int r = bytes[byteIdx++] & 0xFF;
-                    final int g = bytes[byteIdx++] & 0xFF;
-                    final int b = bytes[byteIdx++] & 0xFF;
-                    final int a = bytes[byteIdx++] & 0xFF;
-                    final Color color = new Color(r, g, b, a);
-                    graphics2D_.setColor(color);
-                    graphics2D_.drawLine(insertX, insertY, insertX, insertY);
-                }
-                else {
-                    byteIdx += 4;
-                }
-
-                imageX++;
-                if (imageX == imageData.getWidth()) {
-                    imageX = 0;
-                    imageY++;
-                }
+        for (int y = fromY; y < toY; y++) {
+            int byteIdx = (y * imageDataWidth + fromX) * 4;
+            int pixelIdx = (dy + y) * imageWidth + dx + fromX;
+            for (int x = fromX; x < toX; x++) {
+                final int r = bytes[byteIdx++] & 0xFF;
+                final int g = bytes[byteIdx++] & 0xFF;
+                final int b = bytes[byteIdx++] & 0xFF;
+                final int a = bytes[byteIdx++] & 0xFF;
+                pixels_[pixelIdx++] = (a << 24) | (r << 16) | (g << 8) | b;
             }
         }
-
-        graphics2D_.setColor(orgColor);
     }
 
     /**
@@ -775,6 +808,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] stroke()");
         }
 
+        invalidateEncoded();
         graphics2D_.setStroke(new BasicStroke(getLineWidth()));
         graphics2D_.setColor(strokeColor_);
         for (final Path2D path2d : subPaths_) {
@@ -791,6 +825,7 @@ public class AwtRenderingBackend implements RenderingBackend {
             LOG.debug("[" + id_ + "] strokeRect(" + x + ", "  + y + ", "  + w + ", "  + h + ")");
         }
 
+        invalidateEncoded();
         graphics2D_.setColor(strokeColor_);
         final Rectangle2D rect = new Rectangle2D.Double(x, y, w, h);
         graphics2D_.draw(transformation_.createTransformedShape(rect));
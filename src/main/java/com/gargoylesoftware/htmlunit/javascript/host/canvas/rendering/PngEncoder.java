@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.canvas.rendering;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A minimal png encoder working directly on the ARGB pixels of an {@link AwtRenderingBackend}.
+ * The image is written as 8 bit RGBA without row filtering; this is a lot cheaper than
+ * the {@link javax.imageio.ImageIO} based encoding, the files are a bit bigger.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private PngEncoder() {
+    }
+
+    /**
+     * Encodes the given pixels.
+     * @param argb the pixels (non premultiplied ARGB, row by row)
+     * @param width the width
+     * @param height the height
+     * @param compressionLevel the deflate level (0-9)
+     * @return the png file content
+     * @throws IOException in case of error
+     */
+    static byte[] encode(final int[] argb, final int width, final int height, final int compressionLevel)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(width * height + 1024);
+        out.write(SIGNATURE);
+
+        final byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 8; // bit depth
+        header[9] = 6; // color type RGBA
+        // compression, filter and interlace methods are 0
+        writeChunk(out, "IHDR", header, header.length);
+
+        final ByteArrayOutputStream data = new ByteArrayOutputStream(width * height + 1024);
+        final Deflater deflater = new Deflater(compressionLevel);
+        try {
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(data, deflater, 16 * 1024)) {
+                final byte[] row = new byte[1 + width * 4];
+                // row[0] is the filter type 'None'
+                for (int y = 0; y < height; y++) {
+                    int index = 1;
+                    final int rowStart = y * width;
+                    for (int x = 0; x < width; x++) {
+                        final int color = argb[rowStart + x];
+                        row[index++] = (byte) (color >> 16);
+                        row[index++] = (byte) (color >> 8);
+                        row[index++] = (byte) color;
+                        row[index++] = (byte) (color >>> 24);
+                    }
+                    dos.write(row);
+                }
+            }
+        }
+        finally {
+            deflater.end();
+        }
+        writeChunk(out, "IDAT", data.toByteArray(), data.size());
+
+        writeChunk(out, "IEND", new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(final ByteArrayOutputStream out, final String type,
+            final byte[] data, final int length) {
+        final byte[] intBytes = new byte[4];
+        writeInt(intBytes, 0, length);
+        out.write(intBytes, 0, 4);
+
+        final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        out.write(typeBytes, 0, typeBytes.length);
+        out.write(data, 0, length);
+
+        final CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt(intBytes, 0, (int) crc.getValue());
+        out.write(intBytes, 0, 4);
+    }
+
+    private static void writeInt(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -96,6 +96,8 @@ import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.Cache;
 import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
 import com.gargoylesoftware.htmlunit.HttpHeader;
+import com.gargoylesoftware.htmlunit.LoadPhase;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.WebResponse;
@@ -208,7 +210,7 @@ public class CSSStyleSheet extends StyleSheet {
         if (source != null) {
             source.setURI(uri);
         }
-        wrapped_ = parseCSS(source, win.getWebWindow().getWebClient());
+        wrapped_ = parseCSS(source, win.getWebWindow());
         uri_ = uri;
         ownerNode_ = element;
     }
@@ -225,7 +227,7 @@ public class CSSStyleSheet extends StyleSheet {
         CSSStyleSheetImpl css = null;
         try (InputSource source = new InputSource(new StringReader(styleSheet))) {
             source.setURI(uri);
-            css = parseCSS(source, win.getWebWindow().getWebClient());
+            css = parseCSS(source, win.getWebWindow());
         }
         catch (final IOException e) {
             LOG.error(e.getMessage(), e);
@@ -325,6 +327,8 @@ public class CSSStyleSheet extends StyleSheet {
                 response = link.getWebResponse(true, request);
             }
 
+            page.getLoadTiming().addResource(new ResourceTiming(response, "link"));
+
             // now we can look into the cache with the fixed request for
             // a cached script
             final Cache cache = client.getCache();
@@ -934,10 +938,14 @@ public class CSSStyleSheet extends StyleSheet {
      * returns an empty stylesheet.
      *
      * @param source the source from which to retrieve the CSS to be parsed
-     * @param client the client
+     * @param webWindow the window
      * @return the stylesheet parsed from the specified input source
      */
-    private static CSSStyleSheetImpl parseCSS(final InputSource source, final WebClient client) {
+    private static CSSStyleSheetImpl parseCSS(final InputSource source, final WebWindow webWindow) {
+        final WebClient client = webWindow.getWebClient();
+        final boolean timing = client.isLoadTimingEnabled();
+        final long startNanos = timing ? client.getJavaScriptClock().nanoTime() : 0;
+
         CSSStyleSheetImpl ss;
         try {
             final CSSErrorHandler errorHandler = client.getCssErrorHandler();
@@ -951,6 +959,11 @@ public class CSSStyleSheet extends StyleSheet {
             }
             ss = new CSSStyleSheetImpl();
         }
+
+        if (timing) {
+            final String uri = source == null ? null : source.getURI();
+            client.fireLoadPhase(webWindow.getEnclosedPage(), uri, LoadPhase.STYLESHEET_PARSE, startNanos);
+        }
         return ss;
     }
 
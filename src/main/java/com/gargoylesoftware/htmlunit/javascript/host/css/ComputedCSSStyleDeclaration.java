@@ -208,20 +208,11 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      */
     private final SortedMap<String, StyleElement> localModifications_ = new TreeMap<>();
 
-    /** The computed, cached width of the element to which this computed style belongs (no padding, borders, etc). */
-    private Integer width_;
-
     /**
-     * The computed, cached height of the element to which this computed style belongs (no padding, borders, etc),
-     * taking child elements into account.
+     * The cached box geometry (width, height, top) of the element to which this computed style belongs;
+     * shared with the layout of the window if this style belongs to an element of the page.
      */
-    private Integer height_;
-
-    /**
-     * The computed, cached height of the element to which this computed style belongs (no padding, borders, etc),
-     * <b>not</b> taking child elements into account.
-     */
-    private Integer height2_;
+    private LayoutBox layoutBox_;
 
     /** The computed, cached horizontal padding (left + right) of the element to which this computed style belongs. */
     private Integer paddingHorizontal_;
@@ -235,9 +226,6 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
     /** The computed, cached vertical border (top + bottom) of the element to which this computed style belongs. */
     private Integer borderVertical_;
 
-    /** The computed, cached top of the element to which this computed style belongs. */
-    private Integer top_;
-
     /**
      * Creates an instance.
      */
@@ -984,6 +972,26 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         });
     }
 
+    /**
+     * Returns the cached box geometry of the element to which this computed style belongs.
+     * @return the box geometry
+     */
+    public LayoutBox getLayoutBox() {
+        if (layoutBox_ == null) {
+            layoutBox_ = new LayoutBox();
+        }
+        return layoutBox_;
+    }
+
+    /**
+     * Sets the box geometry to use; done by the {@link com.gargoylesoftware.htmlunit.javascript.host.Window}
+     * to share the geometry of the page elements between all computed styles.
+     * @param layoutBox the box geometry
+     */
+    public void setLayoutBox(final LayoutBox layoutBox) {
+        layoutBox_ = layoutBox;
+    }
+
     /**
      * Returns the element's width in pixels, possibly including its padding and border.
      * @param includeBorder whether or not to include the border width in the returned value
@@ -1012,20 +1020,21 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
     }
 
     private int getCalculatedWidth() {
-        if (width_ != null) {
-            return width_.intValue();
+        final LayoutBox box = getLayoutBox();
+        if (box.getWidth() != null) {
+            return box.getWidth().intValue();
         }
 
         final Element element = getElement();
         final DomNode node = element.getDomNodeOrDie();
         if (!node.mayBeDisplayed()) {
-            width_ = Integer.valueOf(0);
+            box.setWidth(Integer.valueOf(0));
             return 0;
         }
 
         final String display = getDisplay();
         if (NONE.equals(display)) {
-            width_ = Integer.valueOf(0);
+            box.setWidth(Integer.valueOf(0));
             return 0;
         }
 
@@ -1103,7 +1112,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
             });
         }
 
-        width_ = Integer.valueOf(width);
+        box.setWidth(Integer.valueOf(width));
         return width;
     }
 
@@ -1176,8 +1185,9 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      * @return the element's calculated height, taking both relevant CSS and the element's children into account
      */
     private int getCalculatedHeight() {
-        if (height_ != null) {
-            return height_.intValue();
+        final LayoutBox box = getLayoutBox();
+        if (box.getHeight() != null) {
+            return box.getHeight().intValue();
         }
 
         final boolean isInline = "inline".equals(getDisplay()) && !(getElement() instanceof HTMLIFrameElement);
@@ -1185,13 +1195,14 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         if (isInline || super.getHeight().isEmpty()) {
             final int contentHeight = getContentHeight();
             if (contentHeight > 0) {
-                height_ = Integer.valueOf(contentHeight);
-                return height_;
+                box.setHeight(Integer.valueOf(contentHeight));
+                return contentHeight;
             }
         }
 
-        height_ = Integer.valueOf(getEmptyHeight());
-        return height_;
+        final int height = getEmptyHeight();
+        box.setHeight(Integer.valueOf(height));
+        return height;
     }
 
     /**
@@ -1202,19 +1213,20 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      *         elements
      */
     private int getEmptyHeight() {
-        if (height2_ != null) {
-            return height2_.intValue();
+        final LayoutBox box = getLayoutBox();
+        if (box.getEmptyHeight() != null) {
+            return box.getEmptyHeight().intValue();
         }
 
         final DomNode node = getElement().getDomNodeOrDie();
         if (!node.mayBeDisplayed()) {
-            height2_ = Integer.valueOf(0);
+            box.setEmptyHeight(Integer.valueOf(0));
             return 0;
         }
 
         final String display = getDisplay();
         if (NONE.equals(display)) {
-            height2_ = Integer.valueOf(0);
+            box.setEmptyHeight(Integer.valueOf(0));
             return 0;
         }
 
@@ -1222,7 +1234,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         final int windowHeight = elem.getWindow().getWebWindow().getInnerHeight();
 
         if (elem instanceof HTMLBodyElement) {
-            height2_ = windowHeight;
+            box.setEmptyHeight(Integer.valueOf(windowHeight));
             return windowHeight;
         }
 
@@ -1334,7 +1346,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
             height = defaultHeight;
         }
 
-        height2_ = Integer.valueOf(height);
+        box.setEmptyHeight(Integer.valueOf(height));
         return height;
     }
 
@@ -1347,8 +1359,14 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
         //  - elements with position:static or position:relative (elements that flow and build on each other)
         //  - elements with position:absolute (independent elements)
 
+        final LayoutBox box = getLayoutBox();
+        if (box.getContentHeight() != null) {
+            return box.getContentHeight().intValue();
+        }
+
         final DomNode node = getElement().getDomNodeOrDie();
         if (!node.mayBeDisplayed()) {
+            box.setContentHeight(Integer.valueOf(0));
             return 0;
         }
 
@@ -1382,6 +1400,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
                 max = h;
             }
         }
+        box.setContentHeight(Integer.valueOf(max));
         return max;
     }
 
@@ -1424,7 +1443,8 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
      */
     public int getTop(final boolean includeMargin, final boolean includeBorder, final boolean includePadding) {
         int top = 0;
-        if (null == top_) {
+        final LayoutBox box = getLayoutBox();
+        if (null == box.getTop()) {
             final String p = getPositionWithInheritance();
             if (ABSOLUTE.equals(p)) {
                 top = getTopForAbsolutePositionWithInheritance();
@@ -1442,7 +1462,8 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
                         final String display = style.getDisplay();
                         if (isBlock(display)) {
                             int prevTop = 0;
-                            if (style.top_ == null) {
+                            final Integer prevComputedTop = style.getLayoutBox().getTop();
+                            if (prevComputedTop == null) {
                                 final String prevPosition = style.getPositionWithInheritance();
                                 if (ABSOLUTE.equals(prevPosition)) {
                                     prevTop += style.getTopForAbsolutePositionWithInheritance();
@@ -1456,7 +1477,7 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
                             }
                             else {
                                 prevHadComputedTop = true;
-                                prevTop += style.top_;
+                                prevTop += prevComputedTop.intValue();
                             }
                             prevTop += style.getCalculatedHeight(true, true);
                             final int margin = pixelValue(style.getMarginTop());
@@ -1472,10 +1493,10 @@ public class ComputedCSSStyleDeclaration extends CSSStyleDeclaration {
                     top += pixelValue(t);
                 }
             }
-            top_ = Integer.valueOf(top);
+            box.setTop(Integer.valueOf(top));
         }
         else {
-            top = top_.intValue();
+            top = box.getTop().intValue();
         }
 
         if (includeMargin) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.css;
+
+import java.io.Serializable;
+
+/**
+ * The cached box geometry of one element, calculated by {@link ComputedCSSStyleDeclaration}.
+ * All elements of a page share the layout of the {@link com.gargoylesoftware.htmlunit.javascript.host.Window};
+ * the values survive the eviction of the computed styles and are reset whenever the element, one of its
+ * ancestors or descendants, or a sibling of the element or of one of its ancestors changes.
+ * <p>
+ * A {@code null} value means the value was not calculated so far.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class LayoutBox implements Serializable {
+
+    /** The width (no padding, borders, etc). */
+    private Integer width_;
+
+    /** The height (no padding, borders, etc), taking child elements into account. */
+    private Integer height_;
+
+    /** The height (no padding, borders, etc), <b>not</b> taking child elements into account. */
+    private Integer emptyHeight_;
+
+    /** The total height of the child elements. */
+    private Integer contentHeight_;
+
+    /** The top, relative to the parent's top edge (no margin, borders, etc). */
+    private Integer top_;
+
+    /** Whether the element is displayed. */
+    private Boolean displayed_;
+
+    /**
+     * Forgets all calculated values.
+     */
+    public void reset() {
+        width_ = null;
+        height_ = null;
+        emptyHeight_ = null;
+        contentHeight_ = null;
+        top_ = null;
+        displayed_ = null;
+    }
+
+    /**
+     * @return the width (no padding, borders, etc)
+     */
+    public Integer getWidth() {
+        return width_;
+    }
+
+    /**
+     * @param width the width (no padding, borders, etc)
+     */
+    public void setWidth(final Integer width) {
+        width_ = width;
+    }
+
+    /**
+     * @return the height (no padding, borders, etc), taking child elements into account
+     */
+    public Integer getHeight() {
+        return height_;
+    }
+
+    /**
+     * @param height the height (no padding, borders, etc), taking child elements into account
+     */
+    public void setHeight(final Integer height) {
+        height_ = height;
+    }
+
+    /**
+     * @return the height (no padding, borders, etc), <b>not</b> taking child elements into account
+     */
+    public Integer getEmptyHeight() {
+        return emptyHeight_;
+    }
+
+    /**
+     * @param emptyHeight the height (no padding, borders, etc), <b>not</b> taking child elements into account
+     */
+    public void setEmptyHeight(final Integer emptyHeight) {
+        emptyHeight_ = emptyHeight;
+    }
+
+    /**
+     * @return the total height of the child elements
+     */
+    public Integer getContentHeight() {
+        return contentHeight_;
+    }
+
+    /**
+     * @param contentHeight the total height of the child elements
+     */
+    public void setContentHeight(final Integer contentHeight) {
+        contentHeight_ = contentHeight;
+    }
+
+    /**
+     * @return the top, relative to the parent's top edge (no margin, borders, etc)
+     */
+    public Integer getTop() {
+        return top_;
+    }
+
+    /**
+     * @param top the top, relative to the parent's top edge (no margin, borders, etc)
+     */
+    public void setTop(final Integer top) {
+        top_ = top;
+    }
+
+    /**
+     * @return whether the element is displayed
+     */
+    public Boolean getDisplayed() {
+        return displayed_;
+    }
+
+    /**
+     * @param displayed whether the element is displayed
+     */
+    public void setDisplayed(final Boolean displayed) {
+        displayed_ = displayed;
+    }
+}
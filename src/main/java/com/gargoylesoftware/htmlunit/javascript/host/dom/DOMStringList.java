@@ -19,9 +19,17 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
 
 /**
  * A JavaScript object for {@code DOMStringList}.
@@ -32,11 +40,66 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class DOMStringList extends SimpleScriptable {
 
+    private final List<String> strings_;
+
     /**
      * Creates an instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public DOMStringList() {
+        strings_ = new ArrayList<>();
+    }
+
+    /**
+     * Creates an instance.
+     * @param window the window
+     * @param strings the strings
+     */
+    public DOMStringList(final Window window, final List<String> strings) {
+        strings_ = new ArrayList<>(strings);
+        setParentScope(window);
+        setPrototype(window.getPrototype(DOMStringList.class));
+    }
+
+    /**
+     * @return the number of strings
+     */
+    @JsxGetter
+    public int getLength() {
+        return strings_.size();
     }
 
+    /**
+     * Returns the string at the given index.
+     * @param index the index
+     * @return the string or {@code null}
+     */
+    @JsxFunction
+    public String item(final int index) {
+        if (index < 0 || index >= strings_.size()) {
+            return null;
+        }
+        return strings_.get(index);
+    }
+
+    /**
+     * Returns whether the given string is in the list.
+     * @param string the string
+     * @return whether the given string is in the list
+     */
+    @JsxFunction
+    public boolean contains(final String string) {
+        return strings_.contains(string);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(final int index, final Scriptable start) {
+        if (index >= 0 && index < strings_.size()) {
+            return strings_.get(index);
+        }
+        return super.get(index, start);
+    }
 }
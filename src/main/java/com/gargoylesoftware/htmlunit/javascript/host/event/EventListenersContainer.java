@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -26,6 +27,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.gargoylesoftware.htmlunit.ScriptResult;
+import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.host.Window;
@@ -229,9 +231,33 @@ public class EventListenersContainer implements Serializable {
             }
             return false;
         }
+        addListenedEventType(type.toLowerCase(Locale.ROOT));
         return true;
     }
 
+    /**
+     * Makes all event types this container has listeners or handlers for known to the page
+     * of our node, e.g. because the node was moved to another page.
+     */
+    public void updateListenedEventTypes() {
+        for (final Map.Entry<String, TypeContainer> entry : typeContainers_.entrySet()) {
+            final TypeContainer container = entry.getValue();
+            if (!container.atTargetListeners_.isEmpty() || container.handler_ != null) {
+                addListenedEventType(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Records the event type in the page of our node (see {@link EventTarget#fireEvent(Event)}).
+     */
+    private void addListenedEventType(final String typeLC) {
+        final SgmlPage page = EventTarget.getListenerPage(jsNode_);
+        if (page != null) {
+            page.addListenedEventType(typeLC);
+        }
+    }
+
     private TypeContainer getTypeContainer(final String type) {
         final String typeLC = type.toLowerCase(Locale.ROOT);
         return typeContainers_.getOrDefault(typeLC, TypeContainer.EMPTY);
@@ -280,12 +306,17 @@ public class EventListenersContainer implements Serializable {
             handler = (Function) value;
         }
 
-        typeContainers_.compute(eventType.toLowerCase(Locale.ROOT), (k, container) -> {
+        final String typeLC = eventType.toLowerCase(Locale.ROOT);
+        typeContainers_.compute(typeLC, (k, container) -> {
             if (container == null) {
                 container = TypeContainer.EMPTY;
             }
             return container.setPropertyHandler(handler);
         });
+
+        if (handler != null) {
+            addListenedEventType(typeLC);
+        }
     }
 
     private void executeEventListeners(final int eventPhase, final Event event, final Object[] args) {
@@ -23,10 +23,12 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.gargoylesoftware.htmlunit.ScriptResult;
+import com.gargoylesoftware.htmlunit.SgmlPage;
 import com.gargoylesoftware.htmlunit.html.DomElement;
 import com.gargoylesoftware.htmlunit.html.DomNode;
 import com.gargoylesoftware.htmlunit.html.HtmlElement;
@@ -41,6 +43,7 @@ import com.gargoylesoftware.htmlunit.javascript.host.dom.Document;
 import net.sourceforge.htmlunit.corejs.javascript.Context;
 import net.sourceforge.htmlunit.corejs.javascript.Function;
 import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
 
 /**
  * A JavaScript object for {@code EventTarget}.
@@ -123,76 +126,15 @@ public class EventTarget extends SimpleScriptable {
             final DomNode ourNode = getDomNodeOrNull();
             final DomNode ourParentNode = (ourNode != null) ? ourNode.getParentNode() : null;
 
-            // Determine the propagation path which is fixed here and not affected by
-            // DOM tree modification from intermediate listeners (tested in Chrome)
-            final List<EventTarget> propagationPath = new ArrayList<>();
-
-            // We're added to the propagation path first
-            propagationPath.add(this);
-
-            // Then add all our parents if we have any (pure JS object such as XMLHttpRequest
-            // and MessagePort, etc. will not have any parents)
-            for (DomNode parent = ourParentNode; parent != null; parent = parent.getParentNode()) {
-                propagationPath.add(parent.getScriptableObject());
-            }
-
-            // The load event has some unnatural behavior that we need to handle specially
-            // The load event for other elements target that element and but path only
-            // up to Document and not Window, so do nothing here
-            // (see Note in https://www.w3.org/TR/DOM-Level-3-Events/#event-type-load)
-            if (!Event.TYPE_LOAD.equals(event.getType())) {
-                // Add Window if the the propagation path reached Document
-                if (propagationPath.get(propagationPath.size() - 1) instanceof Document) {
-                    propagationPath.add(window);
+            // nobody listens to events of this type, so there is no need to build and visit the propagation path
+            if (!isListenedEventType(window, event.getType())) {
+                event.setEventPhase(Event.AT_TARGET);
+                if (event.isBubbles()) {
+                    event.setEventPhase(Event.BUBBLING_PHASE);
                 }
             }
-
-            // capturing phase
-            event.setEventPhase(Event.CAPTURING_PHASE);
-
-            for (int i = propagationPath.size() - 1; i >= 1; i--) {
-                final EventTarget jsNode = propagationPath.get(i);
-                final EventListenersContainer elc = jsNode.eventListenersContainer_;
-                if (elc != null) {
-                    elc.executeCapturingListeners(event, new Object[] {event});
-                    if (event.isPropagationStopped()) {
-                        return new ScriptResult(null);
-                    }
-                }
-            }
-
-            // at target phase
-            event.setEventPhase(Event.AT_TARGET);
-
-            if (!propagationPath.isEmpty()) {
-                // Note: This element is not always the same as event.getTarget():
-                // e.g. the 'load' event targets Document but "at target" is on Window.
-                final EventTarget jsNode = propagationPath.get(0);
-                final EventListenersContainer elc = jsNode.eventListenersContainer_;
-                if (elc != null) {
-                    elc.executeAtTargetListeners(event, new Object[] {event});
-                    if (event.isPropagationStopped()) {
-                        return new ScriptResult(null);
-                    }
-                }
-            }
-
-            // bubbling phase
-            if (event.isBubbles()) {
-                // This belongs here inside the block because events that don't bubble never set
-                // eventPhase = 3 (tested in Chrome)
-                event.setEventPhase(Event.BUBBLING_PHASE);
-
-                for (int i = 1, size = propagationPath.size(); i < size; i++) {
-                    final EventTarget jsNode = propagationPath.get(i);
-                    final EventListenersContainer elc = jsNode.eventListenersContainer_;
-                    if (elc != null) {
-                        elc.executeBubblingListeners(event, new Object[] {event});
-                        if (event.isPropagationStopped()) {
-                            return new ScriptResult(null);
-                        }
-                    }
-                }
+            else if (!propagate(event, window, ourParentNode)) {
+                return new ScriptResult(null);
             }
 
             HtmlLabel label = null;
@@ -226,6 +168,137 @@ public class EventTarget extends SimpleScriptable {
         return new ScriptResult(null);
     }
 
+    /**
+     * Executes the listeners along the propagation path of the event.
+     * @param event the event
+     * @param window the window of this target
+     * @param ourParentNode the parent of our node, if any
+     * @return {@code false} if the propagation has been stopped
+     */
+    private boolean propagate(final Event event, final Window window, final DomNode ourParentNode) {
+        // Determine the propagation path which is fixed here and not affected by
+        // DOM tree modification from intermediate listeners (tested in Chrome)
+        final List<EventTarget> propagationPath = new ArrayList<>();
+
+        // We're added to the propagation path first
+        propagationPath.add(this);
+
+        // Then add all our parents if we have any (pure JS object such as XMLHttpRequest
+        // and MessagePort, etc. will not have any parents)
+        for (DomNode parent = ourParentNode; parent != null; parent = parent.getParentNode()) {
+            propagationPath.add(parent.getScriptableObject());
+        }
+
+        // The load event has some unnatural behavior that we need to handle specially
+        // The load event for other elements target that element and but path only
+        // up to Document and not Window, so do nothing here
+        // (see Note in https://www.w3.org/TR/DOM-Level-3-Events/#event-type-load)
+        if (!Event.TYPE_LOAD.equals(event.getType())) {
+            // Add Window if the the propagation path reached Document
+            if (propagationPath.get(propagationPath.size() - 1) instanceof Document) {
+                propagationPath.add(window);
+            }
+        }
+
+        // capturing phase
+        event.setEventPhase(Event.CAPTURING_PHASE);
+
+        for (int i = propagationPath.size() - 1; i >= 1; i--) {
+            final EventTarget jsNode = propagationPath.get(i);
+            final EventListenersContainer elc = jsNode.eventListenersContainer_;
+            if (elc != null) {
+                elc.executeCapturingListeners(event, new Object[] {event});
+                if (event.isPropagationStopped()) {
+                    return false;
+                }
+            }
+        }
+
+        // at target phase
+        event.setEventPhase(Event.AT_TARGET);
+
+        if (!propagationPath.isEmpty()) {
+            // Note: This element is not always the same as event.getTarget():
+            // e.g. the 'load' event targets Document but "at target" is on Window.
+            final EventTarget jsNode = propagationPath.get(0);
+            final EventListenersContainer elc = jsNode.eventListenersContainer_;
+            if (elc != null) {
+                elc.executeAtTargetListeners(event, new Object[] {event});
+                if (event.isPropagationStopped()) {
+                    return false;
+                }
+            }
+        }
+
+        // bubbling phase
+        if (event.isBubbles()) {
+            // This belongs here inside the block because events that don't bubble never set
+            // eventPhase = 3 (tested in Chrome)
+            event.setEventPhase(Event.BUBBLING_PHASE);
+
+            for (int i = 1, size = propagationPath.size(); i < size; i++) {
+                final EventTarget jsNode = propagationPath.get(i);
+                final EventListenersContainer elc = jsNode.eventListenersContainer_;
+                if (elc != null) {
+                    elc.executeBubblingListeners(event, new Object[] {event});
+                    if (event.isPropagationStopped()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether there might be listeners for the given event type on the propagation path:
+     * all nodes of the path belong to our page, the window of the path might be another one
+     * if our node was moved to another page.
+     * @see SgmlPage#isListenedEventType(String)
+     */
+    private boolean isListenedEventType(final Window window, final String eventType) {
+        final SgmlPage page = getListenerPage(this);
+        final SgmlPage windowPage = getListenerPage(window);
+        if (page == null || windowPage == null) {
+            return true;
+        }
+
+        final String typeLC = eventType.toLowerCase(Locale.ROOT);
+        return page.isListenedEventType(typeLC) || windowPage != page && windowPage.isListenedEventType(typeLC);
+    }
+
+    /**
+     * Returns the page the listeners of the given target are recorded in; the page of the node for node
+     * based targets and the page of the window for all others.
+     * @param target the target
+     * @return the page or {@code null}
+     */
+    static SgmlPage getListenerPage(final EventTarget target) {
+        DomNode node = target.getDomNodeOrNull();
+        if (node == null) {
+            final Scriptable topScope = ScriptableObject.getTopLevelScope(target);
+            if (topScope instanceof Window) {
+                node = ((Window) topScope).getDomNodeOrNull();
+            }
+        }
+        if (node == null) {
+            return null;
+        }
+        return node.getPage();
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Makes the event types this target has listeners for known to the page of its node;
+     * has to be called if the node of this target is moved to another page.
+     */
+    public void updateListenedEventTypes() {
+        if (eventListenersContainer_ != null) {
+            eventListenersContainer_.updateListenedEventTypes();
+        }
+    }
+
     /**
      * Returns {@code true} if there are any event handlers for the specified event.
      * @param eventName the event name (e.g. "onclick")
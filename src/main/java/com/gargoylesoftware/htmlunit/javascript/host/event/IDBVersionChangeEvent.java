@@ -21,6 +21,7 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 
 /**
  * A JavaScript object for {@code IDBVersionChangeEvent}.
@@ -31,10 +32,44 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBVersionChangeEvent extends Event {
 
+    private long oldVersion_;
+    private Object newVersion_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBVersionChangeEvent() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param target the target
+     * @param type the event type
+     * @param oldVersion the old version of the database
+     * @param newVersion the new version of the database, {@code null} if the database is deleted
+     */
+    public IDBVersionChangeEvent(final EventTarget target, final String type,
+            final long oldVersion, final Long newVersion) {
+        super(target, type);
+        initEvent(type, false, false);
+        oldVersion_ = oldVersion;
+        newVersion_ = newVersion == null ? null : Double.valueOf(newVersion);
+    }
+
+    /**
+     * @return the old version of the database
+     */
+    @JsxGetter
+    public double getOldVersion() {
+        return oldVersion_;
+    }
+
+    /**
+     * @return the new version of the database, {@code null} if the database is deleted
+     */
+    @JsxGetter
+    public Object getNewVersion() {
+        return newVersion_;
+    }
 }
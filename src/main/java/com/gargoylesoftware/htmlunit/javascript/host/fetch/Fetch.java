@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.fetch;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+import com.gargoylesoftware.htmlunit.javascript.background.BasicJavaScriptJob;
+import com.gargoylesoftware.htmlunit.javascript.host.Promise;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+import net.sourceforge.htmlunit.corejs.javascript.BaseFunction;
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.EcmaError;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * The implementation of {@code fetch()}. The response is loaded using
+ * {@link WebClient#loadWebResponseAsync(WebRequest)}; the promise is settled by a job of the window,
+ * when the response is available, so the event loop is never blocked by the request.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class Fetch {
+
+    private static final Log LOG = LogFactory.getLog(Fetch.class);
+
+    private Fetch() {
+    }
+
+    /**
+     * Starts a fetch.
+     * @param window the window
+     * @param input the url or a {@link Request}
+     * @param init the init object (optional)
+     * @return the promise for the {@link Response}
+     */
+    public static Promise fetch(final Window window, final Object input, final Object init) {
+        final Function[] settle = new Function[2];
+        final Promise promise = new Promise(new BaseFunction(window, ScriptableObject.getFunctionPrototype(window)) {
+            @Override
+            public Object call(final Context cx, final Scriptable scope, final Scriptable thisObj,
+                    final Object[] args) {
+                settle[0] = (Function) args[0];
+                settle[1] = (Function) args[1];
+                return Undefined.instance;
+            }
+        });
+
+        final WebWindow ww = window.getWebWindow();
+        final Page page = ww.getEnclosedPage();
+        final WebRequest webRequest;
+        try {
+            webRequest = Request.create(window, input, init).toWebRequest(page.getUrl());
+        }
+        catch (final EcmaError e) {
+            reject(settle[1], window, e.getErrorMessage());
+            return promise;
+        }
+        catch (final MalformedURLException e) {
+            reject(settle[1], window, "Failed to fetch");
+            return promise;
+        }
+
+        final WebClient client = ww.getWebClient();
+        final URL requestUrl = webRequest.getUrl();
+        final CompletableFuture<WebResponse> responseFuture = new CompletableFuture<>();
+        final BasicJavaScriptJob job = new BasicJavaScriptJob() {
+            @Override
+            public void run() {
+                final JavaScriptEngine engine = (JavaScriptEngine) client.getJavaScriptEngine();
+                engine.getContextFactory().call(cx -> {
+                    final WebResponse webResponse;
+                    try {
+                        webResponse = responseFuture.get();
+                    }
+                    catch (final ExecutionException e) {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("fetch '" + requestUrl + "' failed", e.getCause());
+                        }
+                        reject(settle[1], window, "Failed to fetch");
+                        return null;
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+
+                    if (page instanceof HtmlPage) {
+                        ((HtmlPage) page).getLoadTiming().addResource(new ResourceTiming(webResponse, "fetch"));
+                    }
+
+                    final boolean redirected = !requestUrl.equals(webResponse.getWebRequest().getUrl());
+                    settle[0].call(cx, window, window,
+                            new Object[] {new Response(window, webResponse, redirected)});
+                    return null;
+                });
+            }
+
+            @Override
+            public String toString() {
+                return "fetch " + webRequest.getHttpMethod() + " '" + requestUrl + "'";
+            }
+        };
+        if (ww.getJobManager().addJob(job, page, responseFuture) == 0) {
+            // the page is gone, no need to send the request
+            return promise;
+        }
+
+        client.loadWebResponseAsync(webRequest).whenComplete((webResponse, throwable) -> {
+            if (throwable != null) {
+                responseFuture.completeExceptionally(throwable);
+            }
+            else if (!responseFuture.complete(webResponse)) {
+                // the job was cancelled in the meantime
+                webResponse.cleanUp();
+            }
+        });
+        return promise;
+    }
+
+    private static void reject(final Function reject, final Window window, final String message) {
+        final Context cx = Context.getCurrentContext();
+        final Scriptable error = cx.newObject(window, "TypeError", new Object[] {message});
+        reject.call(cx, window, window, new Object[] {error});
+    }
+}
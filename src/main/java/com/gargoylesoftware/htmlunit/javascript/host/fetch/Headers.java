@@ -19,9 +19,27 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code Headers}.
@@ -32,10 +50,189 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass({CHROME, EDGE, FF, FF68})
 public class Headers extends SimpleScriptable {
 
+    /** Lower case name to the combined value; sorted as required for the iteration. */
+    private final Map<String, String> headers_ = new TreeMap<>();
+
     /**
      * Creates a new instance.
      */
-    @JsxConstructor
     public Headers() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param window the window
+     */
+    Headers(final Window window) {
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * JavaScript constructor.
+     * @param cx the current context
+     * @param args the arguments to the Headers constructor
+     * @param ctorObj the function object
+     * @param inNewExpr Is new or not
+     * @return the java object to allow JavaScript to access
+     */
+    @JsxConstructor
+    public static Scriptable jsConstructor(final Context cx, final Object[] args, final Function ctorObj,
+            final boolean inNewExpr) {
+        final Headers headers = new Headers(getWindow(ctorObj));
+        if (args.length > 0) {
+            headers.fill(args[0]);
+        }
+        return headers;
+    }
+
+    /**
+     * Appends the headers of the given init object ({@code Headers}, sequence of pairs or record).
+     * @param init the init object
+     */
+    void fill(final Object init) {
+        if (init == null || Undefined.isUndefined(init)) {
+            return;
+        }
+        if (init instanceof Headers) {
+            headers_.putAll(((Headers) init).headers_);
+            return;
+        }
+        if (init instanceof NativeArray) {
+            for (final Object pair : ((NativeArray) init).toArray()) {
+                if (!(pair instanceof NativeArray) || ((NativeArray) pair).getLength() != 2) {
+                    throw ScriptRuntime.typeError("Failed to construct 'Headers': Invalid value");
+                }
+                final NativeArray nameValue = (NativeArray) pair;
+                append(Context.toString(nameValue.get(0)), Context.toString(nameValue.get(1)));
+            }
+            return;
+        }
+        if (init instanceof Scriptable) {
+            final Scriptable record = (Scriptable) init;
+            for (final Object id : record.getIds()) {
+                final String name = Context.toString(id);
+                append(name, Context.toString(ScriptableObject.getProperty(record, name)));
+            }
+            return;
+        }
+        throw ScriptRuntime.typeError("Failed to construct 'Headers': The provided value is not of type"
+                + " '(record<ByteString, ByteString> or sequence<sequence<ByteString>>)'");
+    }
+
+    /**
+     * Creates the headers of a response.
+     * @param window the window
+     * @param responseHeaders the headers of the response
+     * @return the headers
+     */
+    static Headers forResponse(final Window window, final List<NameValuePair> responseHeaders) {
+        final Headers headers = new Headers(window);
+        for (final NameValuePair pair : responseHeaders) {
+            headers.append(pair.getName(), pair.getValue());
+        }
+        return headers;
+    }
+
+    /**
+     * Adds the headers to the request.
+     * @param request the request
+     */
+    void fillRequest(final WebRequest request) {
+        for (final Map.Entry<String, String> entry : headers_.entrySet()) {
+            request.setAdditionalHeader(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return the headers as name/value pairs
+     */
+    List<NameValuePair> toList() {
+        final List<NameValuePair> list = new ArrayList<>(headers_.size());
+        for (final Map.Entry<String, String> entry : headers_.entrySet()) {
+            list.add(new NameValuePair(entry.getKey(), entry.getValue()));
+        }
+        return list;
+    }
+
+    private static String normalizeName(final String name) {
+        if (name.isEmpty()) {
+            throw ScriptRuntime.typeError("Invalid name");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c <= ' ' || c >= 127 || "()<>@,;:\\\"/[]?={}".indexOf(c) != -1) {
+                throw ScriptRuntime.typeError("Invalid name");
+            }
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Appends a value to a header.
+     * @param name the name
+     * @param value the value
+     */
+    @JsxFunction
+    public void append(final String name, final String value) {
+        final String trimmed = value.trim();
+        headers_.merge(normalizeName(name), trimmed, (existing, added) -> existing + ", " + added);
+    }
+
+    /**
+     * Removes a header.
+     * @param name the name
+     */
+    @JsxFunction(functionName = "delete")
+    public void delete_js(final String name) {
+        headers_.remove(normalizeName(name));
+    }
+
+    /**
+     * Returns the value of a header.
+     * @param name the name
+     * @return the value or {@code null}
+     */
+    @JsxFunction
+    public String get(final String name) {
+        return headers_.get(normalizeName(name));
+    }
+
+    /**
+     * Returns whether there is a header with the given name.
+     * @param name the name
+     * @return whether the header exists
+     */
+    @JsxFunction
+    public boolean has(final String name) {
+        return headers_.containsKey(normalizeName(name));
+    }
+
+    /**
+     * Sets the value of a header.
+     * @param name the name
+     * @param value the value
+     */
+    @JsxFunction
+    public void set(final String name, final String value) {
+        headers_.put(normalizeName(name), value.trim());
+    }
+
+    /**
+     * Calls the callback for every header.
+     * @param callback the function called as {@code callback(value, name, headers)}
+     * @param thisArg the this object of the calls
+     */
+    @JsxFunction
+    public void forEach(final Object callback, final Object thisArg) {
+        if (!(callback instanceof Function)) {
+            throw ScriptRuntime.typeError("Foreach callback is not a function");
+        }
+        final Function function = (Function) callback;
+        final Scriptable thisObj = thisArg instanceof Scriptable ? (Scriptable) thisArg : getWindow();
+        final Context cx = Context.getCurrentContext();
+        for (final Map.Entry<String, String> entry : new ArrayList<>(headers_.entrySet())) {
+            function.call(cx, getParentScope(), thisObj, new Object[] {entry.getValue(), entry.getKey(), this});
+        }
+    }
 }
@@ -18,10 +18,29 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.EDGE;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+
+import com.gargoylesoftware.htmlunit.FormEncodingType;
+import com.gargoylesoftware.htmlunit.HttpHeader;
+import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.util.UrlUtils;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code Request}.
@@ -32,10 +51,164 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass({CHROME, EDGE, FF, FF68})
 public class Request extends SimpleScriptable {
 
+    private String url_;
+    private HttpMethod method_ = HttpMethod.GET;
+    private Headers headers_;
+    private String body_;
+
     /**
      * Creates a new instance.
      */
-    @JsxConstructor
     public Request() {
     }
+
+    /**
+     * JavaScript constructor.
+     * @param cx the current context
+     * @param args the arguments to the Request constructor
+     * @param ctorObj the function object
+     * @param inNewExpr Is new or not
+     * @return the java object to allow JavaScript to access
+     */
+    @JsxConstructor
+    public static Scriptable jsConstructor(final Context cx, final Object[] args, final Function ctorObj,
+            final boolean inNewExpr) {
+        return create(getWindow(ctorObj),
+                args.length > 0 ? args[0] : Undefined.instance,
+                args.length > 1 ? args[1] : Undefined.instance);
+    }
+
+    /**
+     * Creates a request from the arguments of the constructor or of {@code fetch()}.
+     * @param window the window
+     * @param input the url or a request
+     * @param init the init object (optional)
+     * @return the new request
+     */
+    static Request create(final Window window, final Object input, final Object init) {
+        final Request request = new Request();
+        request.setParentScope(window);
+        request.setPrototype(window.getPrototype(Request.class));
+        request.headers_ = new Headers(window);
+
+        if (input instanceof Request) {
+            final Request other = (Request) input;
+            request.url_ = other.url_;
+            request.method_ = other.method_;
+            request.headers_.fill(other.headers_);
+            request.body_ = other.body_;
+        }
+        else {
+            final URL base = window.getWebWindow().getEnclosedPage().getUrl();
+            final String url = UrlUtils.resolveUrl(base, Context.toString(input));
+            try {
+                UrlUtils.toUrlUnsafe(url);
+            }
+            catch (final MalformedURLException e) {
+                throw ScriptRuntime.typeError("Failed to construct 'Request': Invalid URL");
+            }
+            request.url_ = url;
+        }
+
+        if (init instanceof Scriptable) {
+            final Scriptable options = (Scriptable) init;
+            final Object method = ScriptableObject.getProperty(options, "method");
+            if (method != NOT_FOUND && !Undefined.isUndefined(method)) {
+                try {
+                    request.method_ = HttpMethod.valueOf(Context.toString(method).toUpperCase(Locale.ROOT));
+                }
+                catch (final IllegalArgumentException e) {
+                    throw ScriptRuntime.typeError("Failed to construct 'Request': '" + Context.toString(method)
+                            + "' is not a valid HTTP method.");
+                }
+            }
+            final Object headers = ScriptableObject.getProperty(options, "headers");
+            if (headers != NOT_FOUND && !Undefined.isUndefined(headers)) {
+                request.headers_ = new Headers(window);
+                request.headers_.fill(headers);
+            }
+            final Object body = ScriptableObject.getProperty(options, "body");
+            if (body != NOT_FOUND && body != null && !Undefined.isUndefined(body)) {
+                request.body_ = Context.toString(body);
+            }
+        }
+
+        if (request.body_ != null && (request.method_ == HttpMethod.GET || request.method_ == HttpMethod.HEAD)) {
+            throw ScriptRuntime.typeError("Failed to construct 'Request': Request with GET/HEAD method"
+                    + " cannot have body.");
+        }
+        return request;
+    }
+
+    /**
+     * Creates the {@link WebRequest} sending this request.
+     * @param referer the url of the page sending the request
+     * @return the web request
+     * @throws MalformedURLException if the url is invalid
+     */
+    WebRequest toWebRequest(final URL referer) throws MalformedURLException {
+        final URL url = UrlUtils.toUrlUnsafe(url_);
+        final WebRequest webRequest = new WebRequest(url, "*/*",
+                getBrowserVersion().getAcceptEncodingHeader());
+        webRequest.setHttpMethod(method_);
+        webRequest.setCharset(UTF_8);
+        webRequest.setAdditionalHeader(HttpHeader.REFERER, referer.toExternalForm());
+        if (!isSameOrigin(referer, url)) {
+            final StringBuilder origin = new StringBuilder().append(referer.getProtocol()).append("://")
+                    .append(referer.getHost());
+            if (referer.getPort() != -1) {
+                origin.append(':').append(referer.getPort());
+            }
+            webRequest.setAdditionalHeader(HttpHeader.ORIGIN, origin.toString());
+        }
+
+        headers_.fillRequest(webRequest);
+        if (body_ != null) {
+            webRequest.setRequestBody(body_);
+            if (!headers_.has(HttpHeader.CONTENT_TYPE)) {
+                webRequest.setEncodingType(FormEncodingType.TEXT_PLAIN);
+            }
+        }
+        return webRequest;
+    }
+
+    private static boolean isSameOrigin(final URL originUrl, final URL newUrl) {
+        if (!originUrl.getProtocol().equals(newUrl.getProtocol())
+                || !originUrl.getHost().equals(newUrl.getHost())) {
+            return false;
+        }
+        int originPort = originUrl.getPort();
+        if (originPort == -1) {
+            originPort = originUrl.getDefaultPort();
+        }
+        int newPort = newUrl.getPort();
+        if (newPort == -1) {
+            newPort = newUrl.getDefaultPort();
+        }
+        return originPort == newPort;
+    }
+
+    /**
+     * @return the url
+     */
+    @JsxGetter
+    public String getUrl() {
+        return url_;
+    }
+
+    /**
+     * @return the method
+     */
+    @JsxGetter
+    public String getMethod() {
+        return method_.name();
+    }
+
+    /**
+     * @return the headers
+     */
+    @JsxGetter
+    public Headers getHeaders() {
+        return headers_;
+    }
 }
@@ -18,24 +18,323 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.EDGE;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ProxyInputStream;
+
+import com.gargoylesoftware.htmlunit.HttpHeader;
+import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebResponseData;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Promise;
+import com.gargoylesoftware.htmlunit.javascript.host.ReadableStream;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+import net.sourceforge.htmlunit.corejs.javascript.json.JsonParser;
+import net.sourceforge.htmlunit.corejs.javascript.json.JsonParser.ParseException;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
 
 /**
  * A JavaScript object for {@code Response}.
  *
+ * <p>The body is not copied into JavaScript before it is requested; {@code text()}, {@code json()}
+ * and {@code arrayBuffer()} decode straight from the downloaded content and {@code body}
+ * streams it chunk by chunk.</p>
+ *
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
 @JsxClass({CHROME, EDGE, FF, FF68})
 public class Response extends SimpleScriptable {
 
+    private transient WebResponse webResponse_;
+    private String url_ = "";
+    private boolean redirected_;
+    private boolean hasBody_ = true;
+    private Headers headers_;
+    private ReadableStream body_;
+    private boolean bodyUsed_;
+
     /**
      * Creates a new instance.
      */
-    @JsxConstructor
     public Response() {
     }
+
+    /**
+     * Creates a new instance for a response received by {@code fetch()}.
+     * @param window the window
+     * @param webResponse the response
+     * @param redirected whether the request was redirected
+     */
+    Response(final Window window, final WebResponse webResponse, final boolean redirected) {
+        webResponse_ = webResponse;
+        url_ = webResponse.getWebRequest().getUrl().toExternalForm();
+        redirected_ = redirected;
+        headers_ = Headers.forResponse(window, webResponse.getResponseHeaders());
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * JavaScript constructor.
+     * @param cx the current context
+     * @param args the arguments to the Response constructor
+     * @param ctorObj the function object
+     * @param inNewExpr Is new or not
+     * @return the java object to allow JavaScript to access
+     */
+    @JsxConstructor
+    public static Scriptable jsConstructor(final Context cx, final Object[] args, final Function ctorObj,
+            final boolean inNewExpr) {
+        final Window window = getWindow(ctorObj);
+        final Object body = args.length > 0 ? args[0] : Undefined.instance;
+        final Object init = args.length > 1 ? args[1] : Undefined.instance;
+
+        int status = 200;
+        String statusText = "";
+        final Headers headers = new Headers(window);
+        if (init instanceof Scriptable) {
+            final Scriptable options = (Scriptable) init;
+            final Object statusValue = ScriptableObject.getProperty(options, "status");
+            if (statusValue != NOT_FOUND && !Undefined.isUndefined(statusValue)) {
+                status = ScriptRuntime.toInt32(statusValue);
+                if (status < 200 || status > 599) {
+                    throw ScriptRuntime.rangeError("Failed to construct 'Response': The status provided ("
+                            + status + ") is outside the range [200, 599].");
+                }
+            }
+            final Object statusTextValue = ScriptableObject.getProperty(options, "statusText");
+            if (statusTextValue != NOT_FOUND && !Undefined.isUndefined(statusTextValue)) {
+                statusText = Context.toString(statusTextValue);
+            }
+            final Object headersValue = ScriptableObject.getProperty(options, "headers");
+            if (headersValue != NOT_FOUND) {
+                headers.fill(headersValue);
+            }
+        }
+
+        final boolean hasBody = body != null && !Undefined.isUndefined(body);
+        final byte[] bytes = hasBody ? Context.toString(body).getBytes(UTF_8) : new byte[0];
+        if (hasBody && !headers.has(HttpHeader.CONTENT_TYPE)) {
+            headers.set(HttpHeader.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        }
+
+        final WebResponseData data = new WebResponseData(bytes, status, statusText, headers.toList());
+        final Response response = new Response(window,
+                new WebResponse(data, WebClient.URL_ABOUT_BLANK, HttpMethod.GET, 0), false);
+        response.url_ = "";
+        response.hasBody_ = hasBody;
+        response.headers_ = headers;
+        return response;
+    }
+
+    /**
+     * @return the status code
+     */
+    @JsxGetter
+    public int getStatus() {
+        return webResponse_.getStatusCode();
+    }
+
+    /**
+     * @return the status message
+     */
+    @JsxGetter
+    public String getStatusText() {
+        return webResponse_.getStatusMessage();
+    }
+
+    /**
+     * @return whether the status is in the range 200-299
+     */
+    @JsxGetter
+    public boolean isOk() {
+        final int status = getStatus();
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * @return the url
+     */
+    @JsxGetter
+    public String getUrl() {
+        return url_;
+    }
+
+    /**
+     * @return whether the request was redirected
+     */
+    @JsxGetter
+    public boolean isRedirected() {
+        return redirected_;
+    }
+
+    /**
+     * @return the type
+     */
+    @JsxGetter
+    public String getType() {
+        return "basic";
+    }
+
+    /**
+     * @return the headers
+     */
+    @JsxGetter
+    public Headers getHeaders() {
+        return headers_;
+    }
+
+    /**
+     * @return whether the body was read
+     */
+    @JsxGetter
+    public boolean isBodyUsed() {
+        return bodyUsed_ || (body_ != null && body_.isDisturbed());
+    }
+
+    /**
+     * @return the body as stream or {@code null} if there is no body
+     */
+    @JsxGetter
+    public ReadableStream getBody() {
+        if (!hasBody_) {
+            return null;
+        }
+        if (body_ == null) {
+            try {
+                final WebResponse webResponse = webResponse_;
+                final InputStream in = new ProxyInputStream(webResponse.getContentAsStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        }
+                        finally {
+                            webResponse.cleanUp();
+                        }
+                    }
+                };
+                body_ = new ReadableStream(getWindow(), in);
+            }
+            catch (final IOException e) {
+                throw Context.reportRuntimeError("Failed to read the response body: " + e.getMessage());
+            }
+        }
+        return body_;
+    }
+
+    /**
+     * Reads the body as text.
+     * @return a promise fulfilled with the text
+     */
+    @JsxFunction
+    public Promise text() {
+        if (!consume()) {
+            return rejectConsumed("text");
+        }
+        final String text = readText();
+        if (text == null) {
+            return reject("TypeError", "Failed to read the response body");
+        }
+        return Promise.resolve(null, this, new Object[] {text}, null);
+    }
+
+    /**
+     * Reads the body as JSON.
+     * @return a promise fulfilled with the parsed value
+     */
+    @JsxFunction
+    public Promise json() {
+        if (!consume()) {
+            return rejectConsumed("json");
+        }
+        final String text = readText();
+        if (text == null) {
+            return reject("TypeError", "Failed to read the response body");
+        }
+        try {
+            final Object value = new JsonParser(Context.getCurrentContext(), getParentScope()).parseValue(text);
+            return Promise.resolve(null, this, new Object[] {value}, null);
+        }
+        catch (final ParseException e) {
+            return reject("SyntaxError", "Unexpected token in JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the body into an {@code ArrayBuffer}.
+     * @return a promise fulfilled with the buffer
+     */
+    @JsxFunction
+    public Promise arrayBuffer() {
+        if (!consume()) {
+            return rejectConsumed("arrayBuffer");
+        }
+
+        // read straight into the buffer, no intermediate copies
+        final NativeArrayBuffer buffer = new NativeArrayBuffer((int) webResponse_.getContentLength());
+        if (hasBody_) {
+            try (InputStream in = webResponse_.getContentAsStream()) {
+                IOUtils.readFully(in, buffer.getBuffer());
+            }
+            catch (final IOException e) {
+                return reject("TypeError", "Failed to read the response body: " + e.getMessage());
+            }
+            finally {
+                webResponse_.cleanUp();
+            }
+        }
+        final Window window = getWindow();
+        buffer.setParentScope(window);
+        buffer.setPrototype(ScriptableObject.getClassPrototype(window, buffer.getClassName()));
+        return Promise.resolve(null, this, new Object[] {buffer}, null);
+    }
+
+    private String readText() {
+        if (!hasBody_) {
+            return "";
+        }
+        try {
+            return webResponse_.getContentAsString(UTF_8);
+        }
+        finally {
+            webResponse_.cleanUp();
+        }
+    }
+
+    private boolean consume() {
+        if (isBodyUsed() || (body_ != null && body_.isLocked())) {
+            return false;
+        }
+        bodyUsed_ = true;
+        return true;
+    }
+
+    private Promise rejectConsumed(final String function) {
+        return reject("TypeError", "Failed to execute '" + function + "' on 'Response': body stream already read");
+    }
+
+    private Promise reject(final String errorType, final String message) {
+        final Scriptable error = Context.getCurrentContext().newObject(getWindow(), errorType,
+                new Object[] {message});
+        return Promise.reject(null, this, new Object[] {error}, null);
+    }
 }
@@ -21,12 +21,19 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.Serializable;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
@@ -38,6 +45,7 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 import com.gargoylesoftware.htmlunit.javascript.host.Promise;
+import com.gargoylesoftware.htmlunit.util.KeyDataPair;
 
 import net.sourceforge.htmlunit.corejs.javascript.Context;
 import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
@@ -61,20 +69,50 @@ public class Blob extends SimpleScriptable {
     private static final String OPTIONS_TYPE_DEFAULT = "";
     private static final String OPTIONS_LASTMODIFIED = "lastModified";
 
-    protected abstract static class Backend implements Serializable {
+    /**
+     * The content of a blob. Backends are immutable; slices and concatenations
+     * are views on the backends they are made of, the content is not copied.
+     */
+    protected abstract static class Backend implements KeyDataPair.DataSupplier {
         abstract String getName();
         abstract long getLastModified();
         abstract long getSize();
         abstract String getType(BrowserVersion browserVersion);
-        abstract String getText() throws IOException;
 
-        abstract byte[] getBytes(int start, int end);
+        /**
+         * Copies the bytes from start (inclusive) to end (exclusive) into the target array.
+         */
+        abstract void read(long start, long end, byte[] target, int targetOffset);
+
+        abstract InputStream getInputStream() throws IOException;
 
         Backend() {
         }
 
-        // TODO
+        String getText() throws IOException {
+            return new String(getBytes(0, (int) getSize()), StandardCharsets.UTF_8);
+        }
+
+        byte[] getBytes(final int start, final int end) {
+            final byte[] result = new byte[end - start];
+            read(start, end, result, 0);
+            return result;
+        }
+
+        /**
+         * @return the underlying file or {@code null} if the content is not a file
+         */
         abstract java.io.File getFile();
+
+        @Override
+        public InputStream open() throws IOException {
+            return getInputStream();
+        }
+
+        @Override
+        public long length() {
+            return getSize();
+        }
     }
 
     protected static class InMemoryBackend extends Backend {
@@ -91,12 +129,15 @@ public class Blob extends SimpleScriptable {
             bytes_ = bytes;
         }
 
-        protected static InMemoryBackend create(final NativeArray fileBits, final String fileName,
+        protected static Backend create(final NativeArray fileBits, final String fileName,
                 final String type, final long lastModified) {
             if (fileBits == null) {
                 return new InMemoryBackend(new byte[0], fileName, type, lastModified);
             }
 
+            // array buffers and strings are copied (buffers are mutable),
+            // blobs are immutable and only referenced
+            final List<Backend> parts = new ArrayList<>();
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
             for (long i = 0; i < fileBits.getLength(); i++) {
                 final Object fileBit = fileBits.get(i);
@@ -109,9 +150,11 @@ public class Blob extends SimpleScriptable {
                     out.write(bytes, 0, bytes.length);
                 }
                 else if (fileBit instanceof Blob) {
-                    final Blob blob = (Blob) fileBit;
-                    final byte[] bytes = blob.getBackend().getBytes(0, (int) blob.getSize());
-                    out.write(bytes, 0, bytes.length);
+                    final Backend backend = ((Blob) fileBit).getBackend();
+                    if (backend.getSize() > 0) {
+                        addBytes(parts, out);
+                        parts.add(backend);
+                    }
                 }
                 else {
                     final String bits = Context.toString(fileBits.get(i));
@@ -120,7 +163,19 @@ public class Blob extends SimpleScriptable {
                     out.write(bytes, 0, bytes.length);
                 }
             }
-            return new InMemoryBackend(out.toByteArray(), fileName, type, lastModified);
+
+            if (parts.isEmpty()) {
+                return new InMemoryBackend(out.toByteArray(), fileName, type, lastModified);
+            }
+            addBytes(parts, out);
+            return new CompositeBackend(parts, fileName, type, lastModified);
+        }
+
+        private static void addBytes(final List<Backend> parts, final ByteArrayOutputStream out) {
+            if (out.size() > 0) {
+                parts.add(new InMemoryBackend(out.toByteArray(), null, "", 0L));
+                out.reset();
+            }
         }
 
         @Override
@@ -140,10 +195,7 @@ public class Blob extends SimpleScriptable {
 
         @Override
         public String getType(final BrowserVersion browserVersion) {
-            if (!browserVersion.hasFeature(JS_BLOB_CONTENT_TYPE_CASE_SENSITIVE)) {
-                return type_.toLowerCase(Locale.ROOT);
-            }
-            return type_;
+            return normalizeType(type_, browserVersion);
         }
 
         @Override
@@ -153,18 +205,175 @@ public class Blob extends SimpleScriptable {
 
         @Override
         public java.io.File getFile() {
-            throw new UnsupportedOperationException(
-                    "com.gargoylesoftware.htmlunit.javascript.host.file.File.InMemoryBackend.getFile()");
+            return null;
         }
 
         @Override
-        public byte[] getBytes(final int start, final int end) {
-            final byte[] result = new byte[end - start];
-            System.arraycopy(bytes_, start, result, 0, result.length);
-            return result;
+        void read(final long start, final long end, final byte[] target, final int targetOffset) {
+            System.arraycopy(bytes_, (int) start, target, targetOffset, (int) (end - start));
+        }
+
+        @Override
+        InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes_);
+        }
+    }
+
+    /**
+     * The concatenation of other backends.
+     */
+    private static final class CompositeBackend extends Backend {
+        private final String fileName_;
+        private final String type_;
+        private final long lastModified_;
+        private final List<Backend> parts_;
+        private final long size_;
+
+        CompositeBackend(final List<Backend> parts, final String fileName,
+                final String type, final long lastModified) {
+            fileName_ = fileName;
+            type_ = type;
+            lastModified_ = lastModified;
+            parts_ = parts;
+
+            long size = 0;
+            for (final Backend part : parts) {
+                size += part.getSize();
+            }
+            size_ = size;
+        }
+
+        @Override
+        public String getName() {
+            return fileName_;
+        }
+
+        @Override
+        public long getLastModified() {
+            return lastModified_;
+        }
+
+        @Override
+        public long getSize() {
+            return size_;
+        }
+
+        @Override
+        public String getType(final BrowserVersion browserVersion) {
+            return normalizeType(type_, browserVersion);
+        }
+
+        @Override
+        public java.io.File getFile() {
+            return null;
+        }
+
+        @Override
+        void read(final long start, final long end, final byte[] target, final int targetOffset) {
+            long partStart = 0;
+            int offset = targetOffset;
+            for (final Backend part : parts_) {
+                final long partEnd = partStart + part.getSize();
+                if (partEnd > start && partStart < end) {
+                    final long from = Math.max(start, partStart) - partStart;
+                    final long to = Math.min(end, partEnd) - partStart;
+                    part.read(from, to, target, offset);
+                    offset += (int) (to - from);
+                }
+                partStart = partEnd;
+            }
+        }
+
+        @Override
+        InputStream getInputStream() throws IOException {
+            final List<InputStream> streams = new ArrayList<>(parts_.size());
+            try {
+                for (final Backend part : parts_) {
+                    streams.add(part.getInputStream());
+                }
+            }
+            catch (final IOException e) {
+                for (final InputStream stream : streams) {
+                    try {
+                        stream.close();
+                    }
+                    catch (final IOException ex) {
+                        e.addSuppressed(ex);
+                    }
+                }
+                throw e;
+            }
+            return new SequenceInputStream(Collections.enumeration(streams));
         }
     }
 
+    /**
+     * A view on a range of another backend.
+     */
+    private static final class SliceBackend extends Backend {
+        private final Backend source_;
+        private final long start_;
+        private final long end_;
+        private final String type_;
+
+        SliceBackend(final Backend source, final long start, final long end, final String type) {
+            source_ = source;
+            start_ = start;
+            end_ = end;
+            type_ = type;
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+
+        @Override
+        public long getLastModified() {
+            return 0L;
+        }
+
+        @Override
+        public long getSize() {
+            return end_ - start_;
+        }
+
+        @Override
+        public String getType(final BrowserVersion browserVersion) {
+            return normalizeType(type_, browserVersion);
+        }
+
+        @Override
+        public java.io.File getFile() {
+            return null;
+        }
+
+        @Override
+        void read(final long start, final long end, final byte[] target, final int targetOffset) {
+            source_.read(start_ + start, start_ + end, target, targetOffset);
+        }
+
+        @Override
+        InputStream getInputStream() throws IOException {
+            final InputStream in = source_.getInputStream();
+            try {
+                IOUtils.skipFully(in, start_);
+            }
+            catch (final IOException e) {
+                in.close();
+                throw e;
+            }
+            return new BoundedInputStream(in, getSize());
+        }
+    }
+
+    private static String normalizeType(final String type, final BrowserVersion browserVersion) {
+        if (!browserVersion.hasFeature(JS_BLOB_CONTENT_TYPE_CASE_SENSITIVE)) {
+            return type.toLowerCase(Locale.ROOT);
+        }
+        return type;
+    }
+
     protected static String extractFileTypeOrDefault(final ScriptableObject properties) {
         if (properties == null || Undefined.isUndefined(properties)) {
             return OPTIONS_TYPE_DEFAULT;
@@ -276,7 +485,15 @@ public class Blob extends SimpleScriptable {
             return blob;
         }
 
-        blob.setBackend(new InMemoryBackend(getBackend().getBytes(usedStart, usedEnd), null, usedContentType, 0L));
+        // slices are views, slices of slices refer to the original content
+        Backend source = getBackend();
+        long offset = 0;
+        if (source instanceof SliceBackend) {
+            final SliceBackend slice = (SliceBackend) source;
+            offset = slice.start_;
+            source = slice.source_;
+        }
+        blob.setBackend(new SliceBackend(source, offset + usedStart, offset + usedEnd, usedContentType));
         return blob;
     }
 
@@ -298,6 +515,24 @@ public class Blob extends SimpleScriptable {
         return getBackend().getBytes(0, (int) getBackend().getSize());
     }
 
+    /**
+     * Opens a stream over the content of this blob; the content is not copied.
+     * @return the stream
+     * @throws IOException in case of error
+     */
+    public InputStream getInputStream() throws IOException {
+        return getBackend().getInputStream();
+    }
+
+    /**
+     * Returns the content of this blob as {@link KeyDataPair.DataSupplier}, to stream
+     * it into a request body without copying it.
+     * @return the data supplier
+     */
+    public KeyDataPair.DataSupplier getDataSupplier() {
+        return getBackend();
+    }
+
     /**
      * Sets the specified request with the parameters in this {@code FormData}.
      * @param webRequest the web request to fill
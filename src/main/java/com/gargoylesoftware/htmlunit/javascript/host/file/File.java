@@ -20,7 +20,10 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.IE;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.Locale;
@@ -88,15 +91,20 @@ public class File extends Blob {
         }
 
         @Override
-        byte[] getBytes(final int start, final int end) {
-            final byte[] result = new byte[end - start];
-            try {
-                System.arraycopy(FileUtils.readFileToByteArray(file_), start, result, 0, result.length);
+        void read(final long start, final long end, final byte[] target, final int targetOffset) {
+            // read only the requested range, slices of big files stay cheap
+            try (RandomAccessFile in = new RandomAccessFile(file_, "r")) {
+                in.seek(start);
+                in.readFully(target, targetOffset, (int) (end - start));
             }
             catch (final IOException e) {
                 // TODO
             }
-            return result;
+        }
+
+        @Override
+        InputStream getInputStream() throws IOException {
+            return new FileInputStream(file_);
         }
     }
 
@@ -172,13 +180,6 @@ public class File extends Blob {
         return "";
     }
 
-    /**
-     * Slices the file.
-     */
-    @JsxFunction
-    public void slice() {
-    }
-
     /**
      * Closes the file.
      */
@@ -188,7 +189,7 @@ public class File extends Blob {
 
     /**
      * Returns the underlying file.
-     * @return the underlying file
+     * @return the underlying file or {@code null} if this file was created by JavaScript
      */
     public java.io.File getFile() {
         return getBackend().getFile();
@@ -17,8 +17,8 @@ package com.gargoylesoftware.htmlunit.javascript.host.file;
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_FILEREADER_CONTENT_TYPE;
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_FILEREADER_EMPTY_NULL;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -28,7 +28,7 @@ import java.util.Locale;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.Charsets;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -122,8 +122,8 @@ public class FileReader extends EventTarget {
             contentType = MimeType.APPLICATION_OCTET_STREAM;
         }
 
-        if (object instanceof File) {
-            final java.io.File file = ((File) object).getFile();
+        final java.io.File file = object instanceof File ? ((File) object).getFile() : null;
+        if (file != null) {
             if (value.isEmpty()) {
                 contentType = URLConnection.guessContentTypeFromName(file.getName());
             }
@@ -169,19 +169,17 @@ public class FileReader extends EventTarget {
     @JsxFunction
     public void readAsArrayBuffer(final Object object) throws IOException {
         readyState_ = LOADING;
-        final java.io.File file = ((File) object).getFile();
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            FileUtils.copyFile(file, bos);
+        final Blob blob = (Blob) object;
 
-            final byte[] bytes = bos.toByteArray();
-
-            final NativeArrayBuffer buffer = new NativeArrayBuffer(bytes.length);
-            System.arraycopy(bytes, 0, buffer.getBuffer(), 0, bytes.length);
-            buffer.setParentScope(getParentScope());
-            buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
-
-            result_ = buffer;
+        // read straight into the buffer, no intermediate copies
+        final NativeArrayBuffer buffer = new NativeArrayBuffer((int) blob.getSize());
+        try (InputStream in = blob.getInputStream()) {
+            IOUtils.readFully(in, buffer.getBuffer());
         }
+        buffer.setParentScope(getParentScope());
+        buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
+
+        result_ = buffer;
         readyState_ = DONE;
 
         final Event event = new Event(this, Event.TYPE_LOAD);
@@ -200,7 +198,7 @@ public class FileReader extends EventTarget {
     @JsxFunction
     public void readAsText(final Object object, final Object encoding) throws IOException {
         readyState_ = LOADING;
-        final java.io.File file = ((File) object).getFile();
+        final Blob blob = (Blob) object;
         Charset charset = StandardCharsets.UTF_8;
         if (encoding != null && !Undefined.isUndefined(encoding)) {
             final String encAsString = Context.toString(encoding);
@@ -217,8 +215,8 @@ public class FileReader extends EventTarget {
             }
         }
 
-        try {
-            result_ = FileUtils.readFileToString(file, charset);
+        try (InputStream in = blob.getInputStream()) {
+            result_ = IOUtils.toString(in, charset);
         }
         catch (final IOException e) {
             LOG.warn("FileReader readAsText can't read the file.", e);
@@ -0,0 +1,695 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.gargoylesoftware.htmlunit.javascript.host.worker.StructuredClone;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+
+/**
+ * The database engine on top of a {@link KeyValueStore}; one instance per open connection.
+ *
+ * <p>Layout of the key value store:</p>
+ * <ul>
+ *   <li>{@code 0x00} - the schema (version, object stores and indexes)</li>
+ *   <li>{@code 0x01 storeId} - the key generator of an object store</li>
+ *   <li>{@code 0x02 storeId key} - a record; the value starts with the index keys
+ *       of the record followed by the structured clone of the value</li>
+ *   <li>{@code 0x03 storeId indexId indexKey primaryKey} - an index entry</li>
+ * </ul>
+ *
+ * Ranges are scanned entry by entry, whole object stores are never loaded.
+ * All changes are recorded in the undo log of the running transaction.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class IDBBackingStore {
+
+    private static final byte SCHEMA = 0x00;
+    private static final byte GENERATOR = 0x01;
+    private static final byte RECORD = 0x02;
+    private static final byte INDEX = 0x03;
+
+    /** The greatest key a key generator creates. */
+    private static final long MAX_GENERATED_KEY = 1L << 53;
+
+    private final KeyValueStore kv_;
+    private long version_;
+    private int nextId_;
+    private final Map<String, StoreInfo> stores_ = new LinkedHashMap<>();
+    private List<byte[][]> undoLog_;
+
+    IDBBackingStore(final KeyValueStore kv) {
+        kv_ = kv;
+        loadSchema();
+    }
+
+    /**
+     * The schema of an object store.
+     */
+    static final class StoreInfo {
+        private final int id_;
+        private final String name_;
+        private final Object keyPath_;
+        private final boolean autoIncrement_;
+        private final Map<String, IndexInfo> indexes_ = new LinkedHashMap<>();
+
+        StoreInfo(final int id, final String name, final Object keyPath, final boolean autoIncrement) {
+            id_ = id;
+            name_ = name;
+            keyPath_ = keyPath;
+            autoIncrement_ = autoIncrement;
+        }
+
+        String getName() {
+            return name_;
+        }
+
+        Object getKeyPath() {
+            return keyPath_;
+        }
+
+        boolean isAutoIncrement() {
+            return autoIncrement_;
+        }
+
+        IndexInfo getIndex(final String name) {
+            return indexes_.get(name);
+        }
+
+        List<String> getIndexNames() {
+            return new ArrayList<>(new TreeSet<>(indexes_.keySet()));
+        }
+
+        byte[] getRecordPrefix() {
+            return ByteBuffer.allocate(5).put(RECORD).putInt(id_).array();
+        }
+    }
+
+    /**
+     * The schema of an index.
+     */
+    static final class IndexInfo {
+        private final int id_;
+        private final int storeId_;
+        private final String name_;
+        private final Object keyPath_;
+        private final boolean unique_;
+        private final boolean multiEntry_;
+
+        IndexInfo(final int id, final int storeId, final String name, final Object keyPath,
+                final boolean unique, final boolean multiEntry) {
+            id_ = id;
+            storeId_ = storeId;
+            name_ = name;
+            keyPath_ = keyPath;
+            unique_ = unique;
+            multiEntry_ = multiEntry;
+        }
+
+        String getName() {
+            return name_;
+        }
+
+        Object getKeyPath() {
+            return keyPath_;
+        }
+
+        boolean isUnique() {
+            return unique_;
+        }
+
+        boolean isMultiEntry() {
+            return multiEntry_;
+        }
+
+        byte[] getEntryPrefix() {
+            return ByteBuffer.allocate(9).put(INDEX).putInt(storeId_).putInt(id_).array();
+        }
+    }
+
+    /**
+     * Starts recording all changes.
+     * @param undoLog the list receiving the previous values
+     */
+    void setUndoLog(final List<byte[][]> undoLog) {
+        undoLog_ = undoLog;
+    }
+
+    /**
+     * Reverts all changes recorded in the given log.
+     * @param undoLog the log
+     */
+    void rollback(final List<byte[][]> undoLog) {
+        for (int i = undoLog.size() - 1; i >= 0; i--) {
+            final byte[][] change = undoLog.get(i);
+            if (change[1] == null) {
+                kv_.remove(change[0]);
+            }
+            else {
+                kv_.put(change[0], change[1]);
+            }
+        }
+        loadSchema();
+    }
+
+    private void write(final byte[] key, final byte[] value) {
+        if (undoLog_ != null) {
+            undoLog_.add(new byte[][] {key, kv_.get(key)});
+        }
+        kv_.put(key, value);
+    }
+
+    private void delete(final byte[] key) {
+        if (undoLog_ != null) {
+            final byte[] old = kv_.get(key);
+            if (old == null) {
+                return;
+            }
+            undoLog_.add(new byte[][] {key, old});
+        }
+        kv_.remove(key);
+    }
+
+    // schema
+
+    long getVersion() {
+        return version_;
+    }
+
+    void setVersion(final long version) {
+        version_ = version;
+        saveSchema();
+    }
+
+    StoreInfo getStore(final String name) {
+        return stores_.get(name);
+    }
+
+    List<String> getStoreNames() {
+        return new ArrayList<>(new TreeSet<>(stores_.keySet()));
+    }
+
+    StoreInfo createStore(final String name, final Object keyPath, final boolean autoIncrement) {
+        if (stores_.containsKey(name)) {
+            throw IDBException.constraintError("An object store with the specified name already exists.");
+        }
+        final StoreInfo store = new StoreInfo(nextId_++, name, keyPath, autoIncrement);
+        stores_.put(name, store);
+        saveSchema();
+        return store;
+    }
+
+    void deleteStore(final StoreInfo store) {
+        for (final IndexInfo index : new ArrayList<>(store.indexes_.values())) {
+            deleteIndex(store, index);
+        }
+        deleteRange(store, null);
+        delete(ByteBuffer.allocate(5).put(GENERATOR).putInt(store.id_).array());
+        stores_.remove(store.name_);
+        saveSchema();
+    }
+
+    IndexInfo createIndex(final StoreInfo store, final String name, final Object keyPath,
+            final boolean unique, final boolean multiEntry, final Scriptable scope) {
+        if (store.indexes_.containsKey(name)) {
+            throw IDBException.constraintError("An index with the specified name already exists.");
+        }
+        final IndexInfo index = new IndexInfo(nextId_++, store.id_, name, keyPath, unique, multiEntry);
+        store.indexes_.put(name, index);
+        saveSchema();
+
+        // index the existing records
+        final byte[] prefix = store.getRecordPrefix();
+        for (Map.Entry<byte[], byte[]> entry = first(prefix, null, false); entry != null;
+                entry = next(prefix, entry.getKey(), null, false)) {
+            final Object value = getValue(entry.getValue(), scope);
+            final Map<IndexInfo, List<byte[]>> indexKeys = readIndexKeys(entry.getValue(), store);
+            final List<byte[]> keys = IDBKeyCodec.evaluateIndexKeys(value, keyPath, multiEntry);
+            final byte[] primaryKey = Arrays.copyOfRange(entry.getKey(), prefix.length, entry.getKey().length);
+            checkUnique(index, keys, primaryKey);
+            for (final byte[] key : keys) {
+                write(concat(index.getEntryPrefix(), key, primaryKey), new byte[0]);
+            }
+            indexKeys.put(index, keys);
+            write(entry.getKey(), createRecordValue(indexKeys, getValueBytes(entry.getValue())));
+        }
+        return index;
+    }
+
+    void deleteIndex(final StoreInfo store, final IndexInfo index) {
+        final byte[] prefix = index.getEntryPrefix();
+        Map.Entry<byte[], byte[]> entry = first(prefix, null, false);
+        while (entry != null) {
+            final byte[] key = entry.getKey();
+            entry = next(prefix, key, null, false);
+            delete(key);
+        }
+        store.indexes_.remove(index.name_);
+        saveSchema();
+    }
+
+    private void loadSchema() {
+        stores_.clear();
+        final byte[] bytes = kv_.get(new byte[] {SCHEMA});
+        if (bytes == null) {
+            version_ = 0;
+            nextId_ = 1;
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            version_ = in.readLong();
+            nextId_ = in.readInt();
+            final int storeCount = in.readInt();
+            for (int i = 0; i < storeCount; i++) {
+                final StoreInfo store = new StoreInfo(in.readInt(), in.readUTF(), readKeyPath(in), in.readBoolean());
+                stores_.put(store.name_, store);
+                final int indexCount = in.readInt();
+                for (int j = 0; j < indexCount; j++) {
+                    final IndexInfo index = new IndexInfo(in.readInt(), store.id_, in.readUTF(), readKeyPath(in),
+                            in.readBoolean(), in.readBoolean());
+                    store.indexes_.put(index.name_, index);
+                }
+            }
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void saveSchema() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(version_);
+            out.writeInt(nextId_);
+            out.writeInt(stores_.size());
+            for (final StoreInfo store : stores_.values()) {
+                out.writeInt(store.id_);
+                out.writeUTF(store.name_);
+                writeKeyPath(out, store.keyPath_);
+                out.writeBoolean(store.autoIncrement_);
+                out.writeInt(store.indexes_.size());
+                for (final IndexInfo index : store.indexes_.values()) {
+                    out.writeInt(index.id_);
+                    out.writeUTF(index.name_);
+                    writeKeyPath(out, index.keyPath_);
+                    out.writeBoolean(index.unique_);
+                    out.writeBoolean(index.multiEntry_);
+                }
+            }
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(new byte[] {SCHEMA}, bytes.toByteArray());
+    }
+
+    private static Object readKeyPath(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == -2) {
+            return null;
+        }
+        if (length == -1) {
+            return in.readUTF();
+        }
+        final String[] paths = new String[length];
+        for (int i = 0; i < length; i++) {
+            paths[i] = in.readUTF();
+        }
+        return paths;
+    }
+
+    private static void writeKeyPath(final DataOutputStream out, final Object keyPath) throws IOException {
+        if (keyPath == null) {
+            out.writeInt(-2);
+        }
+        else if (keyPath instanceof String) {
+            out.writeInt(-1);
+            out.writeUTF((String) keyPath);
+        }
+        else {
+            final String[] paths = (String[]) keyPath;
+            out.writeInt(paths.length);
+            for (final String path : paths) {
+                out.writeUTF(path);
+            }
+        }
+    }
+
+    // key generator
+
+    /**
+     * Returns the next generated key of the object store.
+     * @param store the object store
+     * @return the key
+     */
+    double nextGeneratedKey(final StoreInfo store) {
+        final byte[] key = ByteBuffer.allocate(5).put(GENERATOR).putInt(store.id_).array();
+        final byte[] current = kv_.get(key);
+        final long next = current == null ? 1 : ByteBuffer.wrap(current).getLong();
+        if (next > MAX_GENERATED_KEY) {
+            throw IDBException.constraintError("The key generator of the object store is exhausted.");
+        }
+        write(key, ByteBuffer.allocate(8).putLong(next + 1).array());
+        return next;
+    }
+
+    /**
+     * Adjusts the key generator if an explicit numeric key was used.
+     * @param store the object store
+     * @param used the key
+     */
+    void updateGenerator(final StoreInfo store, final double used) {
+        final byte[] key = ByteBuffer.allocate(5).put(GENERATOR).putInt(store.id_).array();
+        final byte[] current = kv_.get(key);
+        final long next = current == null ? 1 : ByteBuffer.wrap(current).getLong();
+        if (used >= next) {
+            final long value = used >= MAX_GENERATED_KEY ? MAX_GENERATED_KEY + 1 : (long) Math.floor(used) + 1;
+            write(key, ByteBuffer.allocate(8).putLong(value).array());
+        }
+    }
+
+    // records
+
+    /**
+     * Stores a record and updates the indexes.
+     * @param store the object store
+     * @param key the encoded primary key
+     * @param value the value
+     * @param noOverwrite whether an existing record is an error
+     */
+    void putRecord(final StoreInfo store, final byte[] key, final Object value, final boolean noOverwrite) {
+        final byte[] recordKey = concat(store.getRecordPrefix(), key);
+        final byte[] existing = kv_.get(recordKey);
+        if (existing != null && noOverwrite) {
+            throw IDBException.constraintError("Key already exists in the object store.");
+        }
+
+        final Map<IndexInfo, List<byte[]>> indexKeys = new LinkedHashMap<>();
+        for (final IndexInfo index : store.indexes_.values()) {
+            final List<byte[]> keys = IDBKeyCodec.evaluateIndexKeys(value, index.keyPath_, index.multiEntry_);
+            checkUnique(index, keys, key);
+            indexKeys.put(index, keys);
+        }
+
+        if (existing != null) {
+            deleteIndexEntries(store, key, existing);
+        }
+        for (final Map.Entry<IndexInfo, List<byte[]>> entry : indexKeys.entrySet()) {
+            final byte[] prefix = entry.getKey().getEntryPrefix();
+            for (final byte[] indexKey : entry.getValue()) {
+                write(concat(prefix, indexKey, key), new byte[0]);
+            }
+        }
+        write(recordKey, createRecordValue(indexKeys, StructuredClone.toBytes(StructuredClone.serialize(value))));
+    }
+
+    private void checkUnique(final IndexInfo index, final List<byte[]> keys, final byte[] primaryKey) {
+        if (!index.unique_) {
+            return;
+        }
+        final byte[] prefix = index.getEntryPrefix();
+        for (final byte[] indexKey : keys) {
+            final byte[] start = concat(prefix, indexKey);
+            final Map.Entry<byte[], byte[]> entry = kv_.ceilingEntry(start);
+            if (entry != null && startsWith(entry.getKey(), start)
+                    && IDBKeyCodec.compare(entry.getKey(), start.length, entry.getKey().length, primaryKey) != 0) {
+                throw IDBException.constraintError("Unable to add key to index '" + index.name_
+                        + "': at least one key does not satisfy the uniqueness requirements.");
+            }
+        }
+    }
+
+    /**
+     * Deletes all records in the range.
+     * @param store the object store
+     * @param range the range or {@code null} for all records
+     */
+    void deleteRange(final StoreInfo store, final IDBKeyRange range) {
+        final byte[] prefix = store.getRecordPrefix();
+        Map.Entry<byte[], byte[]> entry = first(prefix, range, false);
+        while (entry != null) {
+            final byte[] recordKey = entry.getKey();
+            deleteIndexEntries(store, Arrays.copyOfRange(recordKey, prefix.length, recordKey.length), entry.getValue());
+            delete(recordKey);
+            entry = next(prefix, recordKey, range, false);
+        }
+    }
+
+    private void deleteIndexEntries(final StoreInfo store, final byte[] key, final byte[] recordValue) {
+        for (final Map.Entry<IndexInfo, List<byte[]>> entry : readIndexKeys(recordValue, store).entrySet()) {
+            final byte[] prefix = entry.getKey().getEntryPrefix();
+            for (final byte[] indexKey : entry.getValue()) {
+                delete(concat(prefix, indexKey, key));
+            }
+        }
+    }
+
+    /**
+     * @param store the object store
+     * @param key the encoded primary key
+     * @return the record value (including the index keys) or {@code null}
+     */
+    byte[] getRecord(final StoreInfo store, final byte[] key) {
+        return kv_.get(concat(store.getRecordPrefix(), key));
+    }
+
+    private static byte[] createRecordValue(final Map<IndexInfo, List<byte[]>> indexKeys, final byte[] value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int count = 0;
+            for (final List<byte[]> keys : indexKeys.values()) {
+                count += keys.size();
+            }
+            out.writeInt(count);
+            for (final Map.Entry<IndexInfo, List<byte[]>> entry : indexKeys.entrySet()) {
+                for (final byte[] key : entry.getValue()) {
+                    out.writeInt(entry.getKey().id_);
+                    out.writeInt(key.length);
+                    out.write(key);
+                }
+            }
+            out.write(value);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<IndexInfo, List<byte[]>> readIndexKeys(final byte[] recordValue, final StoreInfo store) {
+        final Map<Integer, IndexInfo> indexes = new LinkedHashMap<>();
+        for (final IndexInfo index : store.indexes_.values()) {
+            indexes.put(index.id_, index);
+        }
+
+        final Map<IndexInfo, List<byte[]>> result = new LinkedHashMap<>();
+        final ByteBuffer buffer = ByteBuffer.wrap(recordValue);
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            final IndexInfo index = indexes.get(buffer.getInt());
+            final byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            if (index != null) {
+                result.computeIfAbsent(index, k -> new ArrayList<>()).add(key);
+            }
+        }
+        return result;
+    }
+
+    private static int getValueOffset(final byte[] recordValue) {
+        final ByteBuffer buffer = ByteBuffer.wrap(recordValue);
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            buffer.getInt();
+            buffer.position(buffer.position() + buffer.getInt());
+        }
+        return buffer.position();
+    }
+
+    private static byte[] getValueBytes(final byte[] recordValue) {
+        return Arrays.copyOfRange(recordValue, getValueOffset(recordValue), recordValue.length);
+    }
+
+    /**
+     * Materializes the value of a record.
+     * @param recordValue the record value (including the index keys)
+     * @param scope the scope
+     * @return the value
+     */
+    static Object getValue(final byte[] recordValue, final Scriptable scope) {
+        final int offset = getValueOffset(recordValue);
+        final Object serialized = StructuredClone.fromBytes(recordValue, offset, recordValue.length - offset);
+        return StructuredClone.deserialize(Context.getCurrentContext(), scope, serialized);
+    }
+
+    // scanning
+
+    /**
+     * Returns the first entry of the range.
+     * @param prefix the prefix of the object store records or of the index entries
+     * @param range the range of the (index) key or {@code null}
+     * @param reverse whether to start at the end
+     * @return the entry or {@code null}
+     */
+    Map.Entry<byte[], byte[]> first(final byte[] prefix, final IDBKeyRange range, final boolean reverse) {
+        final Map.Entry<byte[], byte[]> entry;
+        if (reverse) {
+            final byte[] upper = range == null ? null : range.getUpperEncoded();
+            if (upper == null) {
+                entry = kv_.lowerEntry(concat(prefix, new byte[] {IDBKeyCodec.MAX}));
+            }
+            else if (range.isUpperOpen()) {
+                entry = kv_.lowerEntry(concat(prefix, upper));
+            }
+            else {
+                entry = kv_.lowerEntry(concat(prefix, upper, new byte[] {IDBKeyCodec.MAX}));
+            }
+        }
+        else {
+            final byte[] lower = range == null ? null : range.getLowerEncoded();
+            if (lower == null) {
+                entry = kv_.ceilingEntry(prefix);
+            }
+            else if (range.isLowerOpen()) {
+                entry = kv_.ceilingEntry(concat(prefix, lower, new byte[] {IDBKeyCodec.MAX}));
+            }
+            else {
+                entry = kv_.ceilingEntry(concat(prefix, lower));
+            }
+        }
+        return accept(entry, prefix, range);
+    }
+
+    /**
+     * Returns the entry following the given one.
+     * @param prefix the prefix of the object store records or of the index entries
+     * @param current the key of the current entry
+     * @param range the range of the (index) key or {@code null}
+     * @param reverse whether to move backwards
+     * @return the entry or {@code null}
+     */
+    Map.Entry<byte[], byte[]> next(final byte[] prefix, final byte[] current, final IDBKeyRange range,
+            final boolean reverse) {
+        final Map.Entry<byte[], byte[]> entry = reverse ? kv_.lowerEntry(current) : kv_.higherEntry(current);
+        return accept(entry, prefix, range);
+    }
+
+    /**
+     * Returns the first entry at or behind the given (index) key.
+     * @param prefix the prefix of the object store records or of the index entries
+     * @param key the encoded (index) key
+     * @param inclusive whether entries with the given key are accepted
+     * @param range the range of the (index) key or {@code null}
+     * @param reverse whether to move backwards
+     * @return the entry or {@code null}
+     */
+    Map.Entry<byte[], byte[]> seek(final byte[] prefix, final byte[] key, final boolean inclusive,
+            final IDBKeyRange range, final boolean reverse) {
+        final Map.Entry<byte[], byte[]> entry;
+        if (reverse) {
+            entry = inclusive
+                    ? kv_.lowerEntry(concat(prefix, key, new byte[] {IDBKeyCodec.MAX}))
+                    : kv_.lowerEntry(concat(prefix, key));
+        }
+        else {
+            entry = inclusive
+                    ? kv_.ceilingEntry(concat(prefix, key))
+                    : kv_.ceilingEntry(concat(prefix, key, new byte[] {IDBKeyCodec.MAX}));
+        }
+        return accept(entry, prefix, range);
+    }
+
+    private static Map.Entry<byte[], byte[]> accept(final Map.Entry<byte[], byte[]> entry, final byte[] prefix,
+            final IDBKeyRange range) {
+        if (entry == null || !startsWith(entry.getKey(), prefix)) {
+            return null;
+        }
+        if (range != null) {
+            final byte[] key = entry.getKey();
+            final int end = IDBKeyCodec.skip(key, prefix.length);
+            final byte[] lower = range.getLowerEncoded();
+            if (lower != null) {
+                final int diff = IDBKeyCodec.compare(key, prefix.length, end, lower);
+                if (diff < 0 || (diff == 0 && range.isLowerOpen())) {
+                    return null;
+                }
+            }
+            final byte[] upper = range.getUpperEncoded();
+            if (upper != null) {
+                final int diff = IDBKeyCodec.compare(key, prefix.length, end, upper);
+                if (diff > 0 || (diff == 0 && range.isUpperOpen())) {
+                    return null;
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Counts the entries of the range.
+     * @param prefix the prefix of the object store records or of the index entries
+     * @param range the range of the (index) key or {@code null}
+     * @return the number of entries
+     */
+    long count(final byte[] prefix, final IDBKeyRange range) {
+        long count = 0;
+        for (Map.Entry<byte[], byte[]> entry = first(prefix, range, false); entry != null;
+                entry = next(prefix, entry.getKey(), range, false)) {
+            count++;
+        }
+        return count;
+    }
+
+    static boolean startsWith(final byte[] bytes, final byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] concat(final byte[]... parts) {
+        int length = 0;
+        for (final byte[] part : parts) {
+            length += part.length;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (final byte[] part : parts) {
+            buffer.put(part);
+        }
+        return buffer.array();
+    }
+}
@@ -19,23 +19,345 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.worker.StructuredClone;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code IDBCursor}.
  *
+ * <p>The cursor only remembers its position; every step looks up the next entry
+ * in the sorted store, ranges are therefore streamed instead of being loaded.</p>
+ *
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
 @JsxClass
 public class IDBCursor extends SimpleScriptable {
 
+    private static final String NEXT = "next";
+    private static final String NEXT_UNIQUE = "nextunique";
+    private static final String PREV = "prev";
+    private static final String PREV_UNIQUE = "prevunique";
+
+    private Object source_;
+    private IDBTransaction transaction_;
+    private IDBBackingStore.StoreInfo store_;
+    private byte[] prefix_;
+    private boolean isIndex_;
+    private IDBKeyRange range_;
+    private String direction_;
+    private IDBRequest request_;
+
+    private byte[] position_;
+    private byte[] encodedKey_;
+    private byte[] encodedPrimaryKey_;
+    private Object key_ = Undefined.instance;
+    private Object primaryKey_ = Undefined.instance;
+    private boolean gotValue_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBCursor() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param source the object store or the index
+     * @param transaction the transaction
+     * @param store the object store
+     * @param prefix the prefix of the records or index entries
+     * @param isIndex whether the prefix is the one of an index
+     * @param range the range or {@code null}
+     * @param direction the direction
+     */
+    IDBCursor(final SimpleScriptable source, final IDBTransaction transaction, final IDBBackingStore.StoreInfo store,
+            final byte[] prefix, final boolean isIndex, final IDBKeyRange range, final String direction) {
+        source_ = source;
+        transaction_ = transaction;
+        store_ = store;
+        prefix_ = prefix;
+        isIndex_ = isIndex;
+        range_ = range;
+        direction_ = direction;
+        final Window window = transaction.getWindow();
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * Converts the direction parameter.
+     * @param direction the JavaScript value
+     * @return the direction
+     */
+    static String toDirection(final Object direction) {
+        if (direction == null || Undefined.isUndefined(direction)) {
+            return NEXT;
+        }
+        final String value = Context.toString(direction);
+        if (NEXT.equals(value) || NEXT_UNIQUE.equals(value) || PREV.equals(value) || PREV_UNIQUE.equals(value)) {
+            return value;
+        }
+        throw ScriptRuntime.typeError("The direction provided ('" + value + "') is not a valid direction.");
+    }
+
+    /**
+     * Creates the request delivering this cursor and moves to the first entry.
+     * @return the request
+     */
+    IDBRequest open() {
+        request_ = transaction_.request(source_, () -> moveTo(first()));
+        return request_;
+    }
+
+    private boolean isReverse() {
+        return PREV.equals(direction_) || PREV_UNIQUE.equals(direction_);
+    }
+
+    private IDBBackingStore getBackingStore() {
+        return transaction_.getDb().getBackingStore();
+    }
+
+    private Map.Entry<byte[], byte[]> first() {
+        final Map.Entry<byte[], byte[]> entry = getBackingStore().first(prefix_, range_, isReverse());
+        if (entry != null && PREV_UNIQUE.equals(direction_)) {
+            return firstOfKey(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * The unique directions deliver the entry with the lowest primary key of every index key.
+     */
+    private Map.Entry<byte[], byte[]> firstOfKey(final Map.Entry<byte[], byte[]> entry) {
+        final byte[] key = entry.getKey();
+        final byte[] indexKey = Arrays.copyOfRange(key, prefix_.length, IDBKeyCodec.skip(key, prefix_.length));
+        return getBackingStore().seek(prefix_, indexKey, true, range_, false);
+    }
+
+    private Map.Entry<byte[], byte[]> next() {
+        final IDBBackingStore backing = getBackingStore();
+        if (NEXT_UNIQUE.equals(direction_)) {
+            return backing.seek(prefix_, encodedKey_, false, range_, false);
+        }
+        if (PREV_UNIQUE.equals(direction_)) {
+            final Map.Entry<byte[], byte[]> entry = backing.seek(prefix_, encodedKey_, false, range_, true);
+            return entry == null ? null : firstOfKey(entry);
+        }
+        return backing.next(prefix_, position_, range_, isReverse());
+    }
+
+    private Map.Entry<byte[], byte[]> seek(final byte[] key) {
+        final Map.Entry<byte[], byte[]> entry = getBackingStore().seek(prefix_, key, true, range_, isReverse());
+        if (entry != null && PREV_UNIQUE.equals(direction_)) {
+            return firstOfKey(entry);
+        }
+        return entry;
+    }
+
+    private Object moveTo(final Map.Entry<byte[], byte[]> entry) {
+        if (entry == null) {
+            position_ = null;
+            key_ = Undefined.instance;
+            primaryKey_ = Undefined.instance;
+            setValue(Undefined.instance);
+            return null;
+        }
+
+        final Window window = getWindow();
+        position_ = entry.getKey();
+        final int keyEnd = IDBKeyCodec.skip(position_, prefix_.length);
+        encodedKey_ = Arrays.copyOfRange(position_, prefix_.length, keyEnd);
+        key_ = IDBKeyCodec.decode(position_, prefix_.length, window);
+        final byte[] record;
+        if (isIndex_) {
+            encodedPrimaryKey_ = Arrays.copyOfRange(position_, keyEnd, position_.length);
+            primaryKey_ = IDBKeyCodec.decode(encodedPrimaryKey_, 0, window);
+            record = this instanceof IDBCursorWithValue
+                    ? getBackingStore().getRecord(store_, encodedPrimaryKey_)
+                    : null;
+        }
+        else {
+            encodedPrimaryKey_ = encodedKey_;
+            primaryKey_ = key_;
+            record = entry.getValue();
+        }
+        if (record != null) {
+            setValue(IDBBackingStore.getValue(record, window));
+        }
+        gotValue_ = true;
+        return this;
+    }
+
+    /**
+     * Sets the value of the current record.
+     * @param value the value
+     */
+    void setValue(final Object value) {
+        // only cursors with value have one
+    }
+
+    private void checkIterable() {
+        transaction_.checkActive();
+        if (!gotValue_ || position_ == null) {
+            throw IDBException.invalidStateError("The cursor is being iterated or has iterated past its end.")
+                    .toJavaScriptException(getWindow());
+        }
+    }
+
+    /**
+     * Advances the cursor to the next entry or the given key.
+     * @param key the key to advance to (optional)
+     */
+    @JsxFunction(functionName = "continue")
+    public void continue_js(final Object key) {
+        checkIterable();
+        byte[] target = null;
+        if (key != null && !Undefined.isUndefined(key)) {
+            try {
+                target = IDBKeyCodec.encode(key);
+            }
+            catch (final IDBException e) {
+                throw e.toJavaScriptException(getWindow());
+            }
+            final int diff = IDBKeyCodec.compare(target, encodedKey_);
+            if (isReverse() ? diff >= 0 : diff <= 0) {
+                throw IDBException.dataError("The parameter is not in the direction of the cursor.")
+                        .toJavaScriptException(getWindow());
+            }
+        }
+
+        final byte[] seekKey = target;
+        gotValue_ = false;
+        request_.reset();
+        transaction_.request(request_, () -> moveTo(seekKey == null ? next() : seek(seekKey)));
+    }
+
+    /**
+     * Advances the cursor by the given number of entries.
+     * @param count the number of entries
+     */
+    @JsxFunction
+    public void advance(final Object count) {
+        final double number = ScriptRuntime.toNumber(count);
+        if (!(number >= 1) || number > 0xFFFFFFFFL) {
+            throw ScriptRuntime.typeError("The count parameter is out of range.");
+        }
+        checkIterable();
+
+        final long steps = (long) number;
+        gotValue_ = false;
+        request_.reset();
+        transaction_.request(request_, () -> {
+            Map.Entry<byte[], byte[]> entry = null;
+            for (long i = 0; i < steps && position_ != null; i++) {
+                entry = next();
+                position_ = entry == null ? null : entry.getKey();
+                if (entry != null) {
+                    encodedKey_ = Arrays.copyOfRange(position_, prefix_.length,
+                            IDBKeyCodec.skip(position_, prefix_.length));
+                }
+            }
+            return moveTo(entry);
+        });
+    }
+
+    /**
+     * Replaces the value of the current record.
+     * @param value the new value
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest update(final Object value) {
+        transaction_.checkWritable();
+        checkIterable();
+        final Window window = getWindow();
+        final Object clone = StructuredClone.deserialize(Context.getCurrentContext(), window,
+                StructuredClone.serialize(value));
+        final Object keyPath = store_.getKeyPath();
+        if (keyPath != null) {
+            final Object inlineKey = IDBKeyCodec.evaluate(clone, keyPath);
+            final byte[] encoded = inlineKey == Scriptable.NOT_FOUND ? null : IDBKeyCodec.encodeOrNull(inlineKey);
+            if (encoded == null || IDBKeyCodec.compare(encoded, encodedPrimaryKey_) != 0) {
+                throw IDBException.dataError("The effective object store of this cursor uses in-line keys"
+                        + " and evaluating the key path of the value parameter results in a different value"
+                        + " than the cursor's effective key.").toJavaScriptException(window);
+            }
+        }
+
+        final byte[] primaryKey = encodedPrimaryKey_;
+        return transaction_.request(this, () -> {
+            getBackingStore().putRecord(store_, primaryKey, clone, false);
+            return IDBKeyCodec.decode(primaryKey, 0, window);
+        });
+    }
+
+    /**
+     * Deletes the current record.
+     * @return the request
+     */
+    @JsxFunction(functionName = "delete")
+    public IDBRequest delete_js() {
+        transaction_.checkWritable();
+        checkIterable();
+        final byte[] primaryKey = encodedPrimaryKey_;
+        return transaction_.request(this, () -> {
+            getBackingStore().deleteRange(store_, IDBKeyRange.forKey(primaryKey));
+            return Undefined.instance;
+        });
+    }
+
+    /**
+     * @return the object store or the index
+     */
+    @JsxGetter
+    public Object getSource() {
+        return source_;
+    }
+
+    /**
+     * @return the direction
+     */
+    @JsxGetter
+    public String getDirection() {
+        return direction_;
+    }
+
+    /**
+     * @return the key at the position of the cursor
+     */
+    @JsxGetter
+    public Object getKey() {
+        return key_;
+    }
+
+    /**
+     * @return the primary key at the position of the cursor
+     */
+    @JsxGetter
+    public Object getPrimaryKey() {
+        return primaryKey_;
+    }
+
+    /**
+     * @return the request of this cursor
+     */
+    @JsxGetter({CHROME, EDGE, FF, FF68})
+    public IDBRequest getRequest() {
+        return request_;
+    }
 }
@@ -19,8 +19,12 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code IDBCursorWithValue}.
@@ -31,10 +35,44 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBCursorWithValue extends IDBCursor {
 
+    private Object value_ = Undefined.instance;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBCursorWithValue() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param source the object store or the index
+     * @param transaction the transaction
+     * @param store the object store
+     * @param prefix the prefix of the records or index entries
+     * @param isIndex whether the prefix is the one of an index
+     * @param range the range or {@code null}
+     * @param direction the direction
+     */
+    IDBCursorWithValue(final SimpleScriptable source, final IDBTransaction transaction,
+            final IDBBackingStore.StoreInfo store, final byte[] prefix, final boolean isIndex,
+            final IDBKeyRange range, final String direction) {
+        super(source, transaction, store, prefix, isIndex, range, direction);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void setValue(final Object value) {
+        value_ = value;
+    }
+
+    /**
+     * @return the value of the current record
+     */
+    @JsxGetter
+    public Object getValue() {
+        return value_;
+    }
 }
@@ -19,10 +19,27 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMStringList;
+import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
 import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+
 /**
  * A JavaScript object for {@code IDBDatabase}.
  *
@@ -32,10 +49,276 @@ import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 @JsxClass
 public class IDBDatabase extends EventTarget {
 
+    private static final String TYPE_VERSION_CHANGE = "versionchange";
+
+    private String name_;
+    private IDBBackingStore backing_;
+    private IDBTransaction versionTransaction_;
+    private boolean closed_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBDatabase() {
     }
+
+    /**
+     * Creates a new connection.
+     * @param window the window
+     * @param name the name of the database
+     * @param backing the backing store
+     */
+    IDBDatabase(final Window window, final String name, final IDBBackingStore backing) {
+        name_ = name;
+        backing_ = backing;
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    IDBBackingStore getBackingStore() {
+        return backing_;
+    }
+
+    void setVersionTransaction(final IDBTransaction transaction) {
+        versionTransaction_ = transaction;
+    }
+
+    void closeConnection() {
+        closed_ = true;
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return name_;
+    }
+
+    /**
+     * @return the version
+     */
+    @JsxGetter
+    public double getVersion() {
+        return backing_.getVersion();
+    }
+
+    /**
+     * @return the names of the object stores
+     */
+    @JsxGetter
+    public DOMStringList getObjectStoreNames() {
+        return new DOMStringList(getWindow(), backing_.getStoreNames());
+    }
+
+    /**
+     * Creates an object store; only allowed in a versionchange transaction.
+     * @param name the name
+     * @param options the options ({@code keyPath} and {@code autoIncrement})
+     * @return the new object store
+     */
+    @JsxFunction
+    public IDBObjectStore createObjectStore(final String name, final Object options) {
+        final IDBTransaction transaction = getVersionTransaction();
+
+        Object keyPath = null;
+        boolean autoIncrement = false;
+        if (options instanceof Scriptable) {
+            keyPath = toKeyPath(ScriptableObject.getProperty((Scriptable) options, "keyPath"));
+            final Object autoInc = ScriptableObject.getProperty((Scriptable) options, "autoIncrement");
+            autoIncrement = autoInc != Scriptable.NOT_FOUND && Context.toBoolean(autoInc);
+        }
+        if (autoIncrement && (keyPath instanceof String[] || "".equals(keyPath))) {
+            throw IDBException.invalidAccessError("The autoIncrement option requires a non-empty key path.")
+                    .toJavaScriptException(getWindow());
+        }
+
+        final Object storeKeyPath = keyPath;
+        final boolean storeAutoIncrement = autoIncrement;
+        try {
+            final IDBBackingStore.StoreInfo info = transaction.change(
+                    () -> backing_.createStore(name, storeKeyPath, storeAutoIncrement));
+            return new IDBObjectStore(transaction, info);
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(getWindow());
+        }
+    }
+
+    /**
+     * Deletes an object store; only allowed in a versionchange transaction.
+     * @param name the name
+     */
+    @JsxFunction
+    public void deleteObjectStore(final String name) {
+        final IDBTransaction transaction = getVersionTransaction();
+        final IDBBackingStore.StoreInfo info = backing_.getStore(name);
+        if (info == null) {
+            throw IDBException.notFoundError("The specified object store was not found.")
+                    .toJavaScriptException(getWindow());
+        }
+        transaction.change(() -> {
+            backing_.deleteStore(info);
+            return null;
+        });
+    }
+
+    private IDBTransaction getVersionTransaction() {
+        if (versionTransaction_ == null) {
+            throw IDBException.invalidStateError("The database is not running a version change transaction.")
+                    .toJavaScriptException(getWindow());
+        }
+        versionTransaction_.checkVersionChange();
+        return versionTransaction_;
+    }
+
+    /**
+     * Starts a new transaction.
+     * @param storeNames the name or the names of the object stores
+     * @param mode {@code readonly} (default) or {@code readwrite}
+     * @return the transaction
+     */
+    @JsxFunction
+    public IDBTransaction transaction(final Object storeNames, final Object mode) {
+        if (closed_) {
+            throw IDBException.invalidStateError("The database connection is closing.")
+                    .toJavaScriptException(getWindow());
+        }
+        if (versionTransaction_ != null) {
+            throw IDBException.invalidStateError("A version change transaction is running.")
+                    .toJavaScriptException(getWindow());
+        }
+
+        final List<String> names = new ArrayList<>();
+        if (storeNames instanceof NativeArray) {
+            final NativeArray array = (NativeArray) storeNames;
+            for (int i = 0; i < array.getLength(); i++) {
+                names.add(Context.toString(array.get(i, array)));
+            }
+        }
+        else if (storeNames instanceof DOMStringList) {
+            final DOMStringList list = (DOMStringList) storeNames;
+            for (int i = 0; i < list.getLength(); i++) {
+                names.add(list.item(i));
+            }
+        }
+        else {
+            names.add(Context.toString(storeNames));
+        }
+        for (final String name : names) {
+            if (backing_.getStore(name) == null) {
+                throw IDBException.notFoundError("One of the specified object stores was not found.")
+                        .toJavaScriptException(getWindow());
+            }
+        }
+        if (names.isEmpty()) {
+            throw IDBException.invalidAccessError("The storeNames parameter was empty.")
+                    .toJavaScriptException(getWindow());
+        }
+
+        String txMode = IDBTransaction.MODE_READONLY;
+        if (mode != null && !Undefined.isUndefined(mode)) {
+            txMode = Context.toString(mode);
+            if (!IDBTransaction.MODE_READONLY.equals(txMode) && !IDBTransaction.MODE_READWRITE.equals(txMode)) {
+                throw ScriptRuntime.typeError("The mode provided ('" + txMode + "') is not a valid mode.");
+            }
+        }
+        return new IDBTransaction(this, names, txMode, null);
+    }
+
+    /**
+     * Closes the connection once all transactions have finished.
+     */
+    @JsxFunction
+    public void close() {
+        closed_ = true;
+    }
+
+    /**
+     * Returns the {@code onabort} event handler.
+     * @return the {@code onabort} event handler
+     */
+    @JsxGetter
+    public Function getOnabort() {
+        return getEventHandler("abort");
+    }
+
+    /**
+     * Sets the {@code onabort} event handler.
+     * @param onabort the {@code onabort} event handler
+     */
+    @JsxSetter
+    public void setOnabort(final Object onabort) {
+        setEventHandler("abort", onabort);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Function getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param onerror the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object onerror) {
+        setEventHandler(Event.TYPE_ERROR, onerror);
+    }
+
+    /**
+     * Returns the {@code onversionchange} event handler.
+     * @return the {@code onversionchange} event handler
+     */
+    @JsxGetter
+    public Function getOnversionchange() {
+        return getEventHandler(TYPE_VERSION_CHANGE);
+    }
+
+    /**
+     * Sets the {@code onversionchange} event handler.
+     * @param onversionchange the {@code onversionchange} event handler
+     */
+    @JsxSetter
+    public void setOnversionchange(final Object onversionchange) {
+        setEventHandler(TYPE_VERSION_CHANGE, onversionchange);
+    }
+
+    /**
+     * Converts the key path parameter.
+     * @param keyPath the JavaScript value
+     * @return {@code null}, a {@link String} or a {@code String[]}
+     */
+    static Object toKeyPath(final Object keyPath) {
+        if (keyPath == null || keyPath == Scriptable.NOT_FOUND || Undefined.isUndefined(keyPath)) {
+            return null;
+        }
+        if (keyPath instanceof NativeArray) {
+            final NativeArray array = (NativeArray) keyPath;
+            final String[] paths = new String[(int) array.getLength()];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = Context.toString(array.get(i, array));
+            }
+            return paths;
+        }
+        return Context.toString(keyPath);
+    }
+
+    /**
+     * Converts a key path into its JavaScript representation.
+     * @param keyPath the key path
+     * @param scope the scope
+     * @return the JavaScript value
+     */
+    static Object fromKeyPath(final Object keyPath, final Scriptable scope) {
+        if (keyPath instanceof String[]) {
+            return Context.getCurrentContext().newArray(scope, ((String[]) keyPath).clone());
+        }
+        return keyPath;
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMException;
+
+import net.sourceforge.htmlunit.corejs.javascript.JavaScriptException;
+
+/**
+ * An IndexedDB error; converted into a {@link DOMException} when it reaches the JavaScript code.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class IDBException extends RuntimeException {
+
+    private final String name_;
+    private final short code_;
+
+    private IDBException(final String name, final short code, final String message) {
+        super(message);
+        name_ = name;
+        code_ = code;
+    }
+
+    static IDBException abortError(final String message) {
+        return new IDBException("AbortError", DOMException.ABORT_ERR, message);
+    }
+
+    static IDBException constraintError(final String message) {
+        return new IDBException("ConstraintError", (short) 0, message);
+    }
+
+    static IDBException dataError(final String message) {
+        return new IDBException("DataError", (short) 0, message);
+    }
+
+    static IDBException invalidAccessError(final String message) {
+        return new IDBException("InvalidAccessError", DOMException.INVALID_ACCESS_ERR, message);
+    }
+
+    static IDBException invalidStateError(final String message) {
+        return new IDBException("InvalidStateError", DOMException.INVALID_STATE_ERR, message);
+    }
+
+    static IDBException notFoundError(final String message) {
+        return new IDBException("NotFoundError", DOMException.NOT_FOUND_ERR, message);
+    }
+
+    static IDBException readOnlyError(final String message) {
+        return new IDBException("ReadOnlyError", (short) 0, message);
+    }
+
+    static IDBException transactionInactiveError(final String message) {
+        return new IDBException("TransactionInactiveError", (short) 0, message);
+    }
+
+    static IDBException unknownError(final String message) {
+        return new IDBException("UnknownError", (short) 0, message);
+    }
+
+    static IDBException versionError(final String message) {
+        return new IDBException("VersionError", (short) 0, message);
+    }
+
+    /**
+     * @return the name of the error (e.g. {@code ConstraintError})
+     */
+    String getName() {
+        return name_;
+    }
+
+    /**
+     * Creates the {@link DOMException} representing this error.
+     * @param window the window
+     * @return the exception
+     */
+    DOMException toDOMException(final Window window) {
+        final DOMException exception = new DOMException(name_ + ": " + getMessage(), code_);
+        exception.setParentScope(window);
+        exception.setPrototype(window.getPrototype(DOMException.class));
+        return exception;
+    }
+
+    /**
+     * Creates the exception to be thrown into the JavaScript code.
+     * @param window the window
+     * @return the exception
+     */
+    JavaScriptException toJavaScriptException(final Window window) {
+        return new JavaScriptException(toDOMException(window), null, 0);
+    }
+}
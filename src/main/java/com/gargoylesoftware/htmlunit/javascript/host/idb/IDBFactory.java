@@ -19,23 +19,164 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+
+import com.gargoylesoftware.htmlunit.WebWindow;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code IDBFactory}.
  *
+ * <p>The databases live in the {@link KeyValueStoreBackend} of the
+ * {@link com.gargoylesoftware.htmlunit.StorageHolder}, keyed by the origin of the page.</p>
+ *
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
 @JsxClass
 public class IDBFactory extends SimpleScriptable {
 
+    private static final double MAX_VERSION = 9007199254740991d;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBFactory() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param window the window
+     */
+    public IDBFactory(final Window window) {
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * Opens a connection to a database; the database is created or upgraded if needed.
+     * @param name the name of the database
+     * @param version the version (optional)
+     * @return the request
+     */
+    @JsxFunction
+    public IDBOpenDBRequest open(final String name, final Object version) {
+        final long requestedVersion;
+        if (version == null || Undefined.isUndefined(version)) {
+            requestedVersion = 0;
+        }
+        else {
+            final double number = ScriptRuntime.toNumber(version);
+            if (Double.isNaN(number) || number < 1 || number > MAX_VERSION) {
+                throw ScriptRuntime.typeError("The version provided must not be 0.");
+            }
+            requestedVersion = (long) number;
+        }
+
+        final Window window = getWindow();
+        final IDBOpenDBRequest request = new IDBOpenDBRequest(window);
+        IDBTransaction.schedule(window, () -> open(window, request, name, requestedVersion));
+        return request;
+    }
+
+    private void open(final Window window, final IDBOpenDBRequest request, final String name,
+            final long requestedVersion) {
+        final IDBBackingStore backing;
+        try {
+            backing = new IDBBackingStore(getBackend(window).open(getOrigin(window), name));
+        }
+        catch (final IOException e) {
+            request.fail(IDBException.unknownError("The database could not be opened: " + e.getMessage()));
+            return;
+        }
+
+        final long oldVersion = backing.getVersion();
+        final long newVersion = requestedVersion == 0 ? Math.max(1, oldVersion) : requestedVersion;
+        if (newVersion < oldVersion) {
+            request.fail(IDBException.versionError("The requested version (" + newVersion
+                    + ") is less than the existing version (" + oldVersion + ")."));
+            return;
+        }
+
+        final IDBDatabase db = new IDBDatabase(window, name, backing);
+        if (newVersion == oldVersion) {
+            request.succeed(db);
+            return;
+        }
+
+        final IDBTransaction transaction = new IDBTransaction(db, Collections.<String>emptyList(),
+                IDBTransaction.MODE_VERSIONCHANGE, request);
+        db.setVersionTransaction(transaction);
+        transaction.change(() -> {
+            backing.setVersion(newVersion);
+            return null;
+        });
+        request.setTransaction(transaction);
+        request.setResult(db);
+        try {
+            request.fireUpgradeNeeded(oldVersion, newVersion);
+        }
+        catch (final RuntimeException e) {
+            transaction.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a database.
+     * @param name the name of the database
+     * @return the request
+     */
+    @JsxFunction
+    public IDBOpenDBRequest deleteDatabase(final String name) {
+        final Window window = getWindow();
+        final IDBOpenDBRequest request = new IDBOpenDBRequest(window);
+        IDBTransaction.schedule(window, () -> {
+            try {
+                getBackend(window).delete(getOrigin(window), name);
+            }
+            catch (final IOException e) {
+                request.fail(IDBException.unknownError("The database could not be deleted: " + e.getMessage()));
+                return;
+            }
+            request.succeed(Undefined.instance);
+        });
+        return request;
+    }
+
+    /**
+     * Compares two keys.
+     * @param first the first key
+     * @param second the second key
+     * @return -1, 0 or 1
+     */
+    @JsxFunction
+    public int cmp(final Object first, final Object second) {
+        try {
+            return Integer.signum(IDBKeyCodec.compare(IDBKeyCodec.encode(first), IDBKeyCodec.encode(second)));
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(getWindow());
+        }
+    }
+
+    private static KeyValueStoreBackend getBackend(final Window window) {
+        return window.getWebWindow().getWebClient().getStorageHolder().getIndexedDbBackend();
+    }
+
+    private static String getOrigin(final Window window) {
+        final WebWindow webWindow = window.getWebWindow();
+        final URL url = webWindow.getEnclosedPage().getUrl();
+        return url.getProtocol() + "://" + url.getHost() + ':' + url.getPort();
+    }
 }
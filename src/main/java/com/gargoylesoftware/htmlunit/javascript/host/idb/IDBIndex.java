@@ -19,9 +19,14 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.List;
+
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
 
 /**
  * A JavaScript object for {@code IDBIndex}.
@@ -32,10 +37,163 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBIndex extends SimpleScriptable {
 
+    private IDBObjectStore objectStore_;
+    private IDBBackingStore.IndexInfo info_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBIndex() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param objectStore the object store
+     * @param info the schema
+     */
+    IDBIndex(final IDBObjectStore objectStore, final IDBBackingStore.IndexInfo info) {
+        objectStore_ = objectStore;
+        info_ = info;
+        final Window window = objectStore.getWindow();
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return info_.getName();
+    }
+
+    /**
+     * @return the key path
+     */
+    @JsxGetter
+    public Object getKeyPath() {
+        return IDBDatabase.fromKeyPath(info_.getKeyPath(), getWindow());
+    }
+
+    /**
+     * @return whether the index keys are unique
+     */
+    @JsxGetter
+    public boolean isUnique() {
+        return info_.isUnique();
+    }
+
+    /**
+     * @return whether every item of an array value is a key
+     */
+    @JsxGetter
+    public boolean isMultiEntry() {
+        return info_.isMultiEntry();
+    }
+
+    /**
+     * @return the object store
+     */
+    @JsxGetter
+    public IDBObjectStore getObjectStore() {
+        return objectStore_;
+    }
+
+    /**
+     * Returns the value of the first record matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest get(final Object query) {
+        final IDBKeyRange range = objectStore_.toRequiredRange(query);
+        return getTransaction().request(this, () -> IDBObjectStore.first(getAll(range, 1, true)));
+    }
+
+    /**
+     * Returns the primary key of the first record matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getKey(final Object query) {
+        final IDBKeyRange range = objectStore_.toRequiredRange(query);
+        return getTransaction().request(this, () -> IDBObjectStore.first(getAll(range, 1, false)));
+    }
+
+    /**
+     * Returns the values of the records matching the query.
+     * @param query the key or the key range
+     * @param count the maximum number of values
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest getAll(final Object query, final Object count) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final long max = IDBObjectStore.toCount(count);
+        return getTransaction().request(this, () -> objectStore_.toArray(getAll(range, max, true)));
+    }
+
+    /**
+     * Returns the primary keys of the records matching the query.
+     * @param query the key or the key range
+     * @param count the maximum number of keys
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest getAllKeys(final Object query, final Object count) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final long max = IDBObjectStore.toCount(count);
+        return getTransaction().request(this, () -> objectStore_.toArray(getAll(range, max, false)));
+    }
+
+    private List<Object> getAll(final IDBKeyRange range, final long max, final boolean values) {
+        return IDBObjectStore.collect(objectStore_.getBackingStore(), objectStore_.getInfo(),
+                info_.getEntryPrefix(), true, range, max, values, getWindow());
+    }
+
+    /**
+     * Counts the records matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest count(final Object query) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        return getTransaction().request(this,
+            () -> Double.valueOf(objectStore_.getBackingStore().count(info_.getEntryPrefix(), range)));
+    }
+
+    /**
+     * Opens a cursor iterating the records in the order of the index.
+     * @param query the key or the key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openCursor(final Object query, final Object direction) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final IDBCursor cursor = new IDBCursorWithValue(this, getTransaction(), objectStore_.getInfo(),
+                info_.getEntryPrefix(), true, range, IDBCursor.toDirection(direction));
+        return cursor.open();
+    }
+
+    /**
+     * Opens a cursor iterating the primary keys in the order of the index.
+     * @param query the key or the key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openKeyCursor(final Object query, final Object direction) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final IDBCursor cursor = new IDBCursor(this, getTransaction(), objectStore_.getInfo(),
+                info_.getEntryPrefix(), true, range, IDBCursor.toDirection(direction));
+        return cursor.open();
+    }
+
+    private IDBTransaction getTransaction() {
+        return objectStore_.getTransaction();
+    }
 }
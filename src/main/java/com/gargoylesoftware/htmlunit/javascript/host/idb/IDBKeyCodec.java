@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBufferView;
+
+/**
+ * Encodes IndexedDB keys as byte sequences having the same order as the keys; this allows
+ * to keep records and index entries in one sorted {@link KeyValueStore}.
+ *
+ * <p>Every key starts with a type byte (ordered like the types in the spec: number, date,
+ * string, binary, array). Numbers and dates are followed by the order preserving bits of
+ * the double; strings, binaries and arrays are self delimiting: every unit is preceded by
+ * {@code 0x01}, the end is marked with {@code 0x00}. No encoded key is a prefix of another one.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class IDBKeyCodec {
+
+    /** A byte greater than all type bytes. */
+    static final byte MAX = (byte) 0xFF;
+
+    private static final byte END = 0x00;
+    private static final byte MORE = 0x01;
+    private static final byte NUMBER = 0x10;
+    private static final byte DATE = 0x20;
+    private static final byte STRING = 0x30;
+    private static final byte BINARY = 0x40;
+    private static final byte ARRAY = 0x50;
+
+    private IDBKeyCodec() {
+    }
+
+    /**
+     * Encodes the given key.
+     * @param key the key
+     * @return the encoded key
+     * @throws IDBException (DataError) if the value is not a valid key
+     */
+    static byte[] encode(final Object key) {
+        final byte[] encoded = encodeOrNull(key);
+        if (encoded == null) {
+            throw IDBException.dataError("The parameter is not a valid key.");
+        }
+        return encoded;
+    }
+
+    /**
+     * Encodes the given key.
+     * @param key the key
+     * @return the encoded key or {@code null} if the value is not a valid key
+     */
+    static byte[] encodeOrNull(final Object key) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!write(out, key, new IdentityHashMap<>())) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean write(final ByteArrayOutputStream out, final Object key, final Map<Object, Object> seen) {
+        if (key instanceof Number) {
+            final double number = ((Number) key).doubleValue();
+            if (Double.isNaN(number)) {
+                return false;
+            }
+            out.write(NUMBER);
+            writeDouble(out, number);
+            return true;
+        }
+        if (key instanceof CharSequence) {
+            final String string = key.toString();
+            out.write(STRING);
+            for (int i = 0; i < string.length(); i++) {
+                final char c = string.charAt(i);
+                out.write(MORE);
+                out.write(c >>> 8);
+                out.write(c);
+            }
+            out.write(END);
+            return true;
+        }
+        if (!(key instanceof Scriptable)) {
+            return false;
+        }
+
+        if (key instanceof NativeArray) {
+            if (seen.put(key, key) != null) {
+                return false;
+            }
+            final NativeArray array = (NativeArray) key;
+            out.write(ARRAY);
+            for (int i = 0; i < array.getLength(); i++) {
+                final Object item = array.get(i, array);
+                out.write(MORE);
+                if (!write(out, item, seen)) {
+                    return false;
+                }
+            }
+            out.write(END);
+            seen.remove(key);
+            return true;
+        }
+        if (key instanceof NativeArrayBuffer) {
+            final byte[] bytes = ((NativeArrayBuffer) key).getBuffer();
+            writeBinary(out, bytes, 0, bytes.length);
+            return true;
+        }
+        if (key instanceof NativeArrayBufferView) {
+            final NativeArrayBufferView view = (NativeArrayBufferView) key;
+            writeBinary(out, view.getBuffer().getBuffer(), view.getByteOffset(), view.getByteLength());
+            return true;
+        }
+        if ("Date".equals(((Scriptable) key).getClassName())) {
+            final double time = ScriptRuntime.toNumber(
+                    ScriptableObject.callMethod((Scriptable) key, "getTime", ScriptRuntime.emptyArgs));
+            if (Double.isNaN(time)) {
+                return false;
+            }
+            out.write(DATE);
+            writeDouble(out, time);
+            return true;
+        }
+        return false;
+    }
+
+    private static void writeDouble(final ByteArrayOutputStream out, final double number) {
+        // -0 and +0 are the same key
+        long bits = Double.doubleToLongBits(number == 0 ? 0d : number);
+        if (bits < 0) {
+            bits = ~bits;
+        }
+        else {
+            bits ^= Long.MIN_VALUE;
+        }
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    private static void writeBinary(final ByteArrayOutputStream out, final byte[] bytes,
+            final int offset, final int length) {
+        out.write(BINARY);
+        for (int i = offset; i < offset + length; i++) {
+            out.write(MORE);
+            out.write(bytes[i]);
+        }
+        out.write(END);
+    }
+
+    /**
+     * Returns the end of the key encoded at the given position.
+     * @param bytes the bytes
+     * @param offset the start of the key
+     * @return the position behind the key
+     */
+    static int skip(final byte[] bytes, final int offset) {
+        int pos = offset + 1;
+        switch (bytes[offset]) {
+            case NUMBER:
+            case DATE:
+                return offset + 9;
+
+            case STRING:
+                while (bytes[pos] == MORE) {
+                    pos += 3;
+                }
+                return pos + 1;
+
+            case BINARY:
+                while (bytes[pos] == MORE) {
+                    pos += 2;
+                }
+                return pos + 1;
+
+            case ARRAY:
+                while (bytes[pos] == MORE) {
+                    pos = skip(bytes, pos + 1);
+                }
+                return pos + 1;
+
+            default:
+                throw new IllegalStateException("Unknown key type " + bytes[offset]);
+        }
+    }
+
+    /**
+     * Decodes the key encoded at the given position.
+     * @param bytes the bytes
+     * @param offset the start of the key
+     * @param scope the scope of the created objects
+     * @return the key
+     */
+    static Object decode(final byte[] bytes, final int offset, final Scriptable scope) {
+        final Context cx = Context.getCurrentContext();
+        switch (bytes[offset]) {
+            case NUMBER:
+                return readDouble(bytes, offset + 1);
+
+            case DATE:
+                return cx.newObject(scope, "Date", new Object[] {readDouble(bytes, offset + 1)});
+
+            case STRING:
+                final StringBuilder builder = new StringBuilder();
+                for (int pos = offset + 1; bytes[pos] == MORE; pos += 3) {
+                    builder.append((char) (((bytes[pos + 1] & 0xFF) << 8) | (bytes[pos + 2] & 0xFF)));
+                }
+                return builder.toString();
+
+            case BINARY:
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                for (int pos = offset + 1; bytes[pos] == MORE; pos += 2) {
+                    out.write(bytes[pos + 1]);
+                }
+                final NativeArrayBuffer buffer = new NativeArrayBuffer(out.size());
+                System.arraycopy(out.toByteArray(), 0, buffer.getBuffer(), 0, out.size());
+                buffer.setParentScope(scope);
+                buffer.setPrototype(ScriptableObject.getClassPrototype(scope, buffer.getClassName()));
+                return buffer;
+
+            case ARRAY:
+                final List<Object> items = new ArrayList<>();
+                for (int pos = offset + 1; bytes[pos] == MORE; pos = skip(bytes, pos + 1)) {
+                    items.add(decode(bytes, pos + 1, scope));
+                }
+                return cx.newArray(scope, items.toArray());
+
+            default:
+                throw new IllegalStateException("Unknown key type " + bytes[offset]);
+        }
+    }
+
+    private static double readDouble(final byte[] bytes, final int offset) {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (bytes[offset + i] & 0xFF);
+        }
+        if (bits < 0) {
+            bits ^= Long.MIN_VALUE;
+        }
+        else {
+            bits = ~bits;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Compares two encoded keys.
+     * @param a the first key
+     * @param b the second key
+     * @return the comparison result
+     */
+    static int compare(final byte[] a, final byte[] b) {
+        return SkipListKeyValueStore.UNSIGNED_COMPARATOR.compare(a, b);
+    }
+
+    /**
+     * Compares a part of an array with an encoded key.
+     * @param bytes the bytes
+     * @param from the start of the part
+     * @param to the end of the part
+     * @param key the encoded key
+     * @return the comparison result
+     */
+    static int compare(final byte[] bytes, final int from, final int to, final byte[] key) {
+        final int length = Math.min(to - from, key.length);
+        for (int i = 0; i < length; i++) {
+            final int diff = (bytes[from + i] & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return to - from - key.length;
+    }
+
+    /**
+     * Evaluates a key path.
+     * @param value the value
+     * @param keyPath the key path (a {@link String} or a {@code String[]})
+     * @return the key or {@link Scriptable#NOT_FOUND}
+     */
+    static Object evaluate(final Object value, final Object keyPath) {
+        if (keyPath instanceof String[]) {
+            final String[] paths = (String[]) keyPath;
+            final Object[] keys = new Object[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                keys[i] = evaluate(value, paths[i]);
+                if (keys[i] == Scriptable.NOT_FOUND) {
+                    return Scriptable.NOT_FOUND;
+                }
+            }
+            return new NativeArray(keys);
+        }
+
+        final String path = (String) keyPath;
+        if (path.isEmpty()) {
+            return value;
+        }
+
+        Object current = value;
+        for (final String identifier : StringUtils.split(path, '.')) {
+            if (current instanceof CharSequence && "length".equals(identifier)) {
+                current = ((CharSequence) current).length();
+            }
+            else if (current instanceof NativeArray && "length".equals(identifier)) {
+                current = ((NativeArray) current).getLength();
+            }
+            else if (current instanceof Scriptable) {
+                current = ScriptableObject.getProperty((Scriptable) current, identifier);
+                if (current == Scriptable.NOT_FOUND) {
+                    return Scriptable.NOT_FOUND;
+                }
+            }
+            else {
+                return Scriptable.NOT_FOUND;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Evaluates the key path of an index.
+     * @param value the value
+     * @param keyPath the key path
+     * @param multiEntry whether every item of an array is a key
+     * @return the encoded keys, maybe empty
+     */
+    static List<byte[]> evaluateIndexKeys(final Object value, final Object keyPath, final boolean multiEntry) {
+        final List<byte[]> keys = new ArrayList<>();
+        final Object key = evaluate(value, keyPath);
+        if (key == Scriptable.NOT_FOUND) {
+            return keys;
+        }
+
+        if (multiEntry && key instanceof NativeArray) {
+            final NativeArray array = (NativeArray) key;
+            for (int i = 0; i < array.getLength(); i++) {
+                final byte[] encoded = encodeOrNull(array.get(i, array));
+                if (encoded != null && keys.stream().noneMatch(k -> compare(k, encoded) == 0)) {
+                    keys.add(encoded);
+                }
+            }
+        }
+        else {
+            final byte[] encoded = encodeOrNull(key);
+            if (encoded != null) {
+                keys.add(encoded);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Stores a generated key in the value, creating intermediate objects if needed.
+     * @param value the value
+     * @param keyPath the key path
+     * @param key the key
+     * @return {@code false} if the key can't be stored
+     */
+    static boolean inject(final Object value, final String keyPath, final Object key) {
+        final String[] identifiers = StringUtils.split(keyPath, '.');
+        Object current = value;
+        for (int i = 0; i < identifiers.length - 1; i++) {
+            if (!(current instanceof Scriptable)) {
+                return false;
+            }
+            final Scriptable scriptable = (Scriptable) current;
+            Object next = ScriptableObject.getProperty(scriptable, identifiers[i]);
+            if (next == Scriptable.NOT_FOUND) {
+                next = Context.getCurrentContext().newObject(ScriptableObject.getTopLevelScope(scriptable));
+                ScriptableObject.putProperty(scriptable, identifiers[i], next);
+            }
+            current = next;
+        }
+        if (!(current instanceof Scriptable) || current instanceof NativeArray) {
+            return false;
+        }
+        ScriptableObject.putProperty((Scriptable) current, identifiers[identifiers.length - 1], key);
+        return true;
+    }
+}
@@ -22,6 +22,16 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxStaticFunction;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code IDBKeyRange}.
@@ -32,10 +42,212 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBKeyRange extends SimpleScriptable {
 
+    private Object lower_ = Undefined.instance;
+    private Object upper_ = Undefined.instance;
+    private byte[] lowerEncoded_;
+    private byte[] upperEncoded_;
+    private boolean lowerOpen_;
+    private boolean upperOpen_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBKeyRange() {
     }
+
+    private static IDBKeyRange create(final Scriptable thisObj, final Object lower, final Object upper,
+            final boolean lowerOpen, final boolean upperOpen) {
+        final Window window = (Window) ScriptableObject.getTopLevelScope(thisObj);
+        final IDBKeyRange range = new IDBKeyRange();
+        try {
+            if (lower != null) {
+                range.lowerEncoded_ = IDBKeyCodec.encode(lower);
+                range.lower_ = lower;
+            }
+            if (upper != null) {
+                range.upperEncoded_ = IDBKeyCodec.encode(upper);
+                range.upper_ = upper;
+            }
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(window);
+        }
+        if (range.lowerEncoded_ != null && range.upperEncoded_ != null) {
+            final int diff = IDBKeyCodec.compare(range.lowerEncoded_, range.upperEncoded_);
+            if (diff > 0 || (diff == 0 && (lowerOpen || upperOpen))) {
+                throw IDBException.dataError("The lower key is greater than the upper key.")
+                        .toJavaScriptException(window);
+            }
+        }
+        range.lowerOpen_ = lowerOpen;
+        range.upperOpen_ = upperOpen;
+        range.setParentScope(window);
+        range.setPrototype(window.getPrototype(IDBKeyRange.class));
+        return range;
+    }
+
+    /**
+     * Creates a range containing only the given key; used internally.
+     * @param key the encoded key
+     * @return the range
+     */
+    static IDBKeyRange forKey(final byte[] key) {
+        final IDBKeyRange range = new IDBKeyRange();
+        range.lowerEncoded_ = key;
+        range.upperEncoded_ = key;
+        return range;
+    }
+
+    /**
+     * Converts the parameter of the query methods.
+     * @param keyOrRange a key or a range or {@code undefined}
+     * @param window the window
+     * @return the range or {@code null} for everything
+     */
+    static IDBKeyRange toRange(final Object keyOrRange, final Window window) {
+        if (keyOrRange instanceof IDBKeyRange) {
+            return (IDBKeyRange) keyOrRange;
+        }
+        if (keyOrRange == null || Undefined.isUndefined(keyOrRange)) {
+            return null;
+        }
+        try {
+            return forKey(IDBKeyCodec.encode(keyOrRange));
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(window);
+        }
+    }
+
+    /**
+     * Creates a range containing only the given key.
+     * @param context the context
+     * @param thisObj this object
+     * @param args the arguments
+     * @param function the function
+     * @return the range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange only(final Context context, final Scriptable thisObj, final Object[] args,
+            final Function function) {
+        final Object key = args.length > 0 ? args[0] : Undefined.instance;
+        return create(thisObj, key, key, false, false);
+    }
+
+    /**
+     * Creates a range with a lower bound.
+     * @param context the context
+     * @param thisObj this object
+     * @param args the arguments
+     * @param function the function
+     * @return the range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange lowerBound(final Context context, final Scriptable thisObj, final Object[] args,
+            final Function function) {
+        final Object key = args.length > 0 ? args[0] : Undefined.instance;
+        return create(thisObj, key, null, args.length > 1 && Context.toBoolean(args[1]), false);
+    }
+
+    /**
+     * Creates a range with an upper bound.
+     * @param context the context
+     * @param thisObj this object
+     * @param args the arguments
+     * @param function the function
+     * @return the range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange upperBound(final Context context, final Scriptable thisObj, final Object[] args,
+            final Function function) {
+        final Object key = args.length > 0 ? args[0] : Undefined.instance;
+        return create(thisObj, null, key, false, args.length > 1 && Context.toBoolean(args[1]));
+    }
+
+    /**
+     * Creates a range with a lower and an upper bound.
+     * @param context the context
+     * @param thisObj this object
+     * @param args the arguments
+     * @param function the function
+     * @return the range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange bound(final Context context, final Scriptable thisObj, final Object[] args,
+            final Function function) {
+        final Object lower = args.length > 0 ? args[0] : Undefined.instance;
+        final Object upper = args.length > 1 ? args[1] : Undefined.instance;
+        return create(thisObj, lower, upper,
+                args.length > 2 && Context.toBoolean(args[2]), args.length > 3 && Context.toBoolean(args[3]));
+    }
+
+    /**
+     * @return the lower bound
+     */
+    @JsxGetter
+    public Object getLower() {
+        return lower_;
+    }
+
+    /**
+     * @return the upper bound
+     */
+    @JsxGetter
+    public Object getUpper() {
+        return upper_;
+    }
+
+    /**
+     * @return whether the lower bound is excluded
+     */
+    @JsxGetter
+    public boolean isLowerOpen() {
+        return lowerOpen_;
+    }
+
+    /**
+     * @return whether the upper bound is excluded
+     */
+    @JsxGetter
+    public boolean isUpperOpen() {
+        return upperOpen_;
+    }
+
+    /**
+     * Returns whether the key is in the range.
+     * @param key the key
+     * @return whether the key is in the range
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public boolean includes(final Object key) {
+        final byte[] encoded;
+        try {
+            encoded = IDBKeyCodec.encode(key);
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(getWindow());
+        }
+        if (lowerEncoded_ != null) {
+            final int diff = IDBKeyCodec.compare(encoded, lowerEncoded_);
+            if (diff < 0 || (diff == 0 && lowerOpen_)) {
+                return false;
+            }
+        }
+        if (upperEncoded_ != null) {
+            final int diff = IDBKeyCodec.compare(encoded, upperEncoded_);
+            if (diff > 0 || (diff == 0 && upperOpen_)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    byte[] getLowerEncoded() {
+        return lowerEncoded_;
+    }
+
+    byte[] getUpperEncoded() {
+        return upperEncoded_;
+    }
 }
@@ -19,9 +19,25 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMStringList;
+import com.gargoylesoftware.htmlunit.javascript.host.worker.StructuredClone;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * A JavaScript object for {@code IDBObjectStore}.
@@ -32,10 +48,409 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBObjectStore extends SimpleScriptable {
 
+    private IDBTransaction transaction_;
+    private IDBBackingStore.StoreInfo info_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBObjectStore() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param transaction the transaction
+     * @param info the schema
+     */
+    IDBObjectStore(final IDBTransaction transaction, final IDBBackingStore.StoreInfo info) {
+        transaction_ = transaction;
+        info_ = info;
+        final Window window = transaction.getWindow();
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    IDBBackingStore.StoreInfo getInfo() {
+        return info_;
+    }
+
+    IDBBackingStore getBackingStore() {
+        return transaction_.getDb().getBackingStore();
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return info_.getName();
+    }
+
+    /**
+     * @return the key path
+     */
+    @JsxGetter
+    public Object getKeyPath() {
+        return IDBDatabase.fromKeyPath(info_.getKeyPath(), getWindow());
+    }
+
+    /**
+     * @return whether the object store has a key generator
+     */
+    @JsxGetter
+    public boolean isAutoIncrement() {
+        return info_.isAutoIncrement();
+    }
+
+    /**
+     * @return the names of the indexes
+     */
+    @JsxGetter
+    public DOMStringList getIndexNames() {
+        return new DOMStringList(getWindow(), info_.getIndexNames());
+    }
+
+    /**
+     * @return the transaction
+     */
+    @JsxGetter
+    public IDBTransaction getTransaction() {
+        return transaction_;
+    }
+
+    /**
+     * Stores the value, replacing an existing record.
+     * @param value the value
+     * @param key the key (only for object stores without key path)
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest put(final Object value, final Object key) {
+        return store(value, key, false);
+    }
+
+    /**
+     * Stores the value; it is an error if a record with the key exists.
+     * @param value the value
+     * @param key the key (only for object stores without key path)
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest add(final Object value, final Object key) {
+        return store(value, key, true);
+    }
+
+    private IDBRequest store(final Object value, final Object key, final boolean noOverwrite) {
+        transaction_.checkWritable();
+        final Window window = getWindow();
+        final Object keyPath = info_.getKeyPath();
+        final boolean hasKey = key != null && !Undefined.isUndefined(key);
+
+        try {
+            if (keyPath != null && hasKey) {
+                throw IDBException.dataError(
+                        "The object store uses in-line keys and the key parameter was provided.");
+            }
+            if (keyPath == null && !hasKey && !info_.isAutoIncrement()) {
+                throw IDBException.dataError("The object store uses out-of-line keys and has no key generator"
+                        + " and the key parameter was not provided.");
+            }
+
+            final Object clone = StructuredClone.deserialize(Context.getCurrentContext(), window,
+                    StructuredClone.serialize(value));
+            byte[] encodedKey = null;
+            if (hasKey) {
+                encodedKey = IDBKeyCodec.encode(key);
+            }
+            else if (keyPath != null) {
+                final Object inlineKey = IDBKeyCodec.evaluate(clone, keyPath);
+                if (inlineKey != Scriptable.NOT_FOUND) {
+                    encodedKey = IDBKeyCodec.encode(inlineKey);
+                }
+                else if (!info_.isAutoIncrement()) {
+                    throw IDBException.dataError("Evaluating the object store's key path did not yield a value.");
+                }
+            }
+
+            final byte[] fixedKey = encodedKey;
+            return transaction_.request(this, () -> {
+                final IDBBackingStore backing = getBackingStore();
+                byte[] recordKey = fixedKey;
+                final Object result;
+                if (recordKey == null) {
+                    final double generated = backing.nextGeneratedKey(info_);
+                    if (keyPath != null && !IDBKeyCodec.inject(clone, (String) keyPath, generated)) {
+                        throw IDBException.dataError("The generated key could not be stored in the value.");
+                    }
+                    recordKey = IDBKeyCodec.encode(generated);
+                    result = generated;
+                }
+                else {
+                    result = IDBKeyCodec.decode(recordKey, 0, window);
+                    if (info_.isAutoIncrement() && result instanceof Number) {
+                        backing.updateGenerator(info_, ((Number) result).doubleValue());
+                    }
+                }
+                backing.putRecord(info_, recordKey, clone, noOverwrite);
+                return result;
+            });
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(window);
+        }
+    }
+
+    /**
+     * Returns the value of the first record matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest get(final Object query) {
+        final IDBKeyRange range = toRequiredRange(query);
+        return transaction_.request(this, () -> first(getAll(range, 1, true)));
+    }
+
+    /**
+     * Returns the key of the first record matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest getKey(final Object query) {
+        final IDBKeyRange range = toRequiredRange(query);
+        return transaction_.request(this, () -> first(getAll(range, 1, false)));
+    }
+
+    /**
+     * Returns the values of the records matching the query.
+     * @param query the key or the key range
+     * @param count the maximum number of values
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest getAll(final Object query, final Object count) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final long max = toCount(count);
+        return transaction_.request(this, () -> toArray(getAll(range, max, true)));
+    }
+
+    /**
+     * Returns the keys of the records matching the query.
+     * @param query the key or the key range
+     * @param count the maximum number of keys
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest getAllKeys(final Object query, final Object count) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final long max = toCount(count);
+        return transaction_.request(this, () -> toArray(getAll(range, max, false)));
+    }
+
+    private List<Object> getAll(final IDBKeyRange range, final long max, final boolean values) {
+        return collect(getBackingStore(), info_, info_.getRecordPrefix(), false, range, max, values, getWindow());
+    }
+
+    /**
+     * Collects the values or the primary keys of the entries in the range.
+     * @param backing the backing store
+     * @param store the object store
+     * @param prefix the prefix of the records or index entries
+     * @param isIndex whether the prefix is the one of an index
+     * @param range the range or {@code null}
+     * @param max the maximum number of results, 0 for no limit
+     * @param values whether to collect the values or the primary keys
+     * @param window the window
+     * @return the results
+     */
+    static List<Object> collect(final IDBBackingStore backing, final IDBBackingStore.StoreInfo store,
+            final byte[] prefix, final boolean isIndex, final IDBKeyRange range, final long max,
+            final boolean values, final Window window) {
+        final List<Object> results = new ArrayList<>();
+        for (Map.Entry<byte[], byte[]> entry = backing.first(prefix, range, false);
+                entry != null && (max == 0 || results.size() < max);
+                entry = backing.next(prefix, entry.getKey(), range, false)) {
+            final byte[] key = entry.getKey();
+            final int primaryKeyStart = isIndex ? IDBKeyCodec.skip(key, prefix.length) : prefix.length;
+            if (values) {
+                final byte[] record = isIndex
+                        ? backing.getRecord(store, Arrays.copyOfRange(key, primaryKeyStart, key.length))
+                        : entry.getValue();
+                results.add(IDBBackingStore.getValue(record, window));
+            }
+            else {
+                results.add(IDBKeyCodec.decode(key, primaryKeyStart, window));
+            }
+        }
+        return results;
+    }
+
+    static Object first(final List<Object> results) {
+        return results.isEmpty() ? Undefined.instance : results.get(0);
+    }
+
+    Scriptable toArray(final List<Object> results) {
+        return Context.getCurrentContext().newArray(getWindow(), results.toArray());
+    }
+
+    IDBKeyRange toRequiredRange(final Object query) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        if (range == null) {
+            throw IDBException.dataError("No key or key range specified.").toJavaScriptException(getWindow());
+        }
+        return range;
+    }
+
+    static long toCount(final Object count) {
+        if (count == null || Undefined.isUndefined(count)) {
+            return 0;
+        }
+        final double number = ScriptRuntime.toNumber(count);
+        if (Double.isNaN(number) || number < 0 || number > 0xFFFFFFFFL) {
+            throw ScriptRuntime.typeError("The count parameter is out of range.");
+        }
+        return (long) number;
+    }
+
+    /**
+     * Deletes the records matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction(functionName = "delete")
+    public IDBRequest delete_js(final Object query) {
+        transaction_.checkWritable();
+        final IDBKeyRange range = toRequiredRange(query);
+        return transaction_.request(this, () -> {
+            getBackingStore().deleteRange(info_, range);
+            return Undefined.instance;
+        });
+    }
+
+    /**
+     * Deletes all records.
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest clear() {
+        transaction_.checkWritable();
+        return transaction_.request(this, () -> {
+            getBackingStore().deleteRange(info_, null);
+            return Undefined.instance;
+        });
+    }
+
+    /**
+     * Counts the records matching the query.
+     * @param query the key or the key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest count(final Object query) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        return transaction_.request(this,
+            () -> Double.valueOf(getBackingStore().count(info_.getRecordPrefix(), range)));
+    }
+
+    /**
+     * Opens a cursor iterating the records.
+     * @param query the key or the key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openCursor(final Object query, final Object direction) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final IDBCursor cursor = new IDBCursorWithValue(this, transaction_, info_, info_.getRecordPrefix(), false,
+                range, IDBCursor.toDirection(direction));
+        return cursor.open();
+    }
+
+    /**
+     * Opens a cursor iterating the keys of the records.
+     * @param query the key or the key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction({CHROME, EDGE, FF, FF68})
+    public IDBRequest openKeyCursor(final Object query, final Object direction) {
+        final IDBKeyRange range = IDBKeyRange.toRange(query, getWindow());
+        final IDBCursor cursor = new IDBCursor(this, transaction_, info_, info_.getRecordPrefix(), false,
+                range, IDBCursor.toDirection(direction));
+        return cursor.open();
+    }
+
+    /**
+     * Returns an index of this object store.
+     * @param name the name
+     * @return the index
+     */
+    @JsxFunction
+    public IDBIndex index(final String name) {
+        transaction_.checkActive();
+        final IDBBackingStore.IndexInfo index = info_.getIndex(name);
+        if (index == null) {
+            throw IDBException.notFoundError("The specified index was not found.").toJavaScriptException(getWindow());
+        }
+        return new IDBIndex(this, index);
+    }
+
+    /**
+     * Creates an index; only allowed in a versionchange transaction.
+     * @param name the name
+     * @param keyPath the key path
+     * @param options the options ({@code unique} and {@code multiEntry})
+     * @return the index
+     */
+    @JsxFunction
+    public IDBIndex createIndex(final String name, final Object keyPath, final Object options) {
+        transaction_.checkVersionChange();
+        final Object path = IDBDatabase.toKeyPath(keyPath);
+        boolean unique = false;
+        boolean multiEntry = false;
+        if (options instanceof Scriptable) {
+            final Object uniqueOption = ScriptableObject.getProperty((Scriptable) options, "unique");
+            unique = uniqueOption != Scriptable.NOT_FOUND && Context.toBoolean(uniqueOption);
+            final Object multiEntryOption = ScriptableObject.getProperty((Scriptable) options, "multiEntry");
+            multiEntry = multiEntryOption != Scriptable.NOT_FOUND && Context.toBoolean(multiEntryOption);
+        }
+        if (path == null) {
+            throw IDBException.dataError("The keyPath argument contains an invalid key path.")
+                    .toJavaScriptException(getWindow());
+        }
+        if (multiEntry && path instanceof String[]) {
+            throw IDBException.invalidAccessError("The keyPath argument was an array and the multiEntry option"
+                    + " is true.").toJavaScriptException(getWindow());
+        }
+
+        final boolean indexUnique = unique;
+        final boolean indexMultiEntry = multiEntry;
+        try {
+            final IDBBackingStore.IndexInfo index = transaction_.change(
+                () -> getBackingStore().createIndex(info_, name, path, indexUnique, indexMultiEntry, getWindow()));
+            return new IDBIndex(this, index);
+        }
+        catch (final IDBException e) {
+            throw e.toJavaScriptException(getWindow());
+        }
+    }
+
+    /**
+     * Deletes an index; only allowed in a versionchange transaction.
+     * @param name the name
+     */
+    @JsxFunction
+    public void deleteIndex(final String name) {
+        transaction_.checkVersionChange();
+        final IDBBackingStore.IndexInfo index = info_.getIndex(name);
+        if (index == null) {
+            throw IDBException.notFoundError("The specified index was not found.").toJavaScriptException(getWindow());
+        }
+        transaction_.change(() -> {
+            getBackingStore().deleteIndex(info_, index);
+            return null;
+        });
+    }
 }
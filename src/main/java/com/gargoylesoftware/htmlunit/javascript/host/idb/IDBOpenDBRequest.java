@@ -21,6 +21,12 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.event.IDBVersionChangeEvent;
+
+import net.sourceforge.htmlunit.corejs.javascript.Function;
 
 /**
  * A JavaScript object for {@code IDBOpenDBRequest}.
@@ -31,10 +37,66 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBOpenDBRequest extends IDBRequest {
 
+    private static final String TYPE_UPGRADE_NEEDED = "upgradeneeded";
+    private static final String TYPE_BLOCKED = "blocked";
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBOpenDBRequest() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param window the window
+     */
+    IDBOpenDBRequest(final Window window) {
+        super(window, null, null);
+    }
+
+    /**
+     * Returns the {@code onupgradeneeded} event handler.
+     * @return the {@code onupgradeneeded} event handler
+     */
+    @JsxGetter
+    public Function getOnupgradeneeded() {
+        return getEventHandler(TYPE_UPGRADE_NEEDED);
+    }
+
+    /**
+     * Sets the {@code onupgradeneeded} event handler.
+     * @param onupgradeneeded the {@code onupgradeneeded} event handler
+     */
+    @JsxSetter
+    public void setOnupgradeneeded(final Object onupgradeneeded) {
+        setEventHandler(TYPE_UPGRADE_NEEDED, onupgradeneeded);
+    }
+
+    /**
+     * Returns the {@code onblocked} event handler.
+     * @return the {@code onblocked} event handler
+     */
+    @JsxGetter
+    public Function getOnblocked() {
+        return getEventHandler(TYPE_BLOCKED);
+    }
+
+    /**
+     * Sets the {@code onblocked} event handler.
+     * @param onblocked the {@code onblocked} event handler
+     */
+    @JsxSetter
+    public void setOnblocked(final Object onblocked) {
+        setEventHandler(TYPE_BLOCKED, onblocked);
+    }
+
+    /**
+     * Fires the {@code upgradeneeded} event.
+     * @param oldVersion the old version
+     * @param newVersion the new version
+     */
+    void fireUpgradeNeeded(final long oldVersion, final long newVersion) {
+        executeEventLocally(new IDBVersionChangeEvent(this, TYPE_UPGRADE_NEEDED, oldVersion, newVersion));
+    }
 }
@@ -21,8 +21,16 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMException;
+import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
 import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+
 /**
  * A JavaScript object for {@code IDBRequest}.
  *
@@ -32,10 +40,167 @@ import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 @JsxClass
 public class IDBRequest extends EventTarget {
 
+    private static final String TYPE_SUCCESS = "success";
+
+    private Object source_;
+    private IDBTransaction transaction_;
+    private Object result_ = Undefined.instance;
+    private DOMException error_;
+    private boolean done_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBRequest() {
     }
+
+    /**
+     * Creates a new instance.
+     * @param window the window
+     * @param source the source of the request
+     * @param transaction the transaction
+     */
+    IDBRequest(final Window window, final Object source, final IDBTransaction transaction) {
+        source_ = source;
+        transaction_ = transaction;
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+    }
+
+    /**
+     * @return the result
+     */
+    @JsxGetter
+    public Object getResult() {
+        if (!done_) {
+            throw IDBException.invalidStateError("The request has not finished.").toJavaScriptException(getWindow());
+        }
+        return result_;
+    }
+
+    /**
+     * @return the error
+     */
+    @JsxGetter
+    public DOMException getError() {
+        if (!done_) {
+            throw IDBException.invalidStateError("The request has not finished.").toJavaScriptException(getWindow());
+        }
+        return error_;
+    }
+
+    /**
+     * @return the source
+     */
+    @JsxGetter
+    public Object getSource() {
+        return source_;
+    }
+
+    /**
+     * @return the transaction
+     */
+    @JsxGetter
+    public IDBTransaction getTransaction() {
+        return transaction_;
+    }
+
+    /**
+     * @return {@code pending} or {@code done}
+     */
+    @JsxGetter
+    public String getReadyState() {
+        return done_ ? "done" : "pending";
+    }
+
+    /**
+     * Returns the {@code onsuccess} event handler.
+     * @return the {@code onsuccess} event handler
+     */
+    @JsxGetter
+    public Function getOnsuccess() {
+        return getEventHandler(TYPE_SUCCESS);
+    }
+
+    /**
+     * Sets the {@code onsuccess} event handler.
+     * @param onsuccess the {@code onsuccess} event handler
+     */
+    @JsxSetter
+    public void setOnsuccess(final Object onsuccess) {
+        setEventHandler(TYPE_SUCCESS, onsuccess);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Function getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param onerror the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object onerror) {
+        setEventHandler(Event.TYPE_ERROR, onerror);
+    }
+
+    void setTransaction(final IDBTransaction transaction) {
+        transaction_ = transaction;
+    }
+
+    /**
+     * Marks the request as pending again (cursor iteration).
+     */
+    void reset() {
+        done_ = false;
+        result_ = Undefined.instance;
+    }
+
+    void setResult(final Object result) {
+        result_ = result;
+        error_ = null;
+        done_ = true;
+    }
+
+    /**
+     * Completes the request and fires the {@code success} event.
+     * @param result the result
+     */
+    void succeed(final Object result) {
+        setResult(result);
+        fire(TYPE_SUCCESS, false, false);
+    }
+
+    /**
+     * Fails the request and fires the {@code error} event; the event bubbles to
+     * the transaction and the database.
+     * @param error the error
+     * @return whether the default action (aborting the transaction) was prevented
+     */
+    boolean fail(final IDBException error) {
+        result_ = Undefined.instance;
+        error_ = error.toDOMException(getWindow());
+        done_ = true;
+        final Event event = fire(Event.TYPE_ERROR, true, true);
+        if (!event.isPropagationStopped() && transaction_ != null) {
+            transaction_.executeEventLocally(event);
+            if (!event.isPropagationStopped()) {
+                transaction_.getDb().executeEventLocally(event);
+            }
+        }
+        return event.isDefaultPrevented();
+    }
+
+    Event fire(final String type, final boolean bubbles, final boolean cancelable) {
+        final Event event = new Event(this, type);
+        event.initEvent(type, bubbles, cancelable);
+        executeEventLocally(event);
+        return event;
+    }
 }
@@ -19,23 +19,388 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+import com.gargoylesoftware.htmlunit.javascript.background.BasicJavaScriptJob;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMException;
+import com.gargoylesoftware.htmlunit.javascript.host.dom.DOMStringList;
+import com.gargoylesoftware.htmlunit.javascript.host.event.Event;
 import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+
 /**
  * A JavaScript object for {@code IDBTransaction}.
  *
+ * <p>The requests are processed in order by a job of the window; the transaction commits
+ * as soon as no more requests are pending. The changes are applied immediately and
+ * reverted using an undo log if the transaction aborts.</p>
+ *
  * @author Ahmed Ashour
  * @author Ronald Brill
  */
 @JsxClass
 public class IDBTransaction extends EventTarget {
 
+    static final String MODE_READONLY = "readonly";
+    static final String MODE_READWRITE = "readwrite";
+    static final String MODE_VERSIONCHANGE = "versionchange";
+
+    private static final String TYPE_COMPLETE = "complete";
+    private static final String TYPE_ABORT = "abort";
+
+    private enum State { ACTIVE, ABORTED, FINISHED }
+
+    private IDBDatabase db_;
+    private String mode_;
+    private List<String> storeNames_;
+    private IDBOpenDBRequest openRequest_;
+    private final ArrayDeque<Operation> pending_ = new ArrayDeque<>();
+    private final List<byte[][]> undoLog_ = new ArrayList<>();
+    private State state_ = State.ACTIVE;
+    private DOMException error_;
+
     /**
      * Creates a new instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public IDBTransaction() {
     }
+
+    /**
+     * Creates a new transaction and schedules its processing.
+     * @param db the database
+     * @param storeNames the names of the object stores in the scope
+     * @param mode the mode
+     * @param openRequest the open request for versionchange transactions
+     */
+    IDBTransaction(final IDBDatabase db, final List<String> storeNames, final String mode,
+            final IDBOpenDBRequest openRequest) {
+        db_ = db;
+        storeNames_ = storeNames;
+        mode_ = mode;
+        openRequest_ = openRequest;
+        final Window window = db.getWindow();
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+
+        if (!schedule(window, this::run)) {
+            state_ = State.FINISHED;
+        }
+    }
+
+    /**
+     * Runs the given task in a job of the window.
+     * @param window the window
+     * @param task the task
+     * @return {@code false} if the page is gone
+     */
+    static boolean schedule(final Window window, final Runnable task) {
+        final Page page = window.getWebWindow().getEnclosedPage();
+        final BasicJavaScriptJob job = new BasicJavaScriptJob() {
+            @Override
+            public void run() {
+                final JavaScriptEngine engine = (JavaScriptEngine) page.getWebClient().getJavaScriptEngine();
+                engine.getContextFactory().call(cx -> {
+                    task.run();
+                    return null;
+                });
+            }
+        };
+        return window.getWebWindow().getJobManager().addJob(job, page) != 0;
+    }
+
+    /**
+     * Queues a request.
+     * @param source the source of the request
+     * @param work computes the result; may throw an {@link IDBException}
+     * @return the request
+     */
+    IDBRequest request(final Object source, final Supplier<Object> work) {
+        final IDBRequest request = new IDBRequest(getWindow(), source, this);
+        request(request, work);
+        return request;
+    }
+
+    /**
+     * Queues an existing request (cursor iteration).
+     * @param request the request
+     * @param work computes the result; may throw an {@link IDBException}
+     */
+    void request(final IDBRequest request, final Supplier<Object> work) {
+        checkActive();
+        pending_.add(new Operation(request, work));
+    }
+
+    /**
+     * @throws net.sourceforge.htmlunit.corejs.javascript.JavaScriptException if the transaction is not active
+     */
+    void checkActive() {
+        if (state_ != State.ACTIVE) {
+            throw IDBException.transactionInactiveError("The transaction has finished.")
+                    .toJavaScriptException(getWindow());
+        }
+    }
+
+    /**
+     * @throws net.sourceforge.htmlunit.corejs.javascript.JavaScriptException if the transaction is read only
+     */
+    void checkWritable() {
+        checkActive();
+        if (MODE_READONLY.equals(mode_)) {
+            throw IDBException.readOnlyError("The transaction is read-only.").toJavaScriptException(getWindow());
+        }
+    }
+
+    /**
+     * @throws net.sourceforge.htmlunit.corejs.javascript.JavaScriptException if this is no versionchange
+     *         transaction
+     */
+    void checkVersionChange() {
+        if (!MODE_VERSIONCHANGE.equals(mode_)) {
+            throw IDBException.invalidStateError("The database is not running a version change transaction.")
+                    .toJavaScriptException(getWindow());
+        }
+        checkActive();
+    }
+
+    /**
+     * Applies a change (of the schema) recording it in the undo log.
+     * @param change the change
+     * @param <T> the type of the result
+     * @return the result of the change
+     */
+    <T> T change(final Supplier<T> change) {
+        final IDBBackingStore backing = db_.getBackingStore();
+        backing.setUndoLog(undoLog_);
+        try {
+            return change.get();
+        }
+        finally {
+            backing.setUndoLog(null);
+        }
+    }
+
+    private void run() {
+        final IDBBackingStore backing = db_.getBackingStore();
+        try {
+            while (state_ == State.ACTIVE) {
+                final Operation operation = pending_.poll();
+                if (operation == null) {
+                    break;
+                }
+
+                backing.setUndoLog(undoLog_);
+                final Object result;
+                try {
+                    result = operation.work_.get();
+                }
+                catch (final IDBException e) {
+                    if (!operation.request_.fail(e) && state_ == State.ACTIVE) {
+                        abort(e);
+                    }
+                    continue;
+                }
+                finally {
+                    backing.setUndoLog(null);
+                }
+                operation.request_.succeed(result);
+            }
+        }
+        catch (final RuntimeException e) {
+            // an exception in an event handler aborts the transaction
+            if (state_ == State.ACTIVE) {
+                abort(IDBException.abortError("The transaction was aborted."));
+            }
+            finish();
+            throw e;
+        }
+        finish();
+    }
+
+    private void finish() {
+        if (state_ == State.FINISHED) {
+            return;
+        }
+
+        if (state_ == State.ABORTED) {
+            state_ = State.FINISHED;
+            final IDBException abortError = IDBException.abortError("The transaction was aborted.");
+            for (Operation operation = pending_.poll(); operation != null; operation = pending_.poll()) {
+                operation.request_.fail(abortError);
+            }
+            final Event event = new Event(this, TYPE_ABORT);
+            event.initEvent(TYPE_ABORT, true, false);
+            executeEventLocally(event);
+            db_.executeEventLocally(event);
+
+            if (openRequest_ != null) {
+                db_.closeConnection();
+                openRequest_.setTransaction(null);
+                openRequest_.fail(abortError);
+            }
+            return;
+        }
+
+        state_ = State.FINISHED;
+        undoLog_.clear();
+        final Event event = new Event(this, TYPE_COMPLETE);
+        event.initEvent(TYPE_COMPLETE, false, false);
+        executeEventLocally(event);
+
+        if (openRequest_ != null) {
+            db_.setVersionTransaction(null);
+            openRequest_.setTransaction(null);
+            openRequest_.succeed(db_);
+        }
+    }
+
+    private void abort(final IDBException error) {
+        state_ = State.ABORTED;
+        error_ = error == null ? null : error.toDOMException(getWindow());
+        db_.getBackingStore().rollback(undoLog_);
+        undoLog_.clear();
+        if (openRequest_ != null) {
+            db_.setVersionTransaction(null);
+        }
+    }
+
+    /**
+     * Aborts the transaction.
+     */
+    @JsxFunction
+    public void abort() {
+        if (state_ != State.ACTIVE) {
+            throw IDBException.invalidStateError("The transaction has finished.").toJavaScriptException(getWindow());
+        }
+        abort(null);
+    }
+
+    /**
+     * Returns the object store in the scope of this transaction.
+     * @param name the name
+     * @return the object store
+     */
+    @JsxFunction
+    public IDBObjectStore objectStore(final String name) {
+        if (state_ == State.FINISHED) {
+            throw IDBException.invalidStateError("The transaction has finished.").toJavaScriptException(getWindow());
+        }
+        final IDBBackingStore.StoreInfo info = db_.getBackingStore().getStore(name);
+        if (info == null || (!MODE_VERSIONCHANGE.equals(mode_) && !storeNames_.contains(name))) {
+            throw IDBException.notFoundError("The specified object store was not found.")
+                    .toJavaScriptException(getWindow());
+        }
+        return new IDBObjectStore(this, info);
+    }
+
+    /**
+     * @return the database
+     */
+    @JsxGetter
+    public IDBDatabase getDb() {
+        return db_;
+    }
+
+    /**
+     * @return the mode
+     */
+    @JsxGetter
+    public String getMode() {
+        return mode_;
+    }
+
+    /**
+     * @return the error
+     */
+    @JsxGetter
+    public DOMException getError() {
+        return error_;
+    }
+
+    /**
+     * @return the names of the object stores in the scope of this transaction
+     */
+    @JsxGetter
+    public DOMStringList getObjectStoreNames() {
+        if (MODE_VERSIONCHANGE.equals(mode_)) {
+            return new DOMStringList(getWindow(), db_.getBackingStore().getStoreNames());
+        }
+        return new DOMStringList(getWindow(), storeNames_);
+    }
+
+    /**
+     * Returns the {@code oncomplete} event handler.
+     * @return the {@code oncomplete} event handler
+     */
+    @JsxGetter
+    public Function getOncomplete() {
+        return getEventHandler(TYPE_COMPLETE);
+    }
+
+    /**
+     * Sets the {@code oncomplete} event handler.
+     * @param oncomplete the {@code oncomplete} event handler
+     */
+    @JsxSetter
+    public void setOncomplete(final Object oncomplete) {
+        setEventHandler(TYPE_COMPLETE, oncomplete);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Function getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param onerror the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object onerror) {
+        setEventHandler(Event.TYPE_ERROR, onerror);
+    }
+
+    /**
+     * Returns the {@code onabort} event handler.
+     * @return the {@code onabort} event handler
+     */
+    @JsxGetter
+    public Function getOnabort() {
+        return getEventHandler(TYPE_ABORT);
+    }
+
+    /**
+     * Sets the {@code onabort} event handler.
+     * @param onabort the {@code onabort} event handler
+     */
+    @JsxSetter
+    public void setOnabort(final Object onabort) {
+        setEventHandler(TYPE_ABORT, onabort);
+    }
+
+    private static final class Operation {
+        private final IDBRequest request_;
+        private final Supplier<Object> work_;
+
+        Operation(final IDBRequest request, final Supplier<Object> work) {
+            request_ = request;
+            work_ = work;
+        }
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default {@link KeyValueStoreBackend}, keeping all databases in memory.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class InMemoryKeyValueStoreBackend implements KeyValueStoreBackend {
+
+    private final Map<String, SkipListKeyValueStore> stores_ = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeyValueStore open(final String origin, final String name) {
+        return stores_.computeIfAbsent(origin + ' ' + name, k -> new SkipListKeyValueStore());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final String origin, final String name) {
+        stores_.remove(origin + ' ' + name);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * An ordered key value store holding one IndexedDB database. Keys are compared as
+ * unsigned byte sequences; the IndexedDB key encoding preserves the key order.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see KeyValueStoreBackend
+ */
+public interface KeyValueStore {
+
+    /**
+     * @param key the key
+     * @return the value or {@code null}
+     */
+    byte[] get(byte[] key);
+
+    /**
+     * Stores the value.
+     * @param key the key
+     * @param value the value
+     */
+    void put(byte[] key, byte[] value);
+
+    /**
+     * Removes the value.
+     * @param key the key
+     */
+    void remove(byte[] key);
+
+    /**
+     * @param key the key
+     * @return the entry with the least key greater than or equal to the given key, or {@code null}
+     */
+    Map.Entry<byte[], byte[]> ceilingEntry(byte[] key);
+
+    /**
+     * @param key the key
+     * @return the entry with the least key strictly greater than the given key, or {@code null}
+     */
+    Map.Entry<byte[], byte[]> higherEntry(byte[] key);
+
+    /**
+     * @param key the key
+     * @return the entry with the greatest key strictly less than the given key, or {@code null}
+     */
+    Map.Entry<byte[], byte[]> lowerEntry(byte[] key);
+
+    /**
+     * Releases the resources; the store must not be used anymore.
+     * @throws IOException in case of error
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Provides the {@link KeyValueStore}s of the IndexedDB databases.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see com.gargoylesoftware.htmlunit.StorageHolder#setIndexedDbBackend(KeyValueStoreBackend)
+ */
+public interface KeyValueStoreBackend extends Serializable {
+
+    /**
+     * Returns the store of a database, creating it if needed. All calls with the same
+     * origin and name have to return the same store (until it is deleted).
+     * @param origin the origin of the page
+     * @param name the database name
+     * @return the store
+     * @throws IOException in case of error
+     */
+    KeyValueStore open(String origin, String name) throws IOException;
+
+    /**
+     * Deletes a database.
+     * @param origin the origin of the page
+     * @param name the database name
+     * @throws IOException in case of error
+     */
+    void delete(String origin, String name) throws IOException;
+}
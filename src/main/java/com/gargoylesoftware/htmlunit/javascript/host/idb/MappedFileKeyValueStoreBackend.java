@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.gargoylesoftware.htmlunit.util.MappedLogFile;
+
+/**
+ * A {@link KeyValueStoreBackend} persisting every database in an append-only, memory mapped
+ * log file ({@link MappedLogFile}). A database is loaded (by replaying its log into a skip list)
+ * when it is opened the first time; logs containing mostly outdated records are compacted into
+ * a new generation of the file.
+ * <p>
+ * A log is locked as long as its database is open. Opening a database that is already in use by
+ * another instance (in this or another process) pointing to the same directory fails.
+ * <p>
+ * The backend may be shared by several {@link com.gargoylesoftware.htmlunit.WebClient}s;
+ * {@link #close()} it when done.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class MappedFileKeyValueStoreBackend implements KeyValueStoreBackend, Closeable {
+
+    private static final Log LOG = LogFactory.getLog(MappedFileKeyValueStoreBackend.class);
+
+    private static final String SUFFIX = ".idb";
+    private static final int MIN_COMPACTION_SIZE = 256 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final File directory_;
+    private transient Map<String, MappedStore> stores_ = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance.
+     * @param directory the directory for the database files; created if needed
+     */
+    public MappedFileKeyValueStoreBackend(final File directory) {
+        directory_ = directory;
+    }
+
+    /**
+     * @return the directory holding the database files
+     */
+    public File getDirectory() {
+        return directory_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeyValueStore open(final String origin, final String name) throws IOException {
+        try {
+            return stores_.computeIfAbsent(origin + ' ' + name, k -> {
+                try {
+                    return new MappedStore(getDirectory(origin), encode(name));
+                }
+                catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final String origin, final String name) throws IOException {
+        final MappedStore store = stores_.remove(origin + ' ' + name);
+        if (store != null) {
+            store.close();
+        }
+        MappedLogFile.delete(getDirectory(origin), encode(name), SUFFIX);
+    }
+
+    /**
+     * Forces all pending changes to the disk and releases the files.
+     * @throws IOException in case of error
+     */
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (final MappedStore store : stores_.values()) {
+            try {
+                store.close();
+            }
+            catch (final IOException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+                else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        stores_.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Copies all databases of this backend (the ones on the disk included) into a new
+     * {@link InMemoryKeyValueStoreBackend}; used by {@link com.gargoylesoftware.htmlunit.WebClientSnapshot}
+     * because the forks must not write to the same log files.
+     * @return the copy
+     * @throws IOException in case of error
+     */
+    public InMemoryKeyValueStoreBackend copyToMemory() throws IOException {
+        final InMemoryKeyValueStoreBackend copy = new InMemoryKeyValueStoreBackend();
+        final File[] origins = directory_.listFiles(File::isDirectory);
+        if (origins == null) {
+            return copy;
+        }
+        for (final File originDir : origins) {
+            final String origin = decode(originDir.getName());
+            for (final String encodedName : MappedLogFile.list(originDir, SUFFIX)) {
+                final String name = decode(encodedName);
+                final MappedStore store = (MappedStore) open(origin, name);
+                final KeyValueStore target = copy.open(origin, name);
+                synchronized (store) {
+                    for (final Map.Entry<byte[], byte[]> entry : store.getEntries().entrySet()) {
+                        target.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
+    private File getDirectory(final String origin) {
+        return new File(directory_, encode(origin));
+    }
+
+    private static String encode(final String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8").replace("*", "%2A");
+        }
+        catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(final String name) {
+        try {
+            return URLDecoder.decode(name, "UTF-8");
+        }
+        catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        stores_ = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A skip list writing every change to the log before applying it.
+     */
+    private static final class MappedStore extends SkipListKeyValueStore {
+        private transient MappedLogFile log_;
+        private long liveBytes_;
+
+        MappedStore(final File directory, final String name) throws IOException {
+            log_ = MappedLogFile.open(directory, name, SUFFIX);
+            try {
+                log_.replay(new StoreReplayer(getEntries()));
+            }
+            catch (final RuntimeException e) {
+                try {
+                    log_.close();
+                }
+                catch (final IOException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+            for (final Map.Entry<byte[], byte[]> entry : getEntries().entrySet()) {
+                liveBytes_ += MappedLogFile.recordSize(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public synchronized void put(final byte[] key, final byte[] value) {
+            final byte[] old = get(key);
+            append(PUT, key, value);
+            super.put(key, value);
+            liveBytes_ += MappedLogFile.recordSize(key, value);
+            if (old != null) {
+                liveBytes_ -= MappedLogFile.recordSize(key, old);
+            }
+            compactIfNeeded();
+        }
+
+        @Override
+        public synchronized void remove(final byte[] key) {
+            final byte[] old = get(key);
+            if (old == null) {
+                return;
+            }
+            append(REMOVE, key, null);
+            super.remove(key);
+            liveBytes_ -= MappedLogFile.recordSize(key, old);
+            compactIfNeeded();
+        }
+
+        /**
+         * Writes the record to the log; nothing is changed if this fails.
+         */
+        private void append(final byte op, final byte[] key, final byte[] value) {
+            if (log_ == null) {
+                throw new IllegalStateException("The database has been closed");
+            }
+            try {
+                log_.append(op, key, value);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes the live entries to the next generation of the log, if the outdated records
+         * take more than half of it. The current log stays in use if this fails; the change
+         * has already been written to it.
+         */
+        private void compactIfNeeded() {
+            final long length = log_.getLength();
+            if (length < MIN_COMPACTION_SIZE || length < 2 * (liveBytes_ + MappedLogFile.HEADER_SIZE)) {
+                return;
+            }
+
+            try {
+                log_ = log_.compact(getEntries().entrySet(), PUT);
+            }
+            catch (final IOException e) {
+                LOG.warn("Compacting database failed", e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (log_ != null) {
+                final MappedLogFile log = log_;
+                log_ = null;
+                log.close();
+            }
+        }
+    }
+
+    /**
+     * Replays the put and remove records of a log into a map.
+     */
+    private static final class StoreReplayer implements MappedLogFile.Replayer {
+        private final Map<byte[], byte[]> target_;
+
+        StoreReplayer(final Map<byte[], byte[]> target) {
+            target_ = target;
+        }
+
+        @Override
+        public int getFieldCount(final byte op) {
+            switch (op) {
+                case PUT:
+                    return 2;
+                case REMOVE:
+                    return 1;
+                default:
+                    return -1;
+            }
+        }
+
+        @Override
+        public void apply(final byte op, final byte[] key, final byte[] value, final int valueOffset) {
+            if (op == PUT) {
+                target_.put(key, value);
+            }
+            else {
+                target_.remove(key);
+            }
+        }
+    }
+}
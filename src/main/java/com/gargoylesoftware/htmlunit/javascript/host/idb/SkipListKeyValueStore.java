@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A {@link KeyValueStore} kept in a skip list.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class SkipListKeyValueStore implements KeyValueStore, Serializable {
+
+    /** Compares byte arrays as unsigned byte sequences. */
+    static final Comparator<byte[]> UNSIGNED_COMPARATOR = new UnsignedComparator();
+
+    private final ConcurrentSkipListMap<byte[], byte[]> entries_ = new ConcurrentSkipListMap<>(UNSIGNED_COMPARATOR);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] get(final byte[] key) {
+        return entries_.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final byte[] key, final byte[] value) {
+        entries_.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(final byte[] key) {
+        entries_.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<byte[], byte[]> ceilingEntry(final byte[] key) {
+        return entries_.ceilingEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<byte[], byte[]> higherEntry(final byte[] key) {
+        return entries_.higherEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<byte[], byte[]> lowerEntry(final byte[] key) {
+        return entries_.lowerEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        // nothing
+    }
+
+    /**
+     * @return the live entries
+     */
+    protected Map<byte[], byte[]> getEntries() {
+        return entries_;
+    }
+
+    private static final class UnsignedComparator implements Comparator<byte[]>, Serializable {
+        @Override
+        public int compare(final byte[] a, final byte[] b) {
+            final int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                final int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+    }
+}
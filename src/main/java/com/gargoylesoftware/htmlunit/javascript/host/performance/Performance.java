@@ -20,6 +20,13 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.IE;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.PageLoadTiming;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
@@ -27,6 +34,10 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 import com.gargoylesoftware.htmlunit.javascript.host.event.EventTarget;
 
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+
 /**
  * A JavaScript object for {@code Performance}.
  *
@@ -64,7 +75,8 @@ public class Performance extends EventTarget {
     @JsxGetter
     public PerformanceTiming getTiming() {
         if (timing_ == null) {
-            final PerformanceTiming timing = new PerformanceTiming();
+            final PerformanceTiming timing = new PerformanceTiming(getLoadTiming(),
+                    getWindow().getWebWindow().getWebClient().getJavaScriptClock());
             timing.setParentScope(getParentScope());
             timing.setPrototype(getPrototype(timing.getClass()));
             timing_ = timing;
@@ -73,11 +85,101 @@ public class Performance extends EventTarget {
         return timing_;
     }
 
+    /**
+     * Returns all performance entries; HtmlUnit only supports the 'resource' entries.
+     * @return the entries
+     */
+    @JsxFunction
+    public Scriptable getEntries() {
+        return toArray(getResourceTimings(null));
+    }
+
+    /**
+     * Returns the performance entries of the given type.
+     * @param type the entry type
+     * @return the entries
+     */
+    @JsxFunction
+    public Scriptable getEntriesByType(final String type) {
+        if (!"resource".equals(type)) {
+            return toArray(new ArrayList<>());
+        }
+        return toArray(getResourceTimings(null));
+    }
+
+    /**
+     * Returns the performance entries with the given name and optional type.
+     * @param name the entry name
+     * @param type the entry type
+     * @return the entries
+     */
+    @JsxFunction
+    public Scriptable getEntriesByName(final String name, final Object type) {
+        if (!Undefined.isUndefined(type) && !"resource".equals(Context.toString(type))) {
+            return toArray(new ArrayList<>());
+        }
+        return toArray(getResourceTimings(name));
+    }
+
+    /**
+     * Removes all resource timing entries.
+     */
+    @JsxFunction
+    public void clearResourceTimings() {
+        final PageLoadTiming loadTiming = getLoadTiming();
+        if (loadTiming != null) {
+            loadTiming.clearResources();
+        }
+    }
+
+    /**
+     * Sets the maximum number of resource timing entries kept.
+     * @param maxSize the new buffer size
+     */
+    @JsxFunction
+    public void setResourceTimingBufferSize(final int maxSize) {
+        final PageLoadTiming loadTiming = getLoadTiming();
+        if (loadTiming != null) {
+            loadTiming.setResourceBufferSize(maxSize);
+        }
+    }
+
+    private List<PerformanceEntry> getResourceTimings(final String name) {
+        final List<PerformanceEntry> entries = new ArrayList<>();
+        final PageLoadTiming loadTiming = getLoadTiming();
+        if (loadTiming == null) {
+            return entries;
+        }
+
+        final long timeOrigin = loadTiming.get(PageLoadTiming.Mark.NAVIGATION_START);
+        for (final ResourceTiming resource : loadTiming.getResources()) {
+            if (name == null || name.equals(resource.getName())) {
+                final PerformanceResourceTiming entry = new PerformanceResourceTiming(resource, timeOrigin);
+                entry.setParentScope(getParentScope());
+                entry.setPrototype(getPrototype(entry.getClass()));
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private Scriptable toArray(final List<PerformanceEntry> entries) {
+        return Context.getCurrentContext().newArray(getParentScope(), entries.toArray());
+    }
+
+    private PageLoadTiming getLoadTiming() {
+        final Page page = getWindow().getWebWindow().getEnclosedPage();
+        if (page instanceof HtmlPage) {
+            return ((HtmlPage) page).getLoadTiming();
+        }
+        return null;
+    }
+
     /**
      * @return a timestamp
      */
     @JsxFunction
     public double now() {
-        return System.nanoTime() / 1_000_000d;
+        return getWindow().getWebWindow().getWebClient().getJavaScriptClock().nanoTime() / 1_000_000d;
     }
 }
@@ -19,8 +19,10 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import com.gargoylesoftware.htmlunit.ResourceTiming;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
+import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 
 /**
  * A JavaScript object for {@code PerformanceResourceTiming}.
@@ -31,6 +33,12 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class PerformanceResourceTiming extends PerformanceEntry {
 
+    private String initiatorType_;
+    private double fetchStart_;
+    private double responseStart_;
+    private double responseEnd_;
+    private double transferSize_;
+
     /**
      * Creates an instance.
      */
@@ -38,4 +46,58 @@ public class PerformanceResourceTiming extends PerformanceEntry {
     public PerformanceResourceTiming() {
     }
 
+    /**
+     * Creates an instance.
+     * @param timing the resource timing
+     * @param timeOrigin the navigation start
+     */
+    PerformanceResourceTiming(final ResourceTiming timing, final long timeOrigin) {
+        super(timing.getName(), "resource", timing.getStartTime() - timeOrigin,
+                timing.getResponseEnd() - timing.getStartTime());
+        initiatorType_ = timing.getInitiatorType();
+        fetchStart_ = timing.getStartTime() - timeOrigin;
+        responseStart_ = timing.getResponseStart() - timeOrigin;
+        responseEnd_ = timing.getResponseEnd() - timeOrigin;
+        transferSize_ = timing.getTransferSize();
+    }
+
+    /**
+     * @return the initiator type
+     */
+    @JsxGetter
+    public String getInitiatorType() {
+        return initiatorType_;
+    }
+
+    /**
+     * @return the fetch start
+     */
+    @JsxGetter
+    public double getFetchStart() {
+        return fetchStart_;
+    }
+
+    /**
+     * @return the response start
+     */
+    @JsxGetter
+    public double getResponseStart() {
+        return responseStart_;
+    }
+
+    /**
+     * @return the response end
+     */
+    @JsxGetter
+    public double getResponseEnd() {
+        return responseEnd_;
+    }
+
+    /**
+     * @return the transfer size
+     */
+    @JsxGetter
+    public double getTransferSize() {
+        return transferSize_;
+    }
 }
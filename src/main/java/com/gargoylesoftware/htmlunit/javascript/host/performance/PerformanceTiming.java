@@ -19,14 +19,20 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import com.gargoylesoftware.htmlunit.PageLoadTiming;
+import com.gargoylesoftware.htmlunit.PageLoadTiming.Mark;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptClock;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 
 /**
  * A JavaScript object for {@code PerformanceTiming}.
- * This implementation is a simple mock for the moment.
+ * The values are taken from the {@link PageLoadTiming} of the page; if the page was not loaded
+ * by the {@link com.gargoylesoftware.htmlunit.WebClient} (e.g. about:blank) simulated values are used.
+ * DNS lookup and connect are not measured separately, they are reported as starting and ending
+ * with the fetch.
  *
  * @author Ahmed Ashour
  * @author Ronald Brill
@@ -52,12 +58,31 @@ public class PerformanceTiming extends SimpleScriptable {
     private final long navigationStart_;
     private final long fetchStart_;
 
+    private final PageLoadTiming loadTiming_;
+
     /**
      * Creates an instance.
      */
     @JsxConstructor({CHROME, EDGE, FF, FF68})
     public PerformanceTiming() {
-        final long now = System.currentTimeMillis();
+        this(null, JavaScriptClock.SYSTEM);
+    }
+
+    /**
+     * Creates an instance.
+     * @param loadTiming the timing of the page; if {@code null} or not containing the
+     *        navigation start, simulated values are used
+     * @param clock the clock providing the time for the simulated values
+     */
+    public PerformanceTiming(final PageLoadTiming loadTiming, final JavaScriptClock clock) {
+        if (loadTiming != null && loadTiming.get(Mark.NAVIGATION_START) > 0) {
+            loadTiming_ = loadTiming;
+        }
+        else {
+            loadTiming_ = null;
+        }
+
+        final long now = clock.currentTimeMillis();
 
         // simulate the fastest browser on earth
         domainLookupStart_ = now;
@@ -86,7 +111,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomainLookupStart() {
-        return domainLookupStart_;
+        return get(Mark.NAVIGATION_START, domainLookupStart_);
     }
 
     /**
@@ -94,7 +119,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomainLookupEnd() {
-        return domainLookupEnd_;
+        return get(Mark.NAVIGATION_START, domainLookupEnd_);
     }
 
     /**
@@ -102,7 +127,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getConnectStart() {
-        return connectStart_;
+        return get(Mark.NAVIGATION_START, connectStart_);
     }
 
     /**
@@ -110,7 +135,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getConnectEnd() {
-        return connectEnd_;
+        return get(Mark.NAVIGATION_START, connectEnd_);
     }
 
     /**
@@ -118,7 +143,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getResponseStart() {
-        return responseStart_;
+        return get(Mark.RESPONSE_START, responseStart_);
     }
 
     /**
@@ -126,7 +151,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getResponseEnd() {
-        return responseEnd_;
+        return get(Mark.RESPONSE_END, responseEnd_);
     }
 
     /**
@@ -174,7 +199,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomContentLoadedEventStart() {
-        return domContentLoadedEventStart_;
+        return get(Mark.DOM_CONTENT_LOADED_EVENT_START, domContentLoadedEventStart_);
     }
 
     /**
@@ -182,7 +207,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomLoading() {
-        return domLoading_;
+        return get(Mark.DOM_LOADING, domLoading_);
     }
 
     /**
@@ -190,7 +215,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomInteractive() {
-        return domInteractive_;
+        return get(Mark.DOM_INTERACTIVE, domInteractive_);
     }
 
     /**
@@ -198,7 +223,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomContentLoadedEventEnd() {
-        return domContentLoadedEventEnd_;
+        return get(Mark.DOM_CONTENT_LOADED_EVENT_END, domContentLoadedEventEnd_);
     }
 
     /**
@@ -206,7 +231,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getDomComplete() {
-        return domComplete_;
+        return get(Mark.DOM_COMPLETE, domComplete_);
     }
 
     /**
@@ -214,7 +239,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getLoadEventStart() {
-        return loadEventStart_;
+        return get(Mark.LOAD_EVENT_START, loadEventStart_);
     }
 
     /**
@@ -222,7 +247,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getLoadEventEnd() {
-        return loadEventEnd_;
+        return get(Mark.LOAD_EVENT_END, loadEventEnd_);
     }
 
     /**
@@ -230,7 +255,7 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getNavigationStart() {
-        return navigationStart_;
+        return get(Mark.NAVIGATION_START, navigationStart_);
     }
 
     /**
@@ -238,6 +263,13 @@ public class PerformanceTiming extends SimpleScriptable {
      */
     @JsxGetter
     public long getFetchStart() {
-        return fetchStart_;
+        return get(Mark.NAVIGATION_START, fetchStart_);
+    }
+
+    private long get(final Mark mark, final long simulated) {
+        if (loadTiming_ == null) {
+            return simulated;
+        }
+        return loadTiming_.get(mark);
     }
 }
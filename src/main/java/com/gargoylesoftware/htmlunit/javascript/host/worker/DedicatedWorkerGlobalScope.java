@@ -23,12 +23,14 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.ScriptException;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.WebResponse;
@@ -37,12 +39,14 @@ import com.gargoylesoftware.htmlunit.javascript.HtmlUnitScriptable;
 import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
 import com.gargoylesoftware.htmlunit.javascript.background.BasicJavaScriptJob;
 import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptJob;
+import com.gargoylesoftware.htmlunit.javascript.background.SystemJavaScriptClock;
 import com.gargoylesoftware.htmlunit.javascript.configuration.AbstractJavaScriptConfiguration;
 import com.gargoylesoftware.htmlunit.javascript.configuration.ClassConfiguration;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxGetter;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxSetter;
+import com.gargoylesoftware.htmlunit.javascript.host.DateCustom;
 import com.gargoylesoftware.htmlunit.javascript.host.Window;
 import com.gargoylesoftware.htmlunit.javascript.host.WindowOrWorkerGlobalScope;
 import com.gargoylesoftware.htmlunit.javascript.host.WindowOrWorkerGlobalScopeMixin;
@@ -56,12 +60,17 @@ import net.sourceforge.htmlunit.corejs.javascript.ContextAction;
 import net.sourceforge.htmlunit.corejs.javascript.ContextFactory;
 import net.sourceforge.htmlunit.corejs.javascript.Function;
 import net.sourceforge.htmlunit.corejs.javascript.Script;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
 import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
 import net.sourceforge.htmlunit.corejs.javascript.Undefined;
 
 /**
  * The scope for the execution of {@link Worker}s.
  *
+ * <p>If {@link com.gargoylesoftware.htmlunit.WebClientOptions#getWebWorkerThreads()} is greater than zero,
+ * the worker has its own {@link WorkerEventLoop} and runs in parallel to the page; otherwise all the
+ * work is done by the job manager of the owning window.</p>
+ *
  * @author Marc Guillemot
  * @author Ronald Brill
  * @author Rural Hunter
@@ -74,6 +83,9 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
     private final Window owningWindow_;
     private final String origin_;
     private final Worker worker_;
+    private final HtmlPage owningPage_;
+    private final WorkerEventLoop eventLoop_;
+    private final Scriptable messageEventPrototype_;
 
     /**
      * For prototype instantiation.
@@ -83,6 +95,9 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
         owningWindow_ = null;
         origin_ = null;
         worker_ = null;
+        owningPage_ = null;
+        eventLoop_ = null;
+        messageEventPrototype_ = null;
     }
 
     /**
@@ -111,6 +126,31 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
         origin_ = currentURL.getProtocol() + "://" + currentURL.getHost() + ':' + currentURL.getPort();
 
         worker_ = worker;
+        owningPage_ = (HtmlPage) owningWindow.getDocument().getPage();
+
+        final WebClient webClient = owningWindow.getWebWindow().getWebClient();
+        if (!(webClient.getJavaScriptClock() instanceof SystemJavaScriptClock)) {
+            DateCustom.installClock(this, webClient.getJavaScriptClock());
+        }
+
+        if (webClient.getOptions().getWebWorkerThreads() > 0) {
+            final ContextFactory cf = ((JavaScriptEngine) webClient.getJavaScriptEngine()).getContextFactory();
+            eventLoop_ = new WorkerEventLoop(webClient.getWorkerExecutor(), cf, this::handleError,
+                    webClient.getInternals());
+
+            // the events received by the worker thread must not use the prototypes of the window
+            config = AbstractJavaScriptConfiguration.getClassConfiguration(Event.class, browserVersion);
+            final HtmlUnitScriptable eventPrototype = JavaScriptEngine.configureClass(config, this, browserVersion);
+            config = AbstractJavaScriptConfiguration.getClassConfiguration(MessageEvent.class, browserVersion);
+            final HtmlUnitScriptable messageEventPrototype =
+                    JavaScriptEngine.configureClass(config, this, browserVersion);
+            messageEventPrototype.setPrototype(eventPrototype);
+            messageEventPrototype_ = messageEventPrototype;
+        }
+        else {
+            eventLoop_ = null;
+            messageEventPrototype_ = null;
+        }
     }
 
     /**
@@ -168,20 +208,20 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
      */
     @JsxFunction
     public void postMessage(final Object message) {
-        final MessageEvent event = new MessageEvent();
-        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
-                                    owningWindow_, Undefined.instance);
-        event.setParentScope(owningWindow_);
-        event.setPrototype(owningWindow_.getPrototype(event.getClass()));
-
         if (LOG.isDebugEnabled()) {
             LOG.debug("[DedicatedWorker] postMessage: {}" + message);
         }
-        final JavaScriptEngine jsEngine =
-                (JavaScriptEngine) owningWindow_.getWebWindow().getWebClient().getJavaScriptEngine();
+
+        // running in parallel, the message has to be cloned; the window side objects
+        // are created by the job, running on the thread of the window
+        final Object data = eventLoop_ == null ? message : StructuredClone.serialize(message);
+        final JavaScriptEngine jsEngine = (JavaScriptEngine) owningPage_.getWebClient().getJavaScriptEngine();
         final ContextAction<Object> action = new ContextAction<Object>() {
             @Override
             public Object run(final Context cx) {
+                final Object received =
+                        eventLoop_ == null ? data : StructuredClone.deserialize(cx, owningWindow_, data);
+                final MessageEvent event = createMessageEvent(received);
                 worker_.getEventListenersContainer().executeCapturingListeners(event, null);
                 final Object[] args = {event};
                 worker_.getEventListenersContainer().executeBubblingListeners(event, args);
@@ -193,16 +233,20 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
 
         final JavaScriptJob job = new WorkerJob(cf, action, "postMessage: " + Context.toString(message));
 
-        final HtmlPage page = (HtmlPage) owningWindow_.getDocument().getPage();
-        owningWindow_.getWebWindow().getJobManager().addJob(job, page);
+        owningPage_.getEnclosingWindow().getJobManager().addJob(job, owningPage_);
     }
 
     void messagePosted(final Object message) {
-        final MessageEvent event = new MessageEvent();
-        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
-                                    owningWindow_, Undefined.instance);
-        event.setParentScope(owningWindow_);
-        event.setPrototype(owningWindow_.getPrototype(event.getClass()));
+        if (eventLoop_ != null) {
+            final Object data = StructuredClone.serialize(message);
+            post(cx -> {
+                executeEvent(cx, createWorkerMessageEvent(StructuredClone.deserialize(cx, this, data)));
+                return null;
+            });
+            return;
+        }
+
+        final MessageEvent event = createMessageEvent(message);
 
         final JavaScriptEngine jsEngine =
                 (JavaScriptEngine) owningWindow_.getWebWindow().getWebClient().getJavaScriptEngine();
@@ -222,6 +266,60 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
         owningWindow_.getWebWindow().getJobManager().addJob(job, page);
     }
 
+    private MessageEvent createMessageEvent(final Object message) {
+        final MessageEvent event = new MessageEvent();
+        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
+                                    owningWindow_, Undefined.instance);
+        event.setParentScope(owningWindow_);
+        event.setPrototype(owningWindow_.getPrototype(event.getClass()));
+        return event;
+    }
+
+    /**
+     * Creates the event for a message received by the worker running in parallel;
+     * the event lives in the scope of the worker (like the source in real browsers, which is null).
+     */
+    private MessageEvent createWorkerMessageEvent(final Object message) {
+        final MessageEvent event = new MessageEvent();
+        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
+                                    null, Undefined.instance);
+        event.setParentScope(this);
+        event.setPrototype(messageEventPrototype_);
+        return event;
+    }
+
+    private void post(final ContextAction<Object> action) {
+        eventLoop_.post(guard(action));
+    }
+
+    /**
+     * Wraps the given task for the event loop of this worker; the task is skipped and the loop
+     * terminated if the owning page is no longer active.
+     * @param action the task
+     * @return the wrapped task
+     */
+    private ContextAction<Object> guard(final ContextAction<Object> action) {
+        return cx -> {
+            if (owningPage_ != owningPage_.getEnclosingWindow().getEnclosedPage()) {
+                eventLoop_.terminate();
+                return null;
+            }
+            return action.run(cx);
+        };
+    }
+
+    private void handleError(final RuntimeException e) {
+        final ScriptException scriptException;
+        if (e instanceof ScriptException) {
+            scriptException = (ScriptException) e;
+        }
+        else {
+            scriptException = new ScriptException(owningPage_, e);
+        }
+        LOG.info("Exception in worker", scriptException);
+        owningPage_.getWebClient().getJavaScriptErrorListener().scriptException(owningPage_, scriptException);
+    }
+
     void executeEvent(final Context cx, final MessageEvent event) {
         final List<Scriptable> handlers = getEventListenersContainer().getListeners(Event.TYPE_MESSAGE, false);
         if (handlers != null) {
@@ -254,7 +352,7 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
         final Object[] args, final Function funObj) throws IOException {
         final DedicatedWorkerGlobalScope scope = (DedicatedWorkerGlobalScope) thisObj;
 
-        final WebClient webClient = scope.owningWindow_.getWebWindow().getWebClient();
+        final WebClient webClient = scope.owningPage_.getWebClient();
         final boolean checkContentType = !webClient.getBrowserVersion()
                 .hasFeature(JS_WORKER_IMPORT_SCRIPTS_ACCEPTS_ALL);
 
@@ -266,7 +364,21 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
 
     void loadAndExecute(final WebClient webClient, final String url,
             final Context context, final boolean checkMimeType) throws IOException {
-        final HtmlPage page = (HtmlPage) owningWindow_.getDocument().getPage();
+        if (eventLoop_ != null && context == null) {
+            // load and execute using the event loop of the worker
+            post(cx -> {
+                try {
+                    loadAndExecute(webClient, url, cx, checkMimeType);
+                }
+                catch (final IOException e) {
+                    throw Context.throwAsScriptRuntimeEx(e);
+                }
+                return null;
+            });
+            return;
+        }
+
+        final HtmlPage page = owningPage_;
         final URL fullUrl = page.getFullyQualifiedUrl(url);
 
         final WebRequest webRequest = new WebRequest(fullUrl);
@@ -277,6 +389,13 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
         }
 
         final String scriptCode = response.getContentAsString();
+        if (eventLoop_ != null) {
+            // running in parallel; the page must not be locked
+            final Script script = context.compileString(scriptCode, fullUrl.toExternalForm(), 1, null);
+            script.exec(context, this);
+            return;
+        }
+
         final JavaScriptEngine javaScriptEngine = (JavaScriptEngine) webClient.getJavaScriptEngine();
 
         final DedicatedWorkerGlobalScope thisScope = this;
@@ -318,6 +437,10 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
     @JsxFunction
     public static Object setTimeout(final Context context, final Scriptable thisObj,
             final Object[] args, final Function function) {
+        final DedicatedWorkerGlobalScope scope = (DedicatedWorkerGlobalScope) thisObj;
+        if (scope.eventLoop_ != null) {
+            return scope.setTimer(args, true);
+        }
         return WindowOrWorkerGlobalScopeMixin.setTimeout(context,
                 ((DedicatedWorkerGlobalScope) thisObj).owningWindow_, args, function);
     }
@@ -336,9 +459,71 @@ public class DedicatedWorkerGlobalScope extends EventTarget implements WindowOrW
     @JsxFunction
     public static Object setInterval(final Context context, final Scriptable thisObj,
             final Object[] args, final Function function) {
+        final DedicatedWorkerGlobalScope scope = (DedicatedWorkerGlobalScope) thisObj;
+        if (scope.eventLoop_ != null) {
+            return scope.setTimer(args, false);
+        }
         return WindowOrWorkerGlobalScopeMixin.setInterval(context,
                 ((DedicatedWorkerGlobalScope) thisObj).owningWindow_, args, function);
     }
+
+    private int setTimer(final Object[] args, final boolean isTimeout) {
+        if (args.length < 1) {
+            throw ScriptRuntime.typeError("Function not provided");
+        }
+
+        final int timeout = Math.max(1, ScriptRuntime.toInt32((args.length > 1) ? args[1] : Undefined.instance));
+        final Object[] params = (args.length > 2)
+                ? Arrays.copyOfRange(args, 2, args.length)
+                : ScriptRuntime.emptyArgs;
+
+        final ContextAction<Object> action;
+        if (args[0] instanceof Function) {
+            final Function function = (Function) args[0];
+            action = cx -> function.call(cx, this, this, params);
+        }
+        else {
+            final String source = Context.toString(args[0]);
+            action = cx -> cx.evaluateString(this, source, "worker timer", 1, null);
+        }
+        return eventLoop_.schedule(guard(action), timeout, !isTimeout);
+    }
+
+    /**
+     * Cancels a time-out previously set with the
+     * {@link #setTimeout(Context, Scriptable, Object[], Function)} method.
+     *
+     * @param timeoutId identifier for the timeout to clear
+     *        as returned by {@link #setTimeout(Context, Scriptable, Object[], Function)}
+     */
+    @JsxFunction
+    public void clearTimeout(final int timeoutId) {
+        clearTimer(timeoutId);
+    }
+
+    /**
+     * Cancels the interval previously started using the
+     * {@link #setInterval(Context, Scriptable, Object[], Function)} method.
+     *
+     * @param intervalId specifies the interval to cancel as returned by the
+     *        {@link #setInterval(Context, Scriptable, Object[], Function)} method
+     */
+    @JsxFunction
+    public void clearInterval(final int intervalId) {
+        clearTimer(intervalId);
+    }
+
+    private void clearTimer(final int id) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[DedicatedWorker] clear timer " + id);
+        }
+        if (eventLoop_ != null) {
+            eventLoop_.cancel(id);
+        }
+        else {
+            owningPage_.getEnclosingWindow().getJobManager().removeJob(id);
+        }
+    }
 }
 
 class WorkerJob extends BasicJavaScriptJob {
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.worker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.Function;
+import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
+import net.sourceforge.htmlunit.corejs.javascript.NativeObject;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptRuntime;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ * The structured clone algorithm used to pass messages between a page and its workers
+ * and to store values in the IndexedDB.
+ *
+ * <p>The value is first converted into a representation that is independent from any scope
+ * (this is done by the sender), and later materialized in the scope of the receiver. This
+ * allows to pass messages between scopes running on different threads.</p>
+ *
+ * <p>Supported are primitive values, strings, arrays, plain objects, dates and array buffers;
+ * cyclic references are preserved.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class StructuredClone {
+
+    private static final byte UNDEFINED = 0;
+    private static final byte NULL = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte NUMBER = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte OBJECT = 7;
+    private static final byte DATE = 8;
+    private static final byte ARRAY_BUFFER = 9;
+    private static final byte REFERENCE = 10;
+
+    private StructuredClone() {
+    }
+
+    /**
+     * Converts the given JavaScript value into a scope independent representation.
+     * @param value the value to serialize
+     * @return the serialized value
+     */
+    public static Object serialize(final Object value) {
+        return serialize(value, new IdentityHashMap<>());
+    }
+
+    private static Object serialize(final Object value, final Map<Object, Object> memory) {
+        if (value == null || value == Undefined.instance
+                || value instanceof Boolean || value instanceof Number || value instanceof String) {
+            return value;
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+
+        final Object known = memory.get(value);
+        if (known != null) {
+            return known;
+        }
+
+        if (value instanceof NativeArray) {
+            // only the present elements are copied; holes stay holes and sparse arrays stay small
+            final NativeArray array = (NativeArray) value;
+            final ArrayRecord record = new ArrayRecord(array.getLength());
+            memory.put(value, record);
+            serializeProperties(array, record, memory);
+            return record;
+        }
+        if (value instanceof NativeArrayBuffer) {
+            final byte[] bytes = ((NativeArrayBuffer) value).getBuffer();
+            final ArrayBufferRecord record = new ArrayBufferRecord(bytes.clone());
+            memory.put(value, record);
+            return record;
+        }
+        if (value instanceof ScriptableObject && "Date".equals(((ScriptableObject) value).getClassName())) {
+            final Object time = ScriptableObject.callMethod((Scriptable) value, "getTime", ScriptRuntime.emptyArgs);
+            final DateRecord record = new DateRecord(ScriptRuntime.toNumber(time));
+            memory.put(value, record);
+            return record;
+        }
+        if (value instanceof NativeObject) {
+            final ObjectRecord record = new ObjectRecord();
+            memory.put(value, record);
+            serializeProperties((NativeObject) value, record, memory);
+            return record;
+        }
+
+        final String type;
+        if (value instanceof Function) {
+            type = "function";
+        }
+        else if (value instanceof ScriptableObject) {
+            type = ((ScriptableObject) value).getClassName();
+        }
+        else {
+            type = value.getClass().getSimpleName();
+        }
+        throw Context.reportRuntimeError("DataCloneError: " + type + " could not be cloned.");
+    }
+
+    private static void serializeProperties(final ScriptableObject object, final ObjectRecord record,
+            final Map<Object, Object> memory) {
+        for (final Object id : object.getIds()) {
+            final Object property;
+            if (id instanceof Integer) {
+                property = object.get(((Integer) id).intValue(), object);
+            }
+            else {
+                property = object.get(id.toString(), object);
+            }
+            if (property != Scriptable.NOT_FOUND) {
+                record.properties_.put(id, serialize(property, memory));
+            }
+        }
+    }
+
+    /**
+     * Materializes a value created by {@link #serialize(Object)} in the given scope.
+     * @param cx the current context
+     * @param scope the scope of the receiver
+     * @param value the serialized value
+     * @return the JavaScript value
+     */
+    public static Object deserialize(final Context cx, final Scriptable scope, final Object value) {
+        return deserialize(cx, scope, value, new IdentityHashMap<>());
+    }
+
+    private static Object deserialize(final Context cx, final Scriptable scope, final Object value,
+            final Map<Object, Object> memory) {
+        if (!(value instanceof Record)) {
+            return value;
+        }
+
+        final Object known = memory.get(value);
+        if (known != null) {
+            return known;
+        }
+
+        if (value instanceof ArrayRecord) {
+            final Scriptable array = cx.newArray(scope, 0);
+            ScriptableObject.putProperty(array, "length", Double.valueOf(((ArrayRecord) value).length_));
+            memory.put(value, array);
+            deserializeProperties(cx, scope, (ArrayRecord) value, array, memory);
+            return array;
+        }
+        if (value instanceof ArrayBufferRecord) {
+            final byte[] bytes = ((ArrayBufferRecord) value).bytes_;
+            final NativeArrayBuffer buffer = new NativeArrayBuffer(bytes.length);
+            System.arraycopy(bytes, 0, buffer.getBuffer(), 0, bytes.length);
+            buffer.setParentScope(scope);
+            buffer.setPrototype(ScriptableObject.getClassPrototype(scope, buffer.getClassName()));
+            memory.put(value, buffer);
+            return buffer;
+        }
+        if (value instanceof DateRecord) {
+            final Scriptable date = cx.newObject(scope, "Date", new Object[] {((DateRecord) value).time_});
+            memory.put(value, date);
+            return date;
+        }
+
+        final Scriptable object = cx.newObject(scope);
+        memory.put(value, object);
+        deserializeProperties(cx, scope, (ObjectRecord) value, object, memory);
+        return object;
+    }
+
+    private static void deserializeProperties(final Context cx, final Scriptable scope, final ObjectRecord record,
+            final Scriptable object, final Map<Object, Object> memory) {
+        for (final Map.Entry<Object, Object> entry : record.properties_.entrySet()) {
+            final Object id = entry.getKey();
+            final Object property = deserialize(cx, scope, entry.getValue(), memory);
+            if (id instanceof Integer) {
+                object.put(((Integer) id).intValue(), object, property);
+            }
+            else {
+                object.put(id.toString(), object, property);
+            }
+        }
+    }
+
+    /**
+     * Writes a value created by {@link #serialize(Object)} as bytes.
+     * @param value the serialized value
+     * @return the bytes
+     */
+    public static byte[] toBytes(final Object value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, value, new IdentityHashMap<>());
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(final DataOutputStream out, final Object value, final Map<Object, Integer> memory)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        }
+        else if (value == Undefined.instance) {
+            out.writeByte(UNDEFINED);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte(((Boolean) value).booleanValue() ? TRUE : FALSE);
+        }
+        else if (value instanceof Number) {
+            out.writeByte(NUMBER);
+            out.writeDouble(((Number) value).doubleValue());
+        }
+        else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        }
+        else {
+            final Integer known = memory.get(value);
+            if (known != null) {
+                out.writeByte(REFERENCE);
+                out.writeInt(known);
+                return;
+            }
+            memory.put(value, memory.size());
+
+            if (value instanceof ArrayRecord) {
+                out.writeByte(ARRAY);
+                out.writeLong(((ArrayRecord) value).length_);
+                writeProperties(out, (ArrayRecord) value, memory);
+            }
+            else if (value instanceof ArrayBufferRecord) {
+                final byte[] buffer = ((ArrayBufferRecord) value).bytes_;
+                out.writeByte(ARRAY_BUFFER);
+                out.writeInt(buffer.length);
+                out.write(buffer);
+            }
+            else if (value instanceof DateRecord) {
+                out.writeByte(DATE);
+                out.writeDouble(((DateRecord) value).time_);
+            }
+            else {
+                out.writeByte(OBJECT);
+                writeProperties(out, (ObjectRecord) value, memory);
+            }
+        }
+    }
+
+    private static void writeProperties(final DataOutputStream out, final ObjectRecord record,
+            final Map<Object, Integer> memory) throws IOException {
+        final Map<Object, Object> properties = record.properties_;
+        out.writeInt(properties.size());
+        for (final Map.Entry<Object, Object> entry : properties.entrySet()) {
+            final Object id = entry.getKey();
+            if (id instanceof Integer) {
+                out.writeBoolean(true);
+                out.writeInt((Integer) id);
+            }
+            else {
+                out.writeBoolean(false);
+                writeString(out, id.toString());
+            }
+            write(out, entry.getValue(), memory);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeInt(value.length());
+        out.writeChars(value);
+    }
+
+    /**
+     * Reads the bytes written by {@link #toBytes(Object)}. The result has to be
+     * materialized using {@link #deserialize(Context, Scriptable, Object)}.
+     * @param bytes the bytes
+     * @param offset the start of the value
+     * @param length the length of the value
+     * @return the serialized value
+     */
+    public static Object fromBytes(final byte[] bytes, final int offset, final int length) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return read(in, new ArrayList<>());
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object read(final DataInputStream in, final List<Object> memory) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case UNDEFINED:
+                return Undefined.instance;
+
+            case NULL:
+                return null;
+
+            case TRUE:
+                return Boolean.TRUE;
+
+            case FALSE:
+                return Boolean.FALSE;
+
+            case NUMBER:
+                return in.readDouble();
+
+            case STRING:
+                return readString(in);
+
+            case REFERENCE:
+                return memory.get(in.readInt());
+
+            case ARRAY:
+                final ArrayRecord array = new ArrayRecord(in.readLong());
+                memory.add(array);
+                readProperties(in, array, memory);
+                return array;
+
+            case ARRAY_BUFFER:
+                final byte[] buffer = new byte[in.readInt()];
+                in.readFully(buffer);
+                final ArrayBufferRecord arrayBuffer = new ArrayBufferRecord(buffer);
+                memory.add(arrayBuffer);
+                return arrayBuffer;
+
+            case DATE:
+                final DateRecord date = new DateRecord(in.readDouble());
+                memory.add(date);
+                return date;
+
+            case OBJECT:
+                final ObjectRecord object = new ObjectRecord();
+                memory.add(object);
+                readProperties(in, object, memory);
+                return object;
+
+            default:
+                throw new IOException("Unknown type " + type);
+        }
+    }
+
+    private static void readProperties(final DataInputStream in, final ObjectRecord record,
+            final List<Object> memory) throws IOException {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final Object id;
+            if (in.readBoolean()) {
+                id = in.readInt();
+            }
+            else {
+                id = readString(in);
+            }
+            record.properties_.put(id, read(in, memory));
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final char[] chars = new char[in.readInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+
+    private interface Record {
+    }
+
+    private static class ObjectRecord implements Record {
+        private final Map<Object, Object> properties_ = new LinkedHashMap<>();
+    }
+
+    /**
+     * An array; only the present elements are stored in the properties.
+     */
+    private static final class ArrayRecord extends ObjectRecord {
+        private final long length_;
+
+        ArrayRecord(final long length) {
+            length_ = length;
+        }
+    }
+
+    private static final class DateRecord implements Record {
+        private final double time_;
+
+        DateRecord(final double time) {
+            time_ = time;
+        }
+    }
+
+    private static final class ArrayBufferRecord implements Record {
+        private final byte[] bytes_;
+
+        ArrayBufferRecord(final byte[] bytes) {
+            bytes_ = bytes;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.worker;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.gargoylesoftware.htmlunit.WebClientInternals;
+
+import net.sourceforge.htmlunit.corejs.javascript.ContextAction;
+import net.sourceforge.htmlunit.corejs.javascript.ContextFactory;
+
+/**
+ * The event loop of a {@link DedicatedWorkerGlobalScope} running in parallel to the page.
+ *
+ * <p>The tasks of one worker are executed one after the other (never in parallel), but the
+ * threads are taken from a pool shared by all workers of the web client. Every task runs
+ * in its own {@link net.sourceforge.htmlunit.corejs.javascript.Context} on the pool thread.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class WorkerEventLoop {
+
+    private static final Log LOG = LogFactory.getLog(WorkerEventLoop.class);
+
+    private final ScheduledExecutorService executor_;
+    private final ContextFactory contextFactory_;
+    private final Consumer<RuntimeException> errorHandler_;
+    private final WebClientInternals internals_;
+
+    private final Queue<ContextAction<Object>> tasks_ = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running_ = new AtomicBoolean();
+    private final Map<Integer, Future<?>> timers_ = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTimerId_ = new AtomicInteger(1);
+    private volatile boolean terminated_;
+
+    /**
+     * Ctor.
+     * @param executor the pool providing the threads
+     * @param contextFactory the factory for the contexts
+     * @param errorHandler called for exceptions thrown by the tasks
+     * @param internals the internals of the web client, every queued task is registered as background activity
+     */
+    WorkerEventLoop(final ScheduledExecutorService executor, final ContextFactory contextFactory,
+            final Consumer<RuntimeException> errorHandler, final WebClientInternals internals) {
+        executor_ = executor;
+        contextFactory_ = contextFactory;
+        errorHandler_ = errorHandler;
+        internals_ = internals;
+    }
+
+    /**
+     * Adds a task to the end of the queue.
+     * @param task the task
+     */
+    void post(final ContextAction<Object> task) {
+        if (terminated_) {
+            return;
+        }
+        internals_.beginBackgroundActivity();
+        tasks_.add(task);
+        scheduleNextTask();
+    }
+
+    /**
+     * Adds a task to the queue after the given delay.
+     * @param task the task
+     * @param delay the delay in milliseconds
+     * @param repeat whether the task should be added again every {@code delay} milliseconds
+     * @return the id of the timer
+     */
+    int schedule(final ContextAction<Object> task, final long delay, final boolean repeat) {
+        final int id = nextTimerId_.getAndIncrement();
+        if (terminated_) {
+            return id;
+        }
+
+        final Integer key = Integer.valueOf(id);
+        final Runnable timer = () -> {
+            if (!repeat) {
+                timers_.remove(key);
+            }
+            post(task);
+        };
+        try {
+            if (repeat) {
+                timers_.put(key, executor_.scheduleAtFixedRate(timer, delay, delay, TimeUnit.MILLISECONDS));
+            }
+            else {
+                timers_.put(key, executor_.schedule(timer, delay, TimeUnit.MILLISECONDS));
+            }
+        }
+        catch (final RejectedExecutionException e) {
+            // the web client was closed
+            terminate();
+        }
+        return id;
+    }
+
+    /**
+     * Cancels a timer.
+     * @param id the id of the timer
+     */
+    void cancel(final int id) {
+        final Future<?> timer = timers_.remove(Integer.valueOf(id));
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Stops this loop, pending tasks and timers are discarded.
+     */
+    void terminate() {
+        terminated_ = true;
+        while (tasks_.poll() != null) {
+            internals_.endBackgroundActivity();
+        }
+        for (final Future<?> timer : timers_.values()) {
+            timer.cancel(false);
+        }
+        timers_.clear();
+    }
+
+    private void scheduleNextTask() {
+        if (tasks_.isEmpty() || !running_.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor_.execute(this::runNextTask);
+        }
+        catch (final RejectedExecutionException e) {
+            // the web client was closed
+            running_.set(false);
+            terminate();
+        }
+    }
+
+    /**
+     * Runs only one task and gives the thread back to the pool;
+     * this way all workers get their chance even if the pool is smaller than the number of workers.
+     */
+    private void runNextTask() {
+        final ContextAction<Object> task = tasks_.poll();
+        try {
+            if (task != null && !terminated_) {
+                contextFactory_.call(task);
+            }
+        }
+        catch (final RuntimeException e) {
+            errorHandler_.accept(e);
+        }
+        catch (final Error e) {
+            LOG.error("Error in worker " + e.getMessage(), e);
+            terminate();
+        }
+        finally {
+            if (task != null) {
+                internals_.endBackgroundActivity();
+            }
+            running_.set(false);
+            scheduleNextTask();
+        }
+    }
+}
@@ -149,13 +149,27 @@ public class FormData extends SimpleScriptable {
                     contentType = MimeType.APPLICATION_OCTET_STREAM;
                 }
             }
-            requestParameters_.add(new KeyDataPair(name, file.getFile(), fileName, contentType, (Charset) null));
+            requestParameters_.add(createFilePair(name, file, fileName, contentType));
         }
         else {
             requestParameters_.add(new NameValuePair(name, Context.toString(value)));
         }
     }
 
+    private static KeyDataPair createFilePair(final String name, final File file,
+            final String fileName, final String contentType) {
+        final java.io.File ioFile = file.getFile();
+        if (ioFile != null) {
+            return new KeyDataPair(name, ioFile, fileName, contentType, (Charset) null);
+        }
+
+        // created by JavaScript, stream the content of the blob
+        final KeyDataPair pair = new KeyDataPair(name, null,
+                fileName == null ? file.getName() : fileName, contentType, (Charset) null);
+        pair.setDataSupplier(file.getDataSupplier());
+        return pair;
+    }
+
     /**
      * Removes the entry (if exists).
      * @param name the name of the field to remove
@@ -276,8 +290,7 @@ public class FormData extends SimpleScriptable {
             if (filename instanceof String) {
                 fileName = (String) filename;
             }
-            requestParameters_.add(pos,
-                    new KeyDataPair(name, file.getFile(), fileName, file.getType(), (Charset) null));
+            requestParameters_.add(pos, createFilePair(name, file, fileName, file.getType()));
         }
         else {
             requestParameters_.add(pos, new NameValuePair(name, Context.toString(value)));
@@ -44,6 +44,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -54,6 +56,7 @@ import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.FormEncodingType;
 import com.gargoylesoftware.htmlunit.HttpHeader;
 import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.ResourceTiming;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebRequest;
 import com.gargoylesoftware.htmlunit.WebRequest.HttpHint;
@@ -618,6 +621,11 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
                 setState(OPENED, Context.getCurrentContext());
             }
 
+            if (client.getOptions().isXhrBackgroundLoading()) {
+                sendInBackground(client, page);
+                return;
+            }
+
             // Create and start a thread in which to execute the request.
             final Scriptable startingScope = w;
             final ContextFactory cf = ((JavaScriptEngine) client.getJavaScriptEngine()).getContextFactory();
@@ -657,6 +665,92 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
         }
     }
 
+    /**
+     * Loads the response using the executor of the web client; only the processing of the
+     * response (the event handlers) is done as job of the event loop, when the response is available.
+     * @param client the web client
+     * @param page the page sending the request
+     */
+    private void sendInBackground(final WebClient client, final HtmlPage page) {
+        final WebWindow ww = getWindow().getWebWindow();
+        final WebRequest webRequest = webRequest_;
+        final CompletableFuture<WebResponse> responseFuture = new CompletableFuture<>();
+
+        final Scriptable startingScope = getWindow();
+        final ContextFactory cf = ((JavaScriptEngine) client.getJavaScriptEngine()).getContextFactory();
+        final ContextAction<Object> action = new ContextAction<Object>() {
+            @Override
+            public Object run(final Context cx) {
+                // KEY_STARTING_SCOPE maintains a stack of scopes
+                @SuppressWarnings("unchecked")
+                Deque<Scriptable> stack =
+                        (Deque<Scriptable>) cx.getThreadLocal(JavaScriptEngine.KEY_STARTING_SCOPE);
+                if (null == stack) {
+                    stack = new ArrayDeque<>();
+                    cx.putThreadLocal(JavaScriptEngine.KEY_STARTING_SCOPE, stack);
+                }
+                stack.push(startingScope);
+
+                try {
+                    WebResponse webResponse = null;
+                    IOException ioException = null;
+                    try {
+                        webResponse = responseFuture.get();
+                    }
+                    catch (final ExecutionException e) {
+                        final Throwable cause = e.getCause();
+                        if (cause instanceof IOException) {
+                            ioException = (IOException) cause;
+                        }
+                        else if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        else {
+                            throw new RuntimeException(cause);
+                        }
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                    processResponse(cx, webResponse, ioException);
+                }
+                finally {
+                    stack.pop();
+                }
+                return null;
+            }
+
+            @Override
+            public String toString() {
+                return "XMLHttpRequest " + webRequest.getHttpMethod() + " '" + webRequest.getUrl() + "'";
+            }
+        };
+        final JavaScriptJob job = BackgroundJavaScriptFactory.theFactory().
+                createJavascriptXMLHttpRequestJob(cf, action);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Starting background loading for asynchronous request");
+        }
+        jobID_ = ww.getJobManager().addJob(job, page, responseFuture);
+        if (jobID_ == 0) {
+            // the page is gone, no need to send the request
+            return;
+        }
+
+        client.getExecutor().execute(() -> {
+            try {
+                final WebResponse webResponse = loadResponse(client, webRequest);
+                if (!responseFuture.complete(webResponse)) {
+                    // the job was cancelled in the meantime
+                    webResponse.cleanUp();
+                }
+            }
+            catch (final Throwable e) {
+                responseFuture.completeExceptionally(e);
+            }
+        });
+    }
+
     /**
      * Prepares the WebRequest that will be sent.
      * @param content the content to send
@@ -708,51 +802,93 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
      */
     void doSend(final Context context) {
         final WebClient wc = getWindow().getWebWindow().getWebClient();
+        WebResponse webResponse = null;
+        IOException ioException = null;
         try {
-            final String originHeaderValue = webRequest_.getAdditionalHeaders().get(HttpHeader.ORIGIN);
-            if (originHeaderValue != null && isPreflight()) {
-                final WebRequest preflightRequest = new WebRequest(webRequest_.getUrl(), HttpMethod.OPTIONS);
-
-                // header origin
-                preflightRequest.setAdditionalHeader(HttpHeader.ORIGIN, originHeaderValue);
-
-                // header request-method
-                preflightRequest.setAdditionalHeader(
-                        HttpHeader.ACCESS_CONTROL_REQUEST_METHOD,
-                        webRequest_.getHttpMethod().name());
-
-                // header request-headers
-                final StringBuilder builder = new StringBuilder();
-                for (final Entry<String, String> header
-                        : new TreeMap<>(webRequest_.getAdditionalHeaders()).entrySet()) {
-                    final String name = header.getKey().toLowerCase(Locale.ROOT);
-                    if (isPreflightHeader(name, header.getValue())) {
-                        if (builder.length() != 0) {
-                            builder.append(',');
-                        }
-                        builder.append(name);
-                    }
-                }
-                preflightRequest.setAdditionalHeader(HttpHeader.ACCESS_CONTROL_REQUEST_HEADERS, builder.toString());
-
-                // do the preflight request
-                final WebResponse preflightResponse = wc.loadWebResponse(preflightRequest);
-                if (!isPreflightAuthorized(preflightResponse)) {
-                    setState(HEADERS_RECEIVED, context);
-                    setState(LOADING, context);
-                    setState(DONE, context);
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("No permitted request for URL " + webRequest_.getUrl());
+            webResponse = loadResponse(wc, webRequest_);
+        }
+        catch (final IOException e) {
+            ioException = e;
+        }
+        processResponse(context, webResponse, ioException);
+    }
+
+    /**
+     * Does the network part of the request (including the preflight request if needed).
+     * Does not touch any JavaScript object, therefore this can be called from any thread.
+     * @param wc the web client
+     * @param webRequest the request
+     * @return the response or {@code null} if the preflight request was not successful
+     * @throws IOException in case of error
+     */
+    private WebResponse loadResponse(final WebClient wc, final WebRequest webRequest) throws IOException {
+        final String originHeaderValue = webRequest.getAdditionalHeaders().get(HttpHeader.ORIGIN);
+        if (originHeaderValue != null && isPreflight(webRequest)) {
+            final WebRequest preflightRequest = new WebRequest(webRequest.getUrl(), HttpMethod.OPTIONS);
+
+            // header origin
+            preflightRequest.setAdditionalHeader(HttpHeader.ORIGIN, originHeaderValue);
+
+            // header request-method
+            preflightRequest.setAdditionalHeader(
+                    HttpHeader.ACCESS_CONTROL_REQUEST_METHOD,
+                    webRequest.getHttpMethod().name());
+
+            // header request-headers
+            final StringBuilder builder = new StringBuilder();
+            for (final Entry<String, String> header
+                    : new TreeMap<>(webRequest.getAdditionalHeaders()).entrySet()) {
+                final String name = header.getKey().toLowerCase(Locale.ROOT);
+                if (isPreflightHeader(name, header.getValue())) {
+                    if (builder.length() != 0) {
+                        builder.append(',');
                     }
-                    Context.throwAsScriptRuntimeEx(
-                            new RuntimeException("No permitted \"Access-Control-Allow-Origin\" header."));
-                    return;
+                    builder.append(name);
                 }
             }
-            final WebResponse webResponse = wc.loadWebResponse(webRequest_);
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Web response loaded successfully.");
+            preflightRequest.setAdditionalHeader(HttpHeader.ACCESS_CONTROL_REQUEST_HEADERS, builder.toString());
+
+            // do the preflight request
+            final WebResponse preflightResponse = wc.loadWebResponse(preflightRequest);
+            if (!isPreflightAuthorized(webRequest, preflightResponse)) {
+                return null;
             }
+        }
+        final WebResponse webResponse = wc.loadWebResponse(webRequest);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Web response loaded successfully.");
+        }
+        if (containingPage_ != null) {
+            containingPage_.getLoadTiming().addResource(new ResourceTiming(webResponse, "xmlhttprequest"));
+        }
+        return webResponse;
+    }
+
+    /**
+     * Processes the response; updates the state and fires the events.
+     * @param context the current context
+     * @param webResponse the response, {@code null} if the preflight request was not successful
+     * @param ioException the exception thrown while loading the response, if any
+     */
+    private void processResponse(final Context context, final WebResponse webResponse,
+            final IOException ioException) {
+        try {
+            if (ioException != null) {
+                throw ioException;
+            }
+            if (webResponse == null) {
+                setState(HEADERS_RECEIVED, context);
+                setState(LOADING, context);
+                setState(DONE, context);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("No permitted request for URL " + webRequest_.getUrl());
+                }
+                Context.throwAsScriptRuntimeEx(
+                        new RuntimeException("No permitted \"Access-Control-Allow-Origin\" header."));
+                return;
+            }
+
+            final String originHeaderValue = webRequest_.getAdditionalHeaders().get(HttpHeader.ORIGIN);
             // this kind of web responses using UTF-8 as default encoding
             webResponse.defaultCharsetUtf8();
 
@@ -831,12 +967,12 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
         }
     }
 
-    private boolean isPreflight() {
-        final HttpMethod method = webRequest_.getHttpMethod();
+    private static boolean isPreflight(final WebRequest webRequest) {
+        final HttpMethod method = webRequest.getHttpMethod();
         if (method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.POST) {
             return true;
         }
-        for (final Entry<String, String> header : webRequest_.getAdditionalHeaders().entrySet()) {
+        for (final Entry<String, String> header : webRequest.getAdditionalHeaders().entrySet()) {
             if (isPreflightHeader(header.getKey().toLowerCase(Locale.ROOT), header.getValue())) {
                 return true;
             }
@@ -844,10 +980,10 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
         return false;
     }
 
-    private boolean isPreflightAuthorized(final WebResponse preflightResponse) {
+    private static boolean isPreflightAuthorized(final WebRequest webRequest, final WebResponse preflightResponse) {
         final String originHeader = preflightResponse.getResponseHeaderValue(HttpHeader.ACCESS_CONTROL_ALLOW_ORIGIN);
         if (!ALLOW_ORIGIN_ALL.equals(originHeader)
-                && !webRequest_.getAdditionalHeaders().get(HttpHeader.ORIGIN).equals(originHeader)) {
+                && !webRequest.getAdditionalHeaders().get(HttpHeader.ORIGIN).equals(originHeader)) {
             return false;
         }
         String headersHeader = preflightResponse.getResponseHeaderValue(HttpHeader.ACCESS_CONTROL_ALLOW_HEADERS);
@@ -857,7 +993,7 @@ public class XMLHttpRequest extends XMLHttpRequestEventTarget {
         else {
             headersHeader = headersHeader.toLowerCase(Locale.ROOT);
         }
-        for (final Entry<String, String> header : webRequest_.getAdditionalHeaders().entrySet()) {
+        for (final Entry<String, String> header : webRequest.getAdditionalHeaders().entrySet()) {
             final String key = header.getKey().toLowerCase(Locale.ROOT);
             if (isPreflightHeader(key, header.getValue())
                     && !headersHeader.contains(key)) {
@@ -20,30 +20,29 @@ import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBr
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF;
 import static com.gargoylesoftware.htmlunit.javascript.configuration.SupportedBrowser.FF68;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.StringWriter;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamResult;
 
-import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 
 import com.gargoylesoftware.htmlunit.SgmlPage;
-import com.gargoylesoftware.htmlunit.WebResponse;
-import com.gargoylesoftware.htmlunit.WebResponseData;
 import com.gargoylesoftware.htmlunit.html.DomDocumentFragment;
+import com.gargoylesoftware.htmlunit.html.DomElement;
 import com.gargoylesoftware.htmlunit.html.DomNode;
-import com.gargoylesoftware.htmlunit.html.DomText;
 import com.gargoylesoftware.htmlunit.javascript.SimpleScriptable;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxClass;
 import com.gargoylesoftware.htmlunit.javascript.configuration.JsxConstructor;
@@ -51,7 +50,7 @@ import com.gargoylesoftware.htmlunit.javascript.configuration.JsxFunction;
 import com.gargoylesoftware.htmlunit.javascript.host.dom.Document;
 import com.gargoylesoftware.htmlunit.javascript.host.dom.DocumentFragment;
 import com.gargoylesoftware.htmlunit.javascript.host.dom.Node;
-import com.gargoylesoftware.htmlunit.util.XmlUtils;
+import com.gargoylesoftware.htmlunit.util.DomNodeBuilder;
 import com.gargoylesoftware.htmlunit.xml.XmlPage;
 
 import net.sourceforge.htmlunit.corejs.javascript.Context;
@@ -65,6 +64,13 @@ import net.sourceforge.htmlunit.corejs.javascript.Context;
 @JsxClass({CHROME, EDGE, FF, FF68})
 public class XSLTProcessor extends SimpleScriptable {
 
+    /** The {@link TransformerFactory} is not thread safe, and looking it up is expensive. */
+    private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORY_
+            = ThreadLocal.withInitial(TransformerFactory::newInstance);
+
+    private static final Map<DomNode, CompiledStylesheet> COMPILED_STYLESHEETS_
+            = Collections.synchronizedMap(new WeakHashMap<>());
+
     private Node style_;
     private Map<String, Object> parameters_ = new HashMap<>();
 
@@ -101,80 +107,75 @@ public class XSLTProcessor extends SimpleScriptable {
         doc.setPrototype(getPrototype(doc.getClass()));
         doc.setParentScope(getParentScope());
 
-        final Object transformResult = transform(source);
-        final org.w3c.dom.Node node;
-        if (transformResult instanceof org.w3c.dom.Node) {
-            final org.w3c.dom.Node transformedDoc = (org.w3c.dom.Node) transformResult;
-            node = transformedDoc.getFirstChild();
-        }
-        else {
-            node = null;
+        final XmlPage page = new XmlPage((org.w3c.dom.Node) null, getWindow().getWebWindow());
+        final DomDocumentFragment fragment = page.createDocumentFragment();
+        transform(source, fragment);
+
+        // only an element result makes a document
+        final DomNode first = fragment.getFirstChild();
+        if (first instanceof DomElement) {
+            page.appendChild(first);
         }
-        final XmlPage page = new XmlPage(node, getWindow().getWebWindow());
         doc.setDomNode(page);
         return doc;
     }
 
     /**
-     * @return {@link Node} or {@link String}
+     * Transforms the node source applying the stylesheet given by the importStylesheet() function.
+     * The owner document of the output node owns the returned document fragment.
+     * @param source the node to be transformed
+     * @param output This document is used to generate the output
+     * @return the result of the transformation
+     */
+    @JsxFunction
+    public DocumentFragment transformToFragment(final Node source, final Object output) {
+        final SgmlPage page = (SgmlPage) ((Document) output).getDomNodeOrDie();
+
+        final DomDocumentFragment fragment = page.createDocumentFragment();
+        final DocumentFragment rv = new DocumentFragment();
+        rv.setPrototype(getPrototype(rv.getClass()));
+        rv.setParentScope(getParentScope());
+        rv.setDomNode(fragment);
+
+        transform(source, fragment);
+        return rv;
+    }
+
+    /**
+     * Transforms the source and appends the result directly to the given parent.
      */
-    private Object transform(final Node source) {
+    private void transform(final Node source, final DomNode parent) {
         try {
             final DomNode sourceDomNode = source.getDomNodeOrDie();
-            Source xmlSource = new DOMSource(sourceDomNode);
-
-            final DomNode xsltDomNode = style_.getDomNodeOrDie();
-            final Source xsltSource = new DOMSource(xsltDomNode);
+            final Source xmlSource = new DOMSource(sourceDomNode);
 
-            final Transformer transformer = TransformerFactory.newInstance().newTransformer(xsltSource);
+            final CompiledStylesheet stylesheet = getCompiledStylesheet();
+            final Transformer transformer = stylesheet.templates_.newTransformer();
             for (final Map.Entry<String, Object> entry : parameters_.entrySet()) {
                 transformer.setParameter(entry.getKey(), entry.getValue());
             }
 
+            final DomNodeBuilder builder = new DomNodeBuilder(parent.getPage(), parent, true);
+
             // hack to preserve indention
             // the transformer only accepts the OutputKeys.INDENT setting if
             // the StreamResult is used
             final SgmlPage page = sourceDomNode.getPage();
-            if (page != null && page.getWebClient().getBrowserVersion()
+            if (stylesheet.indent_ && page != null && page.getWebClient().getBrowserVersion()
                                             .hasFeature(JS_XSLT_TRANSFORM_INDENT)) {
-                final DomNode outputNode = findOutputNode(xsltDomNode);
-                if (outputNode != null) {
-                    final org.w3c.dom.Node indentNode = outputNode.getAttributes().getNamedItem("indent");
-                    if (indentNode != null && "yes".equalsIgnoreCase(indentNode.getNodeValue())) {
-                        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-                        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-                        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                            transformer.transform(xmlSource, new StreamResult(out));
-                            final WebResponseData data =
-                                    new WebResponseData(out.toByteArray(), 200, null, Collections.emptyList());
-                            final WebResponse response = new WebResponse(data, null, 0);
-                            final org.w3c.dom.Document doc = XmlUtils.buildDocument(response);
-                            return doc;
-                        }
-                    }
+                transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+                transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+
+                try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                    transformer.transform(xmlSource, new StreamResult(out));
+                    builder.parse(new InputSource(new ByteArrayInputStream(out.toByteArray())));
                 }
+                return;
             }
 
-            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            final org.w3c.dom.Document containerDocument = factory.newDocumentBuilder().newDocument();
-            final org.w3c.dom.Element containerElement = containerDocument.createElement("container");
-            containerDocument.appendChild(containerElement);
-
-            final DOMResult result = new DOMResult(containerElement);
+            final SAXResult result = new SAXResult(builder);
+            result.setLexicalHandler(builder);
             transformer.transform(xmlSource, result);
-
-            final org.w3c.dom.Node transformedNode = result.getNode();
-            if (transformedNode.getFirstChild().getNodeType() == Node.ELEMENT_NODE) {
-                return transformedNode;
-            }
-
-            // output is not DOM (text)
-            xmlSource = new DOMSource(source.getDomNodeOrDie());
-            final StringWriter writer = new StringWriter();
-            final Result streamResult = new StreamResult(writer);
-            transformer.transform(xmlSource, streamResult);
-            return writer.toString();
         }
         catch (final Exception e) {
             throw Context.reportRuntimeError("Exception: " + e);
@@ -182,39 +183,28 @@ public class XSLTProcessor extends SimpleScriptable {
     }
 
     /**
-     * Transforms the node source applying the stylesheet given by the importStylesheet() function.
-     * The owner document of the output node owns the returned document fragment.
-     * @param source the node to be transformed
-     * @param output This document is used to generate the output
-     * @return the result of the transformation
+     * Returns the compiled form of the imported stylesheet. The compilation is shared by all processors
+     * importing the same node and redone only if the page of the stylesheet has been modified since.
      */
-    @JsxFunction
-    public DocumentFragment transformToFragment(final Node source, final Object output) {
-        final SgmlPage page = (SgmlPage) ((Document) output).getDomNodeOrDie();
+    private CompiledStylesheet getCompiledStylesheet() throws TransformerConfigurationException {
+        final DomNode xsltDomNode = style_.getDomNodeOrDie();
+        final long modificationCount = xsltDomNode.getPage().getModificationCount();
 
-        final DomDocumentFragment fragment = page.createDocumentFragment();
-        final DocumentFragment rv = new DocumentFragment();
-        rv.setPrototype(getPrototype(rv.getClass()));
-        rv.setParentScope(getParentScope());
-        rv.setDomNode(fragment);
-
-        transform(source, fragment);
-        return rv;
-    }
+        CompiledStylesheet stylesheet = COMPILED_STYLESHEETS_.get(xsltDomNode);
+        if (stylesheet == null || stylesheet.modificationCount_ != modificationCount) {
+            final Templates templates = TRANSFORMER_FACTORY_.get().newTemplates(new DOMSource(xsltDomNode));
 
-    private void transform(final Node source, final DomNode parent) {
-        final Object result = transform(source);
-        if (result instanceof org.w3c.dom.Node) {
-            final SgmlPage parentPage = parent.getPage();
-            final NodeList children = ((org.w3c.dom.Node) result).getChildNodes();
-            for (int i = 0; i < children.getLength(); i++) {
-                XmlUtils.appendChild(parentPage, parent, children.item(i), true);
+            final DomNode outputNode = findOutputNode(xsltDomNode);
+            boolean indent = false;
+            if (outputNode != null) {
+                final org.w3c.dom.Node indentNode = outputNode.getAttributes().getNamedItem("indent");
+                indent = indentNode != null && "yes".equalsIgnoreCase(indentNode.getNodeValue());
             }
+
+            stylesheet = new CompiledStylesheet(templates, modificationCount, indent);
+            COMPILED_STYLESHEETS_.put(xsltDomNode, stylesheet);
         }
-        else {
-            final DomText text = new DomText(parent.getPage(), (String) result);
-            parent.appendChild(text);
-        }
+        return stylesheet;
     }
 
     /**
@@ -265,4 +255,19 @@ public class XSLTProcessor extends SimpleScriptable {
         }
         return null;
     }
+
+    /**
+     * The compiled form of a stylesheet node.
+     */
+    private static final class CompiledStylesheet {
+        private final Templates templates_;
+        private final long modificationCount_;
+        private final boolean indent_;
+
+        CompiledStylesheet(final Templates templates, final long modificationCount, final boolean indent) {
+            templates_ = templates;
+            modificationCount_ = modificationCount;
+            indent_ = indent;
+        }
+    }
 }
@@ -18,9 +18,7 @@ import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_REGEXP_EMP
 import static com.gargoylesoftware.htmlunit.BrowserVersionFeatures.JS_REGEXP_GROUP0_RETURNS_WHOLE_MATCH;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -53,7 +51,8 @@ public class HtmlUnitRegExpProxy extends RegExpImpl {
 
     private static final Log LOG = LogFactory.getLog(HtmlUnitRegExpProxy.class);
     /** Pattern cache */
-    private static final Map<String, Pattern> PATTENS = new HashMap<>();
+    private static final RegExpPatternCache PATTERNS =
+            new RegExpPatternCache(RegExpPatternCache.DEFAULT_MAX_ENTRIES, RegExpPatternCache.DEFAULT_MAX_WEIGHT);
 
     private final RegExpProxy wrapped_;
     private final BrowserVersion browserVersion_;
@@ -68,6 +67,14 @@ public class HtmlUnitRegExpProxy extends RegExpImpl {
         browserVersion_ = browserVersion;
     }
 
+    /**
+     * Returns the cache of the translated and compiled regular expressions shared by all proxies.
+     * @return the pattern cache
+     */
+    public static RegExpPatternCache getPatternCache() {
+        return PATTERNS;
+    }
+
     /**
      * Use the wrapped proxy except for replacement with string arg where it uses Java regular expression.
      * {@inheritDoc}
@@ -101,7 +108,7 @@ public class HtmlUnitRegExpProxy extends RegExpImpl {
             if (arg0 instanceof NativeRegExp) {
                 try {
                     final NativeRegExp regexp = (NativeRegExp) arg0;
-                    final RegExpData reData = new RegExpData(regexp);
+                    final RegExpData reData = new RegExpData(regexp, browserVersion_);
                     final Matcher matcher = reData.getPattern().matcher(thisString);
                     return doReplacement(thisString, replacement, matcher, reData.isGlobal());
                 }
@@ -118,10 +125,10 @@ public class HtmlUnitRegExpProxy extends RegExpImpl {
             final String thisString = Context.toString(thisObj);
             final RegExpData reData;
             if (arg0 instanceof NativeRegExp) {
-                reData = new RegExpData((NativeRegExp) arg0);
+                reData = new RegExpData((NativeRegExp) arg0, browserVersion_);
             }
             else {
-                reData = new RegExpData(Context.toString(arg0));
+                reData = new RegExpData(Context.toString(arg0), browserVersion_);
             }
 
             final Matcher matcher = reData.getPattern().matcher(thisString);
@@ -413,45 +420,20 @@ public class HtmlUnitRegExpProxy extends RegExpImpl {
 
     private static class RegExpData {
         private final boolean global_;
-        private Pattern pattern_;
+        private final Pattern pattern_;
 
-        RegExpData(final NativeRegExp re) {
+        RegExpData(final NativeRegExp re, final BrowserVersion browserVersion) {
             final String str = re.toString(); // the form is /regex/flags
             final String jsSource = StringUtils.substringBeforeLast(str.substring(1), "/");
             final String jsFlags = StringUtils.substringAfterLast(str, "/");
 
             global_ = jsFlags.indexOf('g') != -1;
-
-            pattern_ = PATTENS.get(str);
-            if (pattern_ == null) {
-                pattern_ = Pattern.compile(jsRegExpToJavaRegExp(jsSource), getJavaFlags(jsFlags));
-                PATTENS.put(str, pattern_);
-            }
+            pattern_ = PATTERNS.getPattern(jsSource, jsFlags, browserVersion);
         }
 
-        RegExpData(final String string) {
+        RegExpData(final String string, final BrowserVersion browserVersion) {
             global_ = false;
-
-            pattern_ = PATTENS.get(string);
-            if (pattern_ == null) {
-                pattern_ = Pattern.compile(jsRegExpToJavaRegExp(string), 0);
-                PATTENS.put(string, pattern_);
-            }
-        }
-
-        /**
-         * Converts the current JavaScript RegExp flags to Java Pattern flags.
-         * @return the Java Pattern flags
-         */
-        private static int getJavaFlags(final String jsFlags) {
-            int flags = 0;
-            if (jsFlags.contains("i")) {
-                flags |= Pattern.CASE_INSENSITIVE;
-            }
-            if (jsFlags.contains("m")) {
-                flags |= Pattern.MULTILINE;
-            }
-            return flags;
+            pattern_ = PATTERNS.getPattern(string, "", browserVersion);
         }
 
         boolean isGlobal() {
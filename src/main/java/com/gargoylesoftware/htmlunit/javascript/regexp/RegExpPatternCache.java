@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.regexp;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.regex.Pattern;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+
+/**
+ * Cache of the Java {@link Pattern}s translated from JavaScript regular expressions,
+ * shared by all {@link HtmlUnitRegExpProxy}s of the JVM.
+ * The cache is thread safe and bounded by the number of entries and by the total length
+ * of the cached expressions (JavaScript source and Java translation); the least recently used
+ * entries are evicted first.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class RegExpPatternCache {
+
+    /** The default maximum number of entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+
+    /** The default maximum total length (in chars) of all cached expressions. */
+    public static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+
+    private final int maxEntries_;
+    private final long maxWeight_;
+
+    private final LinkedHashMap<Key, Entry> entries_ = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight_;
+    private long hitCount_;
+    private long missCount_;
+    private long evictionCount_;
+
+    /**
+     * Creates a new cache.
+     * @param maxEntries the maximum number of entries
+     * @param maxWeight the maximum total length (in chars) of all cached expressions
+     */
+    public RegExpPatternCache(final int maxEntries, final long maxWeight) {
+        maxEntries_ = maxEntries;
+        maxWeight_ = maxWeight;
+    }
+
+    /**
+     * Returns the compiled Java pattern for the given JavaScript regular expression;
+     * translates and compiles the expression if not already cached.
+     * @param jsSource the source of the JavaScript regular expression
+     * @param jsFlags the flags of the JavaScript regular expression
+     * @param browserVersion the browser version
+     * @return the pattern
+     * @throws java.util.regex.PatternSyntaxException if the translated expression is invalid
+     */
+    public Pattern getPattern(final String jsSource, final String jsFlags, final BrowserVersion browserVersion) {
+        final Key key = new Key(jsSource, jsFlags, browserVersion.getNickname());
+        synchronized (this) {
+            final Entry entry = entries_.get(key);
+            if (entry != null) {
+                hitCount_++;
+                return entry.pattern_;
+            }
+            missCount_++;
+        }
+
+        // translate and compile outside of the lock; in the rare case of a race
+        // the same expression is compiled twice
+        final String javaSource = new RegExpJsToJavaConverter().convert(jsSource);
+        final Pattern pattern = Pattern.compile(javaSource, getJavaFlags(jsFlags));
+        final Entry entry = new Entry(pattern, jsSource.length() + javaSource.length());
+
+        synchronized (this) {
+            final Entry existing = entries_.putIfAbsent(key, entry);
+            if (existing != null) {
+                return existing.pattern_;
+            }
+            weight_ += entry.weight_;
+            evict();
+        }
+        return pattern;
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = entries_.values().iterator();
+        while ((entries_.size() > maxEntries_ || weight_ > maxWeight_) && iterator.hasNext()) {
+            final Entry eldest = iterator.next();
+            iterator.remove();
+            weight_ -= eldest.weight_;
+            evictionCount_++;
+        }
+    }
+
+    /**
+     * Converts the JavaScript RegExp flags to Java Pattern flags.
+     * @return the Java Pattern flags
+     */
+    private static int getJavaFlags(final String jsFlags) {
+        int flags = 0;
+        if (jsFlags.indexOf('i') != -1) {
+            flags |= Pattern.CASE_INSENSITIVE;
+        }
+        if (jsFlags.indexOf('m') != -1) {
+            flags |= Pattern.MULTILINE;
+        }
+        return flags;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount_;
+    }
+
+    /**
+     * @return the number of lookups that had to translate and compile the expression
+     */
+    public synchronized long getMissCount() {
+        return missCount_;
+    }
+
+    /**
+     * @return the number of entries evicted because the cache was full
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount_;
+    }
+
+    /**
+     * @return the number of cached expressions
+     */
+    public synchronized int size() {
+        return entries_.size();
+    }
+
+    /**
+     * @return the total length (in chars) of all cached expressions
+     */
+    public synchronized long getWeight() {
+        return weight_;
+    }
+
+    /**
+     * Removes all entries; the statistics are not reset.
+     */
+    public synchronized void clear() {
+        entries_.clear();
+        weight_ = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString() {
+        return "RegExpPatternCache[size=" + entries_.size() + ", weight=" + weight_
+                + ", hits=" + hitCount_ + ", misses=" + missCount_ + ", evictions=" + evictionCount_ + "]";
+    }
+
+    private static final class Key {
+        private final String source_;
+        private final String flags_;
+        private final String browser_;
+
+        Key(final String source, final String flags, final String browser) {
+            source_ = source;
+            flags_ = flags;
+            browser_ = browser;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return source_.equals(other.source_) && flags_.equals(other.flags_) && browser_.equals(other.browser_);
+        }
+
+        @Override
+        public int hashCode() {
+            return (source_.hashCode() * 31 + flags_.hashCode()) * 31 + browser_.hashCode();
+        }
+    }
+
+    /**
+     * The Java translation of the expression is kept by the pattern itself ({@link Pattern#pattern()}).
+     */
+    private static final class Entry {
+        private final Pattern pattern_;
+        private final int weight_;
+
+        Entry(final Pattern pattern, final int weight) {
+            pattern_ = pattern;
+            weight_ = weight;
+        }
+    }
+}
@@ -28,6 +28,9 @@ import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
@@ -36,6 +39,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.gargoylesoftware.htmlunit.AsyncWebConnection;
 import com.gargoylesoftware.htmlunit.FormEncodingType;
 import com.gargoylesoftware.htmlunit.HttpMethod;
 import com.gargoylesoftware.htmlunit.WebConnection;
@@ -80,6 +84,7 @@ public class DebuggingWebConnection extends WebConnectionWrapper {
     private final File javaScriptFile_;
     private final File reportFolder_;
     private boolean uncompressJavaScript_ = true;
+    private final boolean getResponseOverridden_;
 
     /**
      * Wraps a web connection to have a report generated of the received responses.
@@ -94,6 +99,7 @@ public class DebuggingWebConnection extends WebConnectionWrapper {
         super(webConnection);
 
         wrappedWebConnection_ = webConnection;
+        getResponseOverridden_ = isGetResponseOverridden(getClass(), DebuggingWebConnection.class);
         final File tmpDir = new File(System.getProperty("java.io.tmpdir"));
         reportFolder_ = new File(tmpDir, dirName);
         if (reportFolder_.exists()) {
@@ -110,12 +116,40 @@ public class DebuggingWebConnection extends WebConnectionWrapper {
      */
     @Override
     public WebResponse getResponse(final WebRequest request) throws IOException {
-        WebResponse response = wrappedWebConnection_.getResponse(request);
+        final WebResponse response = wrappedWebConnection_.getResponse(request);
+        return processResponse(response, request);
+    }
+
+    /**
+     * Calls the wrapped webconnection and save the received response.
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<WebResponse> getResponseAsync(final WebRequest request, final Executor executor) {
+        if (getResponseOverridden_ || !(wrappedWebConnection_ instanceof AsyncWebConnection)) {
+            // calls getResponse() on the executor
+            return super.getResponseAsync(request, executor);
+        }
+
+        return ((AsyncWebConnection) wrappedWebConnection_).getResponseAsync(request, executor)
+                .thenApply(response -> {
+                    try {
+                        return processResponse(response, request);
+                    }
+                    catch (final IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private synchronized WebResponse processResponse(final WebResponse response, final WebRequest request)
+            throws IOException {
+        WebResponse processed = response;
         if (isUncompressJavaScript() && isJavaScript(response.getContentType())) {
-            response = uncompressJavaScript(response);
+            processed = uncompressJavaScript(response);
         }
-        saveResponse(response, request);
-        return response;
+        saveResponse(processed, request);
+        return processed;
     }
 
     /**
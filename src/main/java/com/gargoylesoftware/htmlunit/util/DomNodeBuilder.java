@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.gargoylesoftware.htmlunit.SgmlPage;
+import com.gargoylesoftware.htmlunit.html.DomAttr;
+import com.gargoylesoftware.htmlunit.html.DomCDataSection;
+import com.gargoylesoftware.htmlunit.html.DomComment;
+import com.gargoylesoftware.htmlunit.html.DomDocumentType;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.DomProcessingInstruction;
+import com.gargoylesoftware.htmlunit.html.DomText;
+import com.gargoylesoftware.htmlunit.html.ElementFactory;
+import com.gargoylesoftware.htmlunit.html.Html;
+import com.gargoylesoftware.htmlunit.xml.XmlPage;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * A SAX handler that appends the received content as {@link DomNode}s to a parent node,
+ * without building an intermediate W3C DOM first.
+ * The nodes are created the same way {@link XmlUtils#appendChild(SgmlPage, DomNode, org.w3c.dom.Node, boolean)}
+ * does it.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class DomNodeBuilder extends DefaultHandler implements LexicalHandler {
+
+    private static final SAXParserFactory SAX_PARSER_FACTORY_;
+
+    /**
+     * Every thread keeps one parser for reuse, it is taken out while in use to support nested parsing.
+     */
+    private static final ThreadLocal<SAXParser> SAX_PARSER_ = new ThreadLocal<>();
+
+    static {
+        SAX_PARSER_FACTORY_ = SAXParserFactory.newInstance();
+        SAX_PARSER_FACTORY_.setNamespaceAware(true);
+    }
+
+    private final SgmlPage page_;
+    private final boolean handleXHTMLAsHTML_;
+    private boolean sortAttributes_;
+    private DomNode current_;
+    private final StringBuilder characters_ = new StringBuilder();
+    private final List<String> prefixMappings_ = new ArrayList<>();
+    private boolean inDtd_;
+    private boolean inCData_;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param page the owner page of the nodes to be created
+     * @param parent the node the content is appended to
+     * @param handleXHTMLAsHTML if true elements from the XHTML namespace are handled as HTML elements instead of
+     *     DOM elements
+     */
+    public DomNodeBuilder(final SgmlPage page, final DomNode parent, final boolean handleXHTMLAsHTML) {
+        page_ = page;
+        current_ = parent;
+        handleXHTMLAsHTML_ = handleXHTMLAsHTML;
+    }
+
+    /**
+     * Sets whether the attributes of the created elements are ordered by name (like the Xerces W3C DOM does)
+     * instead of the document order.
+     *
+     * @param sortAttributes whether to sort the attributes by name
+     */
+    public void setSortAttributes(final boolean sortAttributes) {
+        sortAttributes_ = sortAttributes;
+    }
+
+    /**
+     * Parses the given XML source and appends its content to the parent node.
+     *
+     * @param source the source to parse
+     * @throws IOException if the source could not be read
+     * @throws SAXException if the parsing fails
+     * @throws ParserConfigurationException if no parser could be created
+     */
+    public void parse(final InputSource source) throws IOException, SAXException, ParserConfigurationException {
+        SAXParser parser = SAX_PARSER_.get();
+        if (parser == null) {
+            synchronized (SAX_PARSER_FACTORY_) {
+                parser = SAX_PARSER_FACTORY_.newSAXParser();
+            }
+        }
+        else {
+            SAX_PARSER_.remove();
+        }
+
+        try {
+            final XMLReader reader = parser.getXMLReader();
+            reader.setContentHandler(this);
+            reader.setErrorHandler(this);
+            reader.setEntityResolver(this);
+            reader.setProperty("http://xml.org/sax/properties/lexical-handler", this);
+            reader.parse(source);
+        }
+        finally {
+            parser.reset();
+            SAX_PARSER_.set(parser);
+        }
+    }
+
+    /**
+     * Resolves every external entity to an empty one.
+     * {@inheritDoc}
+     */
+    @Override
+    public InputSource resolveEntity(final String publicId, final String systemId) {
+        return new InputSource(new StringReader(""));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) {
+        prefixMappings_.add(prefix);
+        prefixMappings_.add(uri);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+            final Attributes atts) {
+        flushCharacters();
+
+        final DomElement element = createElement(uri, localName, qName, withNamespaceDeclarations(atts));
+        current_.appendChild(element);
+        current_ = element;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) {
+        flushCharacters();
+        current_ = current_.getParentNode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void characters(final char[] ch, final int start, final int length) {
+        if (inDtd_) {
+            return;
+        }
+        characters_.append(ch, start, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length) {
+        characters_.append(ch, start, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void processingInstruction(final String target, final String data) {
+        flushCharacters();
+        current_.appendChild(new DomProcessingInstruction(page_, target, data));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDocument() {
+        flushCharacters();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void comment(final char[] ch, final int start, final int length) {
+        if (inDtd_) {
+            return;
+        }
+        flushCharacters();
+        current_.appendChild(new DomComment(page_, new String(ch, start, length)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDTD(final String name, final String publicId, final String systemId) {
+        flushCharacters();
+        inDtd_ = true;
+
+        final DomDocumentType documentType = new DomDocumentType(page_, name, publicId, systemId);
+        if (page_ instanceof XmlPage) {
+            ((XmlPage) page_).setDocumentType(documentType);
+        }
+        current_.appendChild(documentType);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDTD() {
+        inDtd_ = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startEntity(final String name) {
+        // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endEntity(final String name) {
+        // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startCDATA() {
+        flushCharacters();
+        inCData_ = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCDATA() {
+        current_.appendChild(new DomCDataSection(page_, characters_.toString()));
+        characters_.setLength(0);
+        inCData_ = false;
+    }
+
+    private void flushCharacters() {
+        if (characters_.length() > 0 && !inCData_) {
+            current_.appendChild(new DomText(page_, characters_.toString()));
+            characters_.setLength(0);
+        }
+    }
+
+    /**
+     * The namespace declarations are reported as prefix mappings and not as attributes,
+     * but the W3C DOM (and therefore our DOM) has them as attributes.
+     */
+    private Attributes withNamespaceDeclarations(final Attributes atts) {
+        if (prefixMappings_.isEmpty() && !sortAttributes_) {
+            return atts;
+        }
+
+        final AttributesImpl attributes = new AttributesImpl();
+        for (int i = 0; i < prefixMappings_.size(); i += 2) {
+            final String prefix = prefixMappings_.get(i);
+            final String localName;
+            final String qName;
+            if (prefix.isEmpty()) {
+                localName = XMLConstants.XMLNS_ATTRIBUTE;
+                qName = XMLConstants.XMLNS_ATTRIBUTE;
+            }
+            else {
+                localName = prefix;
+                qName = XMLConstants.XMLNS_ATTRIBUTE + ':' + prefix;
+            }
+            if (atts.getIndex(qName) == -1) {
+                attributes.addAttribute(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, localName, qName, "CDATA",
+                        prefixMappings_.get(i + 1));
+            }
+        }
+        prefixMappings_.clear();
+
+        for (int i = 0; i < atts.getLength(); i++) {
+            attributes.addAttribute(atts.getURI(i), atts.getLocalName(i), atts.getQName(i),
+                    atts.getType(i), atts.getValue(i));
+        }
+
+        if (sortAttributes_) {
+            return sortByName(attributes);
+        }
+        return attributes;
+    }
+
+    private static Attributes sortByName(final Attributes atts) {
+        final Integer[] order = new Integer[atts.getLength()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(atts::getQName));
+
+        final AttributesImpl attributes = new AttributesImpl();
+        for (final int i : order) {
+            attributes.addAttribute(atts.getURI(i), atts.getLocalName(i), atts.getQName(i),
+                    atts.getType(i), atts.getValue(i));
+        }
+        return attributes;
+    }
+
+    private DomElement createElement(final String uri, final String localName, final String qName,
+            final Attributes atts) {
+        final String namespaceURI = uri == null || uri.isEmpty() ? null : uri;
+        String name = localName == null || localName.isEmpty() ? qName : localName;
+
+        if (handleXHTMLAsHTML_ && Html.XHTML_NAMESPACE.equals(namespaceURI)) {
+            final ElementFactory factory = page_.getWebClient().getPageCreator().getHtmlParser().getFactory(name);
+            return factory.createElementNS(page_, namespaceURI, name, atts);
+        }
+
+        if (page_ != null && page_.isHtmlPage()) {
+            name = name.toUpperCase(Locale.ROOT);
+        }
+        final int colon = qName.indexOf(':');
+        final String qualifiedName;
+        if (colon == -1) {
+            qualifiedName = name;
+        }
+        else {
+            qualifiedName = qName.substring(0, colon + 1) + name;
+        }
+
+        if (Html.SVG_NAMESPACE.equals(namespaceURI)) {
+            return page_.getWebClient().getPageCreator().getHtmlParser().getSvgFactory()
+                    .createElementNS(page_, namespaceURI, qualifiedName, atts);
+        }
+
+        final Map<String, DomAttr> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < atts.getLength(); i++) {
+            final String attributeNamespaceURI = atts.getURI(i);
+            final String attributeQualifiedName = atts.getQName(i);
+            final DomAttr attribute = new DomAttr(page_,
+                    attributeNamespaceURI == null || attributeNamespaceURI.isEmpty() ? null : attributeNamespaceURI,
+                    attributeQualifiedName, atts.getValue(i), true);
+            attributes.put(attributeQualifiedName, attribute);
+        }
+        return new DomElement(namespaceURI, qualifiedName, page_, attributes);
+    }
+}
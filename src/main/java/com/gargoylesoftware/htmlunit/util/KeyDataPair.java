@@ -16,8 +16,10 @@ package com.gargoylesoftware.htmlunit.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.nio.charset.Charset;
 
 /**
@@ -38,6 +40,26 @@ public class KeyDataPair extends NameValuePair {
     private final String mimeType_;
     private transient Charset charset_;
     private byte[] data_;
+    private DataSupplier dataSupplier_;
+
+    /**
+     * Supplies the content of an upload that is neither a file nor in-memory data
+     * (e.g. a blob assembled by JavaScript); the content is streamed into the request body.
+     */
+    public interface DataSupplier extends Serializable {
+
+        /**
+         * Opens a new stream of the content.
+         * @return the stream
+         * @throws IOException in case of error
+         */
+        InputStream open() throws IOException;
+
+        /**
+         * @return the length of the content
+         */
+        long length();
+    }
 
     /**
      * Creates an instance.
@@ -147,6 +169,22 @@ public class KeyDataPair extends NameValuePair {
         data_ = data;
     }
 
+    /**
+     * Gets the supplier of the data streamed as file value.
+     * @return {@code null} if the file content or the in-memory data should be used
+     */
+    public DataSupplier getDataSupplier() {
+        return dataSupplier_;
+    }
+
+    /**
+     * Sets the supplier of the data streamed as file value; only used if no in-memory data is set.
+     * @param dataSupplier the supplier
+     */
+    public void setDataSupplier(final DataSupplier dataSupplier) {
+        dataSupplier_ = dataSupplier;
+    }
+
     private void writeObject(final ObjectOutputStream oos) throws IOException {
         oos.defaultWriteObject();
         oos.writeObject(charset_ == null ? null : charset_.name());
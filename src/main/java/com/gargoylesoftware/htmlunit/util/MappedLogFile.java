@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * A memory mapped, append-only log of records made of an operation byte followed by
+ * up to two length prefixed fields (a key and a value). The file starts with the length of
+ * the valid part; records being written when the process died are therefore ignored.
+ * <p>
+ * A log named {@code <name>} is stored in the file {@code <name>.<generation><suffix>}.
+ * {@link #compact(Iterable, byte)} writes the live entries to the next generation; the file with
+ * the highest generation is the current one. A log is locked as long as it is open, opening a log
+ * already in use (in this or another process) fails.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class MappedLogFile {
+
+    /** The size of the header holding the length of the valid part. */
+    public static final int HEADER_SIZE = 8;
+
+    private static final Log LOG = LogFactory.getLog(MappedLogFile.class);
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    /**
+     * Receives the records of a log, see {@link MappedLogFile#replay(Replayer)}.
+     */
+    public interface Replayer {
+        /**
+         * @param op the operation of a record
+         * @return the number of fields (0, 1 or 2) of records with this operation, or -1 if the
+         *         operation is unknown
+         */
+        int getFieldCount(byte op);
+
+        /**
+         * Applies a record.
+         * @param op the operation
+         * @param key the first field or {@code null}
+         * @param value the second field or {@code null}
+         * @param valueOffset the offset of the second field (see {@link MappedLogFile#read(int)}) or -1
+         */
+        void apply(byte op, byte[] key, byte[] value, int valueOffset);
+    }
+
+    private final File directory_;
+    private final String name_;
+    private final String suffix_;
+    private final long generation_;
+    private final FileChannel channel_;
+    private MappedByteBuffer buffer_;
+    private int end_;
+
+    /**
+     * Creates a new instance for the given channel, which must already be locked.
+     */
+    private MappedLogFile(final File directory, final String name, final String suffix, final long generation,
+            final FileChannel channel) throws IOException {
+        directory_ = directory;
+        name_ = name;
+        suffix_ = suffix;
+        generation_ = generation;
+        channel_ = channel;
+        final long size = channel_.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Log file '" + getPath() + "' is too large");
+        }
+        map((int) Math.max(size, INITIAL_CAPACITY));
+
+        end_ = (int) buffer_.getLong(0);
+        if (end_ < HEADER_SIZE || end_ > size) {
+            end_ = HEADER_SIZE;
+            buffer_.putLong(0, end_);
+        }
+    }
+
+    /**
+     * Opens and locks the current generation of a log, creating it if needed, and removes
+     * the outdated generations and unfinished compactions.
+     * @param directory the directory; created if needed
+     * @param name the name of the log, must be a valid file name
+     * @param suffix the file suffix
+     * @return the log
+     * @throws IOException in case of error or if the log is already in use
+     */
+    public static MappedLogFile open(final File directory, final String name, final String suffix)
+            throws IOException {
+        Files.createDirectories(directory.toPath());
+
+        final List<Long> generations = getGenerations(directory, name, suffix);
+        final long current = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+        final Path path = getPath(directory, name, suffix, current);
+        final FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedLogFile log;
+        try {
+            lock(channel, path);
+            log = new MappedLogFile(directory, name, suffix, current, channel);
+        }
+        catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        // only the owner of the lock compacts, the remaining files are garbage
+        for (final long generation : generations) {
+            if (generation != current) {
+                delete(getPath(directory, name, suffix, generation));
+            }
+        }
+        delete(getTmpPath(directory, name, suffix));
+        return log;
+    }
+
+    /**
+     * Returns the names of all logs with the given suffix in the directory.
+     * @param directory the directory
+     * @param suffix the file suffix
+     * @return the names
+     */
+    public static Set<String> list(final File directory, final String suffix) {
+        final Set<String> names = new LinkedHashSet<>();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String fileName = file.getName();
+                if (!fileName.endsWith(suffix)) {
+                    continue;
+                }
+                final String stem = fileName.substring(0, fileName.length() - suffix.length());
+                final int dot = stem.lastIndexOf('.');
+                if (dot > 0 && isGeneration(stem.substring(dot + 1))) {
+                    names.add(stem.substring(0, dot));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Deletes all generations of a log, which must not be open.
+     * @param directory the directory
+     * @param name the name of the log
+     * @param suffix the file suffix
+     * @throws IOException in case of error
+     */
+    public static void delete(final File directory, final String name, final String suffix) throws IOException {
+        for (final long generation : getGenerations(directory, name, suffix)) {
+            Files.deleteIfExists(getPath(directory, name, suffix, generation));
+        }
+        Files.deleteIfExists(getTmpPath(directory, name, suffix));
+    }
+
+    /**
+     * Returns the sorted generations of the files of a log.
+     */
+    private static List<Long> getGenerations(final File directory, final String name, final String suffix) {
+        final List<Long> generations = new ArrayList<>();
+        final String prefix = name + '.';
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String fileName = file.getName();
+                if (!fileName.startsWith(prefix) || !fileName.endsWith(suffix)) {
+                    continue;
+                }
+                final String generation = fileName.substring(prefix.length(),
+                        Math.max(prefix.length(), fileName.length() - suffix.length()));
+                if (isGeneration(generation)) {
+                    generations.add(Long.valueOf(generation));
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private static boolean isGeneration(final String generation) {
+        return StringUtils.isNumeric(generation) && generation.length() <= 18;
+    }
+
+    private static Path getPath(final File directory, final String name, final String suffix,
+            final long generation) {
+        return new File(directory, name + '.' + generation + suffix).toPath();
+    }
+
+    private static Path getTmpPath(final File directory, final String name, final String suffix) {
+        return new File(directory, name + suffix + TMP_SUFFIX).toPath();
+    }
+
+    private Path getPath() {
+        return getPath(directory_, name_, suffix_, generation_);
+    }
+
+    /**
+     * Writes the given entries to the next generation of this log. The new log is written to
+     * a temporary file without mapping it, and mapped only after it has been moved to its final,
+     * not yet existing path; this way a crash never leaves an incomplete log behind and no mapped
+     * file is replaced. If this succeeds, this log is closed and its file deleted; otherwise this
+     * log stays open and can still be used.
+     * @param entries the entries
+     * @param op the operation of the records written for the entries
+     * @return the new log, already locked
+     * @throws IOException in case of error
+     */
+    public MappedLogFile compact(final Iterable<? extends Map.Entry<byte[], byte[]>> entries, final byte op)
+            throws IOException {
+        final Path tmp = getTmpPath(directory_, name_, suffix_);
+        final Path path = getPath(directory_, name_, suffix_, generation_ + 1);
+        Files.deleteIfExists(tmp);
+        final FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean moved = false;
+        final MappedLogFile compacted;
+        try {
+            lock(channel, tmp);
+
+            final OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            out.write(new byte[HEADER_SIZE]);
+            for (final Map.Entry<byte[], byte[]> entry : entries) {
+                out.write(encode(op, entry.getKey(), entry.getValue()));
+            }
+            out.flush();
+
+            final long end = channel.position();
+            if (end > Integer.MAX_VALUE) {
+                throw new IOException("Log file '" + path + "' is too large");
+            }
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putLong(0, end), 0);
+            channel.force(true);
+
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path);
+            }
+            moved = true;
+            compacted = new MappedLogFile(directory_, name_, suffix_, generation_ + 1, channel);
+        }
+        catch (final IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(moved ? path : tmp);
+            throw e;
+        }
+
+        final Path oldPath = getPath();
+        try {
+            close();
+        }
+        catch (final IOException e) {
+            LOG.warn("Closing log file '" + oldPath + "' failed", e);
+        }
+        delete(oldPath);
+        return compacted;
+    }
+
+    private static void lock(final FileChannel channel, final Path path) throws IOException {
+        final FileLock lock;
+        try {
+            lock = channel.tryLock();
+        }
+        catch (final OverlappingFileLockException e) {
+            throw new IOException("Log file '" + path + "' is already in use", e);
+        }
+        if (lock == null) {
+            throw new IOException("Log file '" + path + "' is in use by another process");
+        }
+    }
+
+    private static void delete(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch (final IOException e) {
+            // a file still mapped can't be deleted on some platforms; it is removed the next time the log is opened
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Deleting log file '" + path + "' failed", e);
+            }
+        }
+    }
+
+    /**
+     * @param key the first field or {@code null}
+     * @param value the second field or {@code null}
+     * @return the number of bytes of a record with the given fields
+     */
+    public static int recordSize(final byte[] key, final byte[] value) {
+        int size = 1;
+        if (key != null) {
+            size += 4 + key.length;
+        }
+        if (value != null) {
+            size += 4 + value.length;
+        }
+        return size;
+    }
+
+    private static byte[] encode(final byte op, final byte[] key, final byte[] value) {
+        final ByteBuffer buffer = ByteBuffer.allocate(recordSize(key, value));
+        buffer.put(op);
+        if (key != null) {
+            buffer.putInt(key.length).put(key);
+        }
+        if (value != null) {
+            buffer.putInt(value.length).put(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @return the number of bytes of the valid part of the log, the header included
+     */
+    public int getLength() {
+        return end_;
+    }
+
+    /**
+     * Passes all records of the log to the given replayer.
+     * @param replayer the replayer
+     * @throws IllegalStateException if the log contains an unknown operation
+     */
+    public void replay(final Replayer replayer) {
+        final ByteBuffer buffer = buffer_.duplicate();
+        buffer.position(HEADER_SIZE);
+        buffer.limit(end_);
+        while (buffer.hasRemaining()) {
+            final byte op = buffer.get();
+            final int fields = replayer.getFieldCount(op);
+            if (fields < 0) {
+                throw new IllegalStateException("Corrupt record " + op + " in log file '" + getPath() + "'");
+            }
+            final byte[] key = fields > 0 ? readField(buffer) : null;
+            final int valueOffset = fields > 1 ? buffer.position() : -1;
+            final byte[] value = fields > 1 ? readField(buffer) : null;
+            replayer.apply(op, key, value, valueOffset);
+        }
+    }
+
+    /**
+     * Reads a field of a record from the mapped file.
+     * @param offset the offset of the field, as returned by {@link #append(byte, byte[], byte[])}
+     *        or passed to the {@link Replayer}
+     * @return the content of the field
+     */
+    public byte[] read(final int offset) {
+        final ByteBuffer buffer = buffer_.duplicate();
+        buffer.position(offset);
+        return readField(buffer);
+    }
+
+    private static byte[] readField(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Appends and commits a record.
+     * @param op the operation
+     * @param key the first field or {@code null}
+     * @param value the second field or {@code null}
+     * @return the offset of the second field (see {@link #read(int)}) or -1 if there is none
+     * @throws IOException in case of error, the log is unchanged in this case
+     */
+    public int append(final byte op, final byte[] key, final byte[] value) throws IOException {
+        final byte[] record = encode(op, key, value);
+        final int length = record.length;
+        if ((long) end_ + length > Integer.MAX_VALUE) {
+            throw new IOException("Log file '" + getPath() + "' is too large");
+        }
+        if (end_ + length > buffer_.capacity()) {
+            map((int) Math.min(Integer.MAX_VALUE, Math.max(end_ + length, 2L * buffer_.capacity())));
+        }
+
+        final int start = end_;
+        final ByteBuffer buffer = buffer_.duplicate();
+        buffer.position(start);
+        buffer.put(record);
+        end_ += length;
+        // commit the record
+        buffer_.putLong(0, end_);
+
+        if (value == null) {
+            return -1;
+        }
+        return start + 1 + (key == null ? 0 : 4 + key.length);
+    }
+
+    private void map(final int capacity) throws IOException {
+        // mapping beyond the end of the file grows the file
+        buffer_ = channel_.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Forces the log to the disk and releases the file and its lock.
+     * @throws IOException in case of error
+     */
+    public void close() throws IOException {
+        try {
+            buffer_.force();
+        }
+        finally {
+            channel_.close();
+        }
+    }
+}
@@ -15,7 +15,10 @@
 package com.gargoylesoftware.htmlunit.util;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import com.gargoylesoftware.htmlunit.AsyncWebConnection;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebConnection;
 import com.gargoylesoftware.htmlunit.WebRequest;
@@ -31,8 +34,9 @@ import com.gargoylesoftware.htmlunit.WebResponse;
  * @author Marc Guillemot
  * @author Ahmed Ashour
  */
-public class WebConnectionWrapper implements WebConnection {
+public class WebConnectionWrapper implements AsyncWebConnection {
     private final WebConnection wrappedWebConnection_;
+    private final boolean getResponseOverridden_;
 
     /**
      * Constructs a WebConnection object wrapping provided WebConnection.
@@ -44,6 +48,7 @@ public class WebConnectionWrapper implements WebConnection {
             throw new IllegalArgumentException("Wrapped connection can't be null");
         }
         wrappedWebConnection_ = webConnection;
+        getResponseOverridden_ = isGetResponseOverridden(getClass(), WebConnectionWrapper.class);
     }
 
     /**
@@ -58,6 +63,22 @@ public class WebConnectionWrapper implements WebConnection {
         }
         wrappedWebConnection_ = webClient.getWebConnection();
         webClient.setWebConnection(this);
+        getResponseOverridden_ = isGetResponseOverridden(getClass(), WebConnectionWrapper.class);
+    }
+
+    /**
+     * Returns whether the given class overrides {@link #getResponse(WebRequest)} of the given base class.
+     * @param clazz the class
+     * @param base the base class
+     * @return whether the method is overridden
+     */
+    static boolean isGetResponseOverridden(final Class<?> clazz, final Class<?> base) {
+        try {
+            return clazz.getMethod("getResponse", WebRequest.class).getDeclaringClass() != base;
+        }
+        catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -70,6 +91,21 @@ public class WebConnectionWrapper implements WebConnection {
         return wrappedWebConnection_.getResponse(request);
     }
 
+    /**
+     * {@inheritDoc}
+     * If the wrapped connection is an {@link AsyncWebConnection} and this class does not override
+     * {@link #getResponse(WebRequest)}, the request is passed to the wrapped connection.
+     * Otherwise {@link #getResponse(WebRequest)} is called using the provided executor.
+     */
+    @Override
+    public CompletableFuture<WebResponse> getResponseAsync(final WebRequest request, final Executor executor) {
+        if (!getResponseOverridden_ && wrappedWebConnection_ instanceof AsyncWebConnection) {
+            return ((AsyncWebConnection) wrappedWebConnection_).getResponseAsync(request, executor);
+        }
+
+        return AsyncWebConnection.super.getResponseAsync(request, executor);
+    }
+
     /**
      * Gets the wrapped {@link WebConnection}.
      * @return the wrapped connection
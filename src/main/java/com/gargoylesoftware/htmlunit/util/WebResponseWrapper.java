@@ -132,6 +132,15 @@ public class WebResponseWrapper extends WebResponse {
         return wrappedWebResponse_.getLoadTime();
     }
 
+    /**
+     * {@inheritDoc}
+     * The default behavior of this method is to return getTimeToFirstByte() on the wrapped webResponse object.
+     */
+    @Override
+    public long getTimeToFirstByte() {
+        return wrappedWebResponse_.getTimeToFirstByte();
+    }
+
     /**
      * {@inheritDoc}
      * The default behavior of this method is to return getResponseHeaders() on the wrapped webResponse object.
@@ -79,6 +79,14 @@ public final class XmlUtils {
 
     private static final Log LOG = LogFactory.getLog(XmlUtils.class);
 
+    /** Looking up the {@link DocumentBuilderFactory} is expensive, but the factory is not thread safe. */
+    private static final ThreadLocal<DocumentBuilderFactory> DOCUMENT_BUILDER_FACTORY_
+            = ThreadLocal.withInitial(() -> {
+                final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                return factory;
+            });
+
     private static final ErrorHandler DISCARD_MESSAGES_HANDLER = new ErrorHandler() {
         /**
          * Does nothing as we're not interested in this.
@@ -126,13 +134,12 @@ public final class XmlUtils {
     public static Document buildDocument(final WebResponse webResponse)
         throws IOException, SAXException, ParserConfigurationException {
 
-        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        final DocumentBuilderFactory factory = DOCUMENT_BUILDER_FACTORY_.get();
 
         if (webResponse == null) {
             return factory.newDocumentBuilder().newDocument();
         }
 
-        factory.setNamespaceAware(true);
         final InputStreamReader reader = new InputStreamReader(
                 new BOMInputStream(webResponse.getContentAsStream()),
                 webResponse.getContentCharset());
@@ -162,6 +169,40 @@ public final class XmlUtils {
         }
     }
 
+    /**
+     * Parses the content of the web response and appends the nodes directly to the parent of the builder,
+     * without building a W3C DOM first.
+     * Blank content is accepted as an empty document.
+     *
+     * @param webResponse the response from the server, {@code null} for an empty document
+     * @param builder the builder to append the nodes
+     * @throws IOException if the content could not be read
+     * @throws SAXException if the parsing fails
+     * @throws ParserConfigurationException if no parser could be created
+     */
+    public static void parse(final WebResponse webResponse, final DomNodeBuilder builder)
+        throws IOException, SAXException, ParserConfigurationException {
+        if (webResponse == null) {
+            return;
+        }
+
+        final InputStreamReader reader = new InputStreamReader(
+                new BOMInputStream(webResponse.getContentAsStream()),
+                webResponse.getContentCharset());
+
+        // we have to do the blank input check and the parsing in one step
+        try (TrackBlankContentReader tracker = new TrackBlankContentReader(reader)) {
+            try {
+                builder.parse(new InputSource(tracker));
+            }
+            catch (final SAXException e) {
+                if (!tracker.wasBlank()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     /**
      * Helper for memory and performance optimization.
      */
@@ -18,73 +18,75 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.eclipse.jetty.websocket.api.Session;
-import org.eclipse.jetty.websocket.api.WebSocketPolicy;
+import org.eclipse.jetty.websocket.api.SuspendToken;
+import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
 
 import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.WebClientOptions;
 
 import net.sourceforge.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
 
 /**
  * Jetty based impl of the WebSocketAdapter.
+ * All adapters of a {@link WebClient} share one Jetty client (see {@link JettyWebSocketClientHolder}).
  *
  * @author Ronald Brill
  */
 public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
-    private WebSocketClient client_;
+    private static final Log LOG = LogFactory.getLog(JettyWebSocketAdapter.class);
+
+    private final WebClient webClient_;
+    private JettyWebSocketClientHolder.Lease lease_;
     private volatile Session incomingSession_;
     private Session outgoingSession_;
+    private SuspendToken suspendToken_;
 
-    public JettyWebSocketAdapter(final WebClient webClient) {
-        final WebClientOptions options = webClient.getOptions();
-
-        if (webClient.getOptions().isUseInsecureSSL()) {
-            client_ = new WebSocketClient(new SslContextFactory(true), null, null);
-            // still use the deprecated method here to be backward compatible with older jersey versions
-            // see https://github.com/HtmlUnit/htmlunit/issues/36
-            // client_ = new WebSocketClient(new SslContextFactory.Client(true), null, null);
-        }
-        else {
-            client_ = new WebSocketClient();
-        }
-
-        // use the same executor as the rest
-        client_.setExecutor(webClient.getExecutor());
+    private volatile long connectTime_;
+    private final AtomicLong messagesSent_ = new AtomicLong();
+    private final AtomicLong bytesSent_ = new AtomicLong();
+    private final AtomicLong messagesReceived_ = new AtomicLong();
+    private final AtomicLong bytesReceived_ = new AtomicLong();
 
-        client_.getHttpClient().setCookieStore(new WebSocketCookieStore(webClient));
+    public JettyWebSocketAdapter(final WebClient webClient) {
+        webClient_ = webClient;
+    }
 
-        final WebSocketPolicy policy = client_.getPolicy();
-        int size = options.getWebSocketMaxBinaryMessageSize();
-        if (size > 0) {
-            policy.setMaxBinaryMessageSize(size);
-        }
-        size = options.getWebSocketMaxBinaryMessageBufferSize();
-        if (size > 0) {
-            policy.setMaxBinaryMessageBufferSize(size);
-        }
-        size = options.getWebSocketMaxTextMessageSize();
-        if (size > 0) {
-            policy.setMaxTextMessageSize(size);
-        }
-        size = options.getWebSocketMaxTextMessageBufferSize();
-        if (size > 0) {
-            policy.setMaxTextMessageBufferSize(size);
-        }
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Stops the Jetty client used by the given web client, even if some web sockets are still open;
+     * the clients shared by the whole JVM are not affected.
+     * @param webClient the web client being closed
+     * @throws Exception in case of error
+     */
+    public static void closeClient(final WebClient webClient) throws Exception {
+        JettyWebSocketClientHolder.release(webClient);
     }
 
     @Override
     public void start() throws Exception {
-        client_.start();
+        synchronized (this) {
+            if (lease_ == null) {
+                lease_ = JettyWebSocketClientHolder.acquire(webClient_);
+            }
+        }
     }
 
     @Override
     public void connect(final URI url) throws Exception {
-        final Future<Session> connectFuture = client_.connect(new JettyWebSocketAdapterImpl(), url);
-        client_.getExecutor().execute(new Runnable() {
+        final WebSocketClient client = lease_.getClient();
+
+        // the client is shared, the cookies have to be part of the request
+        final ClientUpgradeRequest request = new ClientUpgradeRequest();
+        request.setCookies(new WebSocketCookieStore(webClient_).get(url));
+
+        final Future<Session> connectFuture = client.connect(new JettyWebSocketAdapterImpl(), url, request);
+        client.getExecutor().execute(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -101,12 +103,17 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
     @Override
     public void send(final Object content) throws IOException {
         if (content instanceof String) {
-            outgoingSession_.getRemote().sendString((String) content);
+            final String text = (String) content;
+            outgoingSession_.getRemote().sendString(text);
+            messagesSent_.incrementAndGet();
+            bytesSent_.addAndGet(utf8Length(text));
         }
         else if (content instanceof NativeArrayBuffer) {
             final byte[] bytes = ((NativeArrayBuffer) content).getBuffer();
             final ByteBuffer buffer = ByteBuffer.wrap(bytes);
             outgoingSession_.getRemote().sendBytes(buffer);
+            messagesSent_.incrementAndGet();
+            bytesSent_.addAndGet(bytes.length);
         }
         else {
             throw new IllegalStateException(
@@ -114,6 +121,54 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
         }
     }
 
+    @Override
+    public synchronized void suspendIncoming() {
+        final Session session = outgoingSession_;
+        if (suspendToken_ == null && session != null && session.isOpen()) {
+            suspendToken_ = session.suspend();
+        }
+    }
+
+    @Override
+    public synchronized void resumeIncoming() {
+        if (suspendToken_ != null) {
+            final SuspendToken token = suspendToken_;
+            suspendToken_ = null;
+            token.resume();
+        }
+    }
+
+    @Override
+    public WebSocketStatistics getStatistics() {
+        return new WebSocketStatistics(connectTime_, System.currentTimeMillis(),
+                messagesSent_.get(), bytesSent_.get(), messagesReceived_.get(), bytesReceived_.get());
+    }
+
+    /**
+     * Counts the bytes of the UTF-8 representation without creating it.
+     */
+    private static long utf8Length(final String text) {
+        long length = 0;
+        final int chars = text.length();
+        for (int i = 0; i < chars; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            }
+            else if (c < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            }
+            else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
     @Override
     public void closeIncommingSession() throws Exception {
         if (incomingSession_ != null) {
@@ -130,12 +185,16 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
 
     @Override
     public void closeClinet() throws Exception {
-        if (client_ != null) {
-            client_.stop();
-            client_.destroy();
-
-            // TODO finally ?
-            client_ = null;
+        final JettyWebSocketClientHolder.Lease lease;
+        synchronized (this) {
+            lease = lease_;
+            lease_ = null;
+        }
+        if (lease != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("WebSocket closed " + getStatistics());
+            }
+            lease.release();
         }
     }
 
@@ -148,6 +207,7 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
         public void onWebSocketConnect(final Session session) {
             super.onWebSocketConnect(session);
             outgoingSession_ = session;
+            connectTime_ = System.currentTimeMillis();
 
             JettyWebSocketAdapter.this.onWebSocketConnect();
         }
@@ -163,6 +223,8 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
         @Override
         public void onWebSocketText(final String message) {
             super.onWebSocketText(message);
+            messagesReceived_.incrementAndGet();
+            bytesReceived_.addAndGet(utf8Length(message));
 
             JettyWebSocketAdapter.this.onWebSocketText(message);
         }
@@ -170,6 +232,8 @@ public abstract class JettyWebSocketAdapter implements WebSocketAdapter {
         @Override
         public void onWebSocketBinary(final byte[] data, final int offset, final int length) {
             super.onWebSocketBinary(data, offset, length);
+            messagesReceived_.incrementAndGet();
+            bytesReceived_.addAndGet(length);
 
             JettyWebSocketAdapter.this.onWebSocketBinary(data, offset, length);
         }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.websocket;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.util.HttpCookieStore;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.websocket.api.WebSocketPolicy;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebClientOptions;
+
+/**
+ * Keeps the Jetty {@link WebSocketClient}s shared by the {@link JettyWebSocketAdapter}s.
+ *
+ * <p>There is one client per {@link WebClient} or, if {@link WebClientOptions#isWebSocketClientJvmWide()}
+ * is enabled, one client per configuration for the whole JVM. The clients are reference counted;
+ * a client is started by the first {@link #acquire(WebClient)} and stopped when the last lease
+ * is released. The client of a {@link WebClient} is stopped by {@link #release(WebClient)} at the latest,
+ * when the web client is closed.</p>
+ *
+ * <p>The cookies are not taken from the client (this would mix up the cookies of different web clients);
+ * they are part of every connect request.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+final class JettyWebSocketClientHolder {
+
+    private static final Log LOG = LogFactory.getLog(JettyWebSocketClientHolder.class);
+
+    /** Guarded by itself. */
+    private static final Map<Object, Lease> CLIENTS = new HashMap<>();
+
+    private JettyWebSocketClientHolder() {
+    }
+
+    /**
+     * Returns a lease for the (started) client to be used for the given web client.
+     * @param webClient the web client
+     * @return the lease, has to be released if the socket is closed
+     * @throws Exception in case of error
+     */
+    static Lease acquire(final WebClient webClient) throws Exception {
+        final WebClientOptions options = webClient.getOptions();
+        final Object key;
+        if (options.isWebSocketClientJvmWide()) {
+            key = options.isUseInsecureSSL()
+                    + "|" + options.getWebSocketMaxTextMessageSize()
+                    + "|" + options.getWebSocketMaxTextMessageBufferSize()
+                    + "|" + options.getWebSocketMaxBinaryMessageSize()
+                    + "|" + options.getWebSocketMaxBinaryMessageBufferSize()
+                    + "|" + options.getWebSocketSelectors()
+                    + "|" + options.getWebSocketWorkerThreads();
+        }
+        else {
+            key = webClient;
+        }
+
+        synchronized (CLIENTS) {
+            Lease lease = CLIENTS.get(key);
+            if (lease == null) {
+                lease = new Lease(key, createClient(webClient, options.isWebSocketClientJvmWide()));
+                try {
+                    lease.client_.getHttpClient().start();
+                    lease.client_.start();
+                }
+                catch (final Exception e) {
+                    try {
+                        lease.stop();
+                    }
+                    catch (final Exception ex) {
+                        e.addSuppressed(ex);
+                    }
+                    throw e;
+                }
+                CLIENTS.put(key, lease);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("WebSocket client started for " + key);
+                }
+            }
+            lease.references_++;
+            return lease;
+        }
+    }
+
+    /**
+     * Stops the client of the given web client, even if some leases are not yet released;
+     * the clients shared by the whole JVM are not affected.
+     * @param webClient the web client
+     * @throws Exception in case of error
+     */
+    static void release(final WebClient webClient) throws Exception {
+        final Lease lease;
+        synchronized (CLIENTS) {
+            lease = CLIENTS.remove(webClient);
+            if (lease == null) {
+                return;
+            }
+            lease.released_ = true;
+        }
+        lease.stop();
+    }
+
+    private static WebSocketClient createClient(final WebClient webClient, final boolean jvmWide) {
+        final WebClientOptions options = webClient.getOptions();
+
+        final SslContextFactory sslContextFactory;
+        if (options.isUseInsecureSSL()) {
+            // still use the deprecated method here to be backward compatible with older jersey versions
+            // see https://github.com/HtmlUnit/htmlunit/issues/36
+            sslContextFactory = new SslContextFactory(true);
+        }
+        else {
+            sslContextFactory = new SslContextFactory.Client();
+        }
+
+        final HttpClientTransportOverHTTP transport;
+        if (options.getWebSocketSelectors() > 0) {
+            transport = new HttpClientTransportOverHTTP(options.getWebSocketSelectors());
+        }
+        else {
+            transport = new HttpClientTransportOverHTTP();
+        }
+        final HttpClient httpClient = new HttpClient(transport, sslContextFactory);
+        httpClient.setCookieStore(new HttpCookieStore.Empty());
+
+        Executor executor = null;
+        if (options.getWebSocketWorkerThreads() > 0) {
+            final QueuedThreadPool threadPool = new QueuedThreadPool(options.getWebSocketWorkerThreads());
+            threadPool.setName("WebSocket");
+            threadPool.setDaemon(true);
+            executor = threadPool;
+        }
+        else if (!jvmWide) {
+            // use the same executor as the rest
+            executor = webClient.getExecutor();
+        }
+        if (executor != null) {
+            httpClient.setExecutor(executor);
+        }
+
+        final WebSocketClient client = new WebSocketClient(httpClient);
+        if (executor != null) {
+            client.setExecutor(executor);
+        }
+
+        final WebSocketPolicy policy = client.getPolicy();
+        int size = options.getWebSocketMaxBinaryMessageSize();
+        if (size > 0) {
+            policy.setMaxBinaryMessageSize(size);
+        }
+        size = options.getWebSocketMaxBinaryMessageBufferSize();
+        if (size > 0) {
+            policy.setMaxBinaryMessageBufferSize(size);
+        }
+        size = options.getWebSocketMaxTextMessageSize();
+        if (size > 0) {
+            policy.setMaxTextMessageSize(size);
+        }
+        size = options.getWebSocketMaxTextMessageBufferSize();
+        if (size > 0) {
+            policy.setMaxTextMessageBufferSize(size);
+        }
+        return client;
+    }
+
+    /**
+     * A reference to a shared client.
+     */
+    static final class Lease {
+        private final Object key_;
+        private final WebSocketClient client_;
+        private int references_;
+        private boolean released_;
+
+        Lease(final Object key, final WebSocketClient client) {
+            key_ = key;
+            client_ = client;
+        }
+
+        /**
+         * @return the client
+         */
+        WebSocketClient getClient() {
+            return client_;
+        }
+
+        /**
+         * Releases this lease; stops the client if this was the last one.
+         * @throws Exception in case of error
+         */
+        void release() throws Exception {
+            synchronized (CLIENTS) {
+                if (released_ || --references_ > 0) {
+                    return;
+                }
+                released_ = true;
+                CLIENTS.remove(key_);
+            }
+            stop();
+        }
+
+        private void stop() throws Exception {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("WebSocket client stopped for " + key_);
+            }
+            final HttpClient httpClient = client_.getHttpClient();
+            try {
+                client_.stop();
+                client_.destroy();
+            }
+            finally {
+                httpClient.stop();
+            }
+        }
+    }
+}
@@ -36,6 +36,12 @@ public interface WebSocketAdapter {
 
     void closeClinet() throws Exception;
 
+    WebSocketStatistics getStatistics();
+
+    void suspendIncoming();
+
+    void resumeIncoming();
+
     void onWebSocketConnecting();
 
     void onWebSocketConnect();
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.websocket;
+
+/**
+ * A snapshot of the traffic of one WebSocket connection.
+ * Text messages are counted with the length of their UTF-8 representation.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class WebSocketStatistics {
+
+    private final long connectTime_;
+    private final long snapshotTime_;
+    private final long messagesSent_;
+    private final long bytesSent_;
+    private final long messagesReceived_;
+    private final long bytesReceived_;
+
+    /**
+     * Ctor.
+     * @param connectTime the time the connection was established, 0 if not connected
+     * @param snapshotTime the time this snapshot was taken
+     * @param messagesSent the number of messages sent
+     * @param bytesSent the number of payload bytes sent
+     * @param messagesReceived the number of messages received
+     * @param bytesReceived the number of payload bytes received
+     */
+    public WebSocketStatistics(final long connectTime, final long snapshotTime,
+            final long messagesSent, final long bytesSent,
+            final long messagesReceived, final long bytesReceived) {
+        connectTime_ = connectTime;
+        snapshotTime_ = snapshotTime;
+        messagesSent_ = messagesSent;
+        bytesSent_ = bytesSent;
+        messagesReceived_ = messagesReceived;
+        bytesReceived_ = bytesReceived;
+    }
+
+    /**
+     * @return the time (in milliseconds since the epoch) the connection was established, 0 if not connected
+     */
+    public long getConnectTime() {
+        return connectTime_;
+    }
+
+    /**
+     * @return the time (in milliseconds) the connection is established
+     */
+    public long getDuration() {
+        if (connectTime_ == 0) {
+            return 0;
+        }
+        return snapshotTime_ - connectTime_;
+    }
+
+    /**
+     * @return the number of messages sent
+     */
+    public long getMessagesSent() {
+        return messagesSent_;
+    }
+
+    /**
+     * @return the number of payload bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent_;
+    }
+
+    /**
+     * @return the number of messages received
+     */
+    public long getMessagesReceived() {
+        return messagesReceived_;
+    }
+
+    /**
+     * @return the number of payload bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived_;
+    }
+
+    /**
+     * @return the average number of payload bytes sent per second
+     */
+    public double getSendThroughput() {
+        return perSecond(bytesSent_);
+    }
+
+    /**
+     * @return the average number of payload bytes received per second
+     */
+    public double getReceiveThroughput() {
+        return perSecond(bytesReceived_);
+    }
+
+    private double perSecond(final long value) {
+        final long duration = getDuration();
+        if (duration <= 0) {
+            return 0;
+        }
+        return value * 1000d / duration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "WebSocketStatistics[duration=" + getDuration() + "ms"
+                + ", sent=" + messagesSent_ + " messages/" + bytesSent_ + " bytes"
+                + ", received=" + messagesReceived_ + " messages/" + bytesReceived_ + " bytes"
+                + ", sendThroughput=" + (long) getSendThroughput() + " bytes/s"
+                + ", receiveThroughput=" + (long) getReceiveThroughput() + " bytes/s]";
+    }
+}
@@ -20,8 +20,6 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -43,6 +41,7 @@ import com.gargoylesoftware.htmlunit.WebWindow;
 import com.gargoylesoftware.htmlunit.html.DomAttr;
 import com.gargoylesoftware.htmlunit.html.DomElement;
 import com.gargoylesoftware.htmlunit.html.DomProcessingInstruction;
+import com.gargoylesoftware.htmlunit.util.DomNodeBuilder;
 import com.gargoylesoftware.htmlunit.util.XmlUtils;
 
 /**
@@ -119,12 +118,18 @@ public class XmlPage extends SgmlPage {
         final boolean handleXHTMLAsHTML) throws IOException {
         super(webResponse, enclosingWindow);
 
+        // the nodes are created directly from the parser events, without building a W3C DOM first
+        final DomNodeBuilder builder = new DomNodeBuilder(this, this, handleXHTMLAsHTML);
+        builder.setSortAttributes(!getWebClient().getBrowserVersion().hasFeature(JS_XML));
         try {
             try {
-                final Document document = XmlUtils.buildDocument(webResponse);
-                node_ = document.getFirstChild();
+                XmlUtils.parse(webResponse, builder);
             }
             catch (final SAXException e) {
+                // an invalid document has no content at all
+                removeAllChildren();
+                setDocumentType(null);
+
                 if (LOG.isWarnEnabled()) {
                     LOG.warn("Failed parsing XML document " + webResponse.getWebRequest().getUrl()
                             + ": " + e.getMessage());
@@ -145,17 +150,6 @@ public class XmlPage extends SgmlPage {
                 }
             }
         }
-
-        final Map<Integer, List<String>> attributesOrderMap;
-        if (node_ != null && getWebClient().getBrowserVersion().hasFeature(JS_XML)) {
-            attributesOrderMap = XmlUtils.getAttributesOrderMap(node_.getOwnerDocument());
-        }
-        else {
-            attributesOrderMap = null;
-        }
-        for (Node node = node_; node != null; node = node.getNextSibling()) {
-            XmlUtils.appendChild(this, this, node, handleXHTMLAsHTML, attributesOrderMap);
-        }
     }
 
     /**
@@ -176,13 +170,29 @@ public class XmlPage extends SgmlPage {
 
     /**
      * Returns the DOM representation of the XML content.
+     * The page itself is not built from it, therefore it is parsed again from the response on the first call.
      * @return {@code null} if the content couldn't be parsed
      */
     public Document getXmlDocument() {
         if (node_ != null) {
             return node_.getOwnerDocument();
         }
-        return null;
+        if (getFirstChild() == null || getWebResponse() == null) {
+            return null;
+        }
+
+        try {
+            final Document document = XmlUtils.buildDocument(getWebResponse());
+            node_ = document.getFirstChild();
+            return document;
+        }
+        catch (final IOException | SAXException | ParserConfigurationException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Failed parsing XML document " + getWebResponse().getWebRequest().getUrl()
+                        + ": " + e.getMessage());
+            }
+            return null;
+        }
     }
 
     /**
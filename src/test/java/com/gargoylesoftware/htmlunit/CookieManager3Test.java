@@ -18,8 +18,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.http.Header;
 import org.apache.http.cookie.CookieOrigin;
@@ -97,6 +100,95 @@ public class CookieManager3Test {
         assertEquals(1, mgr.getCookies().size());
     }
 
+    /**
+     * Verifies the lookup of the cookies by domain.
+     */
+    @Test
+    public void domainCookies() {
+        final CookieManager mgr = new CookieManager();
+        mgr.addCookie(new Cookie("example.com", "a", "1"));
+        mgr.addCookie(new Cookie(".example.com", "b", "2"));
+        mgr.addCookie(new Cookie("www.example.com", "c", "3"));
+        mgr.addCookie(new Cookie("other.com", "d", "4"));
+        mgr.addCookie(new Cookie("example.com", "e", "5"));
+
+        List<Cookie> cookies = mgr.getDomainCookies("www.Example.com");
+        assertEquals(4, cookies.size());
+        assertEquals("a", cookies.get(0).getName());
+        assertEquals("b", cookies.get(1).getName());
+        assertEquals("c", cookies.get(2).getName());
+        assertEquals("e", cookies.get(3).getName());
+
+        cookies = mgr.getDomainCookies("example.com");
+        assertEquals(3, cookies.size());
+
+        assertTrue(mgr.getDomainCookies("example.org").isEmpty());
+        assertTrue(mgr.getDomainCookies("").isEmpty());
+
+        // replacing moves the cookie to the end
+        mgr.addCookie(new Cookie("example.com", "a", "6"));
+        cookies = mgr.getDomainCookies("example.com");
+        assertEquals(3, cookies.size());
+        assertEquals("a", cookies.get(2).getName());
+        assertEquals("6", cookies.get(2).getValue());
+
+        mgr.removeCookie(new Cookie(".example.com", "b", "2"));
+        assertEquals(2, mgr.getDomainCookies("example.com").size());
+
+        mgr.clearCookies();
+        assertTrue(mgr.getDomainCookies("www.example.com").isEmpty());
+    }
+
+    /**
+     * Verifies that the lookup by domain uses the cookies of a subclass overriding getCookies().
+     */
+    @Test
+    public void domainCookiesOverriddenGetCookies() {
+        final Set<Cookie> cookies = new LinkedHashSet<>();
+        cookies.add(new Cookie("example.com", "a", "1"));
+        cookies.add(new Cookie("other.com", "b", "2"));
+        cookies.add(new Cookie(".www.example.com", "c", "3"));
+        final CookieManager mgr = new CookieManager() {
+            @Override
+            public Set<Cookie> getCookies() {
+                return Collections.unmodifiableSet(cookies);
+            }
+        };
+
+        List<Cookie> found = mgr.getDomainCookies("www.example.com");
+        assertEquals(2, found.size());
+        assertEquals("a", found.get(0).getName());
+        assertEquals("c", found.get(1).getName());
+
+        found = mgr.getDomainCookies("example.com");
+        assertEquals(1, found.size());
+        assertTrue(mgr.getDomainCookies("notexample.com").isEmpty());
+    }
+
+    /**
+     * Verifies that expired cookies are removed from the domain index.
+     */
+    @Test
+    public void domainCookiesExpired() {
+        final CookieManager mgr = new CookieManager();
+        final long now = System.currentTimeMillis();
+        mgr.addCookie(new Cookie("example.com", "a", "1", "/", new Date(now + 5_000), false));
+        mgr.addCookie(new Cookie("example.com", "b", "2", "/", new Date(now + 20_000), false));
+        mgr.addCookie(new Cookie("example.com", "c", "3"));
+
+        assertFalse(mgr.clearExpired(new Date(now + 1_000)));
+        assertEquals(3, mgr.getDomainCookies("example.com").size());
+
+        assertTrue(mgr.clearExpired(new Date(now + 10_000)));
+        assertEquals(2, mgr.getDomainCookies("example.com").size());
+        assertEquals(2, mgr.getCookies().size());
+
+        // replaced cookies must not be removed by their old expiration date
+        mgr.addCookie(new Cookie("example.com", "b", "4"));
+        assertFalse(mgr.clearExpired(new Date(now + 30_000)));
+        assertEquals(2, mgr.getDomainCookies("example.com").size());
+    }
+
     /**
      * Test that " are not discarded.
      * Once this test passes, our hack in HttpWebConnection.HtmlUnitBrowserCompatCookieSpec can safely be removed.
@@ -14,10 +14,12 @@
  */
 package com.gargoylesoftware.htmlunit;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
 
 /**
  * Tests for {@link History} with {@link WebClient}.
@@ -183,4 +185,82 @@ public class History2Test extends SimpleWebTestCase {
 
         assertEquals(7, getMockWebConnection().getRequestCount() - startCount);
     }
+
+    /**
+     * Tests going back in history should use the page cache, but we have
+     * to respect the HistoryPageCacheMemoryLimit.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void historyPageCacheMemoryLimit() throws Exception {
+        final String content = "<html><head>\n"
+                + "</head>\n"
+                + "<body>\n"
+                + "</body></html>";
+
+        final int startCount = getMockWebConnection().getRequestCount();
+        getMockWebConnection().setDefaultResponse(content);
+        final WebClient webClient = getWebClientWithMockWebConnection();
+        webClient.getOptions().setHistorySizeLimit(5);
+
+        final TopLevelWindow window = (TopLevelWindow) webClient.getCurrentWindow();
+        final History history = window.getHistory();
+
+        final long pageSize = HistoryPageCache.estimateSize(loadPage(content));
+        // room for two and a half pages
+        webClient.getOptions().setHistoryPageCacheMemoryLimit(2 * pageSize + pageSize / 2);
+
+        loadPage(content);
+        loadPage(content);
+        loadPage(content);
+        loadPage(content);
+        assertTrue(webClient.getHistoryPageCache().getSize() <= 2 * pageSize + pageSize / 2);
+
+        history.back();
+        history.back();
+        history.back();
+
+        assertEquals(7, getMockWebConnection().getRequestCount() - startCount);
+    }
+
+    /**
+     * Tests that evicted pages are restored from their compressed form, but only
+     * if they have no JavaScript scope.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void historyPageCacheCompression() throws Exception {
+        try (WebClient webClient = new WebClient(getBrowserVersion(), false, false, null, -1)) {
+            assertEquals(0, backAfterEviction(webClient));
+        }
+        try (WebClient webClient = new WebClient(getBrowserVersion())) {
+            assertEquals(1, backAfterEviction(webClient));
+        }
+    }
+
+    /**
+     * Loads three pages with room for one and a half pages in the cache and goes back.
+     * @return the number of requests done when going back
+     */
+    private int backAfterEviction(final WebClient webClient) throws Exception {
+        final String body = "<body>" + StringUtils.repeat('x', 20_000) + "</body></html>";
+        final MockWebConnection connection = new MockWebConnection();
+        connection.setResponse(URL_FIRST, "<html><head><title>first</title></head>" + body);
+        connection.setResponse(URL_SECOND, "<html><head><title>second</title></head>" + body);
+        connection.setResponse(URL_THIRD, "<html><head><title>third</title></head>" + body);
+        webClient.setWebConnection(connection);
+        webClient.getOptions().setHistoryPageCacheCompression(true);
+
+        final long pageSize = HistoryPageCache.estimateSize(webClient.getPage(URL_FIRST));
+        webClient.getOptions().setHistoryPageCacheMemoryLimit(pageSize + pageSize / 2);
+        webClient.getPage(URL_SECOND);
+        webClient.getPage(URL_THIRD);
+
+        final int requestCount = connection.getRequestCount();
+        ((TopLevelWindow) webClient.getCurrentWindow()).getHistory().back();
+        assertEquals("second", ((HtmlPage) webClient.getCurrentWindow().getEnclosedPage()).getTitleText());
+        return connection.getRequestCount() - requestCount;
+    }
 }
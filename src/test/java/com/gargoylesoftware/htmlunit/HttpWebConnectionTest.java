@@ -28,6 +28,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -268,6 +269,42 @@ public class HttpWebConnectionTest extends WebServerTestCase {
         }
     }
 
+    /**
+     * Tests that many threads can share one connection.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void concurrentRequests() throws Exception {
+        startWebServer("./");
+
+        final WebClient webClient = getWebClient();
+        final HttpWebConnection webConnection = (HttpWebConnection) webClient.getWebConnection();
+        final URL url = new URL(URL_FIRST, "LICENSE.txt");
+
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 5; j++) {
+                        final WebResponse response = webConnection.getResponse(new WebRequest(url));
+                        assertEquals(HttpStatus.SC_OK, response.getStatusCode());
+                        response.cleanUp();
+                    }
+                }
+                catch (final Throwable e) {
+                    errors.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+
     /**
      * Test that the right file part is built for a file that doesn't exist.
      * @throws Exception if the test fails
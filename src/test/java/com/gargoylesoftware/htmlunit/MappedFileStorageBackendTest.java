@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MappedFileStorageBackend}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class MappedFileStorageBackendTest {
+
+    /** Provides a directory for the storage files. */
+    @Rule
+    public final TemporaryFolder tmpFolder_ = new TemporaryFolder();
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void persistAndReload() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            final Map<String, String> store = backend.getStore("http://localhost:http");
+            store.put("a", "1");
+            store.put("b", "2");
+            store.put("a", "3");
+            store.put("c", "\u00e4\u20ac");
+            store.remove("b");
+            backend.getStore("http://other:http").put("x", "y");
+        }
+
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            final Map<String, String> store = backend.getStore("http://localhost:http");
+            assertEquals(2, store.size());
+            assertEquals("3", store.get("a"));
+            assertNull(store.get("b"));
+            assertEquals("\u00e4\u20ac", store.get("c"));
+            assertEquals("[a, c]", store.keySet().toString());
+
+            store.clear();
+            assertEquals(1, backend.getStore("http://other:http").size());
+        }
+
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            assertTrue(backend.getStore("http://localhost:http").isEmpty());
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void compaction() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        final String value = new String(new char[1000]).replace('\0', 'x');
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            final Map<String, String> store = backend.getStore("key");
+            for (int i = 0; i < 1000; i++) {
+                store.put("item", value + i);
+            }
+            store.put("other", "o");
+            assertEquals(value + 999, store.get("item"));
+            assertEquals("o", store.get("other"));
+        }
+
+        final File[] files = dir.listFiles();
+        assertEquals(1, files.length);
+        assertTrue(files[0].length() < 100_000);
+
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            assertEquals(value + 999, backend.getStore("key").get("item"));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void entrySetIsSnapshot() throws Exception {
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(tmpFolder_.newFolder())) {
+            final Map<String, String> store = backend.getStore("key");
+            store.put("a", "1");
+            store.put("b", "2");
+            for (final Map.Entry<String, String> entry : store.entrySet()) {
+                store.put(entry.getKey() + entry.getKey(), entry.getValue());
+            }
+            assertEquals("{a=1, b=2, aa=1, bb=2}", store.toString());
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void quota() throws Exception {
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(tmpFolder_.newFolder(), 10)) {
+            final Map<String, String> store = backend.getStore("key");
+            store.put("abc", "1234567");
+            try {
+                store.put("d", "e");
+                fail("QuotaExceededException expected");
+            }
+            catch (final StorageBackend.QuotaExceededException e) {
+                // expected
+            }
+            assertEquals(1, store.size());
+
+            // replacing a value frees the old one
+            store.put("abc", "7654321");
+            assertEquals("7654321", store.get("abc"));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void originInUse() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            backend.getStore("key").put("a", "1");
+
+            try (MappedFileStorageBackend other = new MappedFileStorageBackend(dir)) {
+                final Map<String, String> store = other.getStore("key");
+                try {
+                    store.put("b", "2");
+                    fail("UncheckedIOException expected");
+                }
+                catch (final UncheckedIOException e) {
+                    // expected
+                }
+
+                // other origins can still be used
+                other.getStore("other").put("c", "3");
+            }
+
+            backend.getStore("key").put("d", "4");
+            assertEquals("{a=1, d=4}", backend.getStore("key").toString());
+        }
+
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(dir)) {
+            assertEquals("{a=1, d=4}", backend.getStore("key").toString());
+            assertEquals("{c=3}", backend.getStore("other").toString());
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void closed() throws Exception {
+        final MappedFileStorageBackend backend = new MappedFileStorageBackend(tmpFolder_.newFolder());
+        final Map<String, String> store = backend.getStore("key");
+        store.put("a", "1");
+        backend.close();
+
+        try {
+            store.get("a");
+            fail("IllegalStateException expected");
+        }
+        catch (final IllegalStateException e) {
+            // expected
+        }
+
+        try {
+            backend.getStore("key");
+            fail("IllegalStateException expected");
+        }
+        catch (final IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.gargoylesoftware.htmlunit;
 
+import java.net.URL;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
@@ -136,4 +137,47 @@ public class ProxyAutoConfigTest extends SimpleWebTestCase {
         final boolean isInNet = ProxyAutoConfig.isInNet("172.22.0.7", "172.16.0.0", "255.240.0.0");
         assertTrue(isInNet);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void compiled() throws Exception {
+        final String content = "var count = { value: 0 };\n"
+            + "function FindProxyForURL(url, host) {\n"
+            + "  count.value++;\n"
+            + "  if (dnsDomainIs(host, 'example.com')) {\n"
+            + "    return 'PROXY proxy.example.com:8080; DIRECT';\n"
+            + "  }\n"
+            + "  return 'DIRECT ' + count.value;\n"
+            + "}\n";
+        final ProxyAutoConfig config = ProxyAutoConfig.compile(content, 0);
+        assertEquals("PROXY proxy.example.com:8080; DIRECT",
+                config.findProxyForURL(new URL("http://www.example.com/test.html")));
+        assertEquals("DIRECT 2", config.findProxyForURL(URL_FIRST));
+        assertEquals("DIRECT 3", config.findProxyForURL(URL_FIRST));
+
+        final ProxyAutoConfig cached = ProxyAutoConfig.compile(content, 60_000);
+        assertEquals("DIRECT 1", cached.findProxyForURL(URL_FIRST));
+        assertEquals("DIRECT 1", cached.findProxyForURL(URL_FIRST));
+        assertEquals("DIRECT 2", cached.findProxyForURL(new URL(URL_FIRST, "other.html")));
+        assertEquals("DIRECT 3", cached.findProxyForURL(new URL("http://www.example.org/")));
+    }
+
+    /**
+     * The compiled scope is sealed; scripts writing global variables are evaluated the old way.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void compiledWritingGlobals() throws Exception {
+        final String content = "var count = 0;\n"
+            + "function FindProxyForURL(url, host) {\n"
+            + "  count++;\n"
+            + "  return 'DIRECT ' + count;\n"
+            + "}\n";
+        final ProxyAutoConfig config = ProxyAutoConfig.compile(content, 0);
+        assertEquals("DIRECT 1", config.findProxyForURL(URL_FIRST));
+        assertEquals("DIRECT 1", config.findProxyForURL(URL_FIRST));
+        assertEquals("DIRECT 1", config.findProxyForURL(URL_SECOND));
+    }
 }
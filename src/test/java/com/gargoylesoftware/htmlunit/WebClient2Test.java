@@ -16,11 +16,15 @@ package com.gargoylesoftware.htmlunit;
 
 import static com.gargoylesoftware.htmlunit.httpclient.HtmlUnitBrowserCompatCookieSpec.EMPTY_COOKIE_NAME;
 
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.time.DateUtils;
@@ -30,6 +34,7 @@ import org.junit.runner.RunWith;
 import com.gargoylesoftware.htmlunit.BrowserRunner.NotYetImplemented;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 import com.gargoylesoftware.htmlunit.util.Cookie;
+import com.gargoylesoftware.htmlunit.util.MimeType;
 
 /**
  * Tests for {@link WebClient} that run with BrowserRunner.
@@ -323,4 +328,47 @@ public class WebClient2Test extends SimpleWebTestCase {
         // Fails: return 98 (about) instead of 1
         assertEquals(1, page.querySelectorAll("p").size());
     }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void loadTimingListener() throws Exception {
+        final String html = "<html><head>\n"
+                + "<link rel='stylesheet' href='style.css'>\n"
+                + "<script src='script.js'></script>\n"
+                + "</head>\n"
+                + "<body><p>hello</p></body></html>";
+
+        final MockWebConnection webConnection = getMockWebConnection();
+        webConnection.setResponse(URL_FIRST, html);
+        webConnection.setResponse(new URL(URL_FIRST, "style.css"), "p { color: red; }", MimeType.TEXT_CSS);
+        webConnection.setResponse(new URL(URL_FIRST, "script.js"), "var x = 1;", MimeType.APPLICATION_JAVASCRIPT);
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        final Set<LoadPhase> phases = EnumSet.noneOf(LoadPhase.class);
+        final LoadTimingListener listener = (page, name, phase, startNanos, durationNanos) -> {
+            assertTrue(durationNanos >= 0);
+            phases.add(phase);
+        };
+        client.addLoadTimingListener(listener);
+
+        final HtmlPage page = client.getPage(URL_FIRST);
+        assertTrue(page.getBody().isDisplayed());
+        client.waitForBackgroundJavaScript(100);
+        client.removeLoadTimingListener(listener);
+
+        assertEquals(EnumSet.allOf(LoadPhase.class), phases);
+
+        final PageLoadTiming timing = page.getLoadTiming();
+        assertTrue(timing.get(PageLoadTiming.Mark.NAVIGATION_START) > 0);
+        assertTrue(timing.get(PageLoadTiming.Mark.LOAD_EVENT_END)
+                >= timing.get(PageLoadTiming.Mark.NAVIGATION_START));
+
+        final List<String> initiators = new ArrayList<>();
+        for (final ResourceTiming resource : timing.getResources()) {
+            initiators.add(resource.getInitiatorType());
+        }
+        assertEquals(Arrays.asList("script", "link"), initiators);
+    }
 }
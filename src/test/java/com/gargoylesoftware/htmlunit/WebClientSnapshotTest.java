@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.idb.InMemoryKeyValueStoreBackend;
+import com.gargoylesoftware.htmlunit.javascript.host.idb.MappedFileKeyValueStoreBackend;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+
+/**
+ * Tests for {@link WebClientSnapshot}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class WebClientSnapshotTest extends SimpleWebTestCase {
+
+    /** Provides a directory for the storage files. */
+    @Rule
+    public final TemporaryFolder tmpFolder_ = new TemporaryFolder();
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void forksAreIndependent() throws Exception {
+        final String html = "<html><head><title>t1</title>\n"
+            + "<script>\n"
+            + "  var counter = 1;\n"
+            + "  document.cookie = 'session=abc';\n"
+            + "  function inc() {\n"
+            + "    counter++;\n"
+            + "    document.title = 't' + counter;\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body>hello</body></html>";
+
+        final HtmlPage page = loadPageWithAlerts(html);
+        final WebClientSnapshot snapshot = WebClientSnapshot.of(page.getWebClient());
+        assertTrue(snapshot.getSharedCount() > 0);
+
+        try (WebClient fork1 = snapshot.fork();
+                WebClient fork2 = snapshot.fork()) {
+            final HtmlPage page1 = (HtmlPage) fork1.getCurrentWindow().getTopWindow().getEnclosedPage();
+            final HtmlPage page2 = (HtmlPage) fork2.getCurrentWindow().getTopWindow().getEnclosedPage();
+            assertNotSame(page, page1);
+            assertNotSame(page1, page2);
+
+            page1.executeJavaScript("inc()");
+            page1.executeJavaScript("inc()");
+            page2.executeJavaScript("inc()");
+
+            assertEquals("t3", page1.getTitleText());
+            assertEquals("t2", page2.getTitleText());
+            assertEquals("t1", page.getTitleText());
+
+            assertEquals("hello", page2.getBody().asText());
+            assertEquals("session=abc", page2.executeJavaScript("document.cookie").getJavaScriptResult());
+            assertEquals(1, fork1.getCookieManager().getCookies().size());
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void forksCopyPersistentStorage() throws Exception {
+        final String html = "<html><head><title>storage</title>\n"
+            + "<script>\n"
+            + "  localStorage.setItem('shared', 'original');\n"
+            + "</script></head>\n"
+            + "<body></body></html>";
+
+        try (MappedFileStorageBackend backend = new MappedFileStorageBackend(tmpFolder_.newFolder())) {
+            getWebClient().getStorageHolder().setBackend(backend);
+            final HtmlPage page = loadPage(html);
+            final WebClientSnapshot snapshot = WebClientSnapshot.of(page.getWebClient());
+
+            try (WebClient fork1 = snapshot.fork();
+                    WebClient fork2 = snapshot.fork()) {
+                assertTrue(fork1.getStorageHolder().getBackend() instanceof InMemoryStorageBackend);
+
+                final HtmlPage page1 = (HtmlPage) fork1.getCurrentWindow().getTopWindow().getEnclosedPage();
+                final HtmlPage page2 = (HtmlPage) fork2.getCurrentWindow().getTopWindow().getEnclosedPage();
+
+                page1.executeJavaScript("localStorage.setItem('fork', 'one')");
+                page2.executeJavaScript("localStorage.setItem('fork', 'two');"
+                        + "localStorage.setItem('shared', 'changed')");
+
+                final String script = "localStorage.getItem('fork') + ' ' + localStorage.getItem('shared')";
+                assertEquals("one original", page1.executeJavaScript(script).getJavaScriptResult());
+                assertEquals("two changed", page2.executeJavaScript(script).getJavaScriptResult());
+                assertEquals("null original", page.executeJavaScript(script).getJavaScriptResult());
+            }
+
+            assertEquals("{shared=original}", backend.getStore("http://localhost:http").toString());
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void forksCopyPersistentIndexedDb() throws Exception {
+        final String html = "<html><head><title>idb</title>\n"
+            + "<script>\n"
+            + "  function write(value) {\n"
+            + "    var request = indexedDB.open('db', 1);\n"
+            + "    request.onupgradeneeded = function() {\n"
+            + "      request.result.createObjectStore('items');\n"
+            + "    };\n"
+            + "    request.onsuccess = function() {\n"
+            + "      var db = request.result;\n"
+            + "      var tx = db.transaction('items', 'readwrite');\n"
+            + "      tx.objectStore('items').put(value, 'key');\n"
+            + "      tx.oncomplete = function() {\n"
+            + "        db.close();\n"
+            + "        read();\n"
+            + "      };\n"
+            + "    };\n"
+            + "  }\n"
+            + "  function read() {\n"
+            + "    var request = indexedDB.open('db', 1);\n"
+            + "    request.onsuccess = function() {\n"
+            + "      var db = request.result;\n"
+            + "      db.transaction('items').objectStore('items').get('key').onsuccess = function(e) {\n"
+            + "        document.title = e.target.result;\n"
+            + "        db.close();\n"
+            + "      };\n"
+            + "    };\n"
+            + "  }\n"
+            + "  write('original');\n"
+            + "</script></head>\n"
+            + "<body></body></html>";
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(tmpFolder_.newFolder())) {
+            getWebClient().getStorageHolder().setIndexedDbBackend(backend);
+            final HtmlPage page = loadPage(html);
+            getWebClient().waitForBackgroundJavaScript(1000);
+            assertEquals("original", page.getTitleText());
+
+            final WebClientSnapshot snapshot = WebClientSnapshot.of(page.getWebClient());
+            try (WebClient fork1 = snapshot.fork();
+                    WebClient fork2 = snapshot.fork()) {
+                assertTrue(fork1.getStorageHolder().getIndexedDbBackend() instanceof InMemoryKeyValueStoreBackend);
+
+                final HtmlPage page1 = (HtmlPage) fork1.getCurrentWindow().getTopWindow().getEnclosedPage();
+                final HtmlPage page2 = (HtmlPage) fork2.getCurrentWindow().getTopWindow().getEnclosedPage();
+
+                page1.executeJavaScript("read()");
+                fork1.waitForBackgroundJavaScript(1000);
+                assertEquals("original", page1.getTitleText());
+
+                page1.executeJavaScript("write('one')");
+                page2.executeJavaScript("write('two')");
+                fork1.waitForBackgroundJavaScript(1000);
+                fork2.waitForBackgroundJavaScript(1000);
+                assertEquals("one", page1.getTitleText());
+                assertEquals("two", page2.getTitleText());
+
+                page.executeJavaScript("read()");
+                getWebClient().waitForBackgroundJavaScript(1000);
+                assertEquals("original", page.getTitleText());
+            }
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void forksOwnTheirTemporaryFiles() throws Exception {
+        final String html = "<html><head><title>on file</title></head><body></body></html>";
+        final DownloadedContent content = HttpWebConnection.downloadContent(
+                new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), 0);
+        assertTrue(content instanceof DownloadedContent.OnFile);
+
+        final WebClient client = getWebClient();
+        final List<NameValuePair> headers = Collections.singletonList(
+                new NameValuePair(HttpHeader.CONTENT_TYPE, "text/html"));
+        final WebResponse response = new WebResponse(new WebResponseData(content, 200, "OK", headers),
+                new WebRequest(URL_FIRST), 0);
+        final HtmlPage page = (HtmlPage) client.loadWebResponseInto(response, client.getCurrentWindow());
+
+        final WebClientSnapshot snapshot = WebClientSnapshot.of(client);
+        try (WebClient fork1 = snapshot.fork();
+                WebClient fork2 = snapshot.fork()) {
+            final HtmlPage page1 = (HtmlPage) fork1.getCurrentWindow().getTopWindow().getEnclosedPage();
+            final HtmlPage page2 = (HtmlPage) fork2.getCurrentWindow().getTopWindow().getEnclosedPage();
+
+            page1.getWebResponse().cleanUp();
+            assertEquals(html, page2.getWebResponse().getContentAsString());
+            assertEquals(html, page.getWebResponse().getContentAsString());
+
+            page.getWebResponse().cleanUp();
+            assertEquals(html, page2.getWebResponse().getContentAsString());
+        }
+        try (WebClient fork3 = snapshot.fork()) {
+            assertEquals(html, fork3.getCurrentWindow().getEnclosedPage().getWebResponse().getContentAsString());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.util.MimeType;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+
+/**
+ * The page fixtures used by the benchmarks; they are served by a {@link MockWebConnection}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public final class BenchmarkFixtures {
+
+    /** The url of the article page. */
+    public static final URL ARTICLE_URL;
+    /** The url of the style sheet used by the article page. */
+    public static final URL CSS_URL;
+    /** The url of the script used by the article page. */
+    public static final URL SCRIPT_URL;
+
+    static {
+        try {
+            ARTICLE_URL = new URL("http://localhost:12345/news/article.html");
+            CSS_URL = new URL(ARTICLE_URL, "site.css");
+            SCRIPT_URL = new URL(ARTICLE_URL, "site.js");
+        }
+        catch (final MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BenchmarkFixtures() {
+        // util class
+    }
+
+    /**
+     * Returns the content of a fixture.
+     * @param name the file name of the fixture
+     * @return the content
+     * @throws IOException in case of error
+     */
+    public static String load(final String name) throws IOException {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Fixture '" + name + "' not found");
+            }
+            return IOUtils.toString(in, UTF_8);
+        }
+    }
+
+    /**
+     * Creates a {@link MockWebConnection} serving all fixtures. The static resources are sent
+     * with an old Last-Modified header, making them cacheable.
+     * @return the connection
+     * @throws IOException in case of error
+     */
+    public static MockWebConnection createConnection() throws IOException {
+        final List<NameValuePair> headers = new ArrayList<>();
+        headers.add(new NameValuePair("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"));
+
+        final MockWebConnection connection = new MockWebConnection();
+        connection.setResponse(ARTICLE_URL, load("article.html"), MimeType.TEXT_HTML);
+        connection.setResponse(CSS_URL, load("site.css"), 200, "OK", MimeType.TEXT_CSS, UTF_8, headers);
+        connection.setResponse(SCRIPT_URL, load("site.js"), 200, "OK", MimeType.APPLICATION_JAVASCRIPT, UTF_8,
+                headers);
+        connection.setDefaultResponse("", 404, "Not Found", MimeType.TEXT_PLAIN);
+        return connection;
+    }
+
+    /**
+     * Creates a {@link WebClient} using the {@link #createConnection() fixture connection}.
+     * @param javaScriptEnabled whether JavaScript is enabled
+     * @return the client
+     * @throws IOException in case of error
+     */
+    public static WebClient createWebClient(final boolean javaScriptEnabled) throws IOException {
+        final WebClient webClient = new WebClient();
+        webClient.getOptions().setJavaScriptEnabled(javaScriptEnabled);
+        webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        webClient.setWebConnection(createConnection());
+        return webClient;
+    }
+}
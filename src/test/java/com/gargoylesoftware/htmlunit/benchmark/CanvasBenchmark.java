@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Benchmarks for the common canvas operations (drawing, getImageData/putImageData
+ * and toDataURL).
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanvasBenchmark {
+
+    private static final String PAGE = "<html><head><script>\n"
+            + "  var canvas, ctx, imageData;\n"
+            + "  function init() {\n"
+            + "    canvas = document.getElementById('myCanvas');\n"
+            + "    ctx = canvas.getContext('2d');\n"
+            + "    draw();\n"
+            + "    imageData = ctx.getImageData(0, 0, canvas.width, canvas.height);\n"
+            + "  }\n"
+            + "  function draw() {\n"
+            + "    for (var i = 0; i < 50; i++) {\n"
+            + "      ctx.fillStyle = 'rgb(' + (i * 5) + ',100,50)';\n"
+            + "      ctx.fillRect(i * 6, i * 3, 20, 10);\n"
+            + "    }\n"
+            + "    ctx.fillStyle = 'black';\n"
+            + "    ctx.fillText('HtmlUnit canvas', 10, 50);\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='init()'><canvas id='myCanvas' width='300' height='150'></canvas></body></html>";
+
+    /** -1 for the ImageIO based png encoding, otherwise the deflate level of the built-in encoder. */
+    @Param({"-1", "1"})
+    private int pngCompressionLevel_;
+
+    private WebClient webClient_;
+    private HtmlPage page_;
+
+    /**
+     * Loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = new WebClient();
+        webClient_.getOptions().setCanvasPngCompressionLevel(pngCompressionLevel_);
+
+        final MockWebConnection connection = new MockWebConnection();
+        connection.setDefaultResponse(PAGE);
+        webClient_.setWebConnection(connection);
+
+        page_ = webClient_.getPage(new URL("http://localhost/canvas.html"));
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Draws some rectangles and text.
+     * @return the result
+     */
+    @Benchmark
+    public Object draw() {
+        return page_.executeJavaScript("draw()").getJavaScriptResult();
+    }
+
+    /**
+     * Reads all pixels.
+     * @return the result
+     */
+    @Benchmark
+    public Object getImageData() {
+        return page_.executeJavaScript("ctx.getImageData(0, 0, canvas.width, canvas.height)").getJavaScriptResult();
+    }
+
+    /**
+     * Writes all pixels.
+     * @return the result
+     */
+    @Benchmark
+    public Object putImageData() {
+        return page_.executeJavaScript("ctx.putImageData(imageData, 0, 0)").getJavaScriptResult();
+    }
+
+    /**
+     * Encodes the image after a modification.
+     * @return the result
+     */
+    @Benchmark
+    public Object toDataURL() {
+        return page_.executeJavaScript("ctx.fillRect(0, 0, 1, 1); canvas.toDataURL()").getJavaScriptResult();
+    }
+
+    /**
+     * Encodes the unchanged image again (the usual fingerprinting pattern).
+     * @return the result
+     */
+    @Benchmark
+    public Object toDataURLUnchanged() {
+        return page_.executeJavaScript("canvas.toDataURL()").getJavaScriptResult();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.Cache;
+import com.gargoylesoftware.htmlunit.CookieManager;
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.util.Cookie;
+import com.gargoylesoftware.htmlunit.util.MimeType;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+
+/**
+ * Benchmarks for the cookie matching done for every request and for the {@link Cache} operations.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CookieCacheBenchmark {
+
+    private static final int DOMAINS = 20;
+    private static final int COOKIES_PER_DOMAIN = 10;
+    private static final int RESOURCES = 100;
+
+    private WebClient webClient_;
+    private URL cookieUrl_;
+
+    private Cache cache_;
+    private final List<WebRequest> requests_ = new ArrayList<>();
+    private final List<WebResponse> responses_ = new ArrayList<>();
+    private int next_;
+
+    /**
+     * Fills the cookie manager and creates the cacheable responses.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(false);
+
+        final Date expires = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        final CookieManager cookieManager = webClient_.getCookieManager();
+        for (int d = 0; d < DOMAINS; d++) {
+            final String domain = "site" + d + ".example.com";
+            for (int c = 0; c < COOKIES_PER_DOMAIN; c++) {
+                final String path = c % 2 == 0 ? "/" : "/shop/cart";
+                cookieManager.addCookie(new Cookie(domain, "cookie" + c, "value" + c, path, expires, false));
+            }
+        }
+        cookieUrl_ = new URL("http://site7.example.com/shop/cart/checkout.html");
+
+        final List<NameValuePair> headers = new ArrayList<>();
+        headers.add(new NameValuePair("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"));
+        final MockWebConnection connection = BenchmarkFixtures.createConnection();
+        for (int i = 0; i < RESOURCES; i++) {
+            final URL url = new URL(BenchmarkFixtures.ARTICLE_URL, "static/resource" + i + ".js");
+            connection.setResponse(url, "var r" + i + " = " + i + ";", 200, "OK",
+                    MimeType.APPLICATION_JAVASCRIPT, headers);
+
+            final WebRequest request = new WebRequest(url);
+            requests_.add(request);
+            responses_.add(connection.getResponse(request));
+        }
+
+        cache_ = new Cache();
+        for (int i = 0; i < cache_.getMaxSize(); i++) {
+            cache_.cacheIfPossible(requests_.get(i), responses_.get(i), null);
+        }
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Selects the cookies to send for a request.
+     * @return the result
+     */
+    @Benchmark
+    public Object getCookies() {
+        return webClient_.getCookies(cookieUrl_);
+    }
+
+    /**
+     * Adds a response to the full cache (the eldest entry has to be removed).
+     * @return the result
+     */
+    @Benchmark
+    public boolean cacheIfPossible() {
+        final int index = nextIndex(RESOURCES);
+        return cache_.cacheIfPossible(requests_.get(index), responses_.get(index), null);
+    }
+
+    /**
+     * Looks up a cached response.
+     * @return the result
+     */
+    @Benchmark
+    public Object getCachedResponse() {
+        return cache_.getCachedResponse(requests_.get(nextIndex(cache_.getSize())));
+    }
+
+    private int nextIndex(final int max) {
+        next_ = (next_ + 1) % max;
+        return next_;
+    }
+}
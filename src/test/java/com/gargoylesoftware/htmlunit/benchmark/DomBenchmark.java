@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+import com.gargoylesoftware.htmlunit.javascript.host.html.HTMLElement;
+
+/**
+ * Benchmarks for the DOM queries, the style calculation and the text extraction.
+ * The computed styles are not cached between the invocations.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomBenchmark {
+
+    private WebClient webClient_;
+    private HtmlPage page_;
+    private Window window_;
+    private List<HtmlElement> cells_;
+    private List<HtmlElement> links_;
+
+    /**
+     * Loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(true);
+
+        page_ = webClient_.getPage(BenchmarkFixtures.ARTICLE_URL);
+        window_ = page_.getEnclosingWindow().getScriptableObject();
+        cells_ = page_.getByXPath("//table[@id='results']//td");
+        links_ = page_.getByXPath("//a");
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Selects the links of the article sections.
+     * @return the result
+     */
+    @Benchmark
+    public Object querySelectorAll() {
+        return page_.querySelectorAll("main.article section > p a[href^='/topics/']");
+    }
+
+    /**
+     * Selects the number cells of the odd result rows.
+     * @return the result
+     */
+    @Benchmark
+    public Object getByXPath() {
+        return page_.getByXPath("//table[@id='results']/tbody/tr[@class='odd']/td[@class='num']");
+    }
+
+    /**
+     * Calculates the computed style of all cells of the results table.
+     * @return the result
+     */
+    @Benchmark
+    public Object getComputedStyle() {
+        window_.clearComputedStyles();
+        Object style = null;
+        for (final HtmlElement cell : cells_) {
+            final HTMLElement element = cell.getScriptableObject();
+            style = window_.getComputedStyle(element, null).getWidth();
+        }
+        return style;
+    }
+
+    /**
+     * Checks the visibility of all links.
+     * @return the result
+     */
+    @Benchmark
+    public int isDisplayed() {
+        window_.clearComputedStyles();
+        int count = 0;
+        for (final DomNode link : links_) {
+            if (link.isDisplayed()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Extracts the text of the whole page.
+     * @return the result
+     */
+    @Benchmark
+    public Object asText() {
+        window_.clearComputedStyles();
+        return page_.asText();
+    }
+}
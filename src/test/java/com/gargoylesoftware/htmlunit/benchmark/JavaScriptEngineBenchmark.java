@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+
+import net.sourceforge.htmlunit.corejs.javascript.Script;
+
+/**
+ * Benchmarks for the {@link JavaScriptEngine}: the setup of the scope of a window, compiling
+ * and executing a script.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaScriptEngineBenchmark {
+
+    private WebClient webClient_;
+    private JavaScriptEngine engine_;
+    private HtmlPage page_;
+    private WebWindow initWindow_;
+    private String source_;
+    private Script script_;
+
+    /**
+     * Loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(true);
+        engine_ = (JavaScriptEngine) webClient_.getJavaScriptEngine();
+
+        page_ = webClient_.getPage(BenchmarkFixtures.ARTICLE_URL);
+        initWindow_ = webClient_.openWindow(null, "initialize");
+
+        source_ = BenchmarkFixtures.load("site.js") + "\nSite.mean(document);";
+        script_ = engine_.compile(page_, source_, "site.js", 1);
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Sets up the complete JavaScript environment (global scope, prototypes and constructors) of a window.
+     * @return the result
+     */
+    @Benchmark
+    public Object initialize() {
+        engine_.initialize(initWindow_);
+        return initWindow_.getScriptableObject();
+    }
+
+    /**
+     * Compiles the site script.
+     * @return the result
+     */
+    @Benchmark
+    public Object compile() {
+        return engine_.compile(page_, source_, "site.js", 1);
+    }
+
+    /**
+     * Executes the already compiled site script (defining the script object
+     * and calculating the mean of the results table).
+     * @return the result
+     */
+    @Benchmark
+    public Object execute() {
+        return engine_.execute(page_, script_);
+    }
+}
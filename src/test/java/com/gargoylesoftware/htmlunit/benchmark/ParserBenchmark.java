@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.html.parser.HTMLParser;
+
+/**
+ * Benchmarks for {@link HTMLParser#parse(WebResponse, HtmlPage, boolean)} and
+ * {@link HTMLParser#parseFragment(com.gargoylesoftware.htmlunit.html.DomNode, String)}.
+ * JavaScript is disabled to measure the parser only.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private WebClient webClient_;
+    private HTMLParser parser_;
+    private HtmlPage page_;
+    private WebResponse response_;
+    private String fragment_;
+
+    /**
+     * Loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(false);
+        parser_ = webClient_.getPageCreator().getHtmlParser();
+
+        page_ = webClient_.getPage(BenchmarkFixtures.ARTICLE_URL);
+        response_ = page_.getWebResponse();
+        fragment_ = page_.getHtmlElementById("results").asXml();
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Parses the article page into a new page.
+     * @return the result
+     * @throws Exception in case of error
+     */
+    @Benchmark
+    public Object parse() throws Exception {
+        final HtmlPage page = new HtmlPage(response_, page_.getEnclosingWindow());
+        parser_.parse(response_, page, false);
+        return page;
+    }
+
+    /**
+     * Parses the results table as fragment.
+     * @return the result
+     * @throws Exception in case of error
+     */
+    @Benchmark
+    public Object parseFragment() throws Exception {
+        final DomElement div = page_.createElement("div");
+        parser_.parseFragment(div, fragment_);
+        return div;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.javascript.host.Window;
+
+/**
+ * Benchmarks for the text extraction of a large, deeply nested page.
+ * The page is generated; every section is nested {@code depth} levels deep and some of them
+ * are hidden by <tt>display</tt> or <tt>visibility</tt>.
+ * The computed styles are not cached between the invocations.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    private static final int SECTIONS = 200;
+
+    /** The nesting depth of the sections. */
+    @Param({"5", "30"})
+    private int depth_;
+
+    private WebClient webClient_;
+    private HtmlPage page_;
+    private Window window_;
+
+    /**
+     * Generates and loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(true);
+
+        final URL url = new URL(BenchmarkFixtures.ARTICLE_URL, "large.html");
+        ((MockWebConnection) webClient_.getWebConnection()).setResponse(url, createPage());
+
+        page_ = webClient_.getPage(url);
+        window_ = page_.getEnclosingWindow().getScriptableObject();
+    }
+
+    private String createPage() {
+        final StringBuilder html = new StringBuilder("<html><head><title>large</title>\n"
+                + "<style>.gone { display: none } .ghost { visibility: hidden } .back { visibility: visible }</style>\n"
+                + "</head><body>\n");
+        for (int i = 0; i < SECTIONS; i++) {
+            final String cssClass;
+            if (i % 10 == 3) {
+                cssClass = "gone";
+            }
+            else if (i % 10 == 7) {
+                cssClass = "ghost";
+            }
+            else {
+                cssClass = "";
+            }
+
+            html.append("<div class='").append(cssClass).append("'>");
+            for (int level = 1; level < depth_; level++) {
+                html.append("<div>");
+            }
+            html.append("<h2>Section ").append(i).append("</h2>")
+                .append("<p>Some <b>bold</b> and <i>italic</i> text, <a href='#s").append(i).append("'>a link</a>.</p>")
+                .append("<p class='back'>Always <span>visible</span> text.</p>")
+                .append("<ul><li>one</li><li>two</li><li>three</li></ul>");
+            for (int level = 0; level < depth_; level++) {
+                html.append("</div>");
+            }
+            html.append('\n');
+        }
+        html.append("</body></html>");
+        return html.toString();
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Extracts the text of the whole page.
+     * @return the result
+     */
+    @Benchmark
+    public Object asText() {
+        window_.clearComputedStyles();
+        return page_.asText();
+    }
+
+    /**
+     * Extracts the visible text of the whole page.
+     * @return the result
+     */
+    @Benchmark
+    public Object getVisibleText() {
+        window_.clearComputedStyles();
+        return page_.getVisibleText();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.benchmark;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.html.HtmlTextInput;
+
+/**
+ * Benchmarks for typing into a text field placed deep inside a generated page.
+ * Every typed character fires keydown, keypress, input and keyup; depending on the
+ * {@code listener} parameter nobody, the body or the field itself listens to one of them.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypingBenchmark {
+
+    private static final String TEXT = "The quick brown fox";
+
+    /** The nesting depth of the text field. */
+    @Param({"5", "50"})
+    private int depth_;
+
+    /** Where a keyup listener is registered: "none", "body" or "field". */
+    @Param({"none", "body", "field"})
+    private String listener_;
+
+    private WebClient webClient_;
+    private HtmlTextInput input_;
+
+    /**
+     * Generates and loads the page.
+     * @throws Exception in case of error
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        webClient_ = BenchmarkFixtures.createWebClient(true);
+
+        final URL url = new URL(BenchmarkFixtures.ARTICLE_URL, "form.html");
+        ((MockWebConnection) webClient_.getWebConnection()).setResponse(url, createPage());
+
+        final HtmlPage page = webClient_.getPage(url);
+        input_ = page.getHtmlElementById("field");
+    }
+
+    private String createPage() {
+        final StringBuilder html = new StringBuilder("<html><head><title>form</title>\n<script>\n"
+                + "  var count = 0;\n"
+                + "  function test() {\n");
+        if ("body".equals(listener_)) {
+            html.append("    document.body.addEventListener('keyup', function() { count++; });\n");
+        }
+        else if ("field".equals(listener_)) {
+            html.append("    document.getElementById('field').addEventListener('keyup', function() { count++; });\n");
+        }
+        html.append("  }\n</script>\n</head><body onload='test()'>\n<form>");
+
+        for (int level = 0; level < depth_; level++) {
+            html.append("<div>");
+        }
+        html.append("<input type='text' id='field'>");
+        for (int level = 0; level < depth_; level++) {
+            html.append("</div>");
+        }
+        html.append("</form></body></html>");
+        return html.toString();
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webClient_.close();
+    }
+
+    /**
+     * Types a short text into the field.
+     * @return the result
+     * @throws Exception in case of error
+     */
+    @Benchmark
+    public Object type() throws Exception {
+        input_.setText("");
+        input_.type(TEXT);
+        return input_.getText();
+    }
+}
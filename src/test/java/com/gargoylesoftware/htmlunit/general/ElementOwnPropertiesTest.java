@@ -446,10 +446,10 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "toStaticHTML(),toString(),window"})
     @HtmlUnitNYI(CHROME = {"alert(),atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),"
                 + "clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),console,constructor(),"
-                + "crypto,devicePixelRatio,document,event,external,find(),focus(),frameElement,frames,"
+                + "crypto,devicePixelRatio,document,event,external,fetch(),find(),focus(),frameElement,frames,"
                 + "getComputedStyle(),"
-                + "getSelection(),history,innerHeight,innerWidth,length,localStorage,location,matchMedia(),"
-                + "moveBy(),moveTo(),"
+                + "getSelection(),history,indexedDB,innerHeight,innerWidth,length,localStorage,location,"
+                + "matchMedia(),moveBy(),moveTo(),"
                 + "name,navigator,offscreenBuffering,onabort,onanimationend,onanimationiteration,onanimationstart,"
                 + "onauxclick,onbeforeunload,onblur,oncancel,oncanplay,oncanplaythrough,onchange,onclick,onclose,"
                 + "oncontextmenu,oncuechange,ondblclick,ondevicemotion,ondeviceorientation,ondeviceorientationabsolute,"
@@ -470,10 +470,10 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "setTimeout(),speechSynthesis,status,stop(),styleMedia,TEMPORARY,top,window"},
             EDGE = {"alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),"
                 + "clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),console,constructor(),"
-                + "crypto,devicePixelRatio,document,event,external,find(),focus(),frameElement,frames,"
+                + "crypto,devicePixelRatio,document,event,external,fetch(),find(),focus(),frameElement,frames,"
                 + "getComputedStyle(),"
-                + "getSelection(),history,innerHeight,innerWidth,length,localStorage,location,matchMedia(),"
-                + "moveBy(),moveTo(),"
+                + "getSelection(),history,indexedDB,innerHeight,innerWidth,length,localStorage,location,"
+                + "matchMedia(),moveBy(),moveTo(),"
                 + "name,navigator,offscreenBuffering,onabort,onanimationend,onanimationiteration,onanimationstart,"
                 + "onauxclick,onbeforeunload,onblur,oncancel,oncanplay,oncanplaythrough,onchange,onclick,onclose,"
                 + "oncontextmenu,oncuechange,ondblclick,ondevicemotion,ondeviceorientation,ondeviceorientationabsolute,"
@@ -494,9 +494,9 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "setTimeout(),speechSynthesis,status,stop(),styleMedia,TEMPORARY,top,window"},
             FF = "alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),"
                 + "clearInterval(),clearTimeout(),close(),closed,confirm(),console,constructor(),controllers,"
-                + "crypto,devicePixelRatio,document,dump(),event,external,find(),focus(),frameElement,frames,"
-                + "getComputedStyle(),getSelection(),history,innerHeight,innerWidth,length,localStorage,location,"
-                + "matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,name,navigator,"
+                + "crypto,devicePixelRatio,document,dump(),event,external,fetch(),find(),focus(),frameElement,frames,"
+                + "getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,length,"
+                + "localStorage,location,matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,name,navigator,"
                 + "netscape,onabort,onafterprint,onbeforeprint,onbeforeunload,onblur,oncanplay,oncanplaythrough,"
                 + "onchange,onclick,oncontextmenu,ondblclick,ondevicelight,ondevicemotion,ondeviceorientation,"
                 + "ondeviceproximity,ondrag,ondragend,ondragenter,ondragleave,ondragover,ondragstart,ondrop,"
@@ -512,9 +512,10 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "scrollX,scrollY,self,sessionStorage,setInterval(),setTimeout(),status,stop(),top,window",
             FF68 = "alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),"
                 + "clearInterval(),clearTimeout(),close(),closed,confirm(),console,constructor(),controllers,"
-                + "crypto,devicePixelRatio,document,dump(),event,external,find(),focus(),frameElement,frames,"
-                + "getComputedStyle(),getSelection(),history,innerHeight,innerWidth,length,localStorage,location,"
-                + "matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,mozPaintCount,name,navigator,"
+                + "crypto,devicePixelRatio,document,dump(),event,external,fetch(),find(),focus(),frameElement,frames,"
+                + "getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,length,"
+                + "localStorage,location,matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,mozPaintCount,"
+                + "name,navigator,"
                 + "netscape,onabort,onafterprint,onbeforeprint,onbeforeunload,onblur,oncanplay,oncanplaythrough,"
                 + "onchange,onclick,oncontextmenu,ondblclick,ondevicelight,ondevicemotion,ondeviceorientation,"
                 + "ondeviceproximity,ondrag,ondragend,ondragenter,ondragleave,ondragover,ondragstart,ondrop,"
@@ -561,9 +562,9 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "HTMLTableHeaderCellElement,HTMLTableRowElement,HTMLTableSectionElement,HTMLTextAreaElement,"
                 + "HTMLTitleElement,HTMLTrackElement,HTMLUListElement,HTMLUnknownElement,HTMLVideoElement,"
                 + "IDBCursor,IDBCursorWithValue,IDBDatabase,IDBFactory,IDBIndex,IDBKeyRange,IDBObjectStore,"
-                + "IDBOpenDBRequest,IDBRequest,IDBTransaction,IDBVersionChangeEvent,Image(),ImageData,Infinity,"
-                + "innerHeight,innerWidth,Int16Array(),Int32Array(),Int8Array(),InternalError(),Intl,isFinite(),"
-                + "isNaN(),JavaException(),JSON,KeyboardEvent,length,localStorage,Location,location,Map(),"
+                + "IDBOpenDBRequest,IDBRequest,IDBTransaction,IDBVersionChangeEvent,Image(),ImageData,indexedDB,"
+                + "Infinity,innerHeight,innerWidth,Int16Array(),Int32Array(),Int8Array(),InternalError(),Intl,"
+                + "isFinite(),isNaN(),JavaException(),JSON,KeyboardEvent,length,localStorage,Location,location,Map(),"
                 + "matchMedia(),Math,MediaError,MediaList,MediaQueryList,MessageChannel(),MessageEvent,MessagePort,"
                 + "MimeType,MimeTypeArray,MouseEvent,MouseWheelEvent,moveBy(),moveTo(),MSGestureEvent,MutationEvent,"
                 + "MutationObserver(),MutationRecord,name,NamedNodeMap,NaN,navigate(),Navigator,navigator,Node,"
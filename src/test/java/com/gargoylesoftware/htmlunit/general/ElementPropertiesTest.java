@@ -1119,9 +1119,9 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "window")
     @HtmlUnitNYI(CHROME = "addEventListener(),alert(),atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),"
-                + "console,crypto,devicePixelRatio,dispatchEvent(),document,event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,innerHeight,innerWidth,length,"
-                + "localStorage,location,matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
+                + "console,crypto,devicePixelRatio,dispatchEvent(),document,event,external,fetch(),find(),focus(),"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,"
+                + "length,localStorage,location,matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
                 + "onabort,onanimationend,onanimationiteration,onanimationstart,onauxclick,onbeforeunload,"
                 + "onblur,oncancel,oncanplay,oncanplaythrough,onchange,onclick,onclose,oncontextmenu,"
                 + "oncuechange,ondblclick,ondevicemotion,ondeviceorientation,ondeviceorientationabsolute,"
@@ -1144,9 +1144,9 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "TEMPORARY,test(),top,window",
             EDGE = "addEventListener(),alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),"
-                + "console,crypto,devicePixelRatio,dispatchEvent(),document,event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,innerHeight,innerWidth,length,"
-                + "localStorage,location,matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
+                + "console,crypto,devicePixelRatio,dispatchEvent(),document,event,external,fetch(),find(),focus(),"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,"
+                + "length,localStorage,location,matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
                 + "onabort,onanimationend,onanimationiteration,onanimationstart,onauxclick,onbeforeunload,"
                 + "onblur,oncancel,oncanplay,oncanplaythrough,onchange,onclick,onclose,oncontextmenu,"
                 + "oncuechange,ondblclick,ondevicemotion,ondeviceorientation,ondeviceorientationabsolute,"
@@ -1169,8 +1169,8 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "TEMPORARY,test(),top,window",
             FF68 = "addEventListener(),alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),close(),closed,confirm(),console,controllers,"
-                + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,innerHeight,innerWidth,"
+                + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,fetch(),find(),focus(),"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,"
                 + "length,localStorage,location,matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,"
                 + "mozPaintCount,name,navigator,netscape,onabort,onafterprint,onbeforeprint,onbeforeunload,"
                 + "onblur,oncanplay,oncanplaythrough,onchange,onclick,oncontextmenu,ondblclick,"
@@ -1189,8 +1189,8 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "setInterval(),setTimeout(),sortFunction(),status,stop(),test(),top,window",
             FF = "addEventListener(),alert(),applicationCache,atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),close(),closed,confirm(),console,controllers,"
-                + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,innerHeight,innerWidth,"
+                + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,fetch(),find(),focus(),"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,innerHeight,innerWidth,"
                 + "length,localStorage,location,matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,"
                 + "name,navigator,netscape,onabort,onafterprint,onbeforeprint,onbeforeunload,"
                 + "onblur,oncanplay,oncanplaythrough,onchange,onclick,oncontextmenu,ondblclick,"
@@ -1211,7 +1211,7 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,clipboardData,close(),"
                 + "closed,CollectGarbage(),confirm(),console,devicePixelRatio,dispatchEvent(),document,"
                 + "doNotTrack,event,external,focus(),frameElement,frames,getComputedStyle(),getSelection(),"
-                + "history,innerHeight,innerWidth,length,localStorage,location,matchMedia(),moveBy(),"
+                + "history,indexedDB,innerHeight,innerWidth,length,localStorage,location,matchMedia(),moveBy(),"
                 + "moveTo(),name,navigate(),navigator,offscreenBuffering,onabort,onafterprint,"
                 + "onbeforeprint,onbeforeunload,onblur,oncanplay,oncanplaythrough,onchange,onclick,"
                 + "oncontextmenu,ondblclick,ondrag,ondragend,ondragenter,ondragleave,ondragover,"
@@ -17,13 +17,17 @@ package com.gargoylesoftware.htmlunit.html;
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -431,6 +435,35 @@ public class HtmlPage2Test extends SimpleWebTestCase {
         assertEquals(URL_SECOND.toString(), cssLink.getHrefAttribute());
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void saveToStream() throws Exception {
+        final String html = "<html><head><title>foo</title></head>\n"
+                + "<body><p id='p' class='x'>caf\u00e9 &amp; <b>more</b></p><!-- c --></body></html>";
+        final HtmlPage page = loadPage(html);
+        final String xml = page.asXml();
+
+        final StringWriter writer = new StringWriter();
+        page.asXml(writer);
+        assertEquals(xml, writer.toString());
+
+        writer.getBuffer().setLength(0);
+        page.getHtmlElementById("p").asXml(writer);
+        assertEquals(page.getHtmlElementById("p").asXml(), writer.toString());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        page.save(out);
+        assertEquals(xml, new String(out.toByteArray(), page.getCharset()));
+
+        final ByteArrayOutputStream gzipOut = new ByteArrayOutputStream();
+        page.save(gzipOut, true);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipOut.toByteArray()))) {
+            assertEquals(xml, IOUtils.toString(in, page.getCharset()));
+        }
+    }
+
     /**
      * @throws Exception if the test fails
      */
@@ -1598,6 +1598,19 @@ public class HtmlSerializerVisibleText2Test extends WebDriverTestCase {
                 + " I have <input type='number' value='2'/> out of 2 stamps</p>");
     }
 
+    /**
+     * Verifies getVisibleText() for nested display and visibility settings.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts("a\nc\ng")
+    public void getVisibleTextNestedVisibility() throws Exception {
+        getVisibleTextFormated("<div id='tester'>a"
+                + "<div style='visibility: hidden'>b<div style='visibility: visible'>c</div><span hidden>d</span></div>"
+                + "<div style='display: none'>e<span style='visibility: visible'>f</span></div>"
+                + "g</div>");
+    }
+
     private void getVisibleTextFormated(final String htmlTesterSnipped) throws Exception {
         final String htmlContent
             = "<html>\n"
@@ -17,6 +17,10 @@ package com.gargoylesoftware.htmlunit.javascript.background;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.easymock.EasyMock;
 import org.junit.After;
@@ -25,6 +29,9 @@ import org.junit.Test;
 
 import com.gargoylesoftware.htmlunit.Page;
 import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebResponseData;
 import com.gargoylesoftware.htmlunit.WebWindow;
 
 /**
@@ -351,4 +358,42 @@ public class JavaScriptJobManagerMinimalTest {
         // the call waits until both job1 and job2 finish.
         waitForComplexJobs(WaitingMode.WAIT_STARTING_BEFORE, 0);
     }
+
+    /**
+     * Jobs removed before they run must release what they were waiting for.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void removeJob_waitingForResponse() throws Exception {
+        final JavaScriptJob waiting = new BasicJavaScriptJob(0, null) {
+            @Override
+            public void run() {
+            }
+        };
+        final CompletableFuture<WebResponse> pending = new CompletableFuture<>();
+        final int waitingId = manager_.addJob(waiting, page_, pending);
+        manager_.removeJob(waitingId);
+        assertTrue(pending.isCancelled());
+        assertEquals(0, manager_.getJobCount());
+
+        final MutableInt cleanUps = new MutableInt(0);
+        final WebResponse response = new WebResponse(
+                new WebResponseData(new byte[0], 200, "OK", Collections.emptyList()),
+                new WebRequest(new URL("http://localhost/")), 0) {
+            @Override
+            public void cleanUp() {
+                cleanUps.increment();
+            }
+        };
+        final JavaScriptJob ready = new BasicJavaScriptJob(60_000, null) {
+            @Override
+            public void run() {
+            }
+        };
+        final int readyId = manager_.addJob(ready, page_, CompletableFuture.completedFuture(response));
+        assertEquals(1, manager_.getJobCount());
+        manager_.removeJob(readyId);
+        assertEquals(1, cleanUps.intValue());
+        assertEquals(0, manager_.getJobCount());
+    }
 }
@@ -134,6 +134,102 @@ public class JavaScriptJobManagerTest extends SimpleWebTestCase {
         assertMaxTestRunTime(DEFAULT_WAIT_TIME + 100);
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void virtualClockSkipsTimeout() throws Exception {
+        final String content = "<html>\n"
+            + "<head>\n"
+            + "  <script>\n"
+            + "    function test() {\n"
+            + "      var start = Date.now();\n"
+            + "      var perfStart = performance.now();\n"
+            + "      setTimeout(function() {\n"
+            + "        alert(Date.now() - start >= 60000);\n"
+            + "        alert(new Date().getTime() - start >= 60000);\n"
+            + "        alert(performance.now() - perfStart >= 60000);\n"
+            + "      }, 60000);\n"
+            + "    }\n"
+            + "  </script>\n"
+            + "</head>\n"
+            + "<body onload='test()'>\n"
+            + "</body>\n"
+            + "</html>";
+
+        getWebClient().setJavaScriptClock(new VirtualJavaScriptClock());
+        final List<String> collectedAlerts = Collections.synchronizedList(new ArrayList<String>());
+        loadPage(content, collectedAlerts);
+
+        startTimedTest();
+        assertEquals(0, getWebClient().waitForBackgroundJavaScript(120_000));
+        assertEquals(Collections.nCopies(3, "true"), collectedAlerts);
+        assertMaxTestRunTime(10_000);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void virtualClockStopsAtTimeout() throws Exception {
+        final String content = "<html>\n"
+            + "<head>\n"
+            + "  <script>\n"
+            + "    var count = 0;\n"
+            + "    function test() {\n"
+            + "      setInterval(function() { count++; }, 1000);\n"
+            + "    }\n"
+            + "  </script>\n"
+            + "</head>\n"
+            + "<body onload='test()'>\n"
+            + "</body>\n"
+            + "</html>";
+
+        getWebClient().setJavaScriptClock(new VirtualJavaScriptClock());
+        final HtmlPage page = loadPage(content);
+
+        startTimedTest();
+        assertEquals(1, getWebClient().waitForBackgroundJavaScript(10_500));
+        assertEquals(10, ((Number) page.executeJavaScript("count").getJavaScriptResult()).intValue());
+        assertMaxTestRunTime(5_000);
+    }
+
+    /**
+     * The virtual clock must not skip any time while the client is busy in the background.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void virtualClockWaitsForBackgroundActivity() throws Exception {
+        final String content = "<html>\n"
+            + "<head>\n"
+            + "  <script>\n"
+            + "    function test() {\n"
+            + "      setTimeout(function() { alert('done'); }, 60000);\n"
+            + "    }\n"
+            + "  </script>\n"
+            + "</head>\n"
+            + "<body onload='test()'>\n"
+            + "</body>\n"
+            + "</html>";
+
+        final VirtualJavaScriptClock clock = new VirtualJavaScriptClock();
+        getWebClient().setJavaScriptClock(clock);
+        final List<String> collectedAlerts = Collections.synchronizedList(new ArrayList<String>());
+        loadPage(content, collectedAlerts);
+
+        getWebClient().getInternals().beginBackgroundActivity();
+        try {
+            assertEquals(1, getWebClient().waitForBackgroundJavaScript(200));
+            assertEquals(0, clock.getSkippedMillis());
+        }
+        finally {
+            getWebClient().getInternals().endBackgroundActivity();
+        }
+
+        assertEquals(0, getWebClient().waitForBackgroundJavaScript(120_000));
+        assertEquals(Collections.singletonList("done"), collectedAlerts);
+    }
+
     /**
      * @throws Exception if the test fails
      */
@@ -21,7 +21,9 @@ import static java.nio.charset.StandardCharsets.UTF_16LE;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.jetty.websocket.api.Session;
@@ -46,6 +48,7 @@ import com.gargoylesoftware.htmlunit.HttpHeader;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebClientInternals;
 import com.gargoylesoftware.htmlunit.WebDriverTestCase;
+import com.gargoylesoftware.htmlunit.websocket.WebSocketStatistics;
 
 /**
  * Tests for {@link WebSocket}.
@@ -222,6 +225,97 @@ public class WebSocketTest extends WebDriverTestCase {
         }
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void statistics() throws Exception {
+        final String response = "Browser: has joined!";
+
+        startWebServer("src/test/resources/com/gargoylesoftware/htmlunit/javascript/host",
+            null, null, new ChatWebSocketHandler());
+        try {
+            final WebDriver driver = getWebDriver();
+            final List<WebSocket> webSockets = new CopyOnWriteArrayList<>();
+
+            if (driver instanceof HtmlUnitDriver) {
+                final WebClient webClient = getWebWindowOf((HtmlUnitDriver) driver).getWebClient();
+                webClient.getInternals().addListener(new WebClientInternals.Listener() {
+                    @Override
+                    public void webSocketCreated(final WebSocket webSocket) {
+                        webSockets.add(webSocket);
+                    }
+                });
+            }
+
+            driver.get(URL_FIRST + "WebSocketTest_chat.html");
+
+            driver.findElement(By.id("username")).sendKeys("Browser");
+            driver.findElement(By.id("joinB")).click();
+
+            final WebElement chatE = driver.findElement(By.id("chat"));
+            final long maxWait = System.currentTimeMillis() + DEFAULT_WAIT_TIME;
+            do {
+                Thread.sleep(100);
+            }
+            while (chatE.getText().length() < response.length() && System.currentTimeMillis() < maxWait);
+            assertEquals(response, chatE.getText());
+
+            if (driver instanceof HtmlUnitDriver) {
+                assertEquals(1, webSockets.size());
+                final WebSocketStatistics statistics = webSockets.get(0).getStatistics();
+                assertEquals(1L, statistics.getMessagesSent());
+                assertEquals(1L, statistics.getMessagesReceived());
+                // the message sent is 'Browser:has joined!'
+                assertEquals(19L, statistics.getBytesSent());
+                assertEquals(19L, statistics.getBytesReceived());
+                assertTrue(statistics.getConnectTime() > 0);
+            }
+        }
+        finally {
+            stopWebServers();
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void inboundQueue() throws Exception {
+        final String response = "Browser: has joined!";
+
+        startWebServer("src/test/resources/com/gargoylesoftware/htmlunit/javascript/host",
+            null, null, new ChatWebSocketHandler());
+        try {
+            final WebDriver driver = getWebDriver();
+            if (driver instanceof HtmlUnitDriver) {
+                final WebClient webClient = getWebWindowOf((HtmlUnitDriver) driver).getWebClient();
+                // the smallest queue suspends the connection for every message
+                webClient.getOptions().setWebSocketInboundQueueSize(1);
+            }
+
+            driver.get(URL_FIRST + "WebSocketTest_chat.html");
+
+            driver.findElement(By.id("username")).sendKeys("Browser");
+            driver.findElement(By.id("joinB")).click();
+
+            final WebElement chatE = driver.findElement(By.id("chat"));
+            final long maxWait = System.currentTimeMillis() + DEFAULT_WAIT_TIME;
+            do {
+                Thread.sleep(100);
+            }
+            while (chatE.getText().length() < response.length() && System.currentTimeMillis() < maxWait);
+            assertEquals(response, chatE.getText());
+        }
+        finally {
+            if (getWebDriver() instanceof HtmlUnitDriver) {
+                getWebWindowOf((HtmlUnitDriver) getWebDriver()).getWebClient()
+                    .getOptions().setWebSocketInboundQueueSize(0);
+            }
+            stopWebServers();
+        }
+    }
+
     private static class ChatWebSocketHandler extends WebSocketHandler {
 
         private final Set<ChatWebSocket> webSockets_ = new CopyOnWriteArraySet<>();
@@ -357,6 +357,65 @@ public class ImageDataTest extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"0,0,0,0", "200,100,50,255", "0,0,0,0", "0,0,0,0"})
+    public void getImageDataRowOrder() throws Exception {
+        final String html =
+            "<html><head><script>\n"
+            + "function test() {\n"
+            + "  var canvas = document.getElementById('myCanvas');\n"
+            + "  if (canvas.getContext) {\n"
+            + "    var ctx = canvas.getContext('2d');\n"
+            + "    ctx.fillStyle = 'rgb(200,100,50)';\n"
+            + "    ctx.fillRect(1, 0, 1, 1);\n"
+            + "    var data = ctx.getImageData(0, 0, 2, 2).data;\n"
+            + "    for (var i = 0; i < data.length; i += 4) {\n"
+            + "      alert(data[i] + ',' + data[i + 1] + ',' + data[i + 2] + ',' + data[i + 3]);\n"
+            + "    }\n"
+            + "  }\n"
+            + "}\n"
+            + "</script>\n"
+            + "</head>\n"
+            + "<body onload='test()'><canvas id='myCanvas'></canvas></body>\n"
+            + "</html>";
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"0,0,0,0", "200,100,50,255", "200,100,50,255", "0,0,0,0",
+                "7,8,9,255", "200,100,50,255", "200,100,50,255", "7,8,9,255"})
+    public void putImageDataGetImageData() throws Exception {
+        final String html =
+            "<html><head><script>\n"
+            + "function test() {\n"
+            + "  var canvas = document.getElementById('myCanvas');\n"
+            + "  if (canvas.getContext) {\n"
+            + "    var ctx = canvas.getContext('2d');\n"
+            + "    ctx.fillStyle = 'rgb(200,100,50)';\n"
+            + "    ctx.fillRect(0, 0, 4, 4);\n"
+            + "    var imageData = ctx.createImageData(2, 2);\n"
+            + "    imageData.data.set([1, 2, 3, 255, 0, 0, 0, 0, 4, 5, 6, 255, 7, 8, 9, 255]);\n"
+            + "    ctx.putImageData(imageData, -1, 1, 0, 0, 2, 2);\n"
+            + "    ctx.putImageData(imageData, 2, 1, 1, 0, 1, 2);\n"
+            + "    var data = ctx.getImageData(0, 1, 4, 2).data;\n"
+            + "    for (var i = 0; i < data.length; i += 4) {\n"
+            + "      alert(data[i] + ',' + data[i + 1] + ',' + data[i + 2] + ',' + data[i + 3]);\n"
+            + "    }\n"
+            + "  }\n"
+            + "}\n"
+            + "</script>\n"
+            + "</head>\n"
+            + "<body onload='test()'><canvas id='myCanvas'></canvas></body>\n"
+            + "</html>";
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * @throws Exception if an error occurs
      */
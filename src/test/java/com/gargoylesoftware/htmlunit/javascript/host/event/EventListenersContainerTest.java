@@ -16,6 +16,8 @@ package com.gargoylesoftware.htmlunit.javascript.host.event;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
 
 import com.gargoylesoftware.htmlunit.BrowserRunner;
 import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
@@ -135,4 +137,102 @@ public class EventListenersContainerTest extends WebDriverTestCase {
 
         loadPageWithAlerts2(html);
     }
+
+    /**
+     * The handlers defined by attributes have to be found even if nobody
+     * accessed the element from JavaScript before.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"keyup", "keyup"})
+    public void attributeHandlerOnAncestor() throws Exception {
+        final String html
+            = "<html><head></head>\n"
+            + "<body>\n"
+            + "  <div onkeyup='alert(event.type)'>\n"
+            + "    <div><div><input id='i'></div></div>\n"
+            + "  </div>\n"
+            + "  <input id='other'>\n"
+            + "</body></html>";
+
+        final WebDriver driver = loadPage2(html);
+        driver.findElement(By.id("other")).sendKeys("x");
+        driver.findElement(By.id("i")).sendKeys("ab");
+
+        verifyAlerts(driver, getExpectedAlerts());
+    }
+
+    /**
+     * The listeners of a node have to be found after moving the node into another document.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"before", "div myevent", "after"})
+    public void listenerOnNodeMovedToOtherDocument() throws Exception {
+        final String html
+            = "<html><head>\n"
+            + "<script>\n"
+            + "  function fire(node) {\n"
+            + "    var evt = document.createEvent('Event');\n"
+            + "    evt.initEvent('myevent', true, true);\n"
+            + "    node.dispatchEvent(evt);\n"
+            + "  }\n"
+            + "\n"
+            + "  function test() {\n"
+            + "    var span = document.createElement('span');\n"
+            + "    document.body.appendChild(span);\n"
+            + "    alert('before');\n"
+            + "    fire(span);\n"
+            + "\n"
+            + "    var doc = document.implementation.createHTMLDocument('');\n"
+            + "    var div = doc.createElement('div');\n"
+            + "    div.addEventListener('myevent', function(e) { alert('div ' + e.type); }, false);\n"
+            + "    document.body.appendChild(div);\n"
+            + "    div.appendChild(span);\n"
+            + "    fire(span);\n"
+            + "    alert('after');\n"
+            + "  }\n"
+            + "</script>\n"
+            + "</head><body onload='test()'>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * The event handler properties of a node have to be found after moving the node into another document.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"before", "div click", "after"})
+    public void handlerOnNodeMovedToOtherDocument() throws Exception {
+        final String html
+            = "<html><head>\n"
+            + "<script>\n"
+            + "  function fire(node) {\n"
+            + "    var evt = document.createEvent('Event');\n"
+            + "    evt.initEvent('click', true, true);\n"
+            + "    node.dispatchEvent(evt);\n"
+            + "  }\n"
+            + "\n"
+            + "  function test() {\n"
+            + "    var span = document.createElement('span');\n"
+            + "    document.body.appendChild(span);\n"
+            + "    alert('before');\n"
+            + "    fire(span);\n"
+            + "\n"
+            + "    var doc = document.implementation.createHTMLDocument('');\n"
+            + "    var div = doc.createElement('div');\n"
+            + "    div.onclick = function(e) { alert('div ' + e.type); };\n"
+            + "    document.body.appendChild(div);\n"
+            + "    div.appendChild(span);\n"
+            + "    fire(span);\n"
+            + "    alert('after');\n"
+            + "  }\n"
+            + "</script>\n"
+            + "</head><body onload='test()'>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
 }
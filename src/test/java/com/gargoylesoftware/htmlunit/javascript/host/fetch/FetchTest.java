@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.fetch;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.WebDriverTestCase;
+
+/**
+ * Tests for {@link Fetch}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class FetchTest extends WebDriverTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"200", "true", "false", "Hello fetch", "true"},
+            IE = "no fetch")
+    public void text() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    if (typeof fetch !== 'function') { alert('no fetch'); return; }\n"
+            + "    fetch('" + URL_SECOND + "').then(function(response) {\n"
+            + "      alert(response.status);\n"
+            + "      alert(response.ok);\n"
+            + "      alert(response.bodyUsed);\n"
+            + "      return response.text().then(function(text) {\n"
+            + "        alert(text);\n"
+            + "        alert(response.bodyUsed);\n"
+            + "      });\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        getMockWebConnection().setResponse(URL_SECOND, "Hello fetch", "text/plain");
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"2", "htmlunit"},
+            IE = "no fetch")
+    public void json() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    if (typeof fetch !== 'function') { alert('no fetch'); return; }\n"
+            + "    fetch('" + URL_SECOND + "').then(function(response) {\n"
+            + "      return response.json();\n"
+            + "    }).then(function(json) {\n"
+            + "      alert(json.values.length);\n"
+            + "      alert(json.name);\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        getMockWebConnection().setResponse(URL_SECOND, "{\"values\": [1, 2], \"name\": \"htmlunit\"}",
+                "application/json");
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"true", "5", "true"},
+            IE = "no fetch")
+    public void bodyReader() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    if (typeof fetch !== 'function') { alert('no fetch'); return; }\n"
+            + "    fetch('" + URL_SECOND + "').then(function(response) {\n"
+            + "      var reader = response.body.getReader();\n"
+            + "      alert(response.body.locked);\n"
+            + "      var length = 0;\n"
+            + "      function pump() {\n"
+            + "        return reader.read().then(function(result) {\n"
+            + "          if (result.done) {\n"
+            + "            alert(length);\n"
+            + "            alert(response.bodyUsed);\n"
+            + "            return;\n"
+            + "          }\n"
+            + "          length += result.value.length;\n"
+            + "          return pump();\n"
+            + "        });\n"
+            + "      }\n"
+            + "      return pump();\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        getMockWebConnection().setResponse(URL_SECOND, "hello", "text/plain");
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"1, 2", "true", "false", "text/plain"},
+            IE = "no fetch")
+    public void headers() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    if (typeof fetch !== 'function') { alert('no fetch'); return; }\n"
+            + "    var headers = new Headers({ 'X-Test': '1' });\n"
+            + "    headers.append('x-test', '2');\n"
+            + "    alert(headers.get('X-TEST'));\n"
+            + "    alert(headers.has('x-test'));\n"
+            + "    headers['delete']('X-Test');\n"
+            + "    alert(headers.has('x-test'));\n"
+            + "    headers.set('Content-Type', 'text/plain');\n"
+            + "    alert(new Request('" + URL_SECOND + "', { headers: headers }).headers.get('content-type'));\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+}
@@ -413,6 +413,42 @@ public class BlobTest extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"15", "7", "5", " Html"},
+            FF68 = {"15", "7", "5", "TypeError true"},
+            IE = {"15", "7", "5", "TypeError true"})
+    public void sliceOfComposedBlob() throws Exception {
+        final String html = HtmlPageTest.STANDARDS_MODE_PREFIX_
+                + "<html>\n"
+                + "<head><title>foo</title>\n"
+                + "<script>\n"
+                + "  function test() {\n"
+                + "    var inner = new Blob([' ', 'HtmlUnit']);\n"
+                + "    var blob = new Blob(['Hello', inner, '!']);\n"
+                + "    alert(blob.size);\n"
+
+                + "    var sliced = blob.slice(3, 10);\n"
+                + "    alert(sliced.size);\n"
+
+                + "    var slicedAgain = sliced.slice(2);\n"
+                + "    alert(slicedAgain.size);\n"
+
+                + "    try {\n"
+                + "      slicedAgain.text().then(function(text) { alert(text); });\n"
+                + "    } catch(e) { alert('TypeError ' + (e instanceof TypeError)); }\n"
+                + "  }\n"
+                + "</script>\n"
+                + "</head>\n"
+                + "<body onload='test()'>\n"
+                + "</body>\n"
+                + "</html>";
+
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * @throws Exception if the test fails
      */
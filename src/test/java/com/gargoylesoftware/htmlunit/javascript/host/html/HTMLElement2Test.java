@@ -631,6 +631,40 @@ public class HTMLElement2Test extends WebDriverTestCase {
         loadPageWithAlerts2(html);
     }
 
+    /**
+     * The layout of the ancestors and following siblings has to be updated
+     * if a child is added deep inside the tree.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    @Alerts({"true", "true", "true", "true"})
+    public void offsetHeight_updatedAfterAddingNestedChild() throws Exception {
+        final String html = "<html><head>\n"
+                + "<script>\n"
+                + "  function test() {\n"
+                + "    var outer = document.getElementById('outer');\n"
+                + "    var inner = document.getElementById('inner');\n"
+                + "    var next = document.getElementById('next');\n"
+                + "    var height = outer.offsetHeight;\n"
+                + "    var top = next.offsetTop;\n"
+                + "    alert(height > 0);\n"
+                + "    alert(outer.offsetHeight == height);\n"
+                + "    var div = document.createElement('div');\n"
+                + "    div.appendChild(document.createTextNode('added'));\n"
+                + "    inner.appendChild(div);\n"
+                + "    alert(outer.offsetHeight > height);\n"
+                + "    alert(next.offsetTop > top);\n"
+                + "  }\n"
+                + "</script>\n"
+                + "</head>\n"
+                + "<body onload='test()'>\n"
+                + "  <div id='outer'><div><div id='inner'><div>x</div></div></div></div>\n"
+                + "  <div id='next'>y</div>\n"
+                + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
     /**
      * Value of offsetWidth is currently wrong when width is a % of the page.
      * @throws Exception if an error occurs
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.WebDriverTestCase;
+
+/**
+ * Tests for {@link IDBFactory}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class IDBFactoryTest extends WebDriverTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"-1", "0", "1", "-1"})
+    public void cmp() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    alert(indexedDB.cmp(1, 2));\n"
+            + "    alert(indexedDB.cmp('a', 'a'));\n"
+            + "    alert(indexedDB.cmp('b', 'a'));\n"
+            + "    alert(indexedDB.cmp(100, 'a'));\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * Keys of different types are ordered number, date, string, array; strings and arrays
+     * are compared item by item, a prefix is less than the longer key.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"-1", "-1", "1", "-1", "-1", "1", "1", "-1", "1", "-1", "1", "0"})
+    public void cmpAcrossTypes() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    alert(indexedDB.cmp(-Infinity, -1));\n"
+            + "    alert(indexedDB.cmp(1e10, new Date(0)));\n"
+            + "    alert(indexedDB.cmp(new Date(5), new Date(3)));\n"
+            + "    alert(indexedDB.cmp(new Date(0), ''));\n"
+            + "    alert(indexedDB.cmp('a', 'ab'));\n"
+            + "    alert(indexedDB.cmp('b', 'ab'));\n"
+            + "    alert(indexedDB.cmp('\\u00e9', 'f'));\n"
+            + "    alert(indexedDB.cmp('z', []));\n"
+            + "    alert(indexedDB.cmp([1, 'a'], [1, 2]));\n"
+            + "    alert(indexedDB.cmp([1], [1, 0]));\n"
+            + "    alert(indexedDB.cmp([[]], ['a']));\n"
+            + "    alert(indexedDB.cmp(0, -0));\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"upgradeneeded 0 1", "success 1 books", "Dune", "1", "2", "3", "done"})
+    public void openUpgradeAndRead() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    var request = indexedDB.open('library', 1);\n"
+            + "    request.onupgradeneeded = function(e) {\n"
+            + "      alert(e.type + ' ' + e.oldVersion + ' ' + e.newVersion);\n"
+            + "      var store = request.result.createObjectStore('books', { keyPath: 'id' });\n"
+            + "      store.put({ id: 3, title: 'Ubik' });\n"
+            + "      store.put({ id: 1, title: 'Solaris' });\n"
+            + "      store.put({ id: 2, title: 'Dune' });\n"
+            + "    };\n"
+            + "    request.onsuccess = function(e) {\n"
+            + "      var db = request.result;\n"
+            + "      alert(e.type + ' ' + db.version + ' ' + db.objectStoreNames[0]);\n"
+            + "      var store = db.transaction('books').objectStore('books');\n"
+            + "      store.get(2).onsuccess = function(e) {\n"
+            + "        alert(e.target.result.title);\n"
+            + "      };\n"
+            + "      store.openCursor().onsuccess = function(e) {\n"
+            + "        var cursor = e.target.result;\n"
+            + "        if (cursor) {\n"
+            + "          alert(cursor.key);\n"
+            + "          cursor['continue']();\n"
+            + "        } else {\n"
+            + "          alert('done');\n"
+            + "        }\n"
+            + "      };\n"
+            + "    };\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"abort", "undefined"})
+    public void abortRollsBack() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    var request = indexedDB.open('rollback', 1);\n"
+            + "    request.onupgradeneeded = function(e) {\n"
+            + "      request.result.createObjectStore('items');\n"
+            + "    };\n"
+            + "    request.onsuccess = function(e) {\n"
+            + "      var db = request.result;\n"
+            + "      var tx = db.transaction('items', 'readwrite');\n"
+            + "      tx.objectStore('items').put('value', 'key');\n"
+            + "      tx.onabort = function() {\n"
+            + "        alert('abort');\n"
+            + "        db.transaction('items').objectStore('items').get('key').onsuccess = function(e) {\n"
+            + "          alert(e.target.result);\n"
+            + "        };\n"
+            + "      };\n"
+            + "      tx.abort();\n"
+            + "    };\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"3 false 3", "1000000001 1"})
+    public void putSparseArrays() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    var request = indexedDB.open('sparse', 1);\n"
+            + "    request.onupgradeneeded = function(e) {\n"
+            + "      var store = request.result.createObjectStore('items');\n"
+            + "      var sparse = [];\n"
+            + "      sparse[1e9] = 1;\n"
+            + "      store.put([1, , 3], 'holes');\n"
+            + "      store.put(sparse, 'sparse');\n"
+            + "    };\n"
+            + "    request.onsuccess = function(e) {\n"
+            + "      var store = request.result.transaction('items').objectStore('items');\n"
+            + "      store.get('holes').onsuccess = function(e) {\n"
+            + "        var holes = e.target.result;\n"
+            + "        alert(holes.length + ' ' + (1 in holes) + ' ' + holes[2]);\n"
+            + "      };\n"
+            + "      store.get('sparse').onsuccess = function(e) {\n"
+            + "        var sparse = e.target.result;\n"
+            + "        alert(sparse.length + ' ' + sparse[1e9]);\n"
+            + "      };\n"
+            + "    };\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+}
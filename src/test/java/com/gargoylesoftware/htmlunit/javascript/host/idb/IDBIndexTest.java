@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.WebDriverTestCase;
+
+/**
+ * Tests for {@link IDBIndex}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class IDBIndexTest extends WebDriverTestCase {
+
+    private static final String PEOPLE = "  function open(name, callback) {\n"
+            + "    var request = indexedDB.open(name, 1);\n"
+            + "    request.onupgradeneeded = function(e) {\n"
+            + "      var store = request.result.createObjectStore('people', { keyPath: 'id' });\n"
+            + "      store.createIndex('byName', 'name');\n"
+            + "      store.createIndex('byTag', 'tags', { multiEntry: true });\n"
+            + "      store.createIndex('byMail', 'mail', { unique: true });\n"
+            + "      store.put({ id: 3, name: 'b', tags: [], mail: '3@a' });\n"
+            + "      store.put({ id: 1, name: 'b', tags: ['x', 'y'], mail: '1@a' });\n"
+            + "      store.put({ id: 2, name: 'a', tags: ['y'], mail: '2@a' });\n"
+            + "    };\n"
+            + "    request.onsuccess = function(e) {\n"
+            + "      callback(request.result);\n"
+            + "    };\n"
+            + "  }\n";
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"byName name false false", "byTag tags false true", "byMail mail true false",
+             "1", "2", "2", "undefined"})
+    public void getAndCount() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + PEOPLE
+            + "  function test() {\n"
+            + "    open('getAndCount', function(db) {\n"
+            + "      var store = db.transaction('people').objectStore('people');\n"
+            + "      var names = ['byName', 'byTag', 'byMail'];\n"
+            + "      for (var i = 0; i < names.length; i++) {\n"
+            + "        var index = store.index(names[i]);\n"
+            + "        alert(index.name + ' ' + index.keyPath + ' ' + index.unique + ' ' + index.multiEntry);\n"
+            + "      }\n"
+            + "      var byName = store.index('byName');\n"
+            + "      byName.get('b').onsuccess = function(e) {\n"
+            + "        alert(e.target.result.id);\n"
+            + "      };\n"
+            + "      byName.getKey('a').onsuccess = function(e) {\n"
+            + "        alert(e.target.result);\n"
+            + "      };\n"
+            + "      byName.count('b').onsuccess = function(e) {\n"
+            + "        alert(e.target.result);\n"
+            + "      };\n"
+            + "      byName.get('c').onsuccess = function(e) {\n"
+            + "        alert(e.target.result);\n"
+            + "      };\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"a:2,b:1,b:3", "b:3,b:1,a:2", "x:1,y:1,y:2", "y:1,y:2", "3"})
+    public void cursors() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + PEOPLE
+            + "  function entries(index, range, direction) {\n"
+            + "    var result = [];\n"
+            + "    index.openKeyCursor(range, direction).onsuccess = function(e) {\n"
+            + "      var cursor = e.target.result;\n"
+            + "      if (cursor) {\n"
+            + "        result.push(cursor.key + ':' + cursor.primaryKey);\n"
+            + "        cursor['continue']();\n"
+            + "      } else {\n"
+            + "        alert(result.join(','));\n"
+            + "      }\n"
+            + "    };\n"
+            + "  }\n"
+            + "  function test() {\n"
+            + "    open('cursors', function(db) {\n"
+            + "      var store = db.transaction('people').objectStore('people');\n"
+            + "      entries(store.index('byName'));\n"
+            + "      entries(store.index('byName'), null, 'prev');\n"
+            + "      entries(store.index('byTag'));\n"
+            + "      entries(store.index('byTag'), IDBKeyRange.only('y'));\n"
+            + "      store.index('byTag').count().onsuccess = function(e) {\n"
+            + "        alert(e.target.result);\n"
+            + "      };\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"error", "abort", "3", "b"})
+    public void uniqueConstraint() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + PEOPLE
+            + "  function test() {\n"
+            + "    open('unique', function(db) {\n"
+            + "      var tx = db.transaction('people', 'readwrite');\n"
+            + "      tx.objectStore('people').put({ id: 4, name: 'c', tags: [], mail: '1@a' }).onerror = function() {\n"
+            + "        alert('error');\n"
+            + "      };\n"
+            + "      tx.onabort = function() {\n"
+            + "        alert('abort');\n"
+            + "        var store = db.transaction('people').objectStore('people');\n"
+            + "        store.count().onsuccess = function(e) {\n"
+            + "          alert(e.target.result);\n"
+            + "        };\n"
+            + "        store.index('byMail').get('1@a').onsuccess = function(e) {\n"
+            + "          alert(e.target.result.name);\n"
+            + "        };\n"
+            + "      };\n"
+            + "    });\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
+import com.gargoylesoftware.htmlunit.WebDriverTestCase;
+
+/**
+ * Tests for {@link IDBKeyRange}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class IDBKeyRangeTest extends WebDriverTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2 4 true false", "3 undefined false true", "exception", "exception"})
+    public void properties() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    var range = IDBKeyRange.bound(2, 4, true, false);\n"
+            + "    alert(range.lower + ' ' + range.upper + ' ' + range.lowerOpen + ' ' + range.upperOpen);\n"
+            + "    range = IDBKeyRange.lowerBound(3);\n"
+            + "    alert(range.lower + ' ' + range.upper + ' ' + range.lowerOpen + ' ' + range.upperOpen);\n"
+            + "    try {\n"
+            + "      IDBKeyRange.bound(4, 2);\n"
+            + "    } catch (e) { alert('exception'); }\n"
+            + "    try {\n"
+            + "      IDBKeyRange.bound(2, 2, false, true);\n"
+            + "    } catch (e) { alert('exception'); }\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"false true true", "true false", "false true"},
+            IE = "exception")
+    public void includes() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    try {\n"
+            + "      var range = IDBKeyRange.bound(2, 4, true, false);\n"
+            + "      alert(range.includes(2) + ' ' + range.includes(3) + ' ' + range.includes(4));\n"
+            + "      range = IDBKeyRange.upperBound('b', true);\n"
+            + "      alert(range.includes('a') + ' ' + range.includes('b'));\n"
+            + "      range = IDBKeyRange.only([1, 'a']);\n"
+            + "      alert(range.includes([1]) + ' ' + range.includes([1, 'a']));\n"
+            + "    } catch (e) { alert('exception'); }\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2,3,4", "3", "4,5", "5", "1", "3", "4,3,2", "4"})
+    public void boundsOfCursors() throws Exception {
+        final String html
+            = "<html><head><script>\n"
+            + "  function keys(store, range, direction) {\n"
+            + "    var result = [];\n"
+            + "    store.openCursor(range, direction).onsuccess = function(e) {\n"
+            + "      var cursor = e.target.result;\n"
+            + "      if (cursor) {\n"
+            + "        result.push(cursor.key);\n"
+            + "        cursor['continue']();\n"
+            + "      } else {\n"
+            + "        alert(result.join(','));\n"
+            + "      }\n"
+            + "    };\n"
+            + "  }\n"
+            + "  function test() {\n"
+            + "    var request = indexedDB.open('ranges', 1);\n"
+            + "    request.onupgradeneeded = function(e) {\n"
+            + "      var store = request.result.createObjectStore('numbers');\n"
+            + "      for (var i = 5; i > 0; i--) {\n"
+            + "        store.put('value' + i, i);\n"
+            + "      }\n"
+            + "    };\n"
+            + "    request.onsuccess = function(e) {\n"
+            + "      var store = request.result.transaction('numbers').objectStore('numbers');\n"
+            + "      keys(store, IDBKeyRange.bound(2, 4));\n"
+            + "      keys(store, IDBKeyRange.bound(2, 4, true, true));\n"
+            + "      keys(store, IDBKeyRange.lowerBound(4));\n"
+            + "      keys(store, IDBKeyRange.lowerBound(4, true));\n"
+            + "      keys(store, IDBKeyRange.upperBound(2, true));\n"
+            + "      keys(store, IDBKeyRange.only(3));\n"
+            + "      keys(store, IDBKeyRange.bound(2, 4), 'prev');\n"
+            + "      store.count(IDBKeyRange.bound(1, 5, false, true)).onsuccess = function(e) {\n"
+            + "        alert(e.target.result);\n"
+            + "      };\n"
+            + "    };\n"
+            + "  }\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        loadPageWithAlerts2(html);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.idb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MappedFileKeyValueStoreBackend}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class MappedFileKeyValueStoreBackendTest {
+
+    /** Provides a directory for the database files. */
+    @Rule
+    public final TemporaryFolder tmpFolder_ = new TemporaryFolder();
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void persistAndReopen() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final KeyValueStore store = backend.open("http://localhost:http", "db");
+            store.put(bytes(2), bytes(20));
+            store.put(bytes(1), bytes(10));
+            store.put(bytes(3), bytes(30));
+            store.put(bytes(1), bytes(11));
+            store.remove(bytes(3));
+            backend.open("http://localhost:http", "other").put(bytes(9), bytes(90));
+        }
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final KeyValueStore store = backend.open("http://localhost:http", "db");
+            assertArrayEquals(bytes(11), store.get(bytes(1)));
+            assertArrayEquals(bytes(20), store.get(bytes(2)));
+            assertNull(store.get(bytes(3)));
+            assertArrayEquals(bytes(2), store.higherEntry(bytes(1)).getKey());
+            assertNull(store.higherEntry(bytes(2)));
+            assertArrayEquals(bytes(90), backend.open("http://localhost:http", "other").get(bytes(9)));
+
+            backend.delete("http://localhost:http", "other");
+        }
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            assertNull(backend.open("http://localhost:http", "other").ceilingEntry(new byte[0]));
+            assertArrayEquals(bytes(11), backend.open("http://localhost:http", "db").get(bytes(1)));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void compaction() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        final byte[] value = new byte[1000];
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final KeyValueStore store = backend.open("origin", "db");
+            store.put(bytes(1), bytes(10));
+            for (int i = 0; i < 1000; i++) {
+                value[0] = (byte) i;
+                store.put(bytes(2), value.clone());
+            }
+        }
+
+        final File[] files = new File(dir, "origin").listFiles();
+        assertEquals(1, files.length);
+        // a new generation has been written and the old ones are gone
+        assertFalse(files[0].getName(), files[0].getName().endsWith(".0.idb"));
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final KeyValueStore store = backend.open("origin", "db");
+            assertArrayEquals(bytes(10), store.get(bytes(1)));
+            value[0] = (byte) 999;
+            assertArrayEquals(value, store.get(bytes(2)));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void databaseInUse() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            backend.open("origin", "db").put(bytes(1), bytes(10));
+
+            try (MappedFileKeyValueStoreBackend other = new MappedFileKeyValueStoreBackend(dir)) {
+                try {
+                    other.open("origin", "db");
+                    fail("IOException expected");
+                }
+                catch (final IOException e) {
+                    // expected
+                }
+                other.open("origin", "other").put(bytes(2), bytes(20));
+            }
+
+            backend.open("origin", "db").put(bytes(3), bytes(30));
+        }
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final KeyValueStore store = backend.open("origin", "db");
+            assertArrayEquals(bytes(10), store.get(bytes(1)));
+            assertArrayEquals(bytes(30), store.get(bytes(3)));
+            assertArrayEquals(bytes(20), backend.open("origin", "other").get(bytes(2)));
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void copyToMemory() throws Exception {
+        final File dir = tmpFolder_.newFolder();
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            backend.open("origin", "db").put(bytes(1), bytes(10));
+        }
+
+        try (MappedFileKeyValueStoreBackend backend = new MappedFileKeyValueStoreBackend(dir)) {
+            final InMemoryKeyValueStoreBackend copy = backend.copyToMemory();
+            final KeyValueStore store = copy.open("origin", "db");
+            assertArrayEquals(bytes(10), store.get(bytes(1)));
+
+            store.put(bytes(1), bytes(11));
+            assertArrayEquals(bytes(10), backend.open("origin", "db").get(bytes(1)));
+        }
+    }
+
+    private static byte[] bytes(final int value) {
+        return new byte[] {(byte) value};
+    }
+}
@@ -14,6 +14,8 @@
  */
 package com.gargoylesoftware.htmlunit.javascript.host.performance;
 
+import java.net.URL;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
@@ -22,6 +24,7 @@ import com.gargoylesoftware.htmlunit.BrowserRunner;
 import com.gargoylesoftware.htmlunit.BrowserRunner.Alerts;
 import com.gargoylesoftware.htmlunit.WebDriverTestCase;
 import com.gargoylesoftware.htmlunit.html.HtmlPageTest;
+import com.gargoylesoftware.htmlunit.util.MimeType;
 
 /**
  * Tests for {@link Performance}.
@@ -102,4 +105,77 @@ public class PerformanceTest extends WebDriverTestCase {
 
         loadPageWithAlerts2(html);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"1", "script", "true", "resource", "true", "true", "0"})
+    public void getEntriesByTypeResource() throws Exception {
+        final String html =
+                HtmlPageTest.STANDARDS_MODE_PREFIX_
+                + "<html>\n"
+                + "<head>\n"
+                + "<script src='script.js'></script>\n"
+                + "<script>\n"
+                + "  function test() {\n"
+                + "    var entries = performance.getEntriesByType('resource');\n"
+                + "    alert(entries.length);\n"
+                + "    var entry = entries[0];\n"
+                + "    alert(entry.initiatorType);\n"
+                + "    alert(entry.name == '" + URL_FIRST + "script.js');\n"
+                + "    alert(entry.entryType);\n"
+                + "    alert(entry.startTime >= 0);\n"
+                + "    alert(entry.responseEnd >= entry.startTime);\n"
+                + "    alert(performance.getEntriesByType('mark').length);\n"
+                + "  }\n"
+                + "</script>\n"
+                + "</head>\n"
+                + "<body onload='test()'></body>\n"
+                + "</html>";
+
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "script.js"), "var x = 1;",
+                MimeType.APPLICATION_JAVASCRIPT);
+        loadPageWithAlerts2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"1", "0", "1", "true"})
+    public void resourceTimingBuffer() throws Exception {
+        final String html =
+                HtmlPageTest.STANDARDS_MODE_PREFIX_
+                + "<html>\n"
+                + "<head>\n"
+                + "<script src='script.js'></script>\n"
+                + "<script>\n"
+                + "  function load(url) {\n"
+                + "    var xhr = new XMLHttpRequest();\n"
+                + "    xhr.open('GET', url, false);\n"
+                + "    xhr.send();\n"
+                + "  }\n"
+                + "  function test() {\n"
+                + "    alert(performance.getEntriesByType('resource').length);\n"
+                + "    performance.clearResourceTimings();\n"
+                + "    alert(performance.getEntriesByType('resource').length);\n"
+                + "    performance.setResourceTimingBufferSize(1);\n"
+                + "    load('data1.txt');\n"
+                + "    load('data2.txt');\n"
+                + "    var entries = performance.getEntriesByType('resource');\n"
+                + "    alert(entries.length);\n"
+                + "    alert(entries[0].name == '" + URL_FIRST + "data1.txt');\n"
+                + "  }\n"
+                + "</script>\n"
+                + "</head>\n"
+                + "<body onload='test()'></body>\n"
+                + "</html>";
+
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "script.js"), "var x = 1;",
+                MimeType.APPLICATION_JAVASCRIPT);
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "data1.txt"), "1", MimeType.TEXT_PLAIN);
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "data2.txt"), "2", MimeType.TEXT_PLAIN);
+        loadPageWithAlerts2(html);
+    }
 }
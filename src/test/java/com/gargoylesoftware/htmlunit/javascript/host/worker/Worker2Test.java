@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.host.worker;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.gargoylesoftware.htmlunit.BrowserRunner;
+import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
+import com.gargoylesoftware.htmlunit.WebClient;
+
+/**
+ * Unit tests for {@code Worker} running in parallel to the page.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+@RunWith(BrowserRunner.class)
+public class Worker2Test extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void postMessageToParallelWorker() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert('Received: ' + e.data);\n"
+            + "  };\n"
+            + "  myWorker.postMessage([5, 3]);\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  var workerResult = 'Result = ' + (e.data[0] * e.data[1]);\n"
+                + "  postMessage(workerResult);\n"
+                + "}\n";
+
+        assertEquals(new String[] {"Received: Result = 15"}, run(html, workerJs, 1));
+    }
+
+    /**
+     * The messages are cloned; changes done by the worker are not visible to the page.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void structuredClone() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var data = { name: 'page', list: [1, 2], date: new Date(0) };\n"
+            + "  data.self = data;\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data.name + ' ' + e.data.list + ' ' + (e.data.self === e.data)"
+                            + " + ' ' + e.data.date.getTime());\n"
+            + "    alert(data.name + ' ' + data.list);\n"
+            + "  };\n"
+            + "  myWorker.postMessage(data);\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  var d = e.data;\n"
+                + "  d.name = 'worker';\n"
+                + "  d.list.push(3);\n"
+                + "  postMessage(d);\n"
+                + "}\n";
+
+        assertEquals(new String[] {"worker 1,2,3 true 0", "page 1,2"}, run(html, workerJs, 2));
+    }
+
+    /**
+     * Holes are cloned as holes; sparse arrays are cloned without allocating their full length.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void structuredCloneSparseArrays() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var sparse = [];\n"
+            + "  sparse[1e9] = 1;\n"
+            + "  sparse.extra = 'x';\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "  myWorker.postMessage({ holes: [1, , 3], empty: new Array(3), sparse: sparse });\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  var d = e.data;\n"
+                + "  postMessage(d.holes.length + ' ' + (1 in d.holes) + ' ' + d.holes[2]);\n"
+                + "  postMessage(d.empty.length + ' ' + (0 in d.empty));\n"
+                + "  postMessage(d.sparse.length + ' ' + d.sparse[1e9] + ' ' + d.sparse.extra);\n"
+                + "}\n";
+
+        assertEquals(new String[] {"3 false 3", "3 false", "1000000001 1 x"}, run(html, workerJs, 3));
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void setTimeoutInParallelWorker() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var count = 0;\n"
+                + "var id = setInterval(function() {\n"
+                + "  count++;\n"
+                + "  if (count == 3) {\n"
+                + "    clearInterval(id);\n"
+                + "    postMessage('interval ' + count);\n"
+                + "  }\n"
+                + "}, 10);\n"
+                + "setTimeout(function(msg) { postMessage(msg); }, 1, 'timeout');\n";
+
+        assertEquals(new String[] {"timeout", "interval 3"}, run(html, workerJs, 2));
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void clearTimersInParallelWorker() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var count = 0;\n"
+                + "var id = setInterval(function() {\n"
+                + "  count++;\n"
+                + "  postMessage('interval ' + count);\n"
+                + "  if (count == 2) {\n"
+                + "    clearInterval(id);\n"
+                + "  }\n"
+                + "}, 10);\n"
+                + "var timeout = setTimeout(function() { postMessage('cleared timeout'); }, 20);\n"
+                + "clearTimeout(timeout);\n"
+                + "setTimeout(function() { postMessage('done ' + count); }, 200);\n";
+
+        assertEquals(new String[] {"interval 1", "interval 2", "done 2"}, run(html, workerJs, 3));
+    }
+
+    /**
+     * The events received by the worker belong to the worker.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void messageEventInParallelWorker() throws Exception {
+        final String html = "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "  myWorker.postMessage('hi');\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  postMessage(e.type + ' ' + e.data + ' ' + e.source);\n"
+                + "}\n";
+
+        assertEquals(new String[] {"message hi null"}, run(html, workerJs, 1));
+    }
+
+    private List<String> run(final String html, final String workerJs, final int expectedAlerts)
+            throws Exception {
+        final WebClient client = getWebClient();
+        client.getOptions().setWebWorkerThreads(2);
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "worker.js"), workerJs);
+
+        final List<String> collectedAlerts = Collections.synchronizedList(new ArrayList<String>());
+        loadPage(client, html, collectedAlerts);
+
+        // the workers are not counted as background javascript of the page
+        final long maxWait = System.currentTimeMillis() + DEFAULT_WAIT_TIME;
+        while (collectedAlerts.size() < expectedAlerts && System.currentTimeMillis() < maxWait) {
+            Thread.sleep(10);
+            client.waitForBackgroundJavaScript(10);
+        }
+        return collectedAlerts;
+    }
+}
@@ -190,6 +190,72 @@ public class XMLHttpRequest3Test extends WebServerTestCase {
         assertEquals(alerts, collectedAlerts);
     }
 
+    /**
+     * The response is loaded by the executor of the web client; the handlers have to be called
+     * from the event loop nevertheless.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void backgroundLoading() throws Exception {
+        final String content = "<html><head><script>\n"
+            + "function test() {\n"
+            + "  req = new XMLHttpRequest();\n"
+            + "  req.onreadystatechange = handler;\n"
+            + "  req.open('get', 'foo.xml', true);\n"
+            + "  req.send('');\n"
+            + "  alert('sent');\n"
+            + "}\n"
+            + "function handler() {\n"
+            + "  if (req.readyState == 4) {\n"
+            + "    alert('loaded: ' + req.responseText);\n"
+            + "  }\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        final WebClient client = getWebClient();
+        client.getOptions().setXhrBackgroundLoading(true);
+        final List<String> collectedAlerts = Collections.synchronizedList(new ArrayList<String>());
+        client.setAlertHandler(new CollectingAlertHandler(collectedAlerts));
+        final MockWebConnection conn = new MockWebConnection();
+        conn.setResponse(URL_FIRST, content);
+        conn.setResponse(new URL(URL_FIRST, "foo.xml"), "<foo/>", MimeType.TEXT_XML);
+        client.setWebConnection(conn);
+        client.getPage(URL_FIRST);
+
+        assertEquals(0, client.waitForBackgroundJavaScript(DEFAULT_WAIT_TIME));
+        assertEquals(new String[] {"sent", "loaded: <foo/>"}, collectedAlerts);
+    }
+
+    /**
+     * Tests background loading where the XHR request fails due to IOException (Connection refused).
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void backgroundLoadingWithNetworkConnectionFailure() throws Exception {
+        final String html = "<html><head><script>\n"
+            + "function test() {\n"
+            + "  req = new XMLHttpRequest();\n"
+            + "  req.onerror = function() { alert('" + MSG_PROCESSING_ERROR + "'); };\n"
+            + "  req.open('GET', '" + URL_SECOND + "', true);\n"
+            + "  req.send('');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'></body></html>";
+
+        final WebClient client = getWebClient();
+        client.getOptions().setXhrBackgroundLoading(true);
+        final List<String> collectedAlerts = Collections.synchronizedList(new ArrayList<String>());
+        client.setAlertHandler(new CollectingAlertHandler(collectedAlerts));
+        final MockWebConnection conn = new DisconnectedMockWebConnection();
+        conn.setResponse(URL_FIRST, html);
+        client.setWebConnection(conn);
+        client.getPage(URL_FIRST);
+
+        assertEquals(0, client.waitForBackgroundJavaScript(DEFAULT_WAIT_TIME));
+        assertEquals(new String[] {MSG_PROCESSING_ERROR}, collectedAlerts);
+    }
+
     /**
      * Tests that the different HTTP methods are supported.
      * @throws Exception if an error occurs
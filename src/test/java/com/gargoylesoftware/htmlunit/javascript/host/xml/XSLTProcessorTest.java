@@ -203,4 +203,62 @@ public class XSLTProcessorTest extends WebDriverTestCase {
             + "</body></html>";
         loadPageWithAlerts2(html);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts(DEFAULT = {"1", "2", "b", "2", "null", "x", "y", "null"},
+            IE = "exception")
+    public void reuseStylesheet() throws Exception {
+        final String html = "<html><head><script>\n"
+            + "  function test() {\n"
+            + "    try {\n"
+            + "      var parser = new DOMParser();\n"
+            + "      var xml = parser.parseFromString("
+            + "'<items><item>a</item><item>b</item></items>', 'text/xml');\n"
+            + "      var xsl = parser.parseFromString("
+            + "'<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">'\n"
+            + "        + '<xsl:template match=\"/\"><ul><xsl:for-each select=\"items/item\">'\n"
+            + "        + '<li><xsl:value-of select=\".\"/></li>'\n"
+            + "        + '</xsl:for-each></ul></xsl:template></xsl:stylesheet>', 'text/xml');\n"
+
+            + "      var attr = xsl.createAttribute('class');\n"
+            + "      attr.value = 'y';\n"
+
+            + "      var processor = new XSLTProcessor();\n"
+            + "      processor.importStylesheet(xsl);\n"
+            + "      var fragment = processor.transformToFragment(xml, document);\n"
+            + "      alert(fragment.childNodes.length);\n"
+            + "      alert(fragment.firstChild.childNodes.length);\n"
+            + "      alert(fragment.firstChild.lastChild.textContent);\n"
+
+            + "      var processor2 = new XSLTProcessor();\n"
+            + "      processor2.importStylesheet(xsl);\n"
+            + "      fragment = processor2.transformToFragment(xml, document);\n"
+            + "      alert(fragment.firstChild.childNodes.length);\n"
+            + "      alert(fragment.firstChild.firstChild.getAttribute('class'));\n"
+
+            + "      xsl.getElementsByTagName('li')[0].setAttribute('class', 'x');\n"
+            + "      processor.importStylesheet(xsl);\n"
+            + "      fragment = processor.transformToFragment(xml, document);\n"
+            + "      alert(fragment.firstChild.firstChild.getAttribute('class'));\n"
+
+            + "      var li = xsl.getElementsByTagName('li')[0];\n"
+            + "      li.setAttributeNode(attr);\n"
+            + "      processor.importStylesheet(xsl);\n"
+            + "      fragment = processor.transformToFragment(xml, document);\n"
+            + "      alert(fragment.firstChild.firstChild.getAttribute('class'));\n"
+
+            + "      li.removeAttributeNode(attr);\n"
+            + "      processor.importStylesheet(xsl);\n"
+            + "      fragment = processor.transformToFragment(xml, document);\n"
+            + "      alert(fragment.firstChild.firstChild.getAttribute('class'));\n"
+            + "    } catch (e) { alert('exception'); }\n"
+            + "  }\n"
+            + "</script></head><body onload='test()'>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts2(html);
+    }
 }
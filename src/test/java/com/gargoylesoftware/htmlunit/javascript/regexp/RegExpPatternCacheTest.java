@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2020 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gargoylesoftware.htmlunit.javascript.regexp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+
+/**
+ * Tests for {@link RegExpPatternCache}.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+public class RegExpPatternCacheTest {
+
+    /**
+     * Test hits and misses.
+     */
+    @Test
+    public void hitAndMiss() {
+        final RegExpPatternCache cache = new RegExpPatternCache(10, 1000);
+
+        final Pattern pattern = cache.getPattern("(a)(b)[^\\2c]", "i", BrowserVersion.CHROME);
+        assertEquals("(a)(b)[^c]", pattern.pattern());
+        assertEquals(Pattern.CASE_INSENSITIVE, pattern.flags());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertSame(pattern, cache.getPattern("(a)(b)[^\\2c]", "i", BrowserVersion.CHROME));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // flags and browser version are part of the key
+        assertNotSame(pattern, cache.getPattern("(a)(b)[^\\2c]", "m", BrowserVersion.CHROME));
+        assertNotSame(pattern, cache.getPattern("(a)(b)[^\\2c]", "i", BrowserVersion.FIREFOX));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.size());
+    }
+
+    /**
+     * Test the eviction of the least recently used entries if there are too many entries.
+     */
+    @Test
+    public void maxEntries() {
+        final RegExpPatternCache cache = new RegExpPatternCache(2, 1000);
+
+        final Pattern a = cache.getPattern("a", "", BrowserVersion.CHROME);
+        cache.getPattern("b", "", BrowserVersion.CHROME);
+        // use 'a' to make 'b' the eldest entry
+        cache.getPattern("a", "", BrowserVersion.CHROME);
+        cache.getPattern("c", "", BrowserVersion.CHROME);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.getPattern("a", "", BrowserVersion.CHROME));
+
+        final long misses = cache.getMissCount();
+        cache.getPattern("b", "", BrowserVersion.CHROME);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    /**
+     * Test the eviction if the cached expressions are too long.
+     */
+    @Test
+    public void maxWeight() {
+        final RegExpPatternCache cache = new RegExpPatternCache(100, 10);
+
+        cache.getPattern("abc", "", BrowserVersion.CHROME);
+        assertEquals(6, cache.getWeight());
+
+        cache.getPattern("def", "", BrowserVersion.CHROME);
+        assertEquals(1, cache.size());
+        assertEquals(6, cache.getWeight());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+}
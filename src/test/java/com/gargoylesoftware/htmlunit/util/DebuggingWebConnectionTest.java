@@ -17,10 +17,12 @@ package com.gargoylesoftware.htmlunit.util;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.FileUtils;
@@ -117,4 +119,33 @@ public class DebuggingWebConnectionTest extends SimpleWebTestCase {
             FileUtils.deleteDirectory(dwc.getReportFolder());
         }
     }
+
+    /**
+     * A subclass overriding getResponse() must not be bypassed by getResponseAsync().
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void getResponseAsyncUsesOverriddenGetResponse() throws Exception {
+        final MockWebConnection mockConnection = new MockWebConnection();
+        mockConnection.setDefaultResponse("hello");
+
+        final String dirName = "test-" + getClass().getSimpleName();
+        try (DebuggingWebConnection dwc = new DebuggingWebConnection(mockConnection, dirName) {
+            @Override
+            public WebResponse getResponse(final WebRequest request) throws IOException {
+                throw new IOException("intercepted");
+            }
+        }) {
+            try {
+                dwc.getResponseAsync(new WebRequest(URL_FIRST), Runnable::run).get();
+                fail("ExecutionException expected");
+            }
+            catch (final ExecutionException e) {
+                assertEquals("intercepted", e.getCause().getMessage());
+            }
+            finally {
+                FileUtils.deleteDirectory(dwc.getReportFolder());
+            }
+        }
+    }
 }
@@ -14,13 +14,21 @@
  */
 package com.gargoylesoftware.htmlunit.util;
 
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.http.HttpStatus;
 import org.junit.Test;
 
 import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.MockWebConnection;
 import com.gargoylesoftware.htmlunit.SimpleWebTestCase;
 import com.gargoylesoftware.htmlunit.WebConnection;
 import com.gargoylesoftware.htmlunit.WebRequest;
@@ -61,4 +69,41 @@ public class WebConnectionWrapperTest extends SimpleWebTestCase {
         }
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void wrapperAsync() throws Exception {
+        final MockWebConnection mockConnection = new MockWebConnection();
+        mockConnection.setResponse(URL_FIRST, "hello", MimeType.TEXT_PLAIN);
+        final WebRequest wrs = new WebRequest(URL_FIRST);
+        final Executor failingExecutor = command -> fail("executor must not be used");
+
+        // not overridden, the request is passed to the async connection
+        try (WebConnectionWrapper wrapper = new WebConnectionWrapper(mockConnection)) {
+            final WebResponse response = wrapper.getResponseAsync(wrs, failingExecutor).get();
+            assertEquals("hello", response.getContentAsString());
+        }
+
+        // overridden, the executor is used to call getResponse()
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (WebConnectionWrapper wrapper = new WebConnectionWrapper(mockConnection) {
+            @Override
+            public WebResponse getResponse(final WebRequest request) throws IOException {
+                throw new IOException("intercepted");
+            }
+        }) {
+            try {
+                wrapper.getResponseAsync(wrs, executor).get();
+                fail("ExecutionException expected");
+            }
+            catch (final ExecutionException e) {
+                assertEquals("intercepted", e.getCause().getMessage());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -18,7 +18,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.Servlet;
@@ -39,7 +42,10 @@ import com.gargoylesoftware.htmlunit.StringWebResponse;
 import com.gargoylesoftware.htmlunit.WebClient;
 import com.gargoylesoftware.htmlunit.WebServerTestCase;
 import com.gargoylesoftware.htmlunit.html.DomAttr;
+import com.gargoylesoftware.htmlunit.html.DomCDataSection;
+import com.gargoylesoftware.htmlunit.html.DomComment;
 import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomProcessingInstruction;
 import com.gargoylesoftware.htmlunit.html.DomText;
 import com.gargoylesoftware.htmlunit.util.MimeType;
 import com.gargoylesoftware.htmlunit.util.TextUtils;
@@ -396,4 +402,43 @@ public class XmlPageTest extends WebServerTestCase {
         asText(new String(ByteOrderMark.UTF_8.getBytes()) + "<msg>abc</msg>", "abc");
     }
 
+
+    /**
+     * Tests that comments, CDATA sections, processing instructions and namespace declarations
+     * survive the parsing.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void nodeTypes() throws Exception {
+        final String content
+            = "<?xml version=\"1.0\"?>\n"
+            + "<!-- head -->\n"
+            + "<root xmlns:x='urn:x' b='2' a='1'>"
+            + "<x:child><![CDATA[<data>]]></x:child>"
+            + "<?pi value?>"
+            + "</root>";
+
+        final XmlPage xmlPage = testDocument(content, MimeType.TEXT_XML);
+        assertEquals(" head ", ((DomComment) xmlPage.getFirstChild()).getData());
+
+        final DomElement root = xmlPage.getDocumentElement();
+        assertEquals("urn:x", root.getAttribute("xmlns:x"));
+        final List<String> attributeNames = new ArrayList<>(root.getAttributesMap().keySet());
+        if (getBrowserVersion().isIE()) {
+            assertEquals(Arrays.asList("a", "b", "xmlns:x"), attributeNames);
+        }
+        else {
+            assertEquals(Arrays.asList("xmlns:x", "b", "a"), attributeNames);
+        }
+
+        final DomElement child = (DomElement) root.getFirstChild();
+        assertEquals("x:child", child.getQualifiedName());
+        assertEquals("child", child.getLocalName());
+        assertEquals("urn:x", child.getNamespaceURI());
+        assertEquals("<data>", ((DomCDataSection) child.getFirstChild()).getData());
+
+        final DomProcessingInstruction pi = (DomProcessingInstruction) root.getLastChild();
+        assertEquals("pi", pi.getTarget());
+        assertEquals("value", pi.getData());
+    }
 }
@@ -0,0 +1,35 @@
+var Site = {
+  counts: {},
+
+  init: function(doc) {
+    var links = doc.querySelectorAll('.article a');
+    for (var i = 0; i < links.length; i++) {
+      links[i].addEventListener('click', Site.track);
+    }
+
+    Site.counts.mean = Site.mean(doc);
+
+    var items = doc.getElementsByClassName('nav-item');
+    for (var k = 0; k < items.length; k++) {
+      items[k].setAttribute('data-index', k);
+    }
+
+    if (doc.cookie.indexOf('consent=') < 0) {
+      doc.cookie = 'visited=' + new Date().getTime() + '; path=/';
+    }
+  },
+
+  mean: function(doc) {
+    var rows = doc.querySelectorAll('#results tbody tr');
+    var total = 0;
+    for (var j = 0; j < rows.length; j++) {
+      total += parseFloat(rows[j].cells[3].textContent);
+    }
+    return total / rows.length;
+  },
+
+  track: function(event) {
+    var href = event.target.getAttribute('href');
+    Site.counts[href] = (Site.counts[href] || 0) + 1;
+  }
+};